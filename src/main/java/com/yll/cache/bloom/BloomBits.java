@@ -0,0 +1,149 @@
+package com.yll.cache.bloom;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * @className: BloomBits
+ * @description: //布隆过滤器的位数组, 位的排列与 redis 位图相同(SETBIT/GETBIT 的 offset, 每个字节高位在前),
+ * 可以直接与 redis 中的字符串互相转换. key 的 UTF-8 字节取 64 位 FNV-1a 再混淆, 高低 32 位做双重哈希得到 hashes 个位置,
+ * 各实例算出的位置一致. 线程安全, 不加锁
+ * @author: agent
+ * @date: Created in 2026/10/18 9:30
+ * @modify by: agent
+ * @version: V1.0
+ */
+public class BloomBits {
+
+    private final long size;
+    private final int hashes;
+    private final AtomicLongArray words;
+
+    /**
+     * @param size   位数
+     * @param hashes 每个 key 的位置个数
+     */
+    public BloomBits(long size, int hashes) {
+        this.size = size;
+        this.hashes = hashes;
+        this.words = new AtomicLongArray((int) ((size + 63) >>> 6));
+    }
+
+    /**
+     * @param size   位数
+     * @param hashes 每个 key 的位置个数
+     * @param bytes  redis 位图, 长度不足的部分按 0 处理
+     * @title: fromBytes
+     * @description: //由 redis 位图创建
+     * @author: agent
+     * @date: Created in 2026/10/18 9:40
+     * @throws:
+     * @return: com.yll.cache.bloom.BloomBits
+     */
+    public static BloomBits fromBytes(long size, int hashes, byte[] bytes) {
+        BloomBits bits = new BloomBits(size, hashes);
+        for (int word = 0; word < bits.words.length(); word++) {
+            long value = 0;
+            for (int i = 0; i < 8; i++) {
+                int index = word * 8 + i;
+                value = (value << 8) | (index < bytes.length ? bytes[index] & 0xFF : 0);
+            }
+            bits.words.set(word, value);
+        }
+        return bits;
+    }
+
+    /**
+     * @title: toBytes
+     * @description: //转换为 redis 位图
+     * @author: agent
+     * @date: Created in 2026/10/18 9:45
+     * @throws:
+     * @return: byte[]
+     */
+    public byte[] toBytes() {
+        byte[] bytes = new byte[(int) ((size + 7) >>> 3)];
+        for (int index = 0; index < bytes.length; index++) {
+            bytes[index] = (byte) (words.get(index >>> 3) >>> (56 - ((index & 7) << 3)));
+        }
+        return bytes;
+    }
+
+    /**
+     * @param size   位数
+     * @param hashes 位置个数
+     * @param key    键
+     * @title: positions
+     * @description: //key 对应的位置
+     * @author: agent
+     * @date: Created in 2026/10/18 9:50
+     * @throws:
+     * @return: long[]
+     */
+    public static long[] positions(long size, int hashes, String key) {
+        return positions(size, hashes, key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 同 positions(long, int, String), key 为 UTF-8 字节, 重建时 SCAN 得到的 key 不需要再转换
+     */
+    public static long[] positions(long size, int hashes, byte[] key) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : key) {
+            hash ^= b & 0xFF;
+            hash *= 0x100000001b3L;
+        }
+        hash = mix(hash);
+        long h1 = hash & 0xFFFFFFFFL;
+        long h2 = (hash >>> 32) | 1;
+        long[] positions = new long[hashes];
+        for (int i = 0; i < hashes; i++) {
+            positions[i] = Math.floorMod(h1 + i * h2, size);
+        }
+        return positions;
+    }
+
+    public long[] positions(String key) {
+        return positions(size, hashes, key);
+    }
+
+    public void set(long[] positions) {
+        for (long position : positions) {
+            int word = (int) (position >>> 6);
+            long mask = 1L << (63 - (position & 63));
+            long current;
+            do {
+                current = words.get(word);
+            } while ((current & mask) == 0 && !words.compareAndSet(word, current, current | mask));
+        }
+    }
+
+    public boolean contains(long[] positions) {
+        for (long position : positions) {
+            if ((words.get((int) (position >>> 6)) & (1L << (63 - (position & 63)))) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 已置位的比例, 越接近 1 误判率越高
+     */
+    public double fillRatio() {
+        long count = 0;
+        for (int i = 0; i < words.length(); i++) {
+            count += Long.bitCount(words.get(i));
+        }
+        return (double) count / size;
+    }
+
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
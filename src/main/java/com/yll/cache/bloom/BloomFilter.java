@@ -0,0 +1,564 @@
+package com.yll.cache.bloom;
+
+import com.alibaba.fastjson.JSONArray;
+import com.alibaba.fastjson.JSONObject;
+import com.yll.cache.config.Y2lCacheProperties;
+import com.yll.cache.serializer.RawRedisSerializer;
+import com.yll.cache.sharding.ShardRouter;
+import com.yll.cache.utils.RedisScripts;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * @className: BloomFilter
+ * @description: //防缓存穿透的布隆过滤器: redis 默认节点上保存一份位图, 每个实例在本地保存一份副本.
+ * 读取前先查本地副本, 一定不存在的 key 直接返回, 不访问 redis. 写入之前本地置位, 并通过本地缓存的失效频道把新增的位
+ * 发给其它实例, 发送失败时写入不执行; 新增的位每隔 flush-interval 写入 redis, 每隔 sync-interval 拉取整个位图替换本地副本.
+ * 位不能删除, 删除和过期的 key 由定时重建清除: 重建在所有节点上 SCAN, 期间写入的位同时写入重建中的位图, 完成后原子替换.
+ * 实例确认订阅生效并经过两个 flush-interval 之后的同步才开始过滤, 保证订阅之前其它实例新增的位已经在位图中.
+ * 其它实例在写入返回之前已经收到新增的位, 只有订阅线程还没处理完消息的极短时间内, 并发的读仍可能把刚写入的 key 当作不存在
+ * @author: agent
+ * @date: Created in 2026/10/18 10:00
+ * @modify by: agent
+ * @version: V1.0
+ */
+@Component
+@Slf4j
+public class BloomFilter implements MessageListener {
+
+    /**
+     * 写不进 redis 时最多保留的待写入 key 个数, 超出后丢弃, 只影响其它实例, 由下次重建补上
+     */
+    private static final int MAXIMUM_PENDING = 100000;
+    /**
+     * 每次执行脚本最多带的位置个数
+     */
+    private static final int FLUSH_STEP = 5000;
+
+    private final Y2lCacheProperties.Bloom properties;
+    private final long size;
+    private final int hashes;
+    private final String liveKey;
+    private final String nextKey;
+    private final String scanKey;
+    private final String leaseKey;
+    private final String rebuiltKey;
+    private final String source = UUID.randomUUID().toString();
+    private final byte[] instanceId = source.getBytes(StandardCharsets.UTF_8);
+    private final byte[] channel;
+
+    private volatile BloomBits current;
+    /**
+     * redis 中有完整的位图且已同步到本地, 之前一律当作可能存在
+     */
+    private volatile boolean ready;
+    private volatile long lastSync;
+    private volatile long lastRebuild;
+    /**
+     * 收到本实例发出的订阅探测消息的时刻, 为 0 表示订阅尚未确认
+     */
+    private volatile long subscribedAt;
+
+    /**
+     * 本地已置位、尚未写入 redis 的位置
+     */
+    private final ConcurrentLinkedQueue<long[]> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingSize = new AtomicInteger();
+    private final ReentrantLock syncLock = new ReentrantLock();
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+
+    private final LongAdder checks = new LongAdder();
+    private final LongAdder negatives = new LongAdder();
+    private final LongAdder adds = new LongAdder();
+    private final LongAdder published = new LongAdder();
+    private final LongAdder received = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder syncs = new LongAdder();
+    private final LongAdder syncFailures = new LongAdder();
+    private final LongAdder rebuilds = new LongAdder();
+
+    private ScheduledExecutorService scheduler;
+    private ExecutorService rebuildExecutor;
+
+    @Autowired
+    RedisTemplate redisTemplate;
+    @Autowired
+    ShardRouter shardRouter;
+
+    public BloomFilter(Y2lCacheProperties properties) {
+        this.properties = properties.getBloom();
+        long n = Math.max(1, this.properties.getExpectedInsertions());
+        double p = this.properties.getFalsePositiveProbability();
+        // m = -n * ln(p) / (ln 2)^2, k = m / n * ln 2; redis 位图最多 2^32 位
+        this.size = Math.min(1L << 32, Math.max(64, (long) Math.ceil(-n * Math.log(p) / (Math.log(2) * Math.log(2)))));
+        this.hashes = Math.max(1, (int) Math.round((double) size / n * Math.log(2)));
+        this.liveKey = this.properties.getRedisKey();
+        this.nextKey = liveKey + ":next";
+        this.scanKey = liveKey + ":scan";
+        this.leaseKey = liveKey + ":rebuild";
+        this.rebuiltKey = liveKey + ":rebuilt";
+        this.current = new BloomBits(size, hashes);
+        this.channel = properties.getLocal().getInvalidationChannel().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @PostConstruct
+    public void init() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "y2lcache-bloom");
+            thread.setDaemon(true);
+            return thread;
+        });
+        rebuildExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "y2lcache-bloom-rebuild");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long flushInterval = properties.getFlushInterval().toMillis();
+        long syncInterval = properties.getSyncInterval().toMillis();
+        long rebuildInterval = properties.getRebuildInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(this::flush, flushInterval, flushInterval, TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(this::sync, 0, syncInterval, TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(() -> rebuild(false), rebuildInterval, rebuildInterval, TimeUnit.MILLISECONDS);
+        log.info("初始化 -> [{}] bits -> {} hashes -> {}", "BloomFilter", size, hashes);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (scheduler == null) {
+            return;
+        }
+        scheduler.shutdown();
+        rebuildExecutor.shutdownNow();
+        flush();
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * @param key 键
+     * @title: accepts
+     * @description: //key 是否使用过滤器
+     * @author: agent
+     * @date: Created in 2026/10/18 10:10
+     * @throws:
+     * @return: boolean
+     */
+    public boolean accepts(String key) {
+        if (!properties.isEnabled() || key == null) {
+            return false;
+        }
+        List<String> prefixes = properties.getKeyPrefixes();
+        if (prefixes == null || prefixes.isEmpty()) {
+            return true;
+        }
+        for (String prefix : prefixes) {
+            if (key.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param key 键
+     * @title: mightContain
+     * @description: //key 是否可能存在, 返回 false 时一定不存在, 调用方不必访问 redis.
+     * 未开启、不使用过滤器的 key 或位图尚未就绪时返回 true
+     * @author: agent
+     * @date: Created in 2026/10/18 10:15
+     * @throws:
+     * @return: boolean
+     */
+    public boolean mightContain(String key) {
+        if (!ready || !accepts(key)) {
+            return true;
+        }
+        checks.increment();
+        if (current.contains(current.positions(key))) {
+            return true;
+        }
+        negatives.increment();
+        return false;
+    }
+
+    /**
+     * @param key 键
+     * @title: add
+     * @description: //写入 key 之前调用, 本地立即生效并通知其它实例, 稍后写入 redis
+     * @author: agent
+     * @date: Created in 2026/10/18 10:20
+     * @throws: org.springframework.dao.DataAccessException 通知其它实例失败, 调用方不能继续写入
+     * @return: void
+     */
+    public void add(String key) {
+        if (accepts(key)) {
+            add(Collections.singletonList(key));
+        }
+    }
+
+    /**
+     * @param keys 键集合
+     * @title: add
+     * @description: //批量写入之前调用, 所有 key 新增的位在一条消息中通知其它实例
+     * @author: agent
+     * @date: Created in 2026/10/18 10:22
+     * @throws: org.springframework.dao.DataAccessException 通知其它实例失败, 调用方不能继续写入
+     * @return: void
+     */
+    public void add(Collection<String> keys) {
+        List<long[]> added = new ArrayList<>();
+        for (String key : keys) {
+            if (accepts(key)) {
+                added.add(BloomBits.positions(size, hashes, key));
+            }
+        }
+        if (added.isEmpty()) {
+            return;
+        }
+        adds.add(added.size());
+        added.forEach(this::apply);
+        publish(added);
+    }
+
+    /**
+     * 先入队再置位: 同步替换本地副本之后会把队列中的位置补到新副本上
+     */
+    private void apply(long[] positions) {
+        if (pendingSize.incrementAndGet() > MAXIMUM_PENDING) {
+            pendingSize.decrementAndGet();
+            dropped.increment();
+        } else {
+            pending.add(positions);
+        }
+        current.set(positions);
+    }
+
+    /**
+     * 新增的位发到失效频道; PUBLISH 返回时消息已经写给所有订阅的实例
+     */
+    private void publish(List<long[]> added) {
+        JSONArray positions = new JSONArray(added.size() * hashes);
+        added.forEach(item -> Arrays.stream(item).forEach(positions::add));
+        JSONObject message = new JSONObject();
+        message.put("source", source);
+        message.put("bits", size);
+        message.put("hashes", hashes);
+        message.put("bloom", positions);
+        byte[] body = message.toJSONString().getBytes(StandardCharsets.UTF_8);
+        redisTemplate.execute((RedisCallback<Long>) connection -> connection.publish(channel, body));
+        published.increment();
+    }
+
+    /**
+     * 收到其它实例新增的位: 置位并放进待写入队列, 同步替换本地副本时不会丢失, 重复写入 redis 没有影响.
+     * 收到本实例的消息说明订阅已经生效
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        JSONObject body = JSONObject.parseObject(new String(message.getBody(), StandardCharsets.UTF_8));
+        JSONArray positions = body.getJSONArray("bloom");
+        if (positions == null) {
+            // 本地缓存的失效消息
+            return;
+        }
+        if (source.equals(body.getString("source"))) {
+            if (subscribedAt == 0) {
+                subscribedAt = System.currentTimeMillis();
+            }
+            return;
+        }
+        if (body.getLongValue("bits") != size || body.getIntValue("hashes") != hashes) {
+            log.warn("布隆过滤器配置与其它实例不一致, 忽略其新增的位：source -> [{}]", body.getString("source"));
+            return;
+        }
+        received.increment();
+        for (int i = 0; i + hashes <= positions.size(); i += hashes) {
+            long[] item = new long[hashes];
+            for (int j = 0; j < hashes; j++) {
+                item[j] = positions.getLongValue(i + j);
+            }
+            apply(item);
+        }
+    }
+
+    /**
+     * 订阅确认之前其它实例发出的位可能没有收到, 等这些位写入 redis(两个 flush-interval)之后开始的同步才算就绪
+     */
+    private boolean subscribed(long syncStartedAt) {
+        if (subscribedAt == 0) {
+            try {
+                publish(Collections.emptyList());
+            } catch (RuntimeException e) {
+                log.error("Redis occur bloomProbeError：key -> [{}]", liveKey, e);
+            }
+            return false;
+        }
+        return syncStartedAt - subscribedAt >= 2 * properties.getFlushInterval().toMillis();
+    }
+
+    /**
+     * @title: flush
+     * @description: //把本地新增的位写入 redis
+     * @author: agent
+     * @date: Created in 2026/10/18 10:25
+     * @throws:
+     * @return: void
+     */
+    public void flush() {
+        syncLock.lock();
+        try {
+            flushLocked();
+        } catch (RuntimeException e) {
+            log.error("Redis occur bloomFlushError：key -> [{}]", liveKey, e);
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    private void flushLocked() {
+        List<long[]> batch = new ArrayList<>();
+        long[] positions;
+        while ((positions = pending.poll()) != null) {
+            pendingSize.decrementAndGet();
+            batch.add(positions);
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        Set<Long> distinct = new TreeSet<>();
+        batch.forEach(item -> Arrays.stream(item).forEach(distinct::add));
+        List<Object> args = new ArrayList<>(Math.min(distinct.size(), FLUSH_STEP));
+        Iterator<Long> iterator = distinct.iterator();
+        try {
+            while (iterator.hasNext()) {
+                args.add(String.valueOf(iterator.next()));
+                if (args.size() >= FLUSH_STEP || !iterator.hasNext()) {
+                    redisTemplate.execute(RedisScripts.BLOOM_ADD, RawRedisSerializer.INSTANCE, RawRedisSerializer.INSTANCE,
+                            Arrays.asList(liveKey, nextKey), args.toArray());
+                    args.clear();
+                }
+            }
+        } catch (RuntimeException e) {
+            // 放回队列下次再写, 重复置位没有影响
+            batch.forEach(item -> {
+                pendingSize.incrementAndGet();
+                pending.add(item);
+            });
+            throw e;
+        }
+    }
+
+    /**
+     * @title: sync
+     * @description: //写入本地新增的位后拉取整个位图替换本地副本; redis 中没有位图时触发重建, 重建完成前过滤器不生效
+     * @author: agent
+     * @date: Created in 2026/10/18 10:30
+     * @throws:
+     * @return: void
+     */
+    public void sync() {
+        syncLock.lock();
+        try {
+            long started = System.currentTimeMillis();
+            flushLocked();
+            byte[] key = liveKey.getBytes(StandardCharsets.UTF_8);
+            byte[] bytes = (byte[]) redisTemplate.execute((RedisCallback<byte[]>) connection -> connection.get(key));
+            if (bytes == null || bytes.length != (size + 7) >>> 3) {
+                // 第一次使用或位数配置改变
+                ready = false;
+                rebuild(true);
+                return;
+            }
+            BloomBits fresh = BloomBits.fromBytes(size, hashes, bytes);
+            current = fresh;
+            // 拉取期间本地新增、尚未写入 redis 的位
+            pending.forEach(fresh::set);
+            ready = ready || subscribed(started);
+            lastSync = System.currentTimeMillis();
+            syncs.increment();
+        } catch (RuntimeException e) {
+            // 保留原来的副本, 只是更旧一些
+            syncFailures.increment();
+            log.error("Redis occur bloomSyncError：key -> [{}]", liveKey, e);
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    /**
+     * @param force 为 false 时距上次重建(任意实例)不到 rebuild-interval 的一半则跳过
+     * @title: rebuild
+     * @description: //在后台重建位图, 多个实例同时调用时通过租约只有一个执行
+     * @author: agent
+     * @date: Created in 2026/10/18 10:40
+     * @throws:
+     * @return: boolean 未开启或本实例正在重建时返回 false
+     */
+    public boolean rebuild(boolean force) {
+        if (rebuildExecutor == null || !rebuilding.compareAndSet(false, true)) {
+            return false;
+        }
+        rebuildExecutor.execute(() -> {
+            try {
+                if (rebuildWithLease(force)) {
+                    sync();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                log.error("Redis occur bloomRebuildError：key -> [{}]", liveKey, e);
+            } finally {
+                rebuilding.set(false);
+            }
+        });
+        return true;
+    }
+
+    private boolean rebuildWithLease(boolean force) throws InterruptedException {
+        if (!force) {
+            byte[] rebuilt = (byte[]) redisTemplate.execute((RedisCallback<byte[]>) connection ->
+                    connection.get(rebuiltKey.getBytes(StandardCharsets.UTF_8)));
+            if (rebuilt != null && System.currentTimeMillis() - Long.parseLong(new String(rebuilt, StandardCharsets.UTF_8))
+                    < properties.getRebuildInterval().toMillis() / 2) {
+                return false;
+            }
+        }
+        long timeout = properties.getRebuildTimeout().toMillis();
+        Boolean acquired = (Boolean) redisTemplate.execute((RedisCallback<Boolean>) connection ->
+                connection.set(leaseKey.getBytes(StandardCharsets.UTF_8), instanceId, Expiration.milliseconds(timeout),
+                        RedisStringCommands.SetOption.ifAbsent()));
+        if (!Boolean.TRUE.equals(acquired)) {
+            // 其它实例正在重建
+            return false;
+        }
+        try {
+            return rebuildNow(timeout);
+        } finally {
+            redisTemplate.execute(RedisScripts.LEASE_RELEASE, RawRedisSerializer.INSTANCE, RawRedisSerializer.INSTANCE,
+                    Collections.singletonList(leaseKey), instanceId);
+        }
+    }
+
+    private boolean rebuildNow(long timeout) throws InterruptedException {
+        long start = System.currentTimeMillis();
+        byte[] next = nextKey.getBytes(StandardCharsets.UTF_8);
+        // 之后写入的位同时进入重建中的位图, 扫描开始前已存在的 key 由 SCAN 保证遍历到
+        redisTemplate.execute((RedisCallback<Object>) connection -> {
+            connection.del(next);
+            connection.setBit(next, size - 1, false);
+            connection.pExpire(next, timeout);
+            return null;
+        });
+        BloomBits fresh = new BloomBits(size, hashes);
+        long keys = 0;
+        for (RedisTemplate<String, Object> template : shardRouter.templates().values()) {
+            keys += scan(template, fresh);
+        }
+        byte[] bytes = fresh.toBytes();
+        redisTemplate.execute((RedisCallback<Object>) connection ->
+                connection.set(scanKey.getBytes(StandardCharsets.UTF_8), bytes, Expiration.milliseconds(timeout),
+                        RedisStringCommands.SetOption.upsert()));
+        Long swapped = (Long) redisTemplate.execute(RedisScripts.BLOOM_SWAP, RawRedisSerializer.INSTANCE,
+                RawRedisSerializer.INSTANCE, Arrays.asList(liveKey, nextKey, scanKey));
+        if (swapped == null || swapped != 1) {
+            log.warn("布隆过滤器重建结果已过期：key -> [{}]", liveKey);
+            return false;
+        }
+        long now = System.currentTimeMillis();
+        redisTemplate.execute((RedisCallback<Object>) connection ->
+                connection.set(rebuiltKey.getBytes(StandardCharsets.UTF_8), String.valueOf(now).getBytes(StandardCharsets.UTF_8)));
+        lastRebuild = now;
+        rebuilds.increment();
+        log.info("布隆过滤器重建完成：keys -> {} cost -> {}ms fill -> {}", keys, now - start, fresh.fillRatio());
+        return true;
+    }
+
+    private long scan(RedisTemplate<String, Object> template, BloomBits fresh) throws InterruptedException {
+        List<String> prefixes = properties.getKeyPrefixes();
+        List<String> patterns = new ArrayList<>();
+        if (prefixes == null || prefixes.isEmpty()) {
+            patterns.add("*");
+        } else {
+            prefixes.forEach(prefix -> patterns.add(prefix.replaceAll("([*?\\[\\]\\\\])", "\\\\$1") + "*"));
+        }
+        long keys = 0;
+        for (String pattern : patterns) {
+            ScanOptions options = ScanOptions.scanOptions().match(pattern).count(properties.getScanBatchSize()).build();
+            try (Cursor<byte[]> cursor = template.executeWithStickyConnection(
+                    (RedisCallback<Cursor<byte[]>>) connection -> connection.scan(options))) {
+                while (cursor.hasNext()) {
+                    fresh.set(BloomBits.positions(size, hashes, cursor.next()));
+                    if (++keys % properties.getScanBatchSize() == 0) {
+                        pause();
+                    }
+                }
+            } catch (IOException e) {
+                log.warn("关闭 SCAN 游标失败：pattern -> [{}]", pattern, e);
+            }
+        }
+        return keys;
+    }
+
+    private void pause() throws InterruptedException {
+        long millis = properties.getScanPause().toMillis();
+        if (millis > 0) {
+            Thread.sleep(millis);
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("enabled", isEnabled());
+        map.put("ready", ready);
+        map.put("bits", size);
+        map.put("hashes", hashes);
+        double fill = current.fillRatio();
+        map.put("fillRatio", fill);
+        // 当前填充率下不存在的 key 被误判为可能存在的概率
+        map.put("falsePositiveProbability", Math.pow(fill, hashes));
+        map.put("checks", checks.sum());
+        map.put("negatives", negatives.sum());
+        map.put("adds", adds.sum());
+        map.put("published", published.sum());
+        map.put("received", received.sum());
+        map.put("subscribedAt", subscribedAt);
+        map.put("pending", pendingSize.get());
+        map.put("dropped", dropped.sum());
+        map.put("syncs", syncs.sum());
+        map.put("syncFailures", syncFailures.sum());
+        map.put("lastSync", lastSync);
+        map.put("rebuilds", rebuilds.sum());
+        map.put("rebuilding", rebuilding.get());
+        map.put("lastRebuild", lastRebuild);
+        return map;
+    }
+}
@@ -0,0 +1,246 @@
+package com.yll.cache.breaker;
+
+import com.yll.cache.config.Y2lCacheProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @className: CircuitBreaker
+ * @description: //redis 熔断器: 统计最近一个窗口内的失败率(连接失败、超时, 以及超过耗时预算的慢调用),
+ * 超过阈值后打开, 打开期间取连接时直接抛出 {@link RedisCircuitOpenException}; 经过 open-duration 后半开,
+ * 放行 half-open-calls 个试探调用, 全部成功则关闭, 有一个失败则重新打开
+ * @author: agent
+ * @date: Created in 2026/10/18 9:40
+ * @modify by: agent
+ * @version: V1.0
+ */
+@Component
+@Slf4j
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private static final int BUCKETS = 10;
+
+    private final Y2lCacheProperties.Breaker properties;
+    private final long bucketMillis;
+    private final Bucket[] buckets = new Bucket[BUCKETS];
+
+    private final AtomicReference<State> state = new AtomicReference<>(State.CLOSED);
+    private volatile long openedAt;
+    private final AtomicInteger halfOpenPermits = new AtomicInteger();
+    private final AtomicInteger halfOpenSuccesses = new AtomicInteger();
+
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder slowCalls = new LongAdder();
+    private final LongAdder failedCalls = new LongAdder();
+    private final LongAdder opened = new LongAdder();
+
+    public CircuitBreaker(Y2lCacheProperties properties) {
+        this.properties = properties.getBreaker();
+        this.bucketMillis = Math.max(1, this.properties.getWindow().toMillis() / BUCKETS);
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = new Bucket();
+        }
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    public State getState() {
+        return state.get();
+    }
+
+    /**
+     * @title: acquire
+     * @description: //访问 redis 之前调用, 熔断打开时抛出异常
+     * @author: agent
+     * @date: Created in 2026/10/18 9:50
+     * @throws: RedisCircuitOpenException 熔断打开或半开时试探名额已用完
+     * @return: void
+     */
+    public void acquire() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        State current = state.get();
+        if (current == State.CLOSED) {
+            return;
+        }
+        if (current == State.OPEN) {
+            if (System.currentTimeMillis() - openedAt < properties.getOpenDuration().toMillis()) {
+                reject();
+            }
+            if (state.compareAndSet(State.OPEN, State.HALF_OPEN)) {
+                halfOpenSuccesses.set(0);
+                halfOpenPermits.set(properties.getHalfOpenCalls());
+                log.info("Redis 熔断半开, 放行 {} 个试探调用", properties.getHalfOpenCalls());
+            }
+        }
+        if (halfOpenPermits.getAndDecrement() <= 0) {
+            reject();
+        }
+    }
+
+    private void reject() {
+        rejected.increment();
+        throw new RedisCircuitOpenException();
+    }
+
+    /**
+     * @param command 命令(RedisConnection 方法名)
+     * @param nanos   耗时
+     * @title: onSuccess
+     * @description: //调用成功, 超过该命令耗时预算时按慢调用计为失败
+     * @author: agent
+     * @date: Created in 2026/10/18 10:00
+     * @throws:
+     * @return: void
+     */
+    public void onSuccess(String command, long nanos) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        boolean slow = nanos > budget(command).toNanos();
+        if (slow) {
+            slowCalls.increment();
+        }
+        record(slow);
+    }
+
+    /**
+     * @param command 命令
+     * @param e       异常
+     * @title: onError
+     * @description: //调用失败, 只有连接失败和超时计入失败率, 命令本身的错误(如 WRONGTYPE、NOSCRIPT)不计
+     * @author: agent
+     * @date: Created in 2026/10/18 10:05
+     * @throws:
+     * @return: void
+     */
+    public void onError(String command, Throwable e) {
+        if (!properties.isEnabled() || e instanceof RedisCircuitOpenException) {
+            return;
+        }
+        boolean failure = e instanceof DataAccessResourceFailureException || e instanceof TransientDataAccessException;
+        if (failure) {
+            failedCalls.increment();
+        }
+        record(failure);
+    }
+
+    private Duration budget(String command) {
+        Duration budget = properties.getBudgets().get(command);
+        return budget == null ? properties.getDefaultBudget() : budget;
+    }
+
+    private void record(boolean failed) {
+        State current = state.get();
+        if (current == State.HALF_OPEN) {
+            if (failed) {
+                open();
+            } else if (halfOpenSuccesses.incrementAndGet() >= properties.getHalfOpenCalls()
+                    && state.compareAndSet(State.HALF_OPEN, State.CLOSED)) {
+                reset();
+                log.info("Redis 熔断关闭");
+            }
+            return;
+        }
+        if (current != State.CLOSED) {
+            return;
+        }
+        Bucket bucket = bucket(System.currentTimeMillis());
+        bucket.calls.increment();
+        if (!failed) {
+            return;
+        }
+        bucket.failures.increment();
+        // 失败率只会在失败时升高, 只在这里检查
+        long calls = 0;
+        long failures = 0;
+        long oldest = System.currentTimeMillis() / bucketMillis - BUCKETS;
+        for (Bucket b : buckets) {
+            if (b.epoch > oldest) {
+                calls += b.calls.sum();
+                failures += b.failures.sum();
+            }
+        }
+        if (calls >= properties.getMinimumCalls() && failures >= calls * properties.getFailureRateThreshold()) {
+            open();
+        }
+    }
+
+    private void open() {
+        openedAt = System.currentTimeMillis();
+        State previous = state.getAndSet(State.OPEN);
+        if (previous != State.OPEN) {
+            opened.increment();
+            log.warn("Redis 熔断打开, {} 后半开", properties.getOpenDuration());
+        }
+    }
+
+    private void reset() {
+        for (Bucket bucket : buckets) {
+            bucket.reset(0);
+        }
+    }
+
+    private Bucket bucket(long now) {
+        long epoch = now / bucketMillis;
+        Bucket bucket = buckets[(int) (epoch % BUCKETS)];
+        if (bucket.epoch != epoch) {
+            synchronized (bucket) {
+                if (bucket.epoch != epoch) {
+                    bucket.reset(epoch);
+                }
+            }
+        }
+        return bucket;
+    }
+
+    /**
+     * @title: stats
+     * @description: //熔断统计
+     * @author: agent
+     * @date: Created in 2026/10/18 10:20
+     * @throws:
+     * @return: java.util.Map<java.lang.String,java.lang.Object>
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("enabled", properties.isEnabled());
+        map.put("state", state.get().name());
+        map.put("open", state.get() == State.CLOSED ? 0 : 1);
+        map.put("opened", opened.sum());
+        map.put("rejected", rejected.sum());
+        map.put("failedCalls", failedCalls.sum());
+        map.put("slowCalls", slowCalls.sum());
+        map.put("openedAt", openedAt == 0 ? 0 : TimeUnit.MILLISECONDS.toSeconds(openedAt));
+        return map;
+    }
+
+    private static class Bucket {
+        volatile long epoch;
+        final LongAdder calls = new LongAdder();
+        final LongAdder failures = new LongAdder();
+
+        void reset(long epoch) {
+            calls.reset();
+            failures.reset();
+            this.epoch = epoch;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.yll.cache.breaker;
+
+import org.springframework.dao.DataAccessResourceFailureException;
+
+/**
+ * @className: RedisCircuitOpenException
+ * @description: //熔断打开时直接抛出, 不再访问 redis
+ * @author: agent
+ * @date: Created in 2026/10/18 9:30
+ * @modify by: agent
+ * @version: V1.0
+ */
+public class RedisCircuitOpenException extends DataAccessResourceFailureException {
+
+    public RedisCircuitOpenException() {
+        super("Redis 熔断已打开, 暂停访问");
+    }
+}
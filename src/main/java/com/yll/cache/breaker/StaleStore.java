@@ -0,0 +1,102 @@
+package com.yll.cache.breaker;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.yll.cache.config.Y2lCacheProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @className: StaleStore
+ * @description: //每次从 redis 读到的值在本地保留一份, redis 不可用(熔断打开、超时、连接失败)时返回最后一次读到的值.
+ * 返回的可能是旧数据, 只用于宁可旧也不要失败的读取
+ * @author: agent
+ * @date: Created in 2026/10/18 10:40
+ * @modify by: agent
+ * @version: V1.0
+ */
+@Component
+public class StaleStore {
+
+    private final Y2lCacheProperties.Stale properties;
+    private final Cache<String, Map<String, Object>> cache;
+    private final LongAdder served = new LongAdder();
+    private final LongAdder missed = new LongAdder();
+
+    public StaleStore(Y2lCacheProperties properties) {
+        this.properties = properties.getBreaker().getStale();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(this.properties.getMaximumSize())
+                .expireAfterWrite(this.properties.getTtl().toMillis(), TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * @param key   键
+     * @param view  视图, 同 LocalCache
+     * @param value 从 redis 读到的值, null 不保存
+     * @title: put
+     * @description: //保存最后一次读到的值
+     * @author: agent
+     * @date: Created in 2026/10/18 10:50
+     * @throws:
+     * @return: void
+     */
+    public void put(String key, String view, Object value) {
+        if (!properties.isEnabled() || value == null) {
+            return;
+        }
+        cache.asMap().compute(key, (k, old) -> {
+            Map<String, Object> views = old == null ? new HashMap<>(4) : new HashMap<>(old);
+            views.put(view, value);
+            return views;
+        });
+    }
+
+    /**
+     * @param key  键
+     * @param view 视图
+     * @title: get
+     * @description: //取最后一次读到的值, 不存在返回 null
+     * @author: agent
+     * @date: Created in 2026/10/18 10:55
+     * @throws:
+     * @return: java.lang.Object
+     */
+    public Object get(String key, String view) {
+        Map<String, Object> views = cache.getIfPresent(key);
+        Object value = views == null ? null : views.get(view);
+        if (value == null) {
+            missed.increment();
+        } else {
+            served.increment();
+        }
+        return value;
+    }
+
+    /**
+     * @title: stats
+     * @description: //旧值返回统计
+     * @author: agent
+     * @date: Created in 2026/10/18 11:00
+     * @throws:
+     * @return: java.util.Map<java.lang.String,java.lang.Object>
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("enabled", properties.isEnabled());
+        map.put("size", cache.estimatedSize());
+        map.put("served", served.sum());
+        map.put("missed", missed.sum());
+        return map;
+    }
+}
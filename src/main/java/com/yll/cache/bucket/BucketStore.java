@@ -0,0 +1,476 @@
+package com.yll.cache.bucket;
+
+import com.yll.cache.config.Y2lCacheProperties;
+import com.yll.cache.serializer.RawRedisSerializer;
+import com.yll.cache.sharding.ShardRouter;
+import com.yll.cache.utils.RedisScripts;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.zip.CRC32;
+
+/**
+ * @className: BucketStore
+ * @description: //小 value 分桶存储: 前缀匹配的 key 不再是独立的 redis key, 而是桶 bucket-prefix + crc32(key) % buckets 这个 hash
+ * 里的一个字段, 省掉每个 key 的字典项、过期表项和对象头. 每个桶的字段数和值的长度保持在 hash-max-ziplist-entries/value
+ * (redis 7 为 listpack) 以内时桶使用紧凑编码, 内存最省. hash 的字段不能单独过期, 过期时间写在值的头部, 读到过期的值按不存在处理
+ * 并删除; 桶本身的过期时间取所有字段中最晚的, 有永久字段时不过期.
+ * 写入后不再读取的过期字段由后台按 sweep-interval 逐个 HSCAN 桶清理, 删除前比较值, 不会误删刚写入的新值;
+ * 多个实例同时清理只是重复扫描, 结果不变
+ * @author: agent
+ * @date: Created in 2026/10/18 9:30
+ * @modify by: agent
+ * @version: V1.0
+ */
+@Component
+@Slf4j
+public class BucketStore {
+
+    /**
+     * 带过期时间的值: [MARKER][过期时刻(秒, 4 字节)][序列化后的值]; 不带过期时间的值直接是序列化后的值
+     */
+    public static final byte MARKER = (byte) 0xB3;
+    private static final int HEADER_LENGTH = 5;
+    private static final String REPORT_PREFIX = "y2lcache:bucket-report:";
+    private static final int REPORT_STEP = 1000;
+
+    private final Y2lCacheProperties.Bucket properties;
+    private final LongAdder evicted = new LongAdder();
+    private final LongAdder sweeps = new LongAdder();
+    private final LongAdder sweptBuckets = new LongAdder();
+    private final LongAdder swept = new LongAdder();
+    private final LongAdder sweepFailures = new LongAdder();
+    private volatile long lastSweepAt;
+    private volatile long lastSweepMillis;
+    /**
+     * 上一轮扫到的过期字段数, 持续较大说明写入后不再读取的 key 很多, 应缩短清理间隔
+     */
+    private volatile long lastSweepExpired;
+
+    private ScheduledExecutorService scheduler;
+
+    @Autowired
+    ShardRouter shardRouter;
+
+    public BucketStore(Y2lCacheProperties properties) {
+        this.properties = properties.getBucket();
+    }
+
+    @PostConstruct
+    public void init() {
+        long interval = properties.getSweepInterval().toMillis();
+        if (!properties.isEnabled() || interval <= 0) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "y2lcache-bucket-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::sweep, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * @param key 键
+     * @title: accepts
+     * @description: //key 是否分桶存储
+     * @author: agent
+     * @date: Created in 2026/10/18 9:40
+     * @throws:
+     * @return: boolean
+     */
+    public boolean accepts(String key) {
+        if (!properties.isEnabled() || key == null) {
+            return false;
+        }
+        for (String prefix : properties.getKeyPrefixes()) {
+            if (key.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param key 键
+     * @title: bucket
+     * @description: //key 所在的桶, 桶数修改后所有 key 换桶, 相当于整体失效一次
+     * @author: agent
+     * @date: Created in 2026/10/18 9:45
+     * @throws:
+     * @return: java.lang.String
+     */
+    public String bucket(String key) {
+        return properties.getBucketPrefix() + bucketIndex(key, properties.getBuckets());
+    }
+
+    /**
+     * @title: buckets
+     * @description: //全部桶的名称
+     * @author: agent
+     * @date: Created in 2026/10/18 17:20
+     * @throws:
+     * @return: java.util.List<java.lang.String>
+     */
+    public List<String> buckets() {
+        List<String> buckets = new ArrayList<>(properties.getBuckets());
+        for (int i = 0; i < properties.getBuckets(); i++) {
+            buckets.add(properties.getBucketPrefix() + i);
+        }
+        return buckets;
+    }
+
+    /**
+     * @param pattern SCAN MATCH 模式
+     * @title: overlaps
+     * @description: //模式能否匹配到分桶存储的 key. 这些 key 是桶里的字段, SCAN 遍历不到; 只比较模式中第一个通配符之前的部分,
+     * 可能把实际匹配不到的模式也算作重叠
+     * @author: agent
+     * @date: Created in 2026/10/18 17:20
+     * @throws:
+     * @return: boolean
+     */
+    public boolean overlaps(String pattern) {
+        if (!properties.isEnabled() || pattern == null) {
+            return false;
+        }
+        StringBuilder literal = new StringBuilder();
+        for (int i = 0; i < pattern.length(); i++) {
+            char c = pattern.charAt(i);
+            if (c == '*' || c == '?' || c == '[') {
+                for (String prefix : properties.getKeyPrefixes()) {
+                    if (literal.toString().startsWith(prefix) || prefix.startsWith(literal.toString())) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+            if (c == '\\' && i + 1 < pattern.length()) {
+                c = pattern.charAt(++i);
+            }
+            literal.append(c);
+        }
+        // 没有通配符时模式就是一个 key
+        return accepts(literal.toString());
+    }
+
+    private static long bucketIndex(String key, int buckets) {
+        CRC32 crc32 = new CRC32();
+        crc32.update(key.getBytes(StandardCharsets.UTF_8));
+        return crc32.getValue() % buckets;
+    }
+
+    /**
+     * @param value 序列化后的值
+     * @param time  时间(秒) 小于等于0 表示永久
+     * @title: encode
+     * @description: //生成写入桶的字段值
+     * @author: agent
+     * @date: Created in 2026/10/18 9:50
+     * @throws:
+     * @return: byte[]
+     */
+    public static byte[] encode(byte[] value, long time) {
+        if (time <= 0) {
+            return value;
+        }
+        long expireAt = System.currentTimeMillis() / 1000 + time;
+        byte[] bytes = new byte[HEADER_LENGTH + value.length];
+        bytes[0] = MARKER;
+        bytes[1] = (byte) (expireAt >>> 24);
+        bytes[2] = (byte) (expireAt >>> 16);
+        bytes[3] = (byte) (expireAt >>> 8);
+        bytes[4] = (byte) expireAt;
+        System.arraycopy(value, 0, bytes, HEADER_LENGTH, value.length);
+        return bytes;
+    }
+
+    /**
+     * @param bytes 桶中的字段值
+     * @title: expireAt
+     * @description: //值的过期时刻(秒), 永久为 0
+     * @author: agent
+     * @date: Created in 2026/10/18 9:55
+     * @throws:
+     * @return: long
+     */
+    public static long expireAt(byte[] bytes) {
+        if (bytes.length < HEADER_LENGTH || bytes[0] != MARKER) {
+            return 0;
+        }
+        return ((bytes[1] & 0xFFL) << 24) | ((bytes[2] & 0xFFL) << 16) | ((bytes[3] & 0xFFL) << 8) | (bytes[4] & 0xFFL);
+    }
+
+    public static boolean isExpired(byte[] bytes) {
+        long expireAt = expireAt(bytes);
+        return expireAt > 0 && expireAt <= System.currentTimeMillis() / 1000;
+    }
+
+    /**
+     * 去掉过期时间头部, 得到序列化后的值
+     */
+    public static byte[] value(byte[] bytes) {
+        return expireAt(bytes) == 0 ? bytes : Arrays.copyOfRange(bytes, HEADER_LENGTH, bytes.length);
+    }
+
+    /**
+     * @param samples          样本 key 个数
+     * @param value            样本值
+     * @param entriesPerBucket 每个桶的平均字段数, 应小于 redis 的 hash-max-ziplist-entries
+     * @param time             时间(秒) 小于等于0 表示永久
+     * @title: report
+     * @description: //实测内存: 在 key 所在节点上先按独立 key 写入 samples 个样本, 再按分桶写入同样的样本,
+     * 分别统计 INFO used_memory 的增量和 MEMORY USAGE, 样本用完即删. used_memory 会受同一节点上其它写入的影响, 样本越多越准
+     * @author: agent
+     * @date: Created in 2026/10/18 10:10
+     * @throws: IllegalArgumentException 参数超出范围
+     * @return: java.util.Map<java.lang.String,java.lang.Object>
+     */
+    public synchronized Map<String, Object> report(int samples, Object value, int entriesPerBucket, long time) {
+        if (samples <= 0 || samples > 1000000 || entriesPerBucket <= 0) {
+            throw new IllegalArgumentException("samples 需要在 1 到 1000000 之间, entriesPerBucket 需要大于 0");
+        }
+        RedisTemplate<String, Object> template = shardRouter.template(REPORT_PREFIX);
+        byte[] rawValue = serialize(template, value);
+        List<byte[]> keys = new ArrayList<>(samples);
+        for (int i = 0; i < samples; i++) {
+            keys.add((REPORT_PREFIX + "key:" + i).getBytes(StandardCharsets.UTF_8));
+        }
+        int buckets = (samples + entriesPerBucket - 1) / entriesPerBucket;
+        Map<byte[], List<byte[]>> bucketKeys = new LinkedHashMap<>();
+        Map<Long, byte[]> bucketNames = new HashMap<>();
+        for (byte[] key : keys) {
+            long index = bucketIndex(new String(key, StandardCharsets.UTF_8), buckets);
+            byte[] bucket = bucketNames.computeIfAbsent(index,
+                    i -> (REPORT_PREFIX + "bucket:" + i).getBytes(StandardCharsets.UTF_8));
+            bucketKeys.computeIfAbsent(bucket, b -> new ArrayList<>()).add(key);
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("samples", samples);
+        report.put("valueBytes", rawValue.length);
+        report.put("time", time);
+
+        Map<String, Object> plain = new LinkedHashMap<>();
+        try {
+            long before = usedMemory(template);
+            pipeline(template, keys, (connection, key) -> {
+                if (time > 0) {
+                    connection.setEx(key, time, rawValue);
+                } else {
+                    connection.set(key, rawValue);
+                }
+            });
+            plain.put("usedMemoryPerKey", (double) (usedMemory(template) - before) / samples);
+            List<byte[]> sampled = keys.subList(0, Math.min(keys.size(), REPORT_STEP));
+            plain.put("memoryUsagePerKey", (double) memoryUsage(template, sampled) / sampled.size());
+        } finally {
+            pipeline(template, keys, RedisConnection::del);
+        }
+        report.put("plain", plain);
+
+        Map<String, Object> bucketed = new LinkedHashMap<>();
+        List<byte[]> bucketList = new ArrayList<>(bucketKeys.keySet());
+        try {
+            long before = usedMemory(template);
+            byte[] encoded = encode(rawValue, time);
+            pipeline(template, bucketList, (connection, bucket) -> {
+                for (byte[] key : bucketKeys.get(bucket)) {
+                    connection.hSet(bucket, key, encoded);
+                }
+                if (time > 0) {
+                    connection.expire(bucket, time);
+                }
+            });
+            bucketed.put("buckets", bucketList.size());
+            bucketed.put("usedMemoryPerKey", (double) (usedMemory(template) - before) / samples);
+            bucketed.put("memoryUsagePerKey", (double) memoryUsage(template, bucketList) / samples);
+            bucketed.put("encodings", encodings(template, bucketList));
+        } finally {
+            pipeline(template, bucketList, RedisConnection::del);
+        }
+        report.put("bucket", bucketed);
+        double plainUsage = (double) plain.get("memoryUsagePerKey");
+        double bucketUsage = (double) bucketed.get("memoryUsagePerKey");
+        report.put("saving", plainUsage <= 0 ? 0 : 1 - bucketUsage / plainUsage);
+        log.info("分桶内存报告：{}", report);
+        return report;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static byte[] serialize(RedisTemplate<String, Object> template, Object value) {
+        return ((RedisSerializer<Object>) template.getValueSerializer()).serialize(value);
+    }
+
+    private static long usedMemory(RedisTemplate<String, Object> template) {
+        Properties info = template.execute((RedisCallback<Properties>) connection -> connection.info("memory"));
+        return info == null ? 0 : Long.parseLong(info.getProperty("used_memory", "0"));
+    }
+
+    /**
+     * MEMORY USAGE 的总和, SAMPLES 0 表示统计 hash 的全部字段
+     */
+    private static long memoryUsage(RedisTemplate<String, Object> template, List<byte[]> keys) {
+        byte[] usage = "USAGE".getBytes(StandardCharsets.UTF_8);
+        byte[] samples = "SAMPLES".getBytes(StandardCharsets.UTF_8);
+        byte[] all = "0".getBytes(StandardCharsets.UTF_8);
+        return template.execute((RedisCallback<Long>) connection -> {
+            long total = 0;
+            for (byte[] key : keys) {
+                Object bytes = connection.execute("MEMORY", usage, key, samples, all);
+                total += bytes instanceof Number ? ((Number) bytes).longValue() : 0;
+            }
+            return total;
+        });
+    }
+
+    /**
+     * 各种编码的桶个数, ziplist/listpack 为紧凑编码, hashtable 说明桶太大或值太长
+     */
+    private static Map<String, Integer> encodings(RedisTemplate<String, Object> template, List<byte[]> buckets) {
+        byte[] encoding = "ENCODING".getBytes(StandardCharsets.UTF_8);
+        return template.execute((RedisCallback<Map<String, Integer>>) connection -> {
+            Map<String, Integer> counts = new TreeMap<>();
+            for (byte[] bucket : buckets) {
+                Object name = connection.execute("OBJECT", encoding, bucket);
+                counts.merge(name instanceof byte[] ? new String((byte[]) name, StandardCharsets.UTF_8) : String.valueOf(name),
+                        1, Integer::sum);
+            }
+            return counts;
+        });
+    }
+
+    private static void pipeline(RedisTemplate<String, Object> template, List<byte[]> keys,
+                                 BiConsumer<RedisConnection, byte[]> command) {
+        for (int from = 0; from < keys.size(); from += REPORT_STEP) {
+            List<byte[]> step = keys.subList(from, Math.min(keys.size(), from + REPORT_STEP));
+            template.executePipelined((RedisCallback<Object>) connection -> {
+                step.forEach(key -> command.accept(connection, key));
+                return null;
+            });
+        }
+    }
+
+    /**
+     * @title: sweep
+     * @description: //清理一轮: 依次 HSCAN 每个桶, 对已过期的字段按读到的值比较后删除, 每个桶之后停顿 sweep-pause.
+     * 一个桶失败只计数, 继续下一个桶
+     * @author: agent
+     * @date: Created in 2026/10/18 11:00
+     * @throws:
+     * @return: void
+     */
+    public void sweep() {
+        long start = System.currentTimeMillis();
+        long expired = 0;
+        long pause = properties.getSweepPause().toMillis();
+        for (int i = 0; i < properties.getBuckets(); i++) {
+            String bucket = properties.getBucketPrefix() + i;
+            try {
+                expired += sweep(bucket);
+            } catch (RuntimeException e) {
+                sweepFailures.increment();
+                log.error("Redis occur bucketSweepError：key -> [{}]", bucket, e);
+            }
+            sweptBuckets.increment();
+            if (pause > 0) {
+                try {
+                    Thread.sleep(pause);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+        sweeps.increment();
+        lastSweepAt = start;
+        lastSweepMillis = System.currentTimeMillis() - start;
+        lastSweepExpired = expired;
+        log.info("分桶过期字段清理完成：buckets -> [{}] expired -> [{}] millis -> [{}]", properties.getBuckets(), expired, lastSweepMillis);
+    }
+
+    /**
+     * 扫描一个桶, 返回扫到的过期字段数; 扫描结束后再删除, 不在游标打开期间执行其它命令
+     */
+    @SuppressWarnings("unchecked")
+    private long sweep(String bucket) {
+        RedisTemplate<String, Object> template = shardRouter.template(bucket);
+        byte[] rawBucket = bucket.getBytes(StandardCharsets.UTF_8);
+        ScanOptions options = ScanOptions.scanOptions().count(properties.getSweepBatchSize()).build();
+        List<Map.Entry<byte[], byte[]>> expired = new ArrayList<>();
+        try (Cursor<Map.Entry<byte[], byte[]>> cursor = template.executeWithStickyConnection(
+                (RedisCallback<Cursor<Map.Entry<byte[], byte[]>>>) connection -> connection.hScan(rawBucket, options))) {
+            while (cursor.hasNext()) {
+                Map.Entry<byte[], byte[]> entry = cursor.next();
+                if (isExpired(entry.getValue())) {
+                    expired.add(entry);
+                }
+            }
+        } catch (IOException e) {
+            log.warn("关闭 HSCAN 游标失败：key -> [{}]", bucket, e);
+        }
+        for (Map.Entry<byte[], byte[]> entry : expired) {
+            Object count = template.execute((RedisScript) RedisScripts.BUCKET_EVICT, RawRedisSerializer.INSTANCE,
+                    RawRedisSerializer.INSTANCE, Collections.singletonList(bucket), entry.getKey(), entry.getValue());
+            if (count instanceof Long && (Long) count > 0) {
+                swept.increment();
+            }
+        }
+        return expired.size();
+    }
+
+    /**
+     * 读到已过期的字段并删除后调用
+     */
+    public void evicted() {
+        evicted.increment();
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("enabled", isEnabled());
+        map.put("buckets", properties.getBuckets());
+        map.put("keyPrefixes", properties.getKeyPrefixes());
+        map.put("evicted", evicted.sum());
+        Map<String, Object> sweep = new LinkedHashMap<>();
+        sweep.put("interval", properties.getSweepInterval().toString());
+        sweep.put("sweeps", sweeps.sum());
+        sweep.put("buckets", sweptBuckets.sum());
+        sweep.put("swept", swept.sum());
+        sweep.put("failures", sweepFailures.sum());
+        sweep.put("lastSweepAt", lastSweepAt);
+        sweep.put("lastSweepMillis", lastSweepMillis);
+        sweep.put("lastSweepExpired", lastSweepExpired);
+        map.put("sweep", sweep);
+        return map;
+    }
+}
@@ -0,0 +1,55 @@
+package com.yll.cache.config;
+
+import io.lettuce.core.ReadFrom;
+import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
+import org.springframework.boot.autoconfigure.data.redis.RedisProperties;
+import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettucePoolingClientConfiguration;
+
+/**
+ * @className: LettuceClients
+ * @description: //自己创建的 LettuceConnectionFactory(分片节点、读从节点)沿用 spring.redis 的超时和连接池配置
+ * @author: agent
+ * @date: Created in 2026/10/18 9:30
+ * @modify by: agent
+ * @version: V1.0
+ */
+public final class LettuceClients {
+
+    private LettuceClients() {
+    }
+
+    /**
+     * @param redisProperties spring.redis 配置
+     * @param readFrom        读命令发往的节点, 为 null 时不设置
+     * @title: clientConfiguration
+     * @description: //按 spring.redis 的超时和连接池创建客户端配置
+     * @author: agent
+     * @date: Created in 2026/10/18 9:35
+     * @throws:
+     * @return: org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration
+     */
+    public static LettuceClientConfiguration clientConfiguration(RedisProperties redisProperties, ReadFrom readFrom) {
+        RedisProperties.Pool pool = redisProperties.getLettuce().getPool();
+        LettuceClientConfiguration.LettuceClientConfigurationBuilder builder;
+        if (pool == null) {
+            builder = LettuceClientConfiguration.builder();
+        } else {
+            GenericObjectPoolConfig poolConfig = new GenericObjectPoolConfig();
+            poolConfig.setMaxTotal(pool.getMaxActive());
+            poolConfig.setMaxIdle(pool.getMaxIdle());
+            poolConfig.setMinIdle(pool.getMinIdle());
+            if (pool.getMaxWait() != null) {
+                poolConfig.setMaxWaitMillis(pool.getMaxWait().toMillis());
+            }
+            builder = LettucePoolingClientConfiguration.builder().poolConfig(poolConfig);
+        }
+        if (redisProperties.getTimeout() != null) {
+            builder.commandTimeout(redisProperties.getTimeout());
+        }
+        if (readFrom != null) {
+            builder.readFrom(readFrom);
+        }
+        return builder.build();
+    }
+}
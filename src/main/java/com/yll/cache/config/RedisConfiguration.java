@@ -3,16 +3,40 @@ package com.yll.cache.config;
 import com.fasterxml.jackson.annotation.JsonAutoDetect;
 import com.fasterxml.jackson.annotation.PropertyAccessor;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yll.cache.bloom.BloomFilter;
+import com.yll.cache.breaker.CircuitBreaker;
+import com.yll.cache.breaker.RedisCircuitOpenException;
+import com.yll.cache.local.LocalCache;
+import com.yll.cache.manager.Y2lCacheManager;
+import com.yll.cache.metrics.InstrumentedConnectionFactory;
+import com.yll.cache.metrics.RedisMetrics;
+import com.yll.cache.replica.ReplicaRouter;
+import com.yll.cache.serializer.CompactRedisSerializer;
+import com.yll.cache.serializer.CompressingRedisSerializer;
+import com.yll.cache.serializer.CompressionStats;
+import com.yll.cache.sharding.ShardRouter;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.data.redis.RedisProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CachingConfigurerSupport;
+import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.cache.interceptor.CacheErrorHandler;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.cache.RedisCacheWriter;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.util.ClassUtils;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
  * @className: RedisConfiguration
@@ -23,31 +47,145 @@ import org.springframework.data.redis.serializer.StringRedisSerializer;
  * @version: V1.0
  */
 @Configuration
+@EnableCaching
 @Slf4j
+@EnableConfigurationProperties(Y2lCacheProperties.class)
 public class RedisConfiguration extends CachingConfigurerSupport {
 
     @Bean
-    public RedisTemplate<String, Object> redisTemplate(RedisConnectionFactory factory) {
+    public RedisTemplate<String, Object> redisTemplate(RedisConnectionFactory factory, RedisSerializer<Object> redisValueSerializer,
+                                                       RedisMetrics redisMetrics, CircuitBreaker circuitBreaker) {
+        // 开启指标或熔断时每个命令的耗时、字节数、异常都记入 RedisMetrics 和 CircuitBreaker
+        return template(instrumented(factory, redisMetrics, circuitBreaker), redisValueSerializer);
+    }
+
+    /**
+     * @title: shardRouter
+     * @description: //客户端分片, 各节点的 RedisTemplate 与默认节点使用相同的序列化方式和指标, 熔断器按节点独立
+     * @author: agent
+     * @date: Created in 2026/10/18 10:30
+     * @throws:
+     * @return: com.yll.cache.sharding.ShardRouter
+     */
+    @Bean
+    public ShardRouter shardRouter(Y2lCacheProperties properties, RedisProperties redisProperties,
+                                   RedisTemplate<String, Object> redisTemplate, RedisSerializer<Object> redisValueSerializer,
+                                   RedisMetrics redisMetrics) {
+        return new ShardRouter(properties, redisProperties, redisTemplate,
+                (factory, breaker) -> template(instrumented(factory, redisMetrics, breaker), redisValueSerializer));
+    }
+
+    /**
+     * @title: replicaRouter
+     * @description: //读从节点, 从节点的 RedisTemplate 与主节点使用相同的序列化方式和指标, 熔断器独立
+     * @author: agent
+     * @date: Created in 2026/10/18 10:50
+     * @throws:
+     * @return: com.yll.cache.replica.ReplicaRouter
+     */
+    @Bean
+    public ReplicaRouter replicaRouter(Y2lCacheProperties properties, RedisProperties redisProperties,
+                                       RedisSerializer<Object> redisValueSerializer, RedisMetrics redisMetrics) {
+        return new ReplicaRouter(properties, redisProperties,
+                (factory, breaker) -> template(instrumented(factory, redisMetrics, breaker), redisValueSerializer));
+    }
+
+    private static RedisTemplate<String, Object> template(RedisConnectionFactory factory, RedisSerializer<Object> redisValueSerializer) {
         RedisTemplate<String, Object> template = new RedisTemplate<>();
         template.setConnectionFactory(factory);
-        Jackson2JsonRedisSerializer jackson2JsonRedisSerializer = new Jackson2JsonRedisSerializer(Object.class);
-        ObjectMapper objectMapper = new ObjectMapper();
-        objectMapper.setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.ANY);
-        objectMapper.enableDefaultTyping(ObjectMapper.DefaultTyping.NON_FINAL);
-        jackson2JsonRedisSerializer.setObjectMapper(objectMapper);
         StringRedisSerializer stringRedisSerializer = new StringRedisSerializer();
         // key 采用 string 的序列化方式
         template.setKeySerializer(stringRedisSerializer);
         // hash 的 key 采用 string 的序列化方式
         template.setHashKeySerializer(stringRedisSerializer);
-        // value序列化方式采用jackson
-        template.setValueSerializer(jackson2JsonRedisSerializer);
-        // hash 的 value序列化方式采用jackson
-        template.setHashValueSerializer(jackson2JsonRedisSerializer);
+        // value序列化方式由 y2lcache.serializer.type 决定
+        template.setValueSerializer(redisValueSerializer);
+        // hash 的 value序列化方式同 value
+        template.setHashValueSerializer(redisValueSerializer);
         template.afterPropertiesSet();
         return template;
     }
 
+    /**
+     * @title: redisCacheManager
+     * @description: //@Cacheable 使用的 CacheManager, value 序列化与 redisTemplate 相同, 异常由 errorHandler 处理
+     * @author: agent
+     * @date: Created in 2026/10/18 11:10
+     * @throws:
+     * @return: org.springframework.cache.CacheManager
+     */
+    @Bean
+    public CacheManager redisCacheManager(RedisConnectionFactory factory, RedisSerializer<Object> redisValueSerializer,
+                                          RedisMetrics redisMetrics, CircuitBreaker circuitBreaker,
+                                          Y2lCacheProperties properties, LocalCache localCache) {
+        RedisConnectionFactory connectionFactory = instrumented(factory, redisMetrics, circuitBreaker);
+        return new Y2lCacheManager(RedisCacheWriter.nonLockingRedisCacheWriter(connectionFactory), redisValueSerializer,
+                properties.getCache(), localCache);
+    }
+
+    private static RedisConnectionFactory instrumented(RedisConnectionFactory factory, RedisMetrics redisMetrics,
+                                                       CircuitBreaker circuitBreaker) {
+        if (!redisMetrics.isEnabled() && !circuitBreaker.isEnabled()) {
+            return factory;
+        }
+        return new InstrumentedConnectionFactory(factory, redisMetrics, circuitBreaker);
+    }
+
+    @Bean
+    public RedisSerializer<Object> redisValueSerializer(Y2lCacheProperties properties, CompressionStats compressionStats) throws ClassNotFoundException {
+        RedisSerializer<Object> serializer = valueSerializer(properties.getSerializer());
+        Y2lCacheProperties.Compression compression = properties.getCompression();
+        if (!compression.isEnabled()) {
+            return serializer;
+        }
+        log.info("初始化 -> [{}]", "CompressingRedisSerializer");
+        return new CompressingRedisSerializer(serializer, (int) compression.getThreshold().toBytes(), compressionStats);
+    }
+
+    private RedisSerializer<Object> valueSerializer(Y2lCacheProperties.Serializer serializer) throws ClassNotFoundException {
+        RedisSerializer<Object> jackson2JsonRedisSerializer = jackson2JsonRedisSerializer();
+        if (!"compact".equalsIgnoreCase(serializer.getType())) {
+            return jackson2JsonRedisSerializer;
+        }
+        log.info("初始化 -> [{}]", "CompactRedisSerializer");
+        Map<Integer, Class<?>> classIds = new LinkedHashMap<>();
+        for (Map.Entry<Integer, String> entry : serializer.getClassIds().entrySet()) {
+            classIds.put(entry.getKey(), ClassUtils.forName(entry.getValue(), getClass().getClassLoader()));
+        }
+        // 旧的 jackson 数据在迁移期间仍然可以读取
+        return new CompactRedisSerializer(classIds, jackson2JsonRedisSerializer);
+    }
+
+    @SuppressWarnings("unchecked")
+    private RedisSerializer<Object> jackson2JsonRedisSerializer() {
+        Jackson2JsonRedisSerializer jackson2JsonRedisSerializer = new Jackson2JsonRedisSerializer(Object.class);
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.ANY);
+        objectMapper.enableDefaultTyping(ObjectMapper.DefaultTyping.NON_FINAL);
+        jackson2JsonRedisSerializer.setObjectMapper(objectMapper);
+        return jackson2JsonRedisSerializer;
+    }
+
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory factory,
+                                                                       LocalCache localCache,
+                                                                       BloomFilter bloomFilter,
+                                                                       Y2lCacheProperties properties) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(factory);
+        if (properties.getLocal().isEnabled()) {
+            // 本地一级缓存开启时订阅跨实例失效频道
+            log.info("初始化 -> [{}]", "LocalCache invalidation listener");
+            container.addMessageListener(localCache, new ChannelTopic(properties.getLocal().getInvalidationChannel()));
+        }
+        if (properties.getBloom().isEnabled()) {
+            // 布隆过滤器新增的位通过同一个频道发给其它实例
+            log.info("初始化 -> [{}]", "BloomFilter listener");
+            container.addMessageListener(bloomFilter, new ChannelTopic(properties.getLocal().getInvalidationChannel()));
+        }
+        return container;
+    }
+
     @Override
     @Bean
     public CacheErrorHandler errorHandler() {
@@ -56,6 +194,10 @@ public class RedisConfiguration extends CachingConfigurerSupport {
         CacheErrorHandler cacheErrorHandler = new CacheErrorHandler() {
             @Override
             public void handleCacheGetError(RuntimeException e, Cache cache, Object key) {
+                if (e instanceof RedisCircuitOpenException) {
+                    // 熔断打开期间直接执行方法, 不再逐条打印
+                    return;
+                }
                 log.error("Redis occur handleCacheGetError：key -> [{}]", key, e);
             }
 
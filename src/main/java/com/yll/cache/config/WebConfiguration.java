@@ -0,0 +1,31 @@
+package com.yll.cache.config;
+
+import com.yll.cache.replica.ReadYourWritesInterceptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * @className: WebConfiguration
+ * @description: //web 配置类
+ * @author: agent
+ * @date: Created in 2026/10/18 11:00
+ * @modify by: agent
+ * @version: V1.0
+ */
+@Configuration
+public class WebConfiguration implements WebMvcConfigurer {
+
+    @Autowired
+    Y2lCacheProperties properties;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        Y2lCacheProperties.Replica replica = properties.getReplica();
+        if (replica.isEnabled()) {
+            // 每个请求一个读己之写范围
+            registry.addInterceptor(new ReadYourWritesInterceptor(replica.getHeader()));
+        }
+    }
+}
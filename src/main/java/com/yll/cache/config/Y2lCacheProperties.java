@@ -0,0 +1,619 @@
+package com.yll.cache.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @className: Y2lCacheProperties
+ * @description: //缓存扩展功能配置, 对应 application.yml 中的 y2lcache 节点
+ * @author: agent
+ * @date: Created in 2026/10/18 10:12
+ * @modify by: agent
+ * @version: V1.0
+ */
+@Data
+@ConfigurationProperties(prefix = "y2lcache")
+public class Y2lCacheProperties {
+
+    /**
+     * 本地一级缓存配置
+     */
+    private Local local = new Local();
+
+    /**
+     * value 序列化方式配置
+     */
+    private Serializer serializer = new Serializer();
+
+    /**
+     * value 压缩配置
+     */
+    private Compression compression = new Compression();
+
+    /**
+     * getOrLoad 加载配置
+     */
+    private Loader loader = new Loader();
+
+    /**
+     * redis 操作指标配置
+     */
+    private Metrics metrics = new Metrics();
+
+    /**
+     * Spring Cache(@Cacheable) 配置
+     */
+    private Cache cache = new Cache();
+
+    /**
+     * 热点 key 统计配置
+     */
+    private HotKey hotKey = new HotKey();
+
+    /**
+     * 熔断配置
+     */
+    private Breaker breaker = new Breaker();
+
+    /**
+     * 延迟写配置
+     */
+    private WriteBehind writeBehind = new WriteBehind();
+
+    /**
+     * 客户端分片配置
+     */
+    private Sharding sharding = new Sharding();
+
+    /**
+     * 读从节点配置
+     */
+    private Replica replica = new Replica();
+
+    /**
+     * 删除与批量失效配置
+     */
+    private Invalidation invalidation = new Invalidation();
+
+    /**
+     * 布隆过滤器配置
+     */
+    private Bloom bloom = new Bloom();
+
+    /**
+     * 小 value 分桶存储配置
+     */
+    private Bucket bucket = new Bucket();
+
+    /**
+     * 计数器本地聚合配置
+     */
+    private Counter counter = new Counter();
+
+    /**
+     * 缓存快照配置
+     */
+    private Snapshot snapshot = new Snapshot();
+
+    /**
+     * 端到端压测配置
+     */
+    private LoadTest loadTest = new LoadTest();
+
+    @Data
+    public static class Local {
+        /**
+         * 是否开启本地一级缓存
+         */
+        private boolean enabled = false;
+        /**
+         * 允许进入本地缓存的 key 前缀, 为空表示全部 key
+         */
+        private List<String> keyPrefixes = new ArrayList<>();
+        /**
+         * 本地缓存最多保存的 key 个数
+         */
+        private long maximumSize = 10000;
+        /**
+         * 写入后多久过期, 兜底跨实例失效消息丢失的情况
+         */
+        private Duration expireAfterWrite = Duration.ofSeconds(30);
+        /**
+         * 单个 key 最多缓存的视图个数(hget 的 item、lGet 的区间等)
+         */
+        private int maximumViewsPerKey = 64;
+        /**
+         * 跨实例失效通知的 pub/sub 频道
+         */
+        private String invalidationChannel = "y2lcache:invalidate";
+    }
+
+    @Data
+    public static class Serializer {
+        /**
+         * 序列化方式: jackson(默认, 带完整类名的 JSON) 或 compact(紧凑二进制, 可读取 jackson 旧数据)
+         */
+        private String type = "jackson";
+        /**
+         * compact 方式下注册的 class id 表, id 一经使用不能再分配给别的类
+         */
+        private Map<Integer, String> classIds = new LinkedHashMap<>();
+    }
+
+    @Data
+    public static class Compression {
+        /**
+         * 是否开启 value 压缩
+         */
+        private boolean enabled = false;
+        /**
+         * 序列化后达到该大小才压缩
+         */
+        private DataSize threshold = DataSize.ofKilobytes(4);
+    }
+
+    @Data
+    public static class Loader {
+        /**
+         * 是否在集群范围内用 redis 租约保证同一个 key 只有一个实例在加载
+         */
+        private boolean leaseEnabled = false;
+        /**
+         * 租约键前缀
+         */
+        private String leasePrefix = "y2lcache:lease:";
+        /**
+         * 租约时间, 应大于加载耗时, 持有者异常退出时到期自动释放
+         */
+        private Duration leaseTime = Duration.ofSeconds(10);
+        /**
+         * 没拿到租约时轮询 redis 等待结果的间隔
+         */
+        private Duration pollInterval = Duration.ofMillis(50);
+        /**
+         * 是否开启提前刷新: 根据剩余过期时间和加载耗时按概率提前在后台重新加载, 调用方继续拿当前值
+         */
+        private boolean refreshAhead = false;
+        /**
+         * 提前刷新系数, 越大越早刷新, 1.0 为 XFetch 推荐值
+         */
+        private double beta = 1.0;
+        /**
+         * 后台刷新线程数
+         */
+        private int refreshThreads = 2;
+        /**
+         * 后台刷新排队上限, 队列满时丢弃本次刷新, 等下一次读取再判断
+         */
+        private int refreshQueueSize = 1000;
+        /**
+         * 最多记录多少个 key 的加载耗时
+         */
+        private long maximumTrackedKeys = 10000;
+    }
+
+    @Data
+    public static class Metrics {
+        /**
+         * 是否记录 redis 命令耗时、命中、字节数和异常
+         */
+        private boolean enabled = true;
+        /**
+         * 命令耗时在客户端计算的分位数
+         */
+        private double[] percentiles = {0.5, 0.99, 0.999};
+        /**
+         * 是否同时输出直方图桶, 供 prometheus 跨实例聚合分位数
+         */
+        private boolean percentileHistogram = false;
+        /**
+         * key 命名空间分隔符, key 中第一个分隔符之前的部分作为命名空间
+         */
+        private String namespaceSeparator = ":";
+        /**
+         * 指定命名空间列表(按前缀匹配), 为空时按分隔符自动提取
+         */
+        private List<String> namespaces = new ArrayList<>();
+        /**
+         * 自动提取时最多记录的命名空间个数, 超出的归入 other, 防止指标无限增长
+         */
+        private int maximumNamespaces = 100;
+    }
+
+    @Data
+    public static class Cache {
+        /**
+         * 默认过期时间, 0 表示永久有效
+         */
+        private Duration ttl = Duration.ofMinutes(10);
+        /**
+         * redis 中的 key 为 keyPrefix + 缓存名 + "::" + 方法 key
+         */
+        private String keyPrefix = "cache:";
+        /**
+         * 是否缓存 null 结果, 防止不存在的数据反复穿透到方法
+         */
+        private boolean cacheNullValues = false;
+        /**
+         * 是否在 redis 之前加本地一级缓存, 需要同时开启 y2lcache.local.enabled 并且 key 满足 key-prefixes
+         */
+        private boolean local = false;
+        /**
+         * 按缓存名单独配置, 未配置的项使用上面的默认值
+         */
+        private Map<String, CacheSpec> caches = new LinkedHashMap<>();
+    }
+
+    @Data
+    public static class CacheSpec {
+        private Duration ttl;
+        private String keyPrefix;
+        private Boolean cacheNullValues;
+        private Boolean local;
+    }
+
+    @Data
+    public static class HotKey {
+        /**
+         * 是否统计热点 key
+         */
+        private boolean enabled = false;
+        /**
+         * 抽样比例, n 表示平均每 n 次读取统计一次
+         */
+        private int sampleRate = 1;
+        /**
+         * count-min 行数
+         */
+        private int depth = 4;
+        /**
+         * count-min 每行列数
+         */
+        private int width = 4096;
+        /**
+         * 保留访问最多的 key 个数
+         */
+        private int topK = 20;
+        /**
+         * 每个窗口结束时计数减半
+         */
+        private Duration window = Duration.ofSeconds(10);
+        /**
+         * 是否把超过阈值的 key 自动放入本地缓存
+         */
+        private boolean autoPin = false;
+        /**
+         * 自动放入本地缓存的阈值(计数减半后的估计访问次数)
+         */
+        private long pinThreshold = 1000;
+        /**
+         * 自动放入本地缓存的过期时间, 其它实例的写入最多这么久后可见
+         */
+        private Duration pinTtl = Duration.ofSeconds(1);
+        /**
+         * 最多自动放入本地缓存的 key 个数
+         */
+        private int maximumPinned = 100;
+    }
+
+    @Data
+    public static class Breaker {
+        /**
+         * 是否开启熔断
+         */
+        private boolean enabled = false;
+        /**
+         * 统计失败率的时间窗口
+         */
+        private Duration window = Duration.ofSeconds(10);
+        /**
+         * 窗口内调用次数达到该值才计算失败率
+         */
+        private int minimumCalls = 20;
+        /**
+         * 失败率(含慢调用)达到该值时打开
+         */
+        private double failureRateThreshold = 0.5;
+        /**
+         * 打开后多久进入半开
+         */
+        private Duration openDuration = Duration.ofSeconds(5);
+        /**
+         * 半开时放行的试探调用个数
+         */
+        private int halfOpenCalls = 5;
+        /**
+         * 默认耗时预算, 超过按慢调用计为失败
+         */
+        private Duration defaultBudget = Duration.ofMillis(100);
+        /**
+         * 按命令(RedisConnection 方法名, 管道为 pipeline)单独设置的耗时预算
+         */
+        private Map<String, Duration> budgets = new LinkedHashMap<>();
+        /**
+         * redis 不可用时返回旧值的配置
+         */
+        private Stale stale = new Stale();
+    }
+
+    @Data
+    public static class Stale {
+        /**
+         * 是否在 redis 不可用时返回最后一次读到的值
+         */
+        private boolean enabled = false;
+        /**
+         * 最多保存的 key 个数
+         */
+        private long maximumSize = 10000;
+        /**
+         * 旧值最长保留时间
+         */
+        private Duration ttl = Duration.ofMinutes(10);
+    }
+
+    @Data
+    public static class WriteBehind {
+        /**
+         * 是否开启延迟写
+         */
+        private boolean enabled = false;
+        /**
+         * 走延迟写的 key 前缀, 为空表示全部 key
+         */
+        private List<String> keyPrefixes = new ArrayList<>();
+        /**
+         * 定时写入间隔, 也是其它实例看到写入的最大延迟
+         */
+        private Duration flushInterval = Duration.ofMillis(100);
+        /**
+         * 缓冲 key 数达到该值立即写入, 也是每次管道的最大 key 数
+         */
+        private int maxBatch = 500;
+        /**
+         * 缓冲区最多保存的 key 个数
+         */
+        private int capacity = 10000;
+        /**
+         * 缓冲区满时写入方最多等待的时间, 超时后直接写 redis
+         */
+        private Duration offerTimeout = Duration.ofMillis(50);
+        /**
+         * 写入失败最多重试次数, 超过后丢弃
+         */
+        private int maxAttempts = 10;
+    }
+
+    @Data
+    public static class Sharding {
+        /**
+         * 是否按一致性哈希把 key 分到多个 redis 节点
+         */
+        private boolean enabled = false;
+        /**
+         * 每个节点的虚拟节点个数
+         */
+        private int virtualNodes = 160;
+        /**
+         * 多 key 操作按节点并行执行的线程数
+         */
+        private int fanOutThreads = 8;
+        /**
+         * 分片节点, 节点名称决定 key 的分布, 替换机器时保持名称不变
+         */
+        private List<Node> nodes = new ArrayList<>();
+    }
+
+    @Data
+    public static class Node {
+        /**
+         * 节点名称, 为空时为 host:port
+         */
+        private String name;
+        private String host = "localhost";
+        private int port = 6379;
+        private String password;
+        private int database = 0;
+    }
+
+    @Data
+    public static class Replica {
+        /**
+         * 是否把只读方法发往从节点, spring.redis 为主节点
+         */
+        private boolean enabled = false;
+        /**
+         * 读取策略: replica-preferred(从节点优先, 全部不可用时读主节点)、replica、nearest(延迟最低的节点)、
+         * master-preferred 或 master(只读主节点)
+         */
+        private String readFrom = "replica-preferred";
+        /**
+         * 同一个请求内写入之后的读取是否改走主节点
+         */
+        private boolean readYourWrites = true;
+        /**
+         * 请求头为 master 时整个请求的读取都走主节点
+         */
+        private String header = "X-Read-From";
+        /**
+         * 从节点, 密码和库与主节点相同
+         */
+        private List<Node> nodes = new ArrayList<>();
+    }
+
+    @Data
+    public static class Invalidation {
+        /**
+         * 删除是否使用 UNLINK(需要 redis 4.0 以上), 大 key 在后台线程释放, 不阻塞 redis
+         */
+        private boolean unlink = true;
+        /**
+         * 按模式失效时每次 SCAN 的 COUNT, 也是每次 UNLINK 的最大 key 数
+         */
+        private int batchSize = 500;
+        /**
+         * 每批之间的停顿, 控制对 redis 的压力
+         */
+        private Duration pause = Duration.ofMillis(10);
+        /**
+         * 同时执行的失效任务个数
+         */
+        private int threads = 1;
+        /**
+         * 最多保留的任务记录个数, 超出时丢弃最早结束的
+         */
+        private int maximumJobs = 100;
+    }
+
+    @Data
+    public static class Bloom {
+        /**
+         * 是否开启布隆过滤器, 开启后读取前先判断 key 是否可能存在
+         */
+        private boolean enabled = false;
+        /**
+         * 使用过滤器的 key 前缀, 为空表示全部 key. 这些 key 只能通过 RedisUtils 写入, 否则会被误判为不存在
+         */
+        private List<String> keyPrefixes = new ArrayList<>();
+        /**
+         * 预计的 key 个数, 与误判率一起决定位数和哈希个数, 修改后会在下次重建时生效
+         */
+        private long expectedInsertions = 1000000;
+        /**
+         * 误判率, 即不存在的 key 仍然访问 redis 的比例
+         */
+        private double falsePositiveProbability = 0.01;
+        /**
+         * redis 中保存位图的 key, 在默认节点上
+         */
+        private String redisKey = "y2lcache:bloom";
+        /**
+         * 本地新增的位写入 redis 的间隔
+         */
+        private Duration flushInterval = Duration.ofMillis(100);
+        /**
+         * 从 redis 拉取整个位图的间隔, 其它实例写入的 key 最多延迟这么久才能读到
+         */
+        private Duration syncInterval = Duration.ofSeconds(5);
+        /**
+         * 按 SCAN 重建的间隔, 清除已删除和已过期 key 的位; 多个实例通过租约只有一个执行
+         */
+        private Duration rebuildInterval = Duration.ofHours(1);
+        /**
+         * 重建的最长时间, 超过后租约和中间结果过期
+         */
+        private Duration rebuildTimeout = Duration.ofMinutes(10);
+        /**
+         * 重建时每次 SCAN 的 COUNT
+         */
+        private int scanBatchSize = 1000;
+        /**
+         * 重建时每批之间的停顿
+         */
+        private Duration scanPause = Duration.ofMillis(5);
+    }
+
+    @Data
+    public static class Bucket {
+        /**
+         * 是否开启分桶存储
+         */
+        private boolean enabled = false;
+        /**
+         * 分桶存储的 key 前缀, 为空表示不分桶. 这些 key 只支持 get/set/del/hasKey/expire/getExpire 及对应的 getOrLoad
+         */
+        private List<String> keyPrefixes = new ArrayList<>();
+        /**
+         * 桶的 key 前缀
+         */
+        private String bucketPrefix = "bucket:";
+        /**
+         * 桶的个数, key 总数 / 桶数 应小于 redis 的 hash-max-ziplist-entries(默认 128), 修改后所有 key 换桶
+         */
+        private int buckets = 16384;
+        /**
+         * 后台清理过期字段的间隔, 每轮 HSCAN 全部桶并删除已过期的字段; 小于等于0 表示不清理, 过期字段只在读到时删除,
+         * 写入后不再读取的 key 会一直占用内存(桶中有永久字段或不断有新写入时桶本身不会过期)
+         */
+        private Duration sweepInterval = Duration.ofMinutes(10);
+        /**
+         * 清理时每次 HSCAN 的 COUNT
+         */
+        private int sweepBatchSize = 200;
+        /**
+         * 清理时每个桶之后的停顿, 限制清理对 redis 的压力; 一轮的时长约为 桶数 * 停顿
+         */
+        private Duration sweepPause = Duration.ofMillis(5);
+    }
+
+    @Data
+    public static class Counter {
+        /**
+         * 是否开启计数器本地聚合, 开启后匹配前缀的 key 的 incr/decr/hincr/hdecr 先在本地累加, 定时写入 redis
+         */
+        private boolean enabled = false;
+        /**
+         * 本地聚合的 key 前缀, 为空表示不聚合
+         */
+        private List<String> keyPrefixes = new ArrayList<>();
+        /**
+         * 写入 redis 的间隔, 也是其它实例最多晚多久看到本实例的增量
+         */
+        private Duration flushInterval = Duration.ofSeconds(1);
+        /**
+         * get/hget 读计数器时是否加上本地尚未写入的增量
+         */
+        private boolean readIncludesPending = true;
+    }
+
+    @Data
+    public static class Snapshot {
+        /**
+         * 快照文件所在目录, 导出和导入只能读写这个目录下的文件
+         */
+        private String directory = "snapshots";
+        /**
+         * 每次 SCAN 的 COUNT, 也是每个管道中 DUMP 或 RESTORE 的 key 个数
+         */
+        private int batchSize = 500;
+        /**
+         * 导入时并行 RESTORE 的线程数
+         */
+        private int threads = 4;
+        /**
+         * 最多保留的任务记录个数, 超出时丢弃最早结束的
+         */
+        private int maximumJobs = 20;
+    }
+
+    @Data
+    public static class LoadTest {
+        /**
+         * 是否允许通过 /redis/loadtest 发起压测, 生产环境不要开启
+         */
+        private boolean enabled = false;
+        /**
+         * 被压测服务的地址, 为空时调用本机当前端口
+         */
+        private String baseUrl = "";
+        /**
+         * 每个请求的连接和读取超时
+         */
+        private Duration timeout = Duration.ofSeconds(5);
+        /**
+         * 允许的最大每秒请求数
+         */
+        private int maximumRate = 20000;
+        /**
+         * 最多保留的压测记录个数, 超出时丢弃最早结束的
+         */
+        private int maximumJobs = 10;
+    }
+}
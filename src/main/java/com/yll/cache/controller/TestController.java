@@ -1,16 +1,42 @@
 package com.yll.cache.controller;
 
 import com.alibaba.fastjson.JSONObject;
+import com.yll.cache.bloom.BloomFilter;
+import com.yll.cache.breaker.CircuitBreaker;
+import com.yll.cache.bucket.BucketStore;
+import com.yll.cache.breaker.StaleStore;
+import com.yll.cache.counter.CounterAggregator;
+import com.yll.cache.hotkey.HotKeyDetector;
+import com.yll.cache.invalidation.BulkInvalidator;
+import com.yll.cache.invalidation.InvalidationJob;
+import com.yll.cache.loader.SingleFlightLoader;
+import com.yll.cache.loadtest.LoadGenerator;
+import com.yll.cache.loadtest.LoadPlan;
+import com.yll.cache.loadtest.LoadTestJob;
+import com.yll.cache.local.LocalCache;
+import com.yll.cache.replica.ReplicaRouter;
+import com.yll.cache.serializer.CompressionStats;
+import com.yll.cache.sharding.ShardRouter;
+import com.yll.cache.snapshot.SnapshotJob;
+import com.yll.cache.snapshot.SnapshotService;
+import com.yll.cache.utils.BatchOp;
 import com.yll.cache.utils.RedisUtils;
+import com.yll.cache.writebehind.WriteBehindBuffer;
 import lombok.Data;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 
 /**
@@ -25,10 +51,42 @@ import java.util.*;
 @RequestMapping("/redis")
 public class TestController {
 
+    private static final byte[] JSON_NULL = "null".getBytes(StandardCharsets.UTF_8);
+
     @Autowired
     RedisUtils redisUtils;
     @Autowired
     RestTemplate restTemplate;
+    @Autowired
+    LocalCache localCache;
+    @Autowired
+    CompressionStats compressionStats;
+    @Autowired
+    SingleFlightLoader singleFlightLoader;
+    @Autowired
+    HotKeyDetector hotKeyDetector;
+    @Autowired
+    CircuitBreaker circuitBreaker;
+    @Autowired
+    StaleStore staleStore;
+    @Autowired
+    WriteBehindBuffer writeBehindBuffer;
+    @Autowired
+    ShardRouter shardRouter;
+    @Autowired
+    ReplicaRouter replicaRouter;
+    @Autowired
+    BulkInvalidator bulkInvalidator;
+    @Autowired
+    BloomFilter bloomFilter;
+    @Autowired
+    BucketStore bucketStore;
+    @Autowired
+    CounterAggregator counterAggregator;
+    @Autowired
+    SnapshotService snapshotService;
+    @Autowired
+    LoadGenerator loadGenerator;
 
     @GetMapping("/demo")
     public String demo() {
@@ -119,7 +177,10 @@ public class TestController {
 
     /**
      * @param key
+     * @param type  类型, 为空时在服务端按 key 的实际类型读取
      * @param item
+     * @param start 集合的起始位置, 默认 0
+     * @param end   集合的结束位置(包含), 默认 -1 表示到最后
      * @title: getCache
      * @description: //根据key key/item 获取缓存
      * @author: yys1778
@@ -128,18 +189,20 @@ public class TestController {
      * @return: java.lang.Object
      */
     @GetMapping("/cache/get")
-    public String getCache(String key, @RequestParam(required = false) String type, @RequestParam(required = false) String item) {
+    public String getCache(String key, @RequestParam(required = false) String type, @RequestParam(required = false) String item,
+                           @RequestParam(defaultValue = "0") long start, @RequestParam(defaultValue = "-1") long end) {
         Object object = null;
         if (StringUtils.isEmpty(item)) {
             if (StringUtils.isEmpty(type)) {
-                object = redisUtils.get(key);
+                // 一次往返判断类型并读取, 调用方不需要知道类型
+                object = redisUtils.getTyped(key, start, end).getValue();
                 return JSONObject.toJSONString(object);
             }
             if (type.contains("Map")) {
                 object = redisUtils.hmget(key);
             }
             if (type.contains("List")) {
-                object = redisUtils.lGet(key, 0, -1);
+                object = redisUtils.lGet(key, start, end);
             }
             if (type.contains("Set")) {
                 object = redisUtils.sGet(key);
@@ -150,6 +213,111 @@ public class TestController {
         return JSONObject.toJSONString(object);
     }
 
+    /**
+     * @param key   键
+     * @param item  项, 不为空时写入 hash 的一项
+     * @param time  时间(秒), 为空表示不设置过期时间
+     * @param value 请求体, 任意 JSON, 原样保存
+     * @title: setCacheRaw
+     * @description: //原样模式添加缓存: 请求体字节直接写入 redis, 不解析成对象也不经过 value 序列化, 只能用 raw=true 读取
+     * @author: agent
+     * @date: Created in 2026/10/18 10:00
+     * @throws:
+     * @return: boolean
+     */
+    @PostMapping(value = "/cache/add", params = "raw=true")
+    public boolean setCacheRaw(@RequestParam String key, @RequestParam(required = false) String item,
+                               @RequestParam(required = false) Long time, @RequestBody byte[] value) {
+        long seconds = time == null ? 0 : time;
+        if (StringUtils.isEmpty(item)) {
+            return redisUtils.setRaw(key, value, seconds);
+        }
+        return redisUtils.hsetRaw(key, item, value, seconds);
+    }
+
+    /**
+     * @param key  键
+     * @param item 项
+     * @title: getCacheRaw
+     * @description: //原样模式获取缓存: 把 setCacheRaw 保存的字节原样返回, 不存在时返回 null
+     * @author: agent
+     * @date: Created in 2026/10/18 10:05
+     * @throws:
+     * @return: org.springframework.http.ResponseEntity<byte[]>
+     */
+    @GetMapping(value = "/cache/get", params = "raw=true")
+    public ResponseEntity<byte[]> getCacheRaw(@RequestParam String key, @RequestParam(required = false) String item) {
+        byte[] value = StringUtils.isEmpty(item) ? redisUtils.getRaw(key) : redisUtils.hgetRaw(key, item);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON_UTF8).body(value == null ? JSON_NULL : value);
+    }
+
+    /**
+     * @param key      键
+     * @param type     类型, 同 getCache
+     * @param pageSize 每页个数
+     * @title: getCacheStream
+     * @description: //以 NDJSON 流式返回大集合, 每读到一页就写出一页, 内存和 redis 阻塞时间都与页大小有关而与集合大小无关
+     * Map 每行为 {"item":..,"value":..}, List/Set 每行为一个元素
+     * @author: agent
+     * @date: Created in 2026/10/18 10:30
+     * @throws:
+     * @return: org.springframework.http.ResponseEntity<org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody>
+     */
+    @GetMapping(value = "/cache/get/stream", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> getCacheStream(String key, @RequestParam(required = false) String type,
+                                                                @RequestParam(defaultValue = "500") int pageSize) {
+        if (pageSize <= 0) {
+            // 开始写出之后无法再返回 400, 参数在这里先校验
+            byte[] error = JSONObject.toJSONString(Collections.singletonMap("error", "pageSize 必须大于0"))
+                    .getBytes(StandardCharsets.UTF_8);
+            return ResponseEntity.badRequest().contentType(MediaType.APPLICATION_JSON_UTF8)
+                    .body(outputStream -> outputStream.write(error));
+        }
+        return ResponseEntity.ok(outputStream -> {
+            if (StringUtils.isEmpty(type)) {
+                writeLine(outputStream, redisUtils.get(key));
+            } else if (type.contains("Map")) {
+                try (Cursor<Map.Entry<Object, Object>> cursor = redisUtils.hScan(key, pageSize)) {
+                    int count = 0;
+                    while (cursor.hasNext()) {
+                        Map.Entry<Object, Object> entry = cursor.next();
+                        JSONObject line = new JSONObject();
+                        line.put("item", entry.getKey());
+                        line.put("value", entry.getValue());
+                        writeLine(outputStream, line);
+                        if (++count % pageSize == 0) {
+                            outputStream.flush();
+                        }
+                    }
+                }
+            } else if (type.contains("List")) {
+                Iterator<List<Object>> pages = redisUtils.lPages(key, pageSize);
+                while (pages.hasNext()) {
+                    for (Object element : pages.next()) {
+                        writeLine(outputStream, element);
+                    }
+                    outputStream.flush();
+                }
+            } else if (type.contains("Set")) {
+                try (Cursor<Object> cursor = redisUtils.sScan(key, pageSize)) {
+                    int count = 0;
+                    while (cursor.hasNext()) {
+                        writeLine(outputStream, cursor.next());
+                        if (++count % pageSize == 0) {
+                            outputStream.flush();
+                        }
+                    }
+                }
+            }
+            outputStream.flush();
+        });
+    }
+
+    private static void writeLine(OutputStream outputStream, Object object) throws IOException {
+        outputStream.write(JSONObject.toJSONString(object).getBytes(StandardCharsets.UTF_8));
+        outputStream.write('\n');
+    }
+
     /**
      * @param key
      * @param item
@@ -169,6 +337,359 @@ public class TestController {
         }
     }
 
+    /**
+     * @param pattern SCAN MATCH 模式, 如 user:123:*
+     * @title: invalidate
+     * @description: //按模式批量失效, 后台分批 SCAN + UNLINK, 立即返回任务进度
+     * @author: agent
+     * @date: Created in 2026/10/18 11:00
+     * @throws:
+     * @return: org.springframework.http.ResponseEntity<java.util.Map<java.lang.String,java.lang.Object>>
+     */
+    @PostMapping("/cache/invalidate")
+    public ResponseEntity<Map<String, Object>> invalidate(@RequestParam String pattern) {
+        try {
+            return ResponseEntity.accepted().body(redisUtils.delByPattern(pattern).progress());
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> error = new LinkedHashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+
+    /**
+     * @param id 任务 id
+     * @title: invalidateProgress
+     * @description: //失效任务进度
+     * @author: agent
+     * @date: Created in 2026/10/18 11:05
+     * @throws:
+     * @return: org.springframework.http.ResponseEntity<java.util.Map<java.lang.String,java.lang.Object>>
+     */
+    @GetMapping("/cache/invalidate/{id}")
+    public ResponseEntity<Map<String, Object>> invalidateProgress(@PathVariable String id) {
+        InvalidationJob job = bulkInvalidator.get(id);
+        return job == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(job.progress());
+    }
+
+    /**
+     * @title: invalidateJobs
+     * @description: //最近的失效任务
+     * @author: agent
+     * @date: Created in 2026/10/18 11:08
+     * @throws:
+     * @return: java.util.List<java.util.Map<java.lang.String,java.lang.Object>>
+     */
+    @GetMapping("/cache/invalidate")
+    public List<Map<String, Object>> invalidateJobs() {
+        return bulkInvalidator.jobs();
+    }
+
+    /**
+     * @param id 任务 id
+     * @title: cancelInvalidate
+     * @description: //取消失效任务, 当前批完成后停止
+     * @author: agent
+     * @date: Created in 2026/10/18 11:10
+     * @throws:
+     * @return: boolean 任务不存在或已结束时返回 false
+     */
+    @DeleteMapping("/cache/invalidate/{id}")
+    public boolean cancelInvalidate(@PathVariable String id) {
+        return bulkInvalidator.cancel(id);
+    }
+
+    /**
+     * @param prefix key 前缀, 为空表示全部 key
+     * @param name   快照文件名, 位于快照目录下
+     * @title: exportSnapshot
+     * @description: //导出缓存快照(DUMP + PTTL), 后台执行, 立即返回任务进度
+     * @author: agent
+     * @date: Created in 2026/10/18 11:00
+     * @throws:
+     * @return: org.springframework.http.ResponseEntity<java.util.Map<java.lang.String,java.lang.Object>>
+     */
+    @PostMapping("/cache/snapshot/export")
+    public ResponseEntity<Map<String, Object>> exportSnapshot(@RequestParam(defaultValue = "") String prefix,
+                                                              @RequestParam String name) {
+        try {
+            return ResponseEntity.accepted().body(snapshotService.export(prefix, name).progress());
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> error = new LinkedHashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+
+    /**
+     * @param name    快照文件名, 位于快照目录下
+     * @param replace 已存在的 key 是否覆盖
+     * @title: importSnapshot
+     * @description: //导入缓存快照(并行 RESTORE), 后台执行, 立即返回任务进度
+     * @author: agent
+     * @date: Created in 2026/10/18 11:05
+     * @throws:
+     * @return: org.springframework.http.ResponseEntity<java.util.Map<java.lang.String,java.lang.Object>>
+     */
+    @PostMapping("/cache/snapshot/import")
+    public ResponseEntity<Map<String, Object>> importSnapshot(@RequestParam String name,
+                                                              @RequestParam(defaultValue = "true") boolean replace) {
+        try {
+            return ResponseEntity.accepted().body(snapshotService.restore(name, replace).progress());
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> error = new LinkedHashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+
+    /**
+     * @param id 任务 id
+     * @title: snapshotProgress
+     * @description: //查询快照任务进度
+     * @author: agent
+     * @date: Created in 2026/10/18 11:10
+     * @throws:
+     * @return: org.springframework.http.ResponseEntity<java.util.Map<java.lang.String,java.lang.Object>>
+     */
+    @GetMapping("/cache/snapshot/{id}")
+    public ResponseEntity<Map<String, Object>> snapshotProgress(@PathVariable String id) {
+        SnapshotJob job = snapshotService.get(id);
+        return job == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(job.progress());
+    }
+
+    /**
+     * @title: snapshots
+     * @description: //快照任务和快照目录下的文件
+     * @author: agent
+     * @date: Created in 2026/10/18 11:15
+     * @throws:
+     * @return: java.util.Map<java.lang.String,java.lang.Object>
+     */
+    @GetMapping("/cache/snapshot")
+    public Map<String, Object> snapshots() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("jobs", snapshotService.jobs());
+        map.put("files", snapshotService.files());
+        return map;
+    }
+
+    /**
+     * @title: rebuildBloom
+     * @description: //立即在后台重建布隆过滤器, 进度见 /cache/stats 中的 bloom
+     * @author: agent
+     * @date: Created in 2026/10/18 11:00
+     * @throws:
+     * @return: boolean 未开启或正在重建时返回 false
+     */
+    @PostMapping("/cache/bloom/rebuild")
+    public boolean rebuildBloom() {
+        return bloomFilter.rebuild(true);
+    }
+
+    /**
+     * @param samples          样本 key 个数
+     * @param value            样本值
+     * @param entriesPerBucket 每个桶的平均字段数
+     * @param time             时间(秒) 小于等于0 表示永久
+     * @title: bucketReport
+     * @description: //实测独立 key 与分桶存储每个 key 占用的 redis 内存, 样本写入后立即删除
+     * @author: agent
+     * @date: Created in 2026/10/18 11:00
+     * @throws:
+     * @return: org.springframework.http.ResponseEntity<java.util.Map<java.lang.String,java.lang.Object>>
+     */
+    @GetMapping("/cache/bucket/report")
+    public ResponseEntity<Map<String, Object>> bucketReport(@RequestParam(defaultValue = "100000") int samples,
+                                                            @RequestParam(defaultValue = "1") String value,
+                                                            @RequestParam(defaultValue = "100") int entriesPerBucket,
+                                                            @RequestParam(defaultValue = "0") long time) {
+        try {
+            return ResponseEntity.ok(bucketStore.report(samples, value, entriesPerBucket, time));
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> error = new LinkedHashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+
+    /**
+     * @param ops 操作数组, 每项包含 op(add/get/delete)、key、item、value、time
+     * @title: batchCache
+     * @description: //批量操作缓存, 一次 redis 往返, 结果顺序与请求一致
+     * @author: agent
+     * @date: Created in 2026/10/18 10:40
+     * @throws:
+     * @return: org.springframework.http.ResponseEntity<java.lang.String>
+     */
+    @PostMapping("/cache/batch")
+    public ResponseEntity<String> batchCache(@RequestBody List<JSONObject> ops) {
+        List<BatchOp> batchOps = new ArrayList<>(ops.size());
+        for (int i = 0; i < ops.size(); i++) {
+            JSONObject jsonObject = ops.get(i);
+            String op = jsonObject == null ? null : jsonObject.getString("op");
+            BatchOp.Type type = null;
+            for (BatchOp.Type value : BatchOp.Type.values()) {
+                if (value.name().equalsIgnoreCase(op)) {
+                    type = value;
+                }
+            }
+            if (type == null || StringUtils.isEmpty(jsonObject.getString("key"))) {
+                // 有一项不合法时整批都不执行
+                JSONObject error = new JSONObject(true);
+                error.put("error", type == null ? "op 只能是 add、get、delete：" + op : "key 不能为空");
+                error.put("index", i);
+                return ResponseEntity.badRequest().contentType(MediaType.APPLICATION_JSON_UTF8).body(error.toJSONString());
+            }
+            Long time = jsonObject.getLong("time");
+            batchOps.add(new BatchOp(type, jsonObject.getString("key"), jsonObject.getString("item"),
+                    jsonObject.get("value"), time == null ? 0 : time));
+        }
+        return ResponseEntity.ok(JSONObject.toJSONString(redisUtils.batch(batchOps)));
+    }
+
+    /**
+     * @title: stats
+     * @description: //缓存统计信息
+     * @author: agent
+     * @date: Created in 2026/10/18 11:30
+     * @throws:
+     * @return: java.util.Map<java.lang.String,java.lang.Object>
+     */
+    @GetMapping("/cache/stats")
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("local", localCache.stats());
+        stats.put("compression", compressionStats.stats());
+        stats.put("loader", singleFlightLoader.stats());
+        stats.put("hotKey", hotKeyDetector.stats());
+        stats.put("breaker", circuitBreaker.stats());
+        stats.put("stale", staleStore.stats());
+        stats.put("writeBehind", writeBehindBuffer.stats());
+        stats.put("sharding", shardRouter.stats());
+        stats.put("replica", replicaRouter.stats());
+        stats.put("bloom", bloomFilter.stats());
+        stats.put("bucket", bucketStore.stats());
+        stats.put("counter", counterAggregator.stats());
+        return stats;
+    }
+
+    /**
+     * @title: hotKeys
+     * @description: //当前访问频率最高的 key
+     * @author: agent
+     * @date: Created in 2026/10/18 10:40
+     * @throws:
+     * @return: java.util.List<java.util.Map<java.lang.String,java.lang.Object>>
+     */
+    @GetMapping("/cache/hotkeys")
+    public List<Map<String, Object>> hotKeys() {
+        return hotKeyDetector.hotKeys();
+    }
+
+    /**
+     * @param key 键
+     * @title: shard
+     * @description: //key 所在的分片节点
+     * @author: agent
+     * @date: Created in 2026/10/18 10:40
+     * @throws:
+     * @return: java.lang.String
+     */
+    @GetMapping("/cache/shard")
+    public String shard(@RequestParam("key") String key) {
+        return shardRouter.node(key);
+    }
+
+    /**
+     * @param plan 压测参数, 以请求参数传入, 未传的使用默认值, 如 rate=2000&duration=60&readPercent=90&writePercent=10&deletePercent=0
+     * @title: startLoadTest
+     * @description: //按固定速率调用 /redis/cache/add、get、delete 压测整个服务, 后台执行, 立即返回任务进度
+     * @author: agent
+     * @date: Created in 2026/10/18 11:00
+     * @throws:
+     * @return: org.springframework.http.ResponseEntity<java.util.Map<java.lang.String,java.lang.Object>>
+     */
+    @PostMapping("/loadtest")
+    public ResponseEntity<Map<String, Object>> startLoadTest(LoadPlan plan) {
+        try {
+            return ResponseEntity.accepted().body(loadGenerator.start(plan).progress());
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> error = new LinkedHashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+
+    /**
+     * @param id 压测 id
+     * @title: loadTestProgress
+     * @description: //压测进度和结果: 吞吐量, 每种操作修正协调遗漏后的延迟百分位(latencyMillis)和实际处理时间百分位(serviceTimeMillis)
+     * @author: agent
+     * @date: Created in 2026/10/18 11:05
+     * @throws:
+     * @return: org.springframework.http.ResponseEntity<java.util.Map<java.lang.String,java.lang.Object>>
+     */
+    @GetMapping("/loadtest/{id}")
+    public ResponseEntity<Map<String, Object>> loadTestProgress(@PathVariable String id) {
+        LoadTestJob job = loadGenerator.get(id);
+        return job == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(job.progress());
+    }
+
+    /**
+     * @param id        压测 id
+     * @param op        操作 add/get/delete, 为空表示全部
+     * @param corrected true 为修正协调遗漏后的延迟, false 为实际处理时间
+     * @title: loadTestHistogram
+     * @description: //延迟的完整百分位分布(毫秒), HdrHistogram 的 .hgrm 格式, 可以用 HdrHistogram 的绘图页面画图比较
+     * @author: agent
+     * @date: Created in 2026/10/18 11:10
+     * @throws:
+     * @return: org.springframework.http.ResponseEntity<java.lang.String>
+     */
+    @GetMapping(value = "/loadtest/{id}/hgrm", produces = MediaType.TEXT_PLAIN_VALUE)
+    public ResponseEntity<String> loadTestHistogram(@PathVariable String id, @RequestParam(required = false) String op,
+                                                    @RequestParam(defaultValue = "true") boolean corrected) {
+        LoadTestJob job = loadGenerator.get(id);
+        if (job == null) {
+            return ResponseEntity.notFound().build();
+        }
+        BatchOp.Type type;
+        try {
+            type = StringUtils.isEmpty(op) ? null : BatchOp.Type.valueOf(op.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("op 只能是 add、get、delete");
+        }
+        return ResponseEntity.ok(job.percentileDistribution(type, corrected));
+    }
+
+    /**
+     * @title: loadTests
+     * @description: //最近的压测
+     * @author: agent
+     * @date: Created in 2026/10/18 11:15
+     * @throws:
+     * @return: java.util.List<java.util.Map<java.lang.String,java.lang.Object>>
+     */
+    @GetMapping("/loadtest")
+    public List<Map<String, Object>> loadTests() {
+        return loadGenerator.jobs();
+    }
+
+    /**
+     * @param id 压测 id
+     * @title: cancelLoadTest
+     * @description: //停止压测, 已记录的结果保留
+     * @author: agent
+     * @date: Created in 2026/10/18 11:20
+     * @throws:
+     * @return: boolean 压测不存在或已结束时返回 false
+     */
+    @DeleteMapping("/loadtest/{id}")
+    public boolean cancelLoadTest(@PathVariable String id) {
+        return loadGenerator.cancel(id);
+    }
+
     @GetMapping("/setCache2")
     public String setCache2() {
         JSONObject jSONObject = new JSONObject();
@@ -0,0 +1,494 @@
+package com.yll.cache.counter;
+
+import com.yll.cache.config.Y2lCacheProperties;
+import com.yll.cache.local.LocalCache;
+import com.yll.cache.sharding.ShardRouter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * @className: CounterAggregator
+ * @description: //高频计数器本地聚合: 前缀匹配的 key 的 incr/decr/hincr/hdecr 只累加到本地的 LongAdder/DoubleAdder,
+ * 每隔 flush-interval 把增量按节点用管道一次写入(INCRBY/HINCRBYFLOAT). 累加器只增不清零, 每次写入记下已写入的总和,
+ * 下次写入两者之差, 不会丢失写入期间的并发累加. 写入失败时下次重试, 部分命令已执行的管道重试会重复计数.
+ * 长时间没有增量的计数器移出本地, 移出后再观察一轮, 保证拿到旧引用的并发累加也能写入
+ * @author: agent
+ * @date: Created in 2026/10/18 9:30
+ * @modify by: agent
+ * @version: V1.0
+ */
+@Component
+@Slf4j
+public class CounterAggregator {
+
+    /**
+     * 连续多少次写入都没有增量时移出本地
+     */
+    private static final int IDLE_FLUSHES = 10;
+    /**
+     * 关闭时写入的最多尝试次数
+     */
+    private static final int SHUTDOWN_ATTEMPTS = 3;
+
+    private final Y2lCacheProperties.Counter properties;
+    private final ConcurrentHashMap<String, Counter> counters = new ConcurrentHashMap<>();
+    /**
+     * 已移出、再观察一轮的计数器, 持有 flushLock 时访问
+     */
+    private List<Counter> retired = new ArrayList<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    private final LongAdder increments = new LongAdder();
+    private final LongAdder flushes = new LongAdder();
+    private final LongAdder flushedCommands = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder discarded = new LongAdder();
+
+    private ScheduledExecutorService scheduler;
+
+    @Autowired
+    ShardRouter shardRouter;
+    @Autowired
+    LocalCache localCache;
+
+    public CounterAggregator(Y2lCacheProperties properties) {
+        this.properties = properties.getCounter();
+    }
+
+    @PostConstruct
+    public void init() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "y2lcache-counter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = properties.getFlushInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(this::flush, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (scheduler == null) {
+            return;
+        }
+        scheduler.shutdown();
+        for (int attempt = 0; attempt < SHUTDOWN_ATTEMPTS && hasPending(); attempt++) {
+            flush();
+        }
+        if (hasPending()) {
+            log.error("Redis counter 关闭时仍有未写入的增量：counters -> {}", counters.size());
+        }
+    }
+
+    /**
+     * @param key 键
+     * @title: accepts
+     * @description: //key 是否按计数器本地聚合
+     * @author: agent
+     * @date: Created in 2026/10/18 9:40
+     * @throws:
+     * @return: boolean
+     */
+    public boolean accepts(String key) {
+        if (!properties.isEnabled() || key == null) {
+            return false;
+        }
+        for (String prefix : properties.getKeyPrefixes()) {
+            if (key.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param key   键
+     * @param delta 增量, 可以为负
+     * @title: incr
+     * @description: //累加到本地, 稍后写入 redis
+     * @author: agent
+     * @date: Created in 2026/10/18 9:45
+     * @throws:
+     * @return: long 估计值: 最近一次写入后 redis 中的值(新建的计数器为创建时 GET 到的值)加上本地尚未写入的增量,
+     * 不含其它实例尚未写入的增量
+     */
+    public long incr(String key, long delta) {
+        Counter counter = counter(key, null);
+        counter.longs.add(delta);
+        increments.increment();
+        return counter.lastLong + counter.pendingLong();
+    }
+
+    /**
+     * @param key   键
+     * @param item  项
+     * @param delta 增量, 可以为负
+     * @title: hincr
+     * @description: //hash 项累加到本地, 稍后写入 redis
+     * @author: agent
+     * @date: Created in 2026/10/18 9:50
+     * @throws:
+     * @return: double 估计值, 同 incr
+     */
+    public double hincr(String key, String item, double delta) {
+        Counter counter = counter(key, item);
+        counter.doubles.add(delta);
+        increments.increment();
+        return counter.lastDouble + counter.pendingDouble();
+    }
+
+    /**
+     * @param key   键
+     * @param item  项, 普通计数器为 null
+     * @param value redis 中读到的值
+     * @title: withPending
+     * @description: //开启 read-includes-pending 时在读到的值上加上本地尚未写入的增量
+     * @author: agent
+     * @date: Created in 2026/10/18 9:55
+     * @throws:
+     * @return: java.lang.Object
+     */
+    public Object withPending(String key, String item, Object value) {
+        if (!properties.isReadIncludesPending() || !accepts(key)) {
+            return value;
+        }
+        Counter counter = counters.get(mapKey(key, item));
+        if (counter == null || (value != null && !(value instanceof Number))) {
+            return value;
+        }
+        Number base = value == null ? 0 : (Number) value;
+        if (item == null) {
+            long pending = counter.pendingLong();
+            return pending == 0 ? value : base.longValue() + pending;
+        }
+        double pending = counter.pendingDouble();
+        return pending == 0 ? value : base.doubleValue() + pending;
+    }
+
+    /**
+     * @param key   键
+     * @param items 项, 为空时丢弃 key 本身及其所有项
+     * @title: discard
+     * @description: //删除 key 时丢弃本地尚未写入的增量, 避免删除之后又被写回
+     * @author: agent
+     * @date: Created in 2026/10/18 10:00
+     * @throws:
+     * @return: void
+     */
+    public void discard(String key, Object... items) {
+        if (!accepts(key)) {
+            return;
+        }
+        // 等正在进行的写入完成, 保证之后的删除在它后面执行
+        flushLock.lock();
+        try {
+            if (items == null || items.length == 0) {
+                counters.values().removeIf(counter -> {
+                    if (counter.key.equals(key)) {
+                        discarded.increment();
+                        return true;
+                    }
+                    return false;
+                });
+                retired.removeIf(counter -> counter.key.equals(key));
+                return;
+            }
+            for (Object item : items) {
+                String mapKey = mapKey(key, String.valueOf(item));
+                if (counters.remove(mapKey) != null) {
+                    discarded.increment();
+                }
+                retired.removeIf(counter -> mapKey.equals(mapKey(counter.key, counter.item)));
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    public void discard(Collection<String> keys) {
+        keys.forEach(key -> discard(key));
+    }
+
+    /**
+     * @title: flush
+     * @description: //把本地增量写入 redis, 分片时每个节点一个管道并行执行
+     * @author: agent
+     * @date: Created in 2026/10/18 10:05
+     * @throws:
+     * @return: void
+     */
+    public void flush() {
+        flushLock.lock();
+        try {
+            List<Delta> deltas = new ArrayList<>();
+            List<Counter> retiring = new ArrayList<>();
+            for (Map.Entry<String, Counter> entry : counters.entrySet()) {
+                Counter counter = entry.getValue();
+                Delta delta = counter.snapshot();
+                if (delta != null) {
+                    counter.idle = 0;
+                    deltas.add(delta);
+                } else if (++counter.idle >= IDLE_FLUSHES && counters.remove(entry.getKey(), counter)) {
+                    retiring.add(counter);
+                }
+            }
+            for (Counter counter : retired) {
+                Delta delta = counter.snapshot();
+                if (delta != null) {
+                    deltas.add(delta);
+                }
+            }
+            retired = retiring;
+            write(deltas);
+        } catch (RuntimeException e) {
+            // 没有提交的增量下次重试
+            failures.increment();
+            log.error("Redis occur counterFlushError：counters -> [{}]", counters.size(), e);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * @param key 键
+     * @title: flush
+     * @description: //立即写入 key 本身及其所有项的本地增量, 用于 expire 等不经过聚合的修改之前, 保证先后顺序;
+     * 与 WriteBehindBuffer.flush(key) 相同, 写入失败时抛出异常, 增量留到下次重试
+     * @author: agent
+     * @date: Created in 2026/10/18 15:00
+     * @throws:
+     * @return: void
+     */
+    public void flush(String key) {
+        if (!accepts(key)) {
+            return;
+        }
+        flushLock.lock();
+        try {
+            List<Delta> deltas = new ArrayList<>();
+            for (Counter counter : counters.values()) {
+                Delta delta = counter.key.equals(key) ? counter.snapshot() : null;
+                if (delta != null) {
+                    deltas.add(delta);
+                }
+            }
+            for (Counter counter : retired) {
+                Delta delta = counter.key.equals(key) ? counter.snapshot() : null;
+                if (delta != null) {
+                    deltas.add(delta);
+                }
+            }
+            write(deltas);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * 按节点用管道写入增量, 成功的提交为已写入; 持有 flushLock 时调用
+     */
+    private void write(List<Delta> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        shardRouter.parallel(shardRouter.group(deltas, delta -> delta.counter.key),
+                (template, shardDeltas) -> {
+                    List<Object> results = template.executePipelined((RedisCallback<Object>) connection -> {
+                        for (Delta delta : shardDeltas) {
+                            byte[] key = delta.counter.key.getBytes(StandardCharsets.UTF_8);
+                            if (delta.counter.item == null) {
+                                connection.incrBy(key, delta.longDelta);
+                            } else {
+                                connection.hIncrBy(key, delta.counter.item.getBytes(StandardCharsets.UTF_8), delta.doubleDelta);
+                            }
+                        }
+                        return null;
+                    });
+                    for (int i = 0; i < shardDeltas.size(); i++) {
+                        shardDeltas.get(i).commit(results.get(i));
+                    }
+                    return null;
+                });
+        Set<String> keys = new HashSet<>();
+        deltas.forEach(delta -> keys.add(delta.counter.key));
+        localCache.invalidate(keys);
+        flushes.increment();
+        flushedCommands.add(deltas.size());
+    }
+
+    private boolean hasPending() {
+        for (Counter counter : counters.values()) {
+            if (counter.pendingLong() != 0 || counter.pendingDouble() != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Counter counter(String key, String item) {
+        Counter counter = counters.computeIfAbsent(mapKey(key, item), k -> new Counter(key, item));
+        if (!counter.seeded) {
+            seed(counter);
+        }
+        return counter;
+    }
+
+    /**
+     * 新建的计数器还没有写入过, 用 GET/HGET 读出 redis 中的当前值作为 incr/hincr 返回值的基数;
+     * 读取失败时下次调用再读, 期间返回值只含本地增量. 不在 computeIfAbsent 内读取, 避免阻塞同一个桶里的其它 key
+     */
+    private void seed(Counter counter) {
+        byte[] raw;
+        try {
+            byte[] key = counter.key.getBytes(StandardCharsets.UTF_8);
+            raw = shardRouter.template(counter.key).execute((RedisCallback<byte[]>) connection -> counter.item == null
+                    ? connection.get(key) : connection.hGet(key, counter.item.getBytes(StandardCharsets.UTF_8)));
+        } catch (RuntimeException e) {
+            log.error("Redis occur counterSeedError：key -> [{}]", counter.key, e);
+            return;
+        }
+        String value = raw == null ? null : new String(raw, StandardCharsets.UTF_8);
+        try {
+            if (counter.item == null) {
+                counter.seed(value == null ? 0 : Long.parseLong(value), 0);
+            } else {
+                counter.seed(0, value == null ? 0 : Double.parseDouble(value));
+            }
+        } catch (NumberFormatException e) {
+            // 不是 INCRBY/HINCRBYFLOAT 写入的数字, 与 redis 一样会在写入时报错, 这里只记 0
+            log.warn("计数器的值不是数字：key -> [{}] item -> [{}]", counter.key, counter.item);
+            counter.seed(0, 0);
+        }
+    }
+
+    private static String mapKey(String key, String item) {
+        return item == null ? key : key + '\u0000' + item;
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("enabled", properties.isEnabled());
+        map.put("counters", counters.size());
+        map.put("increments", increments.sum());
+        map.put("flushes", flushes.sum());
+        map.put("flushedCommands", flushedCommands.sum());
+        map.put("failures", failures.sum());
+        map.put("discarded", discarded.sum());
+        return map;
+    }
+
+    /**
+     * 一个计数器: key 本身(item 为 null, 整数) 或 hash 的一项(浮点数)
+     */
+    private static final class Counter {
+        private final String key;
+        private final String item;
+        private final LongAdder longs = new LongAdder();
+        private final DoubleAdder doubles = new DoubleAdder();
+        /**
+         * 已写入 redis 的累加总和
+         */
+        private volatile long flushedLong;
+        private volatile double flushedDouble;
+        /**
+         * 最近一次写入后 redis 返回的值
+         */
+        private volatile long lastLong;
+        private volatile double lastDouble;
+        /**
+         * last 已经是 redis 中的值: 创建后读到了当前值, 或者已经写入过一次
+         */
+        private volatile boolean seeded;
+        private int idle;
+
+        private Counter(String key, String item) {
+            this.key = key;
+            this.item = item;
+        }
+
+        /**
+         * 读到的值早于并发完成的写入时不覆盖写入返回的值
+         */
+        private synchronized void seed(long lastLong, double lastDouble) {
+            if (!seeded) {
+                this.lastLong = lastLong;
+                this.lastDouble = lastDouble;
+                seeded = true;
+            }
+        }
+
+        private long pendingLong() {
+            return longs.sum() - flushedLong;
+        }
+
+        private double pendingDouble() {
+            return doubles.sum() - flushedDouble;
+        }
+
+        /**
+         * 当前的累加总和与已写入总和之差, 没有增量时返回 null
+         */
+        private Delta snapshot() {
+            if (item == null) {
+                long sum = longs.sum();
+                return sum == flushedLong ? null : new Delta(this, sum, sum - flushedLong, 0, 0);
+            }
+            double sum = doubles.sum();
+            return sum == flushedDouble ? null : new Delta(this, 0, 0, sum, sum - flushedDouble);
+        }
+    }
+
+    /**
+     * 一次写入的增量, 写入成功后把快照记为已写入
+     */
+    private static final class Delta {
+        private final Counter counter;
+        private final long longSum;
+        private final long longDelta;
+        private final double doubleSum;
+        private final double doubleDelta;
+
+        private Delta(Counter counter, long longSum, long longDelta, double doubleSum, double doubleDelta) {
+            this.counter = counter;
+            this.longSum = longSum;
+            this.longDelta = longDelta;
+            this.doubleSum = doubleSum;
+            this.doubleDelta = doubleDelta;
+        }
+
+        private void commit(Object result) {
+            synchronized (counter) {
+                if (counter.item == null) {
+                    counter.flushedLong = longSum;
+                    if (result instanceof Number) {
+                        counter.lastLong = ((Number) result).longValue();
+                        counter.seeded = true;
+                    }
+                } else {
+                    counter.flushedDouble = doubleSum;
+                    if (result instanceof Number) {
+                        counter.lastDouble = ((Number) result).doubleValue();
+                        counter.seeded = true;
+                    }
+                }
+            }
+        }
+    }
+}
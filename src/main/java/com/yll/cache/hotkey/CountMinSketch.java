@@ -0,0 +1,74 @@
+package com.yll.cache.hotkey;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * @className: CountMinSketch
+ * @description: //count-min 频率估计, depth 行 width 列计数器, 估计值只会偏大不会偏小. 线程安全, 不加锁
+ * @author: agent
+ * @date: Created in 2026/10/18 9:30
+ * @modify by: agent
+ * @version: V1.0
+ */
+public class CountMinSketch {
+
+    private final int depth;
+    private final int mask;
+    private final AtomicLongArray counters;
+
+    /**
+     * @param depth 行数(哈希函数个数)
+     * @param width 每行列数, 向上取 2 的幂
+     */
+    public CountMinSketch(int depth, int width) {
+        int size = Integer.highestOneBit(Math.max(width - 1, 1)) << 1;
+        this.depth = depth;
+        this.mask = size - 1;
+        this.counters = new AtomicLongArray(depth * size);
+    }
+
+    /**
+     * @param key    键
+     * @param amount 增加的次数
+     * @title: add
+     * @description: //计数并返回加上之后的估计值
+     * @author: agent
+     * @date: Created in 2026/10/18 9:40
+     * @throws:
+     * @return: long
+     */
+    public long add(String key, long amount) {
+        int hash = spread(key.hashCode());
+        int step = spread(hash * 0x9E3779B9) | 1;
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            int index = row * (mask + 1) + ((hash + row * step) & mask);
+            estimate = Math.min(estimate, counters.addAndGet(index, amount));
+        }
+        return estimate;
+    }
+
+    /**
+     * @title: decay
+     * @description: //所有计数减半, 让估计值反映最近的访问而不是累计访问
+     * @author: agent
+     * @date: Created in 2026/10/18 9:45
+     * @throws:
+     * @return: void
+     */
+    public void decay() {
+        for (int i = 0; i < counters.length(); i++) {
+            long value = counters.get(i);
+            // 与并发的 add 之间允许少量误差
+            counters.set(i, value >>> 1);
+        }
+    }
+
+    private static int spread(int h) {
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2AE35;
+        return h ^ (h >>> 16);
+    }
+}
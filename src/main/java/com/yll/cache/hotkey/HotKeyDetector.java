@@ -0,0 +1,199 @@
+package com.yll.cache.hotkey;
+
+import com.yll.cache.config.Y2lCacheProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * @className: HotKeyDetector
+ * @description: //热点 key 统计: 读取的 key 进入 count-min 估计访问频率, 频率最高的 topK 个作为候选;
+ * 每个窗口结束时计数减半. 开启 auto-pin 后估计值超过阈值的 key 由 LocalCache 以短过期时间缓存在本地
+ * @author: agent
+ * @date: Created in 2026/10/18 10:00
+ * @modify by: agent
+ * @version: V1.0
+ */
+@Component
+@Slf4j
+public class HotKeyDetector {
+
+    private final Y2lCacheProperties.HotKey properties;
+    private final CountMinSketch sketch;
+    private final ConcurrentHashMap<String, Long> candidates = new ConcurrentHashMap<>();
+    private final Set<String> pinned = ConcurrentHashMap.newKeySet();
+    private final ReentrantLock pruneLock = new ReentrantLock();
+    private final LongAdder recorded = new LongAdder();
+
+    /**
+     * 上次整理后 topK 中最小的估计值, 低于它的 key 不进入候选
+     */
+    private volatile long floor;
+    private ScheduledExecutorService scheduler;
+
+    public HotKeyDetector(Y2lCacheProperties properties) {
+        this.properties = properties.getHotKey();
+        this.sketch = new CountMinSketch(this.properties.getDepth(), this.properties.getWidth());
+    }
+
+    @PostConstruct
+    public void init() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "y2lcache-hotkey");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long window = properties.getWindow().toMillis();
+        scheduler.scheduleAtFixedRate(this::rotate, window, window, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * @param key 键
+     * @title: record
+     * @description: //记录一次访问, sample-rate 大于1 时按概率抽样, 抽中时按 sample-rate 次计数
+     * @author: agent
+     * @date: Created in 2026/10/18 10:10
+     * @throws:
+     * @return: void
+     */
+    public void record(String key) {
+        if (!properties.isEnabled() || key == null) {
+            return;
+        }
+        int sampleRate = properties.getSampleRate();
+        if (sampleRate > 1 && ThreadLocalRandom.current().nextInt(sampleRate) != 0) {
+            return;
+        }
+        recorded.increment();
+        long estimate = sketch.add(key, sampleRate);
+        if (estimate < floor && !candidates.containsKey(key)) {
+            return;
+        }
+        candidates.put(key, estimate);
+        if (properties.isAutoPin() && estimate >= properties.getPinThreshold() && !pinned.contains(key)
+                && pinned.size() < properties.getMaximumPinned()) {
+            pinned.add(key);
+        }
+        if (candidates.size() > properties.getTopK() * 2) {
+            prune();
+        }
+    }
+
+    /**
+     * @param key 键
+     * @title: isPinned
+     * @description: //key 是否被自动放入本地缓存
+     * @author: agent
+     * @date: Created in 2026/10/18 10:15
+     * @throws:
+     * @return: boolean
+     */
+    public boolean isPinned(String key) {
+        return !pinned.isEmpty() && pinned.contains(key);
+    }
+
+    /**
+     * @title: hotKeys
+     * @description: //当前访问频率最高的 key, 按估计值从高到低
+     * @author: agent
+     * @date: Created in 2026/10/18 10:20
+     * @throws:
+     * @return: java.util.List<java.util.Map<java.lang.String,java.lang.Object>>
+     */
+    public List<Map<String, Object>> hotKeys() {
+        List<Map.Entry<String, Long>> entries = sorted();
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (int i = 0; i < entries.size() && i < properties.getTopK(); i++) {
+            Map.Entry<String, Long> entry = entries.get(i);
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("key", entry.getKey());
+            map.put("estimate", entry.getValue());
+            map.put("pinned", pinned.contains(entry.getKey()));
+            result.add(map);
+        }
+        return result;
+    }
+
+    /**
+     * @title: stats
+     * @description: //热点统计概况
+     * @author: agent
+     * @date: Created in 2026/10/18 10:25
+     * @throws:
+     * @return: java.util.Map<java.lang.String,java.lang.Object>
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("enabled", properties.isEnabled());
+        map.put("recorded", recorded.sum());
+        map.put("candidates", candidates.size());
+        map.put("pinned", pinned.size());
+        return map;
+    }
+
+    private List<Map.Entry<String, Long>> sorted() {
+        List<Map.Entry<String, Long>> entries = new ArrayList<>(candidates.entrySet());
+        entries.sort((a, b) -> Long.compare(b.getValue(), a.getValue()));
+        return entries;
+    }
+
+    private void prune() {
+        if (!pruneLock.tryLock()) {
+            return;
+        }
+        try {
+            List<Map.Entry<String, Long>> entries = sorted();
+            int topK = properties.getTopK();
+            for (int i = topK; i < entries.size(); i++) {
+                candidates.remove(entries.get(i).getKey(), entries.get(i).getValue());
+            }
+            floor = entries.size() >= topK ? entries.get(topK - 1).getValue() : 0;
+        } finally {
+            pruneLock.unlock();
+        }
+    }
+
+    /**
+     * 窗口结束: 计数减半, 候选按减半后的值保留, 不再达到阈值的 key 取消本地缓存
+     */
+    private void rotate() {
+        try {
+            sketch.decay();
+            pruneLock.lock();
+            try {
+                candidates.replaceAll((key, estimate) -> estimate >>> 1);
+                candidates.values().removeIf(estimate -> estimate == 0);
+                floor = floor >>> 1;
+            } finally {
+                pruneLock.unlock();
+            }
+            pinned.removeIf(key -> candidates.getOrDefault(key, 0L) < properties.getPinThreshold());
+        } catch (RuntimeException e) {
+            log.error("Redis occur hotKeyRotateError：", e);
+        }
+    }
+}
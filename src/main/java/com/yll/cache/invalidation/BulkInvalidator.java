@@ -0,0 +1,272 @@
+package com.yll.cache.invalidation;
+
+import com.yll.cache.bucket.BucketStore;
+import com.yll.cache.config.Y2lCacheProperties;
+import com.yll.cache.counter.CounterAggregator;
+import com.yll.cache.local.LocalCache;
+import com.yll.cache.sharding.ShardRouter;
+import com.yll.cache.writebehind.WriteBehindBuffer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @className: BulkInvalidator
+ * @description: //按模式批量失效: 后台任务在每个节点上用 SCAN MATCH 分批遍历 key, 每批用 UNLINK 删除并失效本地缓存,
+ * 批与批之间停顿 pause. 每次 SCAN 和 UNLINK 都只处理 batch-size 个 key, 不会像 KEYS 或大 key 的 DEL 那样长时间阻塞 redis.
+ * SCAN 只保证任务开始前已存在且一直存在的 key 一定被遍历到, 任务执行期间新写入的 key 不一定被删除.
+ * 模式与分桶存储的 key 前缀重叠时, 还会在节点上的每个桶里用 HSCAN MATCH 找出匹配的字段并 HDEL
+ * @author: agent
+ * @date: Created in 2026/10/18 10:00
+ * @modify by: agent
+ * @version: V1.0
+ */
+@Component
+@Slf4j
+public class BulkInvalidator {
+
+    private final Y2lCacheProperties.Invalidation properties;
+    /**
+     * 按提交顺序保存的任务记录
+     */
+    private final LinkedHashMap<String, InvalidationJob> jobs = new LinkedHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private ExecutorService executor;
+
+    @Autowired
+    ShardRouter shardRouter;
+    @Autowired
+    LocalCache localCache;
+    @Autowired
+    WriteBehindBuffer writeBehindBuffer;
+    @Autowired
+    BucketStore bucketStore;
+    @Autowired
+    CounterAggregator counterAggregator;
+
+    public BulkInvalidator(Y2lCacheProperties properties) {
+        this.properties = properties.getInvalidation();
+    }
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = new ThreadPoolExecutor(properties.getThreads(), properties.getThreads(),
+                0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "y2lcache-invalidate-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void destroy() {
+        // 正在执行的任务被中断后记为取消
+        executor.shutdownNow();
+    }
+
+    /**
+     * @param pattern SCAN MATCH 模式, 如 user:123:*
+     * @title: submit
+     * @description: //提交失效任务, 立即返回, 进度通过 get 查询
+     * @author: agent
+     * @date: Created in 2026/10/18 10:10
+     * @throws: IllegalArgumentException 模式为空或为 *
+     * @return: com.yll.cache.invalidation.InvalidationJob
+     */
+    public InvalidationJob submit(String pattern) {
+        if (StringUtils.isEmpty(pattern) || "*".equals(pattern.trim())) {
+            // 清空整个库不应该通过模式失效完成
+            throw new IllegalArgumentException("失效模式不能为空或 *");
+        }
+        Map<String, RedisTemplate<String, Object>> templates = shardRouter.templates();
+        InvalidationJob job = new InvalidationJob(String.valueOf(sequence.incrementAndGet()), pattern, templates.size());
+        synchronized (jobs) {
+            jobs.put(job.getId(), job);
+            trim();
+        }
+        executor.execute(() -> run(job, templates));
+        log.info("提交失效任务：id -> [{}] pattern -> [{}]", job.getId(), pattern);
+        return job;
+    }
+
+    public InvalidationJob get(String id) {
+        synchronized (jobs) {
+            return jobs.get(id);
+        }
+    }
+
+    /**
+     * @param id 任务 id
+     * @title: cancel
+     * @description: //取消任务, 当前批删除完成后停止, 已删除的 key 不会恢复
+     * @author: agent
+     * @date: Created in 2026/10/18 10:15
+     * @throws:
+     * @return: boolean 任务不存在或已结束时返回 false
+     */
+    public boolean cancel(String id) {
+        InvalidationJob job = get(id);
+        if (job == null || job.isFinished()) {
+            return false;
+        }
+        job.cancel();
+        return true;
+    }
+
+    public List<Map<String, Object>> jobs() {
+        List<Map<String, Object>> list = new ArrayList<>();
+        synchronized (jobs) {
+            jobs.values().forEach(job -> list.add(job.progress()));
+        }
+        return list;
+    }
+
+    /**
+     * 超出 maximum-jobs 时丢弃最早结束的任务记录, 未结束的任务始终保留
+     */
+    private void trim() {
+        Iterator<InvalidationJob> iterator = jobs.values().iterator();
+        while (jobs.size() > properties.getMaximumJobs() && iterator.hasNext()) {
+            if (iterator.next().isFinished()) {
+                iterator.remove();
+            }
+        }
+    }
+
+    private void run(InvalidationJob job, Map<String, RedisTemplate<String, Object>> templates) {
+        if (job.isCancelRequested()) {
+            job.finish(InvalidationJob.State.CANCELLED, null);
+            return;
+        }
+        job.start();
+        try {
+            // 已缓冲的延迟写和本地聚合的计数器先写入 redis, 只在本地累加过的计数器这样才能被 SCAN 到
+            writeBehindBuffer.flush();
+            counterAggregator.flush();
+            for (Map.Entry<String, RedisTemplate<String, Object>> entry : templates.entrySet()) {
+                job.node(entry.getKey());
+                invalidate(job, entry.getValue());
+                if (bucketStore.overlaps(job.getPattern())) {
+                    invalidateBuckets(job, entry.getValue());
+                }
+                if (job.isCancelRequested()) {
+                    job.finish(InvalidationJob.State.CANCELLED, null);
+                    return;
+                }
+                job.nodeDone();
+            }
+            job.finish(InvalidationJob.State.DONE, null);
+            log.info("失效任务完成：id -> [{}] progress -> {}", job.getId(), job.progress());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            job.finish(InvalidationJob.State.CANCELLED, "interrupted");
+        } catch (RuntimeException e) {
+            log.error("Redis occur invalidateError：pattern -> [{}]", job.getPattern(), e);
+            job.finish(InvalidationJob.State.FAILED, e.getMessage());
+        }
+    }
+
+    private void invalidate(InvalidationJob job, RedisTemplate<String, Object> template) throws InterruptedException {
+        int batchSize = properties.getBatchSize();
+        ScanOptions options = ScanOptions.scanOptions().match(job.getPattern()).count(batchSize).build();
+        try (Cursor<byte[]> cursor = template.executeWithStickyConnection(
+                (RedisCallback<Cursor<byte[]>>) connection -> connection.scan(options))) {
+            List<byte[]> batch = new ArrayList<>(batchSize);
+            while (!job.isCancelRequested() && cursor.hasNext()) {
+                batch.add(cursor.next());
+                if (batch.size() >= batchSize) {
+                    delete(job, template, batch);
+                    batch.clear();
+                    pause();
+                }
+            }
+            if (!batch.isEmpty()) {
+                delete(job, template, batch);
+            }
+        } catch (IOException e) {
+            log.warn("关闭 SCAN 游标失败：pattern -> [{}]", job.getPattern(), e);
+        }
+    }
+
+    /**
+     * 分桶的 key 是桶里的字段, 逐个 HSCAN 该节点上的桶, 扫描结束后再删除, 与 BucketStore 清理过期字段的方式相同
+     */
+    private void invalidateBuckets(InvalidationJob job, RedisTemplate<String, Object> template) throws InterruptedException {
+        int batchSize = properties.getBatchSize();
+        ScanOptions options = ScanOptions.scanOptions().match(job.getPattern()).count(batchSize).build();
+        for (String bucket : bucketStore.buckets()) {
+            if (job.isCancelRequested()) {
+                return;
+            }
+            if (shardRouter.template(bucket) != template) {
+                continue;
+            }
+            byte[] rawBucket = bucket.getBytes(StandardCharsets.UTF_8);
+            List<byte[]> fields = new ArrayList<>();
+            try (Cursor<Map.Entry<byte[], byte[]>> cursor = template.executeWithStickyConnection(
+                    (RedisCallback<Cursor<Map.Entry<byte[], byte[]>>>) connection -> connection.hScan(rawBucket, options))) {
+                while (cursor.hasNext()) {
+                    fields.add(cursor.next().getKey());
+                }
+            } catch (IOException e) {
+                log.warn("关闭 HSCAN 游标失败：key -> [{}]", bucket, e);
+            }
+            for (int from = 0; from < fields.size(); from += batchSize) {
+                List<byte[]> batch = fields.subList(from, Math.min(fields.size(), from + batchSize));
+                byte[][] raw = batch.toArray(new byte[0][]);
+                List<String> names = names(template, batch);
+                counterAggregator.discard(names);
+                Long count = template.execute((RedisCallback<Long>) connection -> connection.hDel(rawBucket, raw));
+                localCache.invalidate(names);
+                job.batch(batch.size(), count == null ? 0 : count);
+                pause();
+            }
+        }
+    }
+
+    private void delete(InvalidationJob job, RedisTemplate<String, Object> template, List<byte[]> batch) {
+        byte[][] keys = batch.toArray(new byte[0][]);
+        List<String> names = names(template, batch);
+        // 与 RedisUtils.del 相同, 删除前丢弃计数器本地尚未写入的增量, 避免删除之后又被写回
+        counterAggregator.discard(names);
+        Long count = template.execute((RedisCallback<Long>) connection ->
+                properties.isUnlink() ? connection.unlink(keys) : connection.del(keys));
+        localCache.invalidate(names);
+        job.batch(keys.length, count == null ? 0 : count);
+    }
+
+    private static List<String> names(RedisTemplate<String, Object> template, List<byte[]> keys) {
+        RedisSerializer<?> keySerializer = template.getKeySerializer();
+        List<String> names = new ArrayList<>(keys.size());
+        for (byte[] key : keys) {
+            names.add((String) keySerializer.deserialize(key));
+        }
+        return names;
+    }
+
+    private void pause() throws InterruptedException {
+        long millis = properties.getPause().toMillis();
+        if (millis > 0) {
+            Thread.sleep(millis);
+        }
+    }
+}
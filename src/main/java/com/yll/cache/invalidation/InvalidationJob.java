@@ -0,0 +1,116 @@
+package com.yll.cache.invalidation;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @className: InvalidationJob
+ * @description: //一个按模式失效的任务及其进度, 由执行线程更新, 查询线程读取
+ * @author: agent
+ * @date: Created in 2026/10/18 9:40
+ * @modify by: agent
+ * @version: V1.0
+ */
+public class InvalidationJob {
+
+    public enum State {
+        QUEUED, RUNNING, DONE, CANCELLED, FAILED
+    }
+
+    private final String id;
+    private final String pattern;
+    private final int nodes;
+    private final long createdAt = System.currentTimeMillis();
+
+    private volatile State state = State.QUEUED;
+    private volatile String node;
+    private volatile long startedAt;
+    private volatile long finishedAt;
+    private volatile String error;
+    private volatile boolean cancelRequested;
+
+    private final AtomicLong nodesDone = new AtomicLong();
+    private final AtomicLong matched = new AtomicLong();
+    private final AtomicLong deleted = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+
+    public InvalidationJob(String id, String pattern, int nodes) {
+        this.id = id;
+        this.pattern = pattern;
+        this.nodes = nodes;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getPattern() {
+        return pattern;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public boolean isFinished() {
+        return state == State.DONE || state == State.CANCELLED || state == State.FAILED;
+    }
+
+    public long getFinishedAt() {
+        return finishedAt;
+    }
+
+    public boolean isCancelRequested() {
+        return cancelRequested;
+    }
+
+    void cancel() {
+        cancelRequested = true;
+    }
+
+    void start() {
+        startedAt = System.currentTimeMillis();
+        state = State.RUNNING;
+    }
+
+    void node(String node) {
+        this.node = node;
+    }
+
+    void nodeDone() {
+        nodesDone.incrementAndGet();
+    }
+
+    void batch(int matched, long deleted) {
+        this.matched.addAndGet(matched);
+        this.deleted.addAndGet(deleted);
+        batches.incrementAndGet();
+    }
+
+    void finish(State state, String error) {
+        this.error = error;
+        this.finishedAt = System.currentTimeMillis();
+        this.state = state;
+    }
+
+    public Map<String, Object> progress() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("id", id);
+        map.put("pattern", pattern);
+        map.put("state", state);
+        map.put("node", node);
+        map.put("nodes", nodes);
+        map.put("nodesDone", nodesDone.get());
+        map.put("matched", matched.get());
+        map.put("deleted", deleted.get());
+        map.put("batches", batches.get());
+        map.put("createdAt", createdAt);
+        map.put("startedAt", startedAt);
+        map.put("finishedAt", finishedAt);
+        long end = finishedAt > 0 ? finishedAt : System.currentTimeMillis();
+        map.put("elapsedMillis", startedAt > 0 ? end - startedAt : 0);
+        map.put("error", error);
+        return map;
+    }
+}
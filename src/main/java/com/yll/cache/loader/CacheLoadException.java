@@ -0,0 +1,16 @@
+package com.yll.cache.loader;
+
+/**
+ * @className: CacheLoadException
+ * @description: //getOrLoad 的加载方法抛出异常时包装抛出, 同一次加载的所有等待者收到同一个异常
+ * @author: agent
+ * @date: Created in 2026/10/18 9:30
+ * @modify by: agent
+ * @version: V1.0
+ */
+public class CacheLoadException extends RuntimeException {
+
+    public CacheLoadException(String key, Throwable cause) {
+        super("缓存加载失败：key -> [" + key + "]", cause);
+    }
+}
@@ -0,0 +1,305 @@
+package com.yll.cache.loader;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.yll.cache.config.Y2lCacheProperties;
+import com.yll.cache.serializer.RawRedisSerializer;
+import com.yll.cache.utils.RedisScripts;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * @className: SingleFlightLoader
+ * @description: //缓存未命中时合并加载: 同一个 key 在本进程内只有一个线程执行加载, 其余线程等待同一个结果, 不再访问 redis;
+ * 开启租约后通过 redis SET NX PX 在集群范围内也只有一个实例加载, 其余实例轮询 redis 等待写入;
+ * 开启提前刷新后按 XFetch 算法在过期前概率性地触发后台加载, 调用方继续拿当前值
+ * @author: agent
+ * @date: Created in 2026/10/18 9:40
+ * @modify by: agent
+ * @version: V1.0
+ */
+@Component
+@Slf4j
+public class SingleFlightLoader {
+
+    private final String instanceId = UUID.randomUUID().toString();
+    private final ConcurrentHashMap<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder leaseWaits = new LongAdder();
+    private final LongAdder refreshes = new LongAdder();
+    private final LongAdder refreshesDropped = new LongAdder();
+
+    /**
+     * 每个 key 最近一次加载耗时(毫秒), 即 XFetch 中的 delta
+     */
+    private Cache<String, Long> deltas;
+    private ThreadPoolExecutor refreshExecutor;
+
+    @Autowired
+    RedisTemplate redisTemplate;
+    @Autowired
+    Y2lCacheProperties properties;
+
+    @PostConstruct
+    public void init() {
+        Y2lCacheProperties.Loader config = properties.getLoader();
+        deltas = Caffeine.newBuilder().maximumSize(config.getMaximumTrackedKeys()).build();
+        AtomicInteger threadNumber = new AtomicInteger();
+        refreshExecutor = new ThreadPoolExecutor(config.getRefreshThreads(), config.getRefreshThreads(),
+                0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(config.getRefreshQueueSize()), runnable -> {
+            Thread thread = new Thread(runnable, "y2lcache-refresh-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void destroy() {
+        refreshExecutor.shutdownNow();
+    }
+
+    /**
+     * @param flightKey 合并加载的键, 同时也是租约键的后缀
+     * @param reader    读缓存
+     * @param loader    缓存不存在时的加载方法, 返回 null 时不写缓存
+     * @param writer    写缓存
+     * @title: load
+     * @description: //先读缓存, 未命中时合并加载并写回
+     * @author: agent
+     * @date: Created in 2026/10/18 9:55
+     * @throws: CacheLoadException 加载方法抛出异常
+     * @return: java.lang.Object
+     */
+    public Object load(String flightKey, Supplier<Object> reader, Callable<?> loader, Consumer<Object> writer) {
+        Object value = reader.get();
+        if (value != null) {
+            return value;
+        }
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(flightKey, flight);
+        if (existing != null) {
+            coalesced.increment();
+            return await(flightKey, existing);
+        }
+        try {
+            // 上一次加载可能在第一次读之后、putIfAbsent 之前刚写入并移除, 再读一次避免重复加载
+            Object loaded = reader.get();
+            if (loaded == null) {
+                loaded = properties.getLoader().isLeaseEnabled()
+                        ? loadWithLease(flightKey, reader, loader, writer)
+                        : loadAndWrite(flightKey, loader, writer);
+            }
+            flight.complete(loaded);
+            return loaded;
+        } catch (RuntimeException e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(flightKey, flight);
+        }
+    }
+
+    /**
+     * @param flightKey 合并加载的键
+     * @param reader    一次往返读出缓存值和剩余过期时间
+     * @param loader    缓存不存在时的加载方法, 返回 null 时不写缓存
+     * @param writer    写缓存
+     * @title: loadAhead
+     * @description: //同 load, 命中时再按 XFetch 判断是否需要提前刷新: -delta * beta * ln(random) >= 剩余时间 则提交后台加载,
+     * 本次直接返回当前值; delta 是本实例观察到的该 key 加载耗时, 没有观察到过时不提前刷新
+     * @author: agent
+     * @date: Created in 2026/10/18 9:40
+     * @throws: CacheLoadException 加载方法抛出异常
+     * @return: java.lang.Object
+     */
+    public Object loadAhead(String flightKey, Supplier<TimedValue> reader, Callable<?> loader, Consumer<Object> writer) {
+        TimedValue timed = reader.get();
+        if (timed.getValue() == null) {
+            return load(flightKey, () -> reader.get().getValue(), loader, writer);
+        }
+        Long delta = deltas.getIfPresent(flightKey);
+        if (delta != null && timed.getTtlMillis() > 0 && shouldRefresh(delta, timed.getTtlMillis())) {
+            refresh(flightKey, timed.getValue(), loader, writer);
+        }
+        return timed.getValue();
+    }
+
+    /**
+     * @title: isRefreshAhead
+     * @description: //是否开启了提前刷新
+     * @author: agent
+     * @date: Created in 2026/10/18 9:35
+     * @throws:
+     * @return: boolean
+     */
+    public boolean isRefreshAhead() {
+        return properties.getLoader().isRefreshAhead();
+    }
+
+    private boolean shouldRefresh(long delta, long ttlMillis) {
+        // 1 - nextDouble() 取值 (0, 1], 避免 ln(0)
+        double random = 1.0 - ThreadLocalRandom.current().nextDouble();
+        return -delta * properties.getLoader().getBeta() * Math.log(random) >= ttlMillis;
+    }
+
+    /**
+     * 刷新期间恰好过期而未命中的线程会等待这次刷新; 刷新失败、被其它实例抢先或被丢弃时给它们当前值
+     */
+    private void refresh(String flightKey, Object current, Callable<?> loader, Consumer<Object> writer) {
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        if (inFlight.putIfAbsent(flightKey, flight) != null) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                Object value = null;
+                try {
+                    value = refreshWithLease(flightKey, loader, writer);
+                } catch (RuntimeException e) {
+                    log.error("Redis occur refreshError：key -> [{}]", flightKey, e);
+                } finally {
+                    flight.complete(value == null ? current : value);
+                    inFlight.remove(flightKey, flight);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            refreshesDropped.increment();
+            inFlight.remove(flightKey, flight);
+            flight.complete(current);
+        }
+    }
+
+    private Object refreshWithLease(String flightKey, Callable<?> loader, Consumer<Object> writer) {
+        refreshes.increment();
+        Y2lCacheProperties.Loader config = properties.getLoader();
+        if (!config.isLeaseEnabled()) {
+            return loadAndWrite(flightKey, loader, writer);
+        }
+        byte[] leaseKey = (config.getLeasePrefix() + flightKey).getBytes(StandardCharsets.UTF_8);
+        byte[] token = (instanceId + ":" + Thread.currentThread().getId()).getBytes(StandardCharsets.UTF_8);
+        Boolean acquired = (Boolean) redisTemplate.execute((RedisCallback<Boolean>) connection ->
+                connection.set(leaseKey, token, Expiration.milliseconds(config.getLeaseTime().toMillis()),
+                        RedisStringCommands.SetOption.ifAbsent()));
+        if (!Boolean.TRUE.equals(acquired)) {
+            // 其它实例正在刷新
+            return null;
+        }
+        try {
+            return loadAndWrite(flightKey, loader, writer);
+        } finally {
+            redisTemplate.execute(RedisScripts.LEASE_RELEASE, RawRedisSerializer.INSTANCE, RawRedisSerializer.INSTANCE,
+                    Collections.singletonList(config.getLeasePrefix() + flightKey), token);
+        }
+    }
+
+    private Object await(String flightKey, CompletableFuture<Object> flight) {
+        try {
+            return flight.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new CacheLoadException(flightKey, e.getCause());
+        }
+    }
+
+    private Object loadAndWrite(String flightKey, Callable<?> loader, Consumer<Object> writer) {
+        Object value;
+        long start = System.nanoTime();
+        try {
+            value = loader.call();
+        } catch (Exception e) {
+            throw new CacheLoadException(flightKey, e);
+        }
+        deltas.put(flightKey, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        loads.increment();
+        if (value != null) {
+            writer.accept(value);
+        }
+        return value;
+    }
+
+    private Object loadWithLease(String flightKey, Supplier<Object> reader, Callable<?> loader, Consumer<Object> writer) {
+        Y2lCacheProperties.Loader config = properties.getLoader();
+        byte[] leaseKey = (config.getLeasePrefix() + flightKey).getBytes(StandardCharsets.UTF_8);
+        byte[] token = (instanceId + ":" + Thread.currentThread().getId()).getBytes(StandardCharsets.UTF_8);
+        long leaseMillis = config.getLeaseTime().toMillis();
+        long deadline = System.currentTimeMillis() + leaseMillis;
+        while (true) {
+            Boolean acquired = (Boolean) redisTemplate.execute((RedisCallback<Boolean>) connection ->
+                    connection.set(leaseKey, token, Expiration.milliseconds(leaseMillis), RedisStringCommands.SetOption.ifAbsent()));
+            if (Boolean.TRUE.equals(acquired)) {
+                try {
+                    return loadAndWrite(flightKey, loader, writer);
+                } finally {
+                    redisTemplate.execute(RedisScripts.LEASE_RELEASE, RawRedisSerializer.INSTANCE, RawRedisSerializer.INSTANCE,
+                            Collections.singletonList(config.getLeasePrefix() + flightKey), token);
+                }
+            }
+            // 其它实例正在加载, 等它写入 redis
+            leaseWaits.increment();
+            try {
+                Thread.sleep(config.getPollInterval().toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CacheLoadException(flightKey, e);
+            }
+            Object value = reader.get();
+            if (value != null) {
+                return value;
+            }
+            if (System.currentTimeMillis() > deadline) {
+                // 持有者超过租约时间仍未写入, 不再等待
+                log.warn("Redis lease wait timeout：key -> [{}]", flightKey);
+                return loadAndWrite(flightKey, loader, writer);
+            }
+        }
+    }
+
+    /**
+     * @title: stats
+     * @description: //合并加载统计
+     * @author: agent
+     * @date: Created in 2026/10/18 10:20
+     * @throws:
+     * @return: java.util.Map<java.lang.String,java.lang.Object>
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("loads", loads.sum());
+        map.put("coalesced", coalesced.sum());
+        map.put("leaseWaits", leaseWaits.sum());
+        map.put("refreshes", refreshes.sum());
+        map.put("refreshesDropped", refreshesDropped.sum());
+        map.put("inFlight", inFlight.size());
+        return map;
+    }
+}
@@ -0,0 +1,21 @@
+package com.yll.cache.loader;
+
+import lombok.Data;
+
+/**
+ * @className: TimedValue
+ * @description: //缓存值和它的剩余过期时间, 由同一次 redis 往返读出
+ * @author: agent
+ * @date: Created in 2026/10/18 9:20
+ * @modify by: agent
+ * @version: V1.0
+ */
+@Data
+public class TimedValue {
+
+    private final Object value;
+    /**
+     * 剩余过期时间(毫秒) -1 表示永久有效 -2 表示不存在
+     */
+    private final long ttlMillis;
+}
@@ -0,0 +1,271 @@
+package com.yll.cache.loadtest;
+
+import com.alibaba.fastjson.JSONObject;
+import com.yll.cache.config.Y2lCacheProperties;
+import com.yll.cache.utils.BatchOp;
+import com.yll.cache.utils.RedisUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * @className: LoadGenerator
+ * @description: //端到端压测: 和 setCache2/getCache2 一样由应用自己调用自己的 /redis/cache/add、/redis/cache/get、/redis/cache/delete,
+ * 经过 Tomcat 线程、fastjson 解析、序列化和 lettuce 连接, 按固定速率发出请求.
+ * 第 i 个请求的计划发出时刻为 开始时刻 + i / rate, 延迟从计划时刻算起, 响应变慢导致的推迟也计入延迟, 不会像闭环压测那样漏掉排队时间.
+ * 压测线程与被测服务在同一个进程中, 会占用一部分 CPU; JDK HttpURLConnection 默认每个地址只保持 5 个空闲连接,
+ * threads 大于 5 时需要用 -Dhttp.maxConnections 调大, 否则多出的连接每次重新建立
+ * @author: agent
+ * @date: Created in 2026/10/18 10:00
+ * @modify by: agent
+ * @version: V1.0
+ */
+@Component
+@Slf4j
+public class LoadGenerator {
+
+    private static final int PRELOAD_BATCH = 1000;
+    private static final char[] ALPHABET = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789".toCharArray();
+
+    private final Y2lCacheProperties.LoadTest properties;
+    private final LinkedHashMap<String, LoadTestJob> jobs = new LinkedHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private RestTemplate restTemplate;
+    /**
+     * 压测依次执行, 同时只有一个
+     */
+    private ExecutorService jobExecutor;
+
+    @Autowired
+    RedisUtils redisUtils;
+    @Autowired
+    RestTemplateBuilder restTemplateBuilder;
+    @Autowired
+    Environment environment;
+
+    public LoadGenerator(Y2lCacheProperties properties) {
+        this.properties = properties.getLoadTest();
+    }
+
+    @PostConstruct
+    public void init() {
+        restTemplate = restTemplateBuilder
+                .setConnectTimeout(properties.getTimeout())
+                .setReadTimeout(properties.getTimeout())
+                .build();
+        jobExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "y2lcache-load");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void destroy() {
+        jobExecutor.shutdownNow();
+    }
+
+    /**
+     * @param plan 压测参数
+     * @title: start
+     * @description: //提交压测, 立即返回, 结果通过 get 查询
+     * @author: agent
+     * @date: Created in 2026/10/18 10:10
+     * @throws: IllegalArgumentException 未开启、参数不合法或已有压测未结束
+     * @return: com.yll.cache.loadtest.LoadTestJob
+     */
+    public LoadTestJob start(LoadPlan plan) {
+        if (!properties.isEnabled()) {
+            throw new IllegalArgumentException("压测未开启, 需要配置 y2lcache.load-test.enabled=true");
+        }
+        plan.validate(properties.getMaximumRate());
+        LoadTestJob job;
+        synchronized (jobs) {
+            for (LoadTestJob running : jobs.values()) {
+                if (!running.isFinished()) {
+                    // 两个压测同时执行时互相干扰, 结果都没有意义
+                    throw new IllegalArgumentException("已有压测未结束：" + running.getId());
+                }
+            }
+            job = new LoadTestJob(String.valueOf(sequence.incrementAndGet()), plan, baseUrl());
+            jobs.put(job.getId(), job);
+            Iterator<LoadTestJob> iterator = jobs.values().iterator();
+            while (jobs.size() > properties.getMaximumJobs() && iterator.hasNext()) {
+                if (iterator.next().isFinished()) {
+                    iterator.remove();
+                }
+            }
+        }
+        LoadTestJob submitted = job;
+        jobExecutor.execute(() -> run(submitted));
+        log.info("提交压测：id -> [{}] plan -> [{}]", job.getId(), plan);
+        return job;
+    }
+
+    public LoadTestJob get(String id) {
+        synchronized (jobs) {
+            return jobs.get(id);
+        }
+    }
+
+    /**
+     * @param id 压测 id
+     * @title: cancel
+     * @description: //停止压测, 已记录的结果保留
+     * @author: agent
+     * @date: Created in 2026/10/18 10:15
+     * @throws:
+     * @return: boolean 压测不存在或已结束时返回 false
+     */
+    public boolean cancel(String id) {
+        LoadTestJob job = get(id);
+        if (job == null || job.isFinished()) {
+            return false;
+        }
+        job.cancel();
+        return true;
+    }
+
+    public List<Map<String, Object>> jobs() {
+        List<Map<String, Object>> list = new ArrayList<>();
+        synchronized (jobs) {
+            jobs.values().forEach(job -> list.add(job.progress()));
+        }
+        return list;
+    }
+
+    /**
+     * 未配置 base-url 时调用本机当前端口
+     */
+    private String baseUrl() {
+        if (!StringUtils.isEmpty(properties.getBaseUrl())) {
+            return properties.getBaseUrl();
+        }
+        String port = environment.getProperty("local.server.port", environment.getProperty("server.port", "8080"));
+        return "http://127.0.0.1:" + port;
+    }
+
+    private void run(LoadTestJob job) {
+        LoadPlan plan = job.getPlan();
+        AtomicInteger threadNumber = new AtomicInteger();
+        ExecutorService workers = Executors.newFixedThreadPool(plan.getThreads(), runnable -> {
+            Thread thread = new Thread(runnable, "y2lcache-load-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            String pool = pool(plan.getValueSizeMax() * 2);
+            if (plan.isPreload()) {
+                job.preloading();
+                preload(job, pool);
+            }
+            long total = plan.totalRequests();
+            double interval = 1e9 / plan.getRate();
+            long start = System.nanoTime();
+            job.start(start + TimeUnit.SECONDS.toNanos(plan.getWarmup()));
+            AtomicLong next = new AtomicLong();
+            for (int i = 0; i < plan.getThreads(); i++) {
+                workers.execute(() -> send(job, pool, next, total, start, interval));
+            }
+            workers.shutdown();
+            while (!workers.awaitTermination(1, TimeUnit.SECONDS)) {
+                if (job.isCancelRequested()) {
+                    workers.shutdownNow();
+                }
+            }
+            job.finish(job.isCancelRequested() ? LoadTestJob.State.CANCELLED : LoadTestJob.State.DONE, null);
+            log.info("压测结束：{}", job.progress());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            job.finish(LoadTestJob.State.CANCELLED, "interrupted");
+        } catch (RuntimeException e) {
+            log.error("Redis occur loadTestError：id -> [{}]", job.getId(), e);
+            job.finish(LoadTestJob.State.FAILED, e.getMessage());
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    /**
+     * 写入全部 key, 与 /redis/cache/add 写入的值相同, 直接批量写 redis, 不计入结果
+     */
+    private void preload(LoadTestJob job, String pool) {
+        LoadPlan plan = job.getPlan();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Map<String, Object> batch = new HashMap<>();
+        for (int i = 0; i < plan.getKeyCount() && !job.isCancelRequested(); i++) {
+            batch.put(plan.key(i), plan.value(random, pool));
+            if (batch.size() == PRELOAD_BATCH || i == plan.getKeyCount() - 1) {
+                redisUtils.mset(batch, plan.getTime());
+                job.preloaded(batch.size());
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * 每个线程依次领取下一个请求序号, 等到它的计划时刻再发出; 所有线程都在等响应时, 后面的请求晚于计划时刻发出
+     */
+    private void send(LoadTestJob job, String pool, AtomicLong next, long total, long start, double interval) {
+        LoadPlan plan = job.getPlan();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String url = job.getBaseUrl() + "/redis/cache/";
+        while (!job.isCancelRequested() && !Thread.currentThread().isInterrupted()) {
+            long i = next.getAndIncrement();
+            if (i >= total) {
+                return;
+            }
+            long intended = start + (long) (i * interval);
+            long wait;
+            while ((wait = intended - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            BatchOp.Type type = plan.operation(random);
+            String key = plan.key(random);
+            long begin = System.nanoTime();
+            boolean success = true;
+            try {
+                switch (type) {
+                    case ADD:
+                        JSONObject jsonObject = new JSONObject();
+                        jsonObject.put("key", key);
+                        jsonObject.put("value", plan.value(random, pool));
+                        jsonObject.put("time", plan.getTime());
+                        restTemplate.postForObject(url + "add", jsonObject, Boolean.class);
+                        break;
+                    case GET:
+                        restTemplate.getForObject(url + "get?key={key}", String.class, key);
+                        break;
+                    default:
+                        restTemplate.delete(url + "delete?key={key}", key);
+                }
+            } catch (RestClientException e) {
+                success = false;
+                job.error(e.getMessage());
+            }
+            job.record(type, intended, begin, System.nanoTime(), success);
+        }
+    }
+
+    private static String pool(int length) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        char[] chars = new char[length];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = ALPHABET[random.nextInt(ALPHABET.length)];
+        }
+        return new String(chars);
+    }
+}
@@ -0,0 +1,154 @@
+package com.yll.cache.loadtest;
+
+import com.yll.cache.utils.BatchOp;
+import lombok.Data;
+import org.springframework.util.StringUtils;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * @className: LoadPlan
+ * @description: //一次压测的参数: 固定速率、读写删比例、key 分布和 value 大小分布
+ * @author: agent
+ * @date: Created in 2026/10/18 9:40
+ * @modify by: agent
+ * @version: V1.0
+ */
+@Data
+public class LoadPlan {
+
+    private static final int MAXIMUM_VALUE_SIZE = 1 << 20;
+
+    /**
+     * 每秒请求数, 请求按固定间隔发出, 不因响应变慢而减少
+     */
+    private int rate = 1000;
+    /**
+     * 计入结果的时长(秒)
+     */
+    private int duration = 30;
+    /**
+     * 预热时长(秒), 预热期间的请求不计入结果
+     */
+    private int warmup = 5;
+    /**
+     * 发请求的线程数, 即最大并发; 线程都在等待响应时后面的请求被推迟, 推迟的时间计入延迟
+     */
+    private int threads = 16;
+    /**
+     * 读(/redis/cache/get)、写(/redis/cache/add)、删(/redis/cache/delete)的百分比, 三者之和为 100
+     */
+    private int readPercent = 80;
+    private int writePercent = 15;
+    private int deletePercent = 5;
+    /**
+     * key 前缀, 不能为空, 避免压测读写业务 key
+     */
+    private String keyPrefix = "loadtest:";
+    /**
+     * key 个数, key 为 前缀 + 0 ~ keyCount-1
+     */
+    private int keyCount = 10000;
+    /**
+     * 热点 key 占 key 总数的比例, 小于等于0 或大于等于1 时均匀分布
+     */
+    private double hotKeyRatio = 0.2;
+    /**
+     * 落在热点 key 上的请求比例
+     */
+    private double hotRequestRatio = 0.8;
+    /**
+     * 写入的 value 长度(字符), 在最小值和最大值之间均匀分布
+     */
+    private int valueSizeMin = 64;
+    private int valueSizeMax = 1024;
+    /**
+     * 写入的过期时间(秒), 小于等于0 表示永久
+     */
+    private long time = 600;
+    /**
+     * 开始前是否先写入全部 key, 否则开始阶段的读大多未命中
+     */
+    private boolean preload = true;
+
+    /**
+     * @param maximumRate 允许的最大速率
+     * @title: validate
+     * @description: //校验参数
+     * @author: agent
+     * @date: Created in 2026/10/18 9:45
+     * @throws: IllegalArgumentException 参数不合法
+     * @return: void
+     */
+    public void validate(int maximumRate) {
+        if (rate <= 0 || rate > maximumRate) {
+            throw new IllegalArgumentException("rate 必须在 1 ~ " + maximumRate + " 之间");
+        }
+        if (duration <= 0 || warmup < 0) {
+            throw new IllegalArgumentException("duration 必须大于0, warmup 不能小于0");
+        }
+        if (threads <= 0) {
+            throw new IllegalArgumentException("threads 必须大于0");
+        }
+        if (readPercent < 0 || writePercent < 0 || deletePercent < 0 || readPercent + writePercent + deletePercent != 100) {
+            throw new IllegalArgumentException("readPercent、writePercent、deletePercent 不能小于0且之和必须为 100");
+        }
+        if (StringUtils.isEmpty(keyPrefix) || keyCount <= 0) {
+            throw new IllegalArgumentException("keyPrefix 不能为空, keyCount 必须大于0");
+        }
+        if (hotRequestRatio < 0 || hotRequestRatio > 1) {
+            throw new IllegalArgumentException("hotRequestRatio 必须在 0 ~ 1 之间");
+        }
+        if (valueSizeMin <= 0 || valueSizeMax < valueSizeMin || valueSizeMax > MAXIMUM_VALUE_SIZE) {
+            throw new IllegalArgumentException("valueSizeMin 必须大于0且不大于 valueSizeMax, valueSizeMax 不能超过 " + MAXIMUM_VALUE_SIZE);
+        }
+    }
+
+    /**
+     * @return 预热和计入结果的请求总数
+     */
+    public long totalRequests() {
+        return (long) rate * (warmup + duration);
+    }
+
+    /**
+     * 按读写删比例随机选择操作
+     */
+    BatchOp.Type operation(ThreadLocalRandom random) {
+        int n = random.nextInt(100);
+        if (n < readPercent) {
+            return BatchOp.Type.GET;
+        }
+        return n < readPercent + writePercent ? BatchOp.Type.ADD : BatchOp.Type.DELETE;
+    }
+
+    /**
+     * 按热点比例随机选择 key
+     */
+    String key(ThreadLocalRandom random) {
+        int hotKeys = (int) (keyCount * hotKeyRatio);
+        int index;
+        if (hotKeys <= 0 || hotKeys >= keyCount) {
+            index = random.nextInt(keyCount);
+        } else if (random.nextDouble() < hotRequestRatio) {
+            index = random.nextInt(hotKeys);
+        } else {
+            index = hotKeys + random.nextInt(keyCount - hotKeys);
+        }
+        return keyPrefix + index;
+    }
+
+    String key(int index) {
+        return keyPrefix + index;
+    }
+
+    /**
+     * @param pool 长度为 2 * valueSizeMax 的随机字符
+     * @return 随机长度、随机起点的一段
+     */
+    String value(ThreadLocalRandom random, String pool) {
+        int size = valueSizeMin + random.nextInt(valueSizeMax - valueSizeMin + 1);
+        int offset = random.nextInt(valueSizeMax + 1);
+        return pool.substring(offset, offset + size);
+    }
+}
@@ -0,0 +1,232 @@
+package com.yll.cache.loadtest;
+
+import com.yll.cache.utils.BatchOp;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.io.UnsupportedEncodingException;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @className: LoadTestJob
+ * @description: //一次压测及其结果, 由发请求的线程记录, 查询线程读取.
+ * 每个操作两个直方图: latency 从计划发出时刻算起, 包含请求因前面的请求变慢而被推迟的时间(修正协调遗漏);
+ * serviceTime 从实际发出时刻算起, 与普通压测工具的结果相同, 两者差距越大说明排队越严重
+ * @author: agent
+ * @date: Created in 2026/10/18 9:50
+ * @modify by: agent
+ * @version: V1.0
+ */
+public class LoadTestJob {
+
+    public enum State {
+        QUEUED, PRELOADING, RUNNING, DONE, CANCELLED, FAILED
+    }
+
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9, 99.99};
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    private final String id;
+    private final LoadPlan plan;
+    private final String baseUrl;
+    private final long createdAt = System.currentTimeMillis();
+
+    private volatile State state = State.QUEUED;
+    private volatile long startedAt;
+    private volatile long finishedAt;
+    private volatile String error;
+    private volatile boolean cancelRequested;
+    /**
+     * 开始计入结果和结束的 System.nanoTime()
+     */
+    private volatile long measureFrom;
+    private volatile long measureTo;
+
+    private final AtomicLong preloaded = new AtomicLong();
+    private final AtomicLong sent = new AtomicLong();
+    private final Map<BatchOp.Type, Stats> stats = new EnumMap<>(BatchOp.Type.class);
+
+    public LoadTestJob(String id, LoadPlan plan, String baseUrl) {
+        this.id = id;
+        this.plan = plan;
+        this.baseUrl = baseUrl;
+        for (BatchOp.Type type : BatchOp.Type.values()) {
+            stats.put(type, new Stats());
+        }
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public LoadPlan getPlan() {
+        return plan;
+    }
+
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public boolean isFinished() {
+        return state == State.DONE || state == State.CANCELLED || state == State.FAILED;
+    }
+
+    public boolean isCancelRequested() {
+        return cancelRequested;
+    }
+
+    void cancel() {
+        cancelRequested = true;
+    }
+
+    void preloading() {
+        startedAt = System.currentTimeMillis();
+        state = State.PRELOADING;
+    }
+
+    void preloaded(long keys) {
+        preloaded.addAndGet(keys);
+    }
+
+    void start(long measureFrom) {
+        if (startedAt == 0) {
+            startedAt = System.currentTimeMillis();
+        }
+        this.measureFrom = measureFrom;
+        state = State.RUNNING;
+    }
+
+    /**
+     * @param intended 计划发出的时刻(nanoTime)
+     * @param begin    实际发出的时刻
+     * @param end      收到响应的时刻
+     */
+    void record(BatchOp.Type type, long intended, long begin, long end, boolean success) {
+        sent.incrementAndGet();
+        if (intended < measureFrom) {
+            return;
+        }
+        Stats stat = stats.get(type);
+        stat.latency.recordValue(end - intended);
+        stat.serviceTime.recordValue(end - begin);
+        if (!success) {
+            stat.errors.incrementAndGet();
+        }
+    }
+
+    void error(String error) {
+        this.error = error;
+    }
+
+    void finish(State state, String error) {
+        if (error != null) {
+            this.error = error;
+        }
+        if (measureFrom > 0) {
+            measureTo = System.nanoTime();
+        }
+        this.finishedAt = System.currentTimeMillis();
+        this.state = state;
+    }
+
+    /**
+     * @param type      操作, 为空表示全部操作
+     * @param corrected true 为 latency, false 为 serviceTime
+     * @return 毫秒为单位的百分位分布, HdrHistogram 的 .hgrm 格式
+     */
+    public String percentileDistribution(BatchOp.Type type, boolean corrected) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (PrintStream printStream = new PrintStream(out, true, "UTF-8")) {
+            histogram(type, corrected).outputPercentileDistribution(printStream, NANOS_PER_MILLI);
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    public Map<String, Object> progress() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("id", id);
+        map.put("state", state);
+        map.put("baseUrl", baseUrl);
+        map.put("plan", plan);
+        map.put("preloaded", preloaded.get());
+        map.put("sent", sent.get());
+        map.put("createdAt", createdAt);
+        map.put("startedAt", startedAt);
+        map.put("finishedAt", finishedAt);
+        long end = finishedAt > 0 ? finishedAt : System.currentTimeMillis();
+        map.put("elapsedMillis", startedAt > 0 ? end - startedAt : 0);
+        Histogram all = histogram(null, true);
+        long measuredNanos = measureFrom > 0 ? (measureTo > 0 ? measureTo : System.nanoTime()) - measureFrom : 0;
+        map.put("measured", all.getTotalCount());
+        map.put("targetRate", plan.getRate());
+        map.put("actualRate", measuredNanos > 0 ? round(all.getTotalCount() * 1e9 / measuredNanos) : 0);
+        Map<String, Object> operations = new LinkedHashMap<>();
+        long errors = 0;
+        for (Map.Entry<BatchOp.Type, Stats> entry : stats.entrySet()) {
+            Stats stat = entry.getValue();
+            errors += stat.errors.get();
+            Map<String, Object> operation = new LinkedHashMap<>();
+            operation.put("count", stat.latency.getTotalCount());
+            operation.put("errors", stat.errors.get());
+            operation.put("latencyMillis", summary(stat.latency));
+            operation.put("serviceTimeMillis", summary(stat.serviceTime));
+            operations.put(entry.getKey().name().toLowerCase(Locale.ROOT), operation);
+        }
+        Map<String, Object> total = new LinkedHashMap<>();
+        total.put("count", all.getTotalCount());
+        total.put("errors", errors);
+        total.put("latencyMillis", summary(all));
+        total.put("serviceTimeMillis", summary(histogram(null, false)));
+        operations.put("all", total);
+        map.put("operations", operations);
+        map.put("error", error);
+        return map;
+    }
+
+    private Histogram histogram(BatchOp.Type type, boolean corrected) {
+        if (type != null) {
+            Stats stat = stats.get(type);
+            return corrected ? stat.latency : stat.serviceTime;
+        }
+        Histogram all = new Histogram(3);
+        stats.values().forEach(stat -> all.add(corrected ? stat.latency : stat.serviceTime));
+        return all;
+    }
+
+    private static Map<String, Object> summary(Histogram histogram) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        for (double percentile : PERCENTILES) {
+            map.put("p" + (percentile == (long) percentile ? String.valueOf((long) percentile) : String.valueOf(percentile)),
+                    round(histogram.getValueAtPercentile(percentile) / NANOS_PER_MILLI));
+        }
+        map.put("max", round(histogram.getMaxValue() / NANOS_PER_MILLI));
+        map.put("mean", round(histogram.getMean() / NANOS_PER_MILLI));
+        return map;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 1000) / 1000.0;
+    }
+
+    /**
+     * 一种操作的结果, 直方图自动扩展范围, 精度 3 位有效数字
+     */
+    private static final class Stats {
+        private final Histogram latency = new ConcurrentHistogram(3);
+        private final Histogram serviceTime = new ConcurrentHistogram(3);
+        private final AtomicLong errors = new AtomicLong();
+    }
+}
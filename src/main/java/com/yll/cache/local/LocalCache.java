@@ -0,0 +1,313 @@
+package com.yll.cache.local;
+
+import com.alibaba.fastjson.JSONObject;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.yll.cache.config.Y2lCacheProperties;
+import com.yll.cache.hotkey.HotKeyDetector;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @className: LocalCache
+ * @description: //进程内一级缓存, 位于 RedisUtils 之前, 通过 redis pub/sub 保证多实例间的失效一致
+ * 注意: 命中时返回的是缓存中的同一个对象, 调用方不要修改返回的 Map/List/Set
+ * 未配置走本地缓存、但被 {@link HotKeyDetector} 判定为热点的 key 放在单独的短过期缓存中
+ * @author: agent
+ * @date: Created in 2026/10/18 10:30
+ * @modify by: agent
+ * @version: V1.0
+ */
+@Component
+@Slf4j
+public class LocalCache implements MessageListener {
+
+    /**
+     * 视图名称, 同一个 key 下按读取方式分别缓存
+     */
+    public static final String VIEW_VALUE = "get";
+    public static final String VIEW_HASH = "hmget";
+    public static final String VIEW_SET = "sGet";
+    public static final String VIEW_CACHE = "cache";
+    public static final String VIEW_RAW = "raw";
+
+    /**
+     * 本实例标识, 收到自己发出的失效消息时直接忽略
+     */
+    private final String instanceId = UUID.randomUUID().toString();
+
+    /**
+     * 每发生一次失效加一, 读 redis 前后对比, 防止把失效前读到的旧值放进本地缓存
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder loadCount = new LongAdder();
+    private final LongAdder loadNanos = new LongAdder();
+    private final LongAdder published = new LongAdder();
+    private final LongAdder received = new LongAdder();
+
+    private final Y2lCacheProperties.Local properties;
+    private final Cache<String, Map<String, Object>> cache;
+    private final Cache<String, Map<String, Object>> pinnedCache;
+
+    @Autowired
+    RedisTemplate redisTemplate;
+    @Autowired
+    HotKeyDetector hotKeyDetector;
+
+    public LocalCache(Y2lCacheProperties properties) {
+        this.properties = properties.getLocal();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(this.properties.getMaximumSize())
+                .expireAfterWrite(this.properties.getExpireAfterWrite().toMillis(), TimeUnit.MILLISECONDS)
+                .recordStats()
+                .build();
+        Y2lCacheProperties.HotKey hotKey = properties.getHotKey();
+        this.pinnedCache = Caffeine.newBuilder()
+                .maximumSize(hotKey.getMaximumPinned())
+                .expireAfterWrite(hotKey.getPinTtl().toMillis(), TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    /**
+     * @param key 键
+     * @title: accepts
+     * @description: //判断 key 是否走本地缓存
+     * @author: agent
+     * @date: Created in 2026/10/18 10:41
+     * @throws:
+     * @return: boolean
+     */
+    public boolean accepts(String key) {
+        return configured(key) || key != null && hotKeyDetector.isPinned(key);
+    }
+
+    private boolean configured(String key) {
+        if (!properties.isEnabled() || key == null) {
+            return false;
+        }
+        List<String> prefixes = properties.getKeyPrefixes();
+        if (prefixes == null || prefixes.isEmpty()) {
+            return true;
+        }
+        for (String prefix : prefixes) {
+            if (key.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param key  键
+     * @param view 视图
+     * @title: get
+     * @description: //读取本地缓存, 不存在返回 null
+     * @author: agent
+     * @date: Created in 2026/10/18 10:45
+     * @throws:
+     * @return: java.lang.Object
+     */
+    public Object get(String key, String view) {
+        Map<String, Object> views = cacheFor(key).getIfPresent(key);
+        Object value = views == null ? null : views.get(view);
+        if (value == null) {
+            missCount.increment();
+        } else {
+            hitCount.increment();
+        }
+        return value;
+    }
+
+    /**
+     * @title: mark
+     * @description: //读 redis 之前取当前失效代数, put 时带回
+     * @author: agent
+     * @date: Created in 2026/10/18 10:47
+     * @throws:
+     * @return: long
+     */
+    public long mark() {
+        return generation.get();
+    }
+
+    /**
+     * @param key       键
+     * @param view      视图
+     * @param value     从 redis 读到的值, null 不缓存
+     * @param mark      读 redis 之前 {@link #mark()} 的返回值
+     * @param loadNanos 本次读 redis 的耗时, 用于估算本地缓存节省的时间
+     * @title: put
+     * @description: //放入本地缓存, 读取期间如果发生过失效则放弃
+     * @author: agent
+     * @date: Created in 2026/10/18 10:50
+     * @throws:
+     * @return: void
+     */
+    public void put(String key, String view, Object value, long mark, long loadNanos) {
+        this.loadCount.increment();
+        this.loadNanos.add(loadNanos);
+        if (value == null || generation.get() != mark) {
+            return;
+        }
+        cacheFor(key).asMap().compute(key, (k, old) -> {
+            if (old != null && old.size() >= properties.getMaximumViewsPerKey() && !old.containsKey(view)) {
+                return old;
+            }
+            Map<String, Object> views = old == null ? new HashMap<>(4) : new HashMap<>(old);
+            views.put(view, value);
+            return views;
+        });
+    }
+
+    /**
+     * @param keys 键 可以传一个 或 多个
+     * @title: invalidate
+     * @description: //写操作之后调用, 失效本地缓存并通知其它实例
+     * @author: agent
+     * @date: Created in 2026/10/18 10:56
+     * @throws:
+     * @return: void
+     */
+    public void invalidate(String... keys) {
+        if (keys == null || keys.length == 0) {
+            return;
+        }
+        invalidate(Arrays.asList(keys));
+    }
+
+    /**
+     * @param keys 键集合
+     * @title: invalidate
+     * @description: //写操作之后调用, 失效本地缓存并通知其它实例
+     * @author: agent
+     * @date: Created in 2026/10/18 10:58
+     * @throws:
+     * @return: void
+     */
+    public void invalidate(Collection<String> keys) {
+        List<String> accepted = new ArrayList<>();
+        for (String key : keys) {
+            if (accepts(key)) {
+                accepted.add(key);
+            }
+        }
+        if (accepted.isEmpty()) {
+            return;
+        }
+        invalidateLocal(accepted);
+        publish(accepted);
+    }
+
+    /**
+     * @param prefix key 前缀
+     * @title: invalidatePrefix
+     * @description: //失效本地缓存中以 prefix 开头的全部 key 并通知其它实例, 用于 Spring Cache 的 clear
+     * @author: agent
+     * @date: Created in 2026/10/18 10:10
+     * @throws:
+     * @return: void
+     */
+    public void invalidatePrefix(String prefix) {
+        if (!properties.isEnabled() && !hotKeyDetector.isEnabled()) {
+            return;
+        }
+        invalidateLocalPrefix(prefix);
+        JSONObject message = new JSONObject();
+        message.put("prefix", prefix);
+        publish(message, prefix);
+    }
+
+    private Cache<String, Map<String, Object>> cacheFor(String key) {
+        return configured(key) ? cache : pinnedCache;
+    }
+
+    private void invalidateLocal(Collection<String> keys) {
+        generation.incrementAndGet();
+        cache.invalidateAll(keys);
+        pinnedCache.invalidateAll(keys);
+    }
+
+    private void invalidateLocalPrefix(String prefix) {
+        generation.incrementAndGet();
+        cache.asMap().keySet().removeIf(key -> key.startsWith(prefix));
+        pinnedCache.asMap().keySet().removeIf(key -> key.startsWith(prefix));
+    }
+
+    private void publish(List<String> keys) {
+        JSONObject message = new JSONObject();
+        message.put("keys", keys);
+        publish(message, keys);
+    }
+
+    private void publish(JSONObject message, Object keys) {
+        message.put("source", instanceId);
+        byte[] channel = properties.getInvalidationChannel().getBytes(StandardCharsets.UTF_8);
+        byte[] body = message.toJSONString().getBytes(StandardCharsets.UTF_8);
+        try {
+            redisTemplate.execute((RedisCallback<Long>) (RedisConnection connection) -> connection.publish(channel, body));
+            published.increment();
+        } catch (Exception e) {
+            // 通知失败时其它实例依赖 expireAfterWrite 兜底
+            log.error("Redis occur publishInvalidationError：keys -> [{}]", keys, e);
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        JSONObject body = JSONObject.parseObject(new String(message.getBody(), StandardCharsets.UTF_8));
+        if (instanceId.equals(body.getString("source")) || body.containsKey("bloom")) {
+            // 本实例发出的消息; 布隆过滤器新增的位由 BloomFilter 处理
+            return;
+        }
+        received.increment();
+        if (body.containsKey("prefix")) {
+            invalidateLocalPrefix(body.getString("prefix"));
+        } else {
+            invalidateLocal(body.getJSONArray("keys").toJavaList(String.class));
+        }
+    }
+
+    /**
+     * @title: stats
+     * @description: //本地缓存命中统计
+     * @author: agent
+     * @date: Created in 2026/10/18 11:05
+     * @throws:
+     * @return: java.util.Map<java.lang.String,java.lang.Object>
+     */
+    public Map<String, Object> stats() {
+        long hits = hitCount.sum();
+        long misses = missCount.sum();
+        long loads = loadCount.sum();
+        double avgLoadMillis = loads == 0 ? 0 : loadNanos.sum() / (double) loads / 1_000_000;
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("enabled", properties.isEnabled());
+        map.put("size", cache.estimatedSize());
+        map.put("pinnedSize", pinnedCache.estimatedSize());
+        map.put("hitCount", hits);
+        map.put("missCount", misses);
+        map.put("hitRate", hits + misses == 0 ? 0 : hits / (double) (hits + misses));
+        map.put("evictionCount", cache.stats().evictionCount());
+        map.put("avgRedisLoadMillis", avgLoadMillis);
+        // 每次命中省掉一次 redis 往返, 用未命中时的平均耗时估算
+        map.put("estimatedSavedMillis", (long) (hits * avgLoadMillis));
+        map.put("invalidationsPublished", published.sum());
+        map.put("invalidationsReceived", received.sum());
+        return map;
+    }
+}
@@ -0,0 +1,70 @@
+package com.yll.cache.manager;
+
+import com.yll.cache.local.LocalCache;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+
+/**
+ * @className: TieredRedisCache
+ * @description: //带本地一级缓存的 RedisCache: 读先查 {@link LocalCache}, 未命中再读 redis 并回填;
+ * 写入、删除、清空后失效本地缓存并通过 pub/sub 通知其它实例, 与 RedisUtils 共用同一套失效机制
+ * @author: agent
+ * @date: Created in 2026/10/18 10:30
+ * @modify by: agent
+ * @version: V1.0
+ */
+public class TieredRedisCache extends RedisCache {
+
+    private final LocalCache localCache;
+
+    protected TieredRedisCache(String name, RedisCacheWriter cacheWriter, RedisCacheConfiguration cacheConfig, LocalCache localCache) {
+        super(name, cacheWriter, cacheConfig);
+        this.localCache = localCache;
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        String cacheKey = createCacheKey(key);
+        if (!localCache.accepts(cacheKey)) {
+            return super.lookup(key);
+        }
+        Object value = localCache.get(cacheKey, LocalCache.VIEW_CACHE);
+        if (value != null) {
+            return value;
+        }
+        long mark = localCache.mark();
+        long start = System.nanoTime();
+        value = super.lookup(key);
+        // 允许缓存 null 时 redis 中存的是 NullValue, 本地同样缓存
+        localCache.put(cacheKey, LocalCache.VIEW_CACHE, value, mark, System.nanoTime() - start);
+        return value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        super.put(key, value);
+        localCache.invalidate(createCacheKey(key));
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper existing = super.putIfAbsent(key, value);
+        if (existing == null) {
+            localCache.invalidate(createCacheKey(key));
+        }
+        return existing;
+    }
+
+    @Override
+    public void evict(Object key) {
+        super.evict(key);
+        localCache.invalidate(createCacheKey(key));
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        localCache.invalidatePrefix(getCacheConfiguration().getKeyPrefixFor(getName()));
+    }
+}
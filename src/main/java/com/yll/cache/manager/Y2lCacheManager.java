@@ -0,0 +1,71 @@
+package com.yll.cache.manager;
+
+import com.yll.cache.config.Y2lCacheProperties;
+import com.yll.cache.local.LocalCache;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * @className: Y2lCacheManager
+ * @description: //@Cacheable 使用的 CacheManager: value 序列化与 RedisUtils 相同, 过期时间、key 前缀、是否缓存 null、
+ * 是否加本地一级缓存由 y2lcache.cache 按缓存名配置
+ * @author: agent
+ * @date: Created in 2026/10/18 10:50
+ * @modify by: agent
+ * @version: V1.0
+ */
+public class Y2lCacheManager extends RedisCacheManager {
+
+    private final RedisCacheWriter cacheWriter;
+    private final Y2lCacheProperties.Cache properties;
+    private final LocalCache localCache;
+
+    public Y2lCacheManager(RedisCacheWriter cacheWriter, RedisSerializer<Object> valueSerializer,
+                           Y2lCacheProperties.Cache properties, LocalCache localCache) {
+        super(cacheWriter, configuration(valueSerializer, properties, null), configurations(valueSerializer, properties));
+        this.cacheWriter = cacheWriter;
+        this.properties = properties;
+        this.localCache = localCache;
+    }
+
+    @Override
+    protected RedisCache createRedisCache(String name, RedisCacheConfiguration cacheConfig) {
+        Y2lCacheProperties.CacheSpec spec = properties.getCaches().get(name);
+        boolean local = spec != null && spec.getLocal() != null ? spec.getLocal() : properties.isLocal();
+        if (local) {
+            return new TieredRedisCache(name, cacheWriter, cacheConfig, localCache);
+        }
+        return super.createRedisCache(name, cacheConfig);
+    }
+
+    private static Map<String, RedisCacheConfiguration> configurations(RedisSerializer<Object> valueSerializer,
+                                                                       Y2lCacheProperties.Cache properties) {
+        Map<String, RedisCacheConfiguration> configurations = new LinkedHashMap<>();
+        properties.getCaches().forEach((name, spec) -> configurations.put(name, configuration(valueSerializer, properties, spec)));
+        return configurations;
+    }
+
+    private static RedisCacheConfiguration configuration(RedisSerializer<Object> valueSerializer,
+                                                         Y2lCacheProperties.Cache properties,
+                                                         Y2lCacheProperties.CacheSpec spec) {
+        Duration ttl = spec != null && spec.getTtl() != null ? spec.getTtl() : properties.getTtl();
+        String keyPrefix = spec != null && spec.getKeyPrefix() != null ? spec.getKeyPrefix() : properties.getKeyPrefix();
+        boolean cacheNullValues = spec != null && spec.getCacheNullValues() != null
+                ? spec.getCacheNullValues() : properties.isCacheNullValues();
+        RedisCacheConfiguration configuration = RedisCacheConfiguration.defaultCacheConfig()
+                .entryTtl(ttl)
+                .computePrefixWith(cacheName -> keyPrefix + cacheName + "::")
+                .serializeKeysWith(RedisSerializationContext.SerializationPair.fromSerializer(new StringRedisSerializer()))
+                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(valueSerializer));
+        return cacheNullValues ? configuration : configuration.disableCachingNullValues();
+    }
+}
@@ -0,0 +1,73 @@
+package com.yll.cache.metrics;
+
+import com.yll.cache.breaker.CircuitBreaker;
+import com.yll.cache.breaker.StaleStore;
+import com.yll.cache.hotkey.HotKeyDetector;
+import com.yll.cache.loader.SingleFlightLoader;
+import com.yll.cache.local.LocalCache;
+import com.yll.cache.serializer.CompressionStats;
+import com.yll.cache.writebehind.WriteBehindBuffer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * @className: CacheStatsMetrics
+ * @description: //把本地缓存、压缩、合并加载已有的统计(/redis/cache/stats)同样暴露给 prometheus,
+ * 每个数值项一个 gauge, 名称为 y2lcache.<组>.<项>
+ * @author: agent
+ * @date: Created in 2026/10/18 11:00
+ * @modify by: agent
+ * @version: V1.0
+ */
+@Component
+public class CacheStatsMetrics implements MeterBinder {
+
+    private final LocalCache localCache;
+    private final CompressionStats compressionStats;
+    private final SingleFlightLoader singleFlightLoader;
+    private final HotKeyDetector hotKeyDetector;
+    private final CircuitBreaker circuitBreaker;
+    private final StaleStore staleStore;
+    private final WriteBehindBuffer writeBehindBuffer;
+
+    public CacheStatsMetrics(LocalCache localCache, CompressionStats compressionStats, SingleFlightLoader singleFlightLoader,
+                             HotKeyDetector hotKeyDetector, CircuitBreaker circuitBreaker, StaleStore staleStore,
+                             WriteBehindBuffer writeBehindBuffer) {
+        this.localCache = localCache;
+        this.compressionStats = compressionStats;
+        this.singleFlightLoader = singleFlightLoader;
+        this.hotKeyDetector = hotKeyDetector;
+        this.circuitBreaker = circuitBreaker;
+        this.staleStore = staleStore;
+        this.writeBehindBuffer = writeBehindBuffer;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        bind(registry, "local", localCache::stats);
+        bind(registry, "compression", compressionStats::stats);
+        bind(registry, "loader", singleFlightLoader::stats);
+        bind(registry, "hotkey", hotKeyDetector::stats);
+        bind(registry, "breaker", circuitBreaker::stats);
+        bind(registry, "stale", staleStore::stats);
+        bind(registry, "writebehind", writeBehindBuffer::stats);
+    }
+
+    private static void bind(MeterRegistry registry, String group, Supplier<Map<String, Object>> stats) {
+        for (Map.Entry<String, Object> entry : stats.get().entrySet()) {
+            if (!(entry.getValue() instanceof Number)) {
+                continue;
+            }
+            String name = entry.getKey();
+            Gauge.builder("y2lcache." + group + "." + name, stats, s -> {
+                Object value = s.get().get(name);
+                return value instanceof Number ? ((Number) value).doubleValue() : Double.NaN;
+            }).register(registry);
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.yll.cache.metrics;
+
+import com.yll.cache.breaker.CircuitBreaker;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.RedisClusterConnection;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisSentinelConnection;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.*;
+
+/**
+ * @className: InstrumentedConnectionFactory
+ * @description: //包装 RedisConnectionFactory, 取出的连接上每个命令都记入 {@link RedisMetrics} 和 {@link CircuitBreaker}.
+ * 命令名为 RedisConnection 的方法名, key 取第一个参数; 管道中的命令只记字节数, 耗时记在 closePipeline(命令名 pipeline)上;
+ * 熔断打开时取连接直接失败, 不等待连接和超时
+ * @author: agent
+ * @date: Created in 2026/10/18 10:20
+ * @modify by: agent
+ * @version: V1.0
+ */
+public class InstrumentedConnectionFactory implements RedisConnectionFactory {
+
+    /**
+     * 不是 redis 命令的方法, 直接转发
+     */
+    private static final Set<String> PASS_THROUGH = new HashSet<>(Arrays.asList(
+            "close", "isClosed", "getNativeConnection", "isQueueing", "isPipelined", "openPipeline",
+            "getSentinelConnection", "equals", "hashCode", "toString"));
+
+    private final RedisConnectionFactory delegate;
+    private final RedisMetrics metrics;
+    private final CircuitBreaker breaker;
+
+    public InstrumentedConnectionFactory(RedisConnectionFactory delegate, RedisMetrics metrics, CircuitBreaker breaker) {
+        this.delegate = delegate;
+        this.metrics = metrics;
+        this.breaker = breaker;
+    }
+
+    @Override
+    public RedisConnection getConnection() {
+        breaker.acquire();
+        RedisConnection connection;
+        try {
+            connection = delegate.getConnection();
+        } catch (RuntimeException e) {
+            breaker.onError("getConnection", e);
+            throw e;
+        }
+        return (RedisConnection) Proxy.newProxyInstance(connection.getClass().getClassLoader(),
+                ClassUtils.getAllInterfacesForClass(connection.getClass()), new Handler(connection));
+    }
+
+    @Override
+    public RedisClusterConnection getClusterConnection() {
+        return delegate.getClusterConnection();
+    }
+
+    @Override
+    public boolean getConvertPipelineAndTxResults() {
+        return delegate.getConvertPipelineAndTxResults();
+    }
+
+    @Override
+    public RedisSentinelConnection getSentinelConnection() {
+        return delegate.getSentinelConnection();
+    }
+
+    @Override
+    public DataAccessException translateExceptionIfPossible(RuntimeException ex) {
+        return delegate.translateExceptionIfPossible(ex);
+    }
+
+    private class Handler implements InvocationHandler {
+
+        private final RedisConnection target;
+
+        Handler(RedisConnection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (PASS_THROUGH.contains(name) || name.endsWith("Commands")) {
+                return call(method, args);
+            }
+            if ("closePipeline".equals(name)) {
+                return timed("pipeline", RedisMetrics.NONE, false, method, args);
+            }
+            String namespace = metrics.isEnabled() ? metrics.namespace(key(name, args)) : RedisMetrics.NONE;
+            if (target.isPipelined() || target.isQueueing()) {
+                // 管道/事务中命令立即返回 null, 耗时没有意义
+                Object result = call(method, args);
+                if (metrics.isEnabled()) {
+                    metrics.record(name, namespace, -1, size(args, 0), 0, null);
+                }
+                return result;
+            }
+            return timed(name, namespace, true, method, args);
+        }
+
+        private Object timed(String command, String namespace, boolean countIn, Method method, Object[] args) throws Throwable {
+            long start = System.nanoTime();
+            Object result;
+            try {
+                result = call(method, args);
+            } catch (Throwable e) {
+                breaker.onError(command, e);
+                if (metrics.isEnabled()) {
+                    metrics.record(command, namespace, System.nanoTime() - start, 0, 0, null);
+                    metrics.error("y2lcache.redis.errors", command, namespace, e);
+                }
+                throw e;
+            }
+            long nanos = System.nanoTime() - start;
+            breaker.onSuccess(command, nanos);
+            if (metrics.isEnabled()) {
+                metrics.record(command, namespace, nanos, countIn ? size(args, 0) : 0, size(result, 0), result);
+            }
+            return result;
+        }
+
+        private Object call(Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+        }
+    }
+
+    /**
+     * 命令的第一个 key: 一般是第一个参数; mGet/del 等是 byte[][]; mSet 是 Map; eval/evalSha 在 numKeys 之后
+     */
+    private static byte[] key(String command, Object[] args) {
+        if (args == null || args.length == 0) {
+            return null;
+        }
+        if ("eval".equals(command) || "evalSha".equals(command)) {
+            if (args.length == 4 && args[2] instanceof Integer && (Integer) args[2] > 0) {
+                byte[][] keysAndArgs = (byte[][]) args[3];
+                return keysAndArgs.length > 0 ? keysAndArgs[0] : null;
+            }
+            return null;
+        }
+        Object first = args[0];
+        if (first instanceof byte[]) {
+            return (byte[]) first;
+        }
+        if (first instanceof byte[][]) {
+            byte[][] keys = (byte[][]) first;
+            return keys.length > 0 ? keys[0] : null;
+        }
+        if (first instanceof Map && !((Map<?, ?>) first).isEmpty()) {
+            Object key = ((Map<?, ?>) first).keySet().iterator().next();
+            return key instanceof byte[] ? (byte[]) key : null;
+        }
+        return null;
+    }
+
+    /**
+     * 参数或返回值中的字节数, 管道结果是嵌套的 List, 最多展开两层
+     */
+    private static long size(Object value, int depth) {
+        if (value instanceof byte[]) {
+            return ((byte[]) value).length;
+        }
+        if (depth > 2) {
+            return 0;
+        }
+        long size = 0;
+        if (value instanceof Object[]) {
+            for (Object element : (Object[]) value) {
+                size += size(element, depth + 1);
+            }
+        } else if (value instanceof Collection) {
+            for (Object element : (Collection<?>) value) {
+                size += size(element, depth + 1);
+            }
+        } else if (value instanceof Map) {
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                size += size(entry.getKey(), depth + 1) + size(entry.getValue(), depth + 1);
+            }
+        }
+        return size;
+    }
+}
@@ -0,0 +1,226 @@
+package com.yll.cache.metrics;
+
+import com.yll.cache.config.Y2lCacheProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @className: RedisMetrics
+ * @description: //redis 命令指标: 按命令和 key 命名空间记录耗时分位数、读命中/未命中、序列化后的字节数和异常次数,
+ * 通过 /actuator/prometheus 暴露. 同一组标签的指标只创建一次, 记录时只有一次 map 查找
+ * @author: agent
+ * @date: Created in 2026/10/18 9:30
+ * @modify by: agent
+ * @version: V1.0
+ */
+@Component
+public class RedisMetrics {
+
+    public static final String OTHER = "other";
+    public static final String NONE = "none";
+
+    /**
+     * 统计命中/未命中的读命令
+     */
+    private static final Set<String> READS = new HashSet<>(Arrays.asList(
+            "get", "mGet", "hGet", "hMGet", "hGetAll", "hKeys", "hVals", "lRange", "lIndex", "sMembers", "sRandMember"));
+
+    private final MeterRegistry registry;
+    private final Y2lCacheProperties.Metrics properties;
+    private final byte[] separator;
+    private final Set<String> namespaces = ConcurrentHashMap.newKeySet();
+    private final ConcurrentHashMap<String, CommandMeters> meters = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Counter> errors = new ConcurrentHashMap<>();
+
+    public RedisMetrics(MeterRegistry registry, Y2lCacheProperties properties) {
+        this.registry = registry;
+        this.properties = properties.getMetrics();
+        this.separator = this.properties.getNamespaceSeparator().getBytes(StandardCharsets.UTF_8);
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * @param key 序列化后的 key
+     * @title: namespace
+     * @description: //取 key 的命名空间, 个数超过上限后归入 other
+     * @author: agent
+     * @date: Created in 2026/10/18 9:40
+     * @throws:
+     * @return: java.lang.String
+     */
+    public String namespace(byte[] key) {
+        if (key == null) {
+            return NONE;
+        }
+        List<String> configured = properties.getNamespaces();
+        if (configured != null && !configured.isEmpty()) {
+            for (String namespace : configured) {
+                if (startsWith(key, namespace.getBytes(StandardCharsets.UTF_8))) {
+                    return namespace;
+                }
+            }
+            return OTHER;
+        }
+        int end = indexOf(key, separator);
+        return bounded(end < 0 ? NONE : new String(key, 0, end, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @param key 键
+     * @title: namespace
+     * @description: //取 key 的命名空间
+     * @author: agent
+     * @date: Created in 2026/10/18 9:42
+     * @throws:
+     * @return: java.lang.String
+     */
+    public String namespace(String key) {
+        return key == null ? NONE : namespace(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String bounded(String namespace) {
+        if (namespaces.contains(namespace)) {
+            return namespace;
+        }
+        if (namespaces.size() >= properties.getMaximumNamespaces()) {
+            return OTHER;
+        }
+        namespaces.add(namespace);
+        return namespace;
+    }
+
+    /**
+     * @param command   命令(RedisConnection 方法名)
+     * @param namespace 命名空间
+     * @param nanos     耗时, 管道中排队的命令传负数, 只记录字节数
+     * @param bytesIn   写入 redis 的字节数(key 和 value)
+     * @param bytesOut  从 redis 读回的字节数
+     * @param result    命令返回值, 读命令据此判断命中
+     * @title: record
+     * @description: //记录一次命令
+     * @author: agent
+     * @date: Created in 2026/10/18 9:50
+     * @throws:
+     * @return: void
+     */
+    public void record(String command, String namespace, long nanos, long bytesIn, long bytesOut, Object result) {
+        CommandMeters commandMeters = meters.computeIfAbsent(command + '|' + namespace, k -> new CommandMeters(command, namespace));
+        if (nanos >= 0) {
+            commandMeters.timer.record(nanos, TimeUnit.NANOSECONDS);
+        }
+        if (bytesIn > 0) {
+            commandMeters.bytesIn.record(bytesIn);
+        }
+        if (bytesOut > 0) {
+            commandMeters.bytesOut.record(bytesOut);
+        }
+        if (commandMeters.read && nanos >= 0) {
+            countRead(commandMeters, result);
+        }
+    }
+
+    private void countRead(CommandMeters commandMeters, Object result) {
+        if (result instanceof List && ("mGet".equals(commandMeters.command) || "hMGet".equals(commandMeters.command))) {
+            // 多个 key/项 的读取逐个计数
+            for (Object value : (List<?>) result) {
+                (value == null ? commandMeters.misses : commandMeters.hits).increment();
+            }
+            return;
+        }
+        boolean miss = result == null
+                || result instanceof Collection && ((Collection<?>) result).isEmpty()
+                || result instanceof Map && ((Map<?, ?>) result).isEmpty();
+        (miss ? commandMeters.misses : commandMeters.hits).increment();
+    }
+
+    /**
+     * @param name      指标名
+     * @param command   命令或操作名
+     * @param namespace 命名空间
+     * @param e         异常
+     * @title: error
+     * @description: //异常计数
+     * @author: agent
+     * @date: Created in 2026/10/18 9:55
+     * @throws:
+     * @return: void
+     */
+    public void error(String name, String command, String namespace, Throwable e) {
+        String exception = e.getClass().getSimpleName();
+        errors.computeIfAbsent(name + '|' + command + '|' + namespace + '|' + exception, k -> Counter.builder(name)
+                .tags("command", command, "namespace", namespace, "exception", exception)
+                .register(registry))
+                .increment();
+    }
+
+    private static boolean startsWith(byte[] key, byte[] prefix) {
+        if (key.length < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (key[i] != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int indexOf(byte[] key, byte[] separator) {
+        outer:
+        for (int i = 0; i <= key.length - separator.length; i++) {
+            for (int j = 0; j < separator.length; j++) {
+                if (key[i + j] != separator[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+
+    private class CommandMeters {
+        final String command;
+        final boolean read;
+        final Timer timer;
+        final DistributionSummary bytesIn;
+        final DistributionSummary bytesOut;
+        final Counter hits;
+        final Counter misses;
+
+        CommandMeters(String command, String namespace) {
+            this.command = command;
+            this.read = READS.contains(command);
+            this.timer = Timer.builder("y2lcache.redis.command")
+                    .description("redis 命令耗时")
+                    .tags("command", command, "namespace", namespace)
+                    .publishPercentiles(properties.getPercentiles())
+                    .publishPercentileHistogram(properties.isPercentileHistogram())
+                    .register(registry);
+            this.bytesIn = DistributionSummary.builder("y2lcache.redis.bytes")
+                    .baseUnit("bytes")
+                    .tags("command", command, "namespace", namespace, "direction", "write")
+                    .register(registry);
+            this.bytesOut = DistributionSummary.builder("y2lcache.redis.bytes")
+                    .baseUnit("bytes")
+                    .tags("command", command, "namespace", namespace, "direction", "read")
+                    .register(registry);
+            this.hits = read ? Counter.builder("y2lcache.redis.reads")
+                    .tags("command", command, "namespace", namespace, "result", "hit")
+                    .register(registry) : null;
+            this.misses = read ? Counter.builder("y2lcache.redis.reads")
+                    .tags("command", command, "namespace", namespace, "result", "miss")
+                    .register(registry) : null;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.yll.cache.replica;
+
+/**
+ * @className: ReadYourWrites
+ * @description: //当前线程的读己之写范围: 范围内一旦有写入, 之后的读取都走主节点, 不会读到从节点上还没同步的旧值.
+ * web 请求由 {@link ReadYourWritesInterceptor} 开始和结束范围; 其它线程需要时自己调用 begin/end, 不在范围内的读取按 read-from 走
+ * @author: agent
+ * @date: Created in 2026/10/18 10:00
+ * @modify by: agent
+ * @version: V1.0
+ */
+public final class ReadYourWrites {
+
+    private static final ThreadLocal<boolean[]> SCOPE = new ThreadLocal<>();
+
+    private ReadYourWrites() {
+    }
+
+    /**
+     * @param master true 时范围内的读取全部走主节点
+     * @title: begin
+     * @description: //开始范围, 必须在 finally 中调用 end
+     * @author: agent
+     * @date: Created in 2026/10/18 10:05
+     * @throws:
+     * @return: void
+     */
+    public static void begin(boolean master) {
+        SCOPE.set(new boolean[]{master});
+    }
+
+    public static void end() {
+        SCOPE.remove();
+    }
+
+    /**
+     * 范围内有写入, 之后的读取走主节点; 不在范围内时什么都不做
+     */
+    static void pin() {
+        boolean[] scope = SCOPE.get();
+        if (scope != null) {
+            scope[0] = true;
+        }
+    }
+
+    public static boolean isPinned() {
+        boolean[] scope = SCOPE.get();
+        return scope != null && scope[0];
+    }
+}
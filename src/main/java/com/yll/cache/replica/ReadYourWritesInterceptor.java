@@ -0,0 +1,40 @@
+package com.yll.cache.replica;
+
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * @className: ReadYourWritesInterceptor
+ * @description: //每个请求一个读己之写范围, 请求头 header 为 master 时整个请求的读取都走主节点.
+ * 异步请求(StreamingResponseBody 等)在切换线程时结束范围, 异步线程中的读取按 read-from 走
+ * @author: agent
+ * @date: Created in 2026/10/18 10:10
+ * @modify by: agent
+ * @version: V1.0
+ */
+public class ReadYourWritesInterceptor implements AsyncHandlerInterceptor {
+
+    private final String header;
+
+    public ReadYourWritesInterceptor(String header) {
+        this.header = header;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        ReadYourWrites.begin("master".equalsIgnoreCase(request.getHeader(header)));
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        ReadYourWrites.end();
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        ReadYourWrites.end();
+    }
+}
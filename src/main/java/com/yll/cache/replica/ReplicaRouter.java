@@ -0,0 +1,176 @@
+package com.yll.cache.replica;
+
+import com.yll.cache.breaker.CircuitBreaker;
+import com.yll.cache.config.LettuceClients;
+import com.yll.cache.config.Y2lCacheProperties;
+import io.lettuce.core.ReadFrom;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.data.redis.RedisProperties;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisPassword;
+import org.springframework.data.redis.connection.RedisStaticMasterReplicaConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.util.StringUtils;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
+
+/**
+ * @className: ReplicaRouter
+ * @description: //读从节点: spring.redis 为主节点, y2lcache.replica.nodes 为从节点, 只读方法按 read-from 策略发往从节点,
+ * 写入始终走主节点. lettuce 按命令类型路由, 即使写命令误用了读连接也会发往主节点.
+ * 开启 read-your-writes 时, 同一个请求内写入之后的读取改走主节点, 见 {@link ReadYourWrites}
+ * @author: agent
+ * @date: Created in 2026/10/18 10:20
+ * @modify by: agent
+ * @version: V1.0
+ */
+@Slf4j
+public class ReplicaRouter implements DisposableBean {
+
+    private final Y2lCacheProperties.Replica properties;
+    private final ReadFrom readFrom;
+    private final LettuceConnectionFactory factory;
+    private final CircuitBreaker breaker;
+    private final RedisTemplate<String, Object> template;
+
+    private final LongAdder replicaReads = new LongAdder();
+    private final LongAdder pinnedReads = new LongAdder();
+
+    /**
+     * @param properties      缓存扩展配置
+     * @param redisProperties spring.redis 配置, 主节点地址、密码、库以及超时和连接池设置
+     * @param templates       按连接和熔断器创建 RedisTemplate, 序列化方式和指标与默认节点相同
+     */
+    public ReplicaRouter(Y2lCacheProperties properties, RedisProperties redisProperties,
+                         BiFunction<RedisConnectionFactory, CircuitBreaker, RedisTemplate<String, Object>> templates) {
+        this.properties = properties.getReplica();
+        this.readFrom = readFrom(this.properties.getReadFrom());
+        if (!this.properties.isEnabled() || this.properties.getNodes().isEmpty() || readFrom == ReadFrom.MASTER) {
+            // 只读主节点时不需要额外的连接
+            this.factory = null;
+            this.breaker = null;
+            this.template = null;
+            return;
+        }
+        RedisStaticMasterReplicaConfiguration configuration =
+                new RedisStaticMasterReplicaConfiguration(redisProperties.getHost(), redisProperties.getPort());
+        for (Y2lCacheProperties.Node node : this.properties.getNodes()) {
+            configuration.addNode(node.getHost(), node.getPort());
+        }
+        configuration.setDatabase(redisProperties.getDatabase());
+        if (!StringUtils.isEmpty(redisProperties.getPassword())) {
+            configuration.setPassword(RedisPassword.of(redisProperties.getPassword()));
+        }
+        this.factory = new LettuceConnectionFactory(configuration, LettuceClients.clientConfiguration(redisProperties, readFrom));
+        this.factory.afterPropertiesSet();
+        // 从节点的慢和失败不应该打开主节点的熔断
+        this.breaker = new CircuitBreaker(properties);
+        this.template = templates.apply(factory, breaker);
+        log.info("初始化 -> [{}] read-from -> [{}] replicas -> {}", "ReplicaRouter", this.properties.getReadFrom(),
+                this.properties.getNodes().size());
+    }
+
+    /**
+     * @param policy 配置的 read-from
+     * @title: readFrom
+     * @description: //配置名转 lettuce 的 ReadFrom
+     * @author: agent
+     * @date: Created in 2026/10/18 10:30
+     * @throws: IllegalArgumentException 不支持的策略
+     * @return: io.lettuce.core.ReadFrom
+     */
+    static ReadFrom readFrom(String policy) {
+        switch (policy == null ? "" : policy.toLowerCase()) {
+            case "master":
+                return ReadFrom.MASTER;
+            case "master-preferred":
+                return ReadFrom.MASTER_PREFERRED;
+            case "replica":
+                return ReadFrom.SLAVE;
+            case "replica-preferred":
+                return ReadFrom.SLAVE_PREFERRED;
+            case "nearest":
+                return ReadFrom.NEAREST;
+            default:
+                throw new IllegalArgumentException("不支持的 read-from：" + policy);
+        }
+    }
+
+    public boolean isEnabled() {
+        return template != null;
+    }
+
+    /**
+     * @title: readTemplate
+     * @description: //只读方法使用的 RedisTemplate, 未开启、只读主节点或当前请求已经写入过时返回 null, 调用方使用主节点
+     * @author: agent
+     * @date: Created in 2026/10/18 10:35
+     * @throws:
+     * @return: org.springframework.data.redis.core.RedisTemplate<java.lang.String,java.lang.Object>
+     */
+    public RedisTemplate<String, Object> readTemplate() {
+        if (template == null) {
+            return null;
+        }
+        if (ReadYourWrites.isPinned()) {
+            pinnedReads.increment();
+            return null;
+        }
+        replicaReads.increment();
+        return template;
+    }
+
+    /**
+     * @title: onWrite
+     * @description: //写入主节点后调用, 开启 read-your-writes 时当前请求之后的读取改走主节点
+     * @author: agent
+     * @date: Created in 2026/10/18 10:40
+     * @throws:
+     * @return: void
+     */
+    public void onWrite() {
+        if (template != null && properties.isReadYourWrites()) {
+            ReadYourWrites.pin();
+        }
+    }
+
+    public ReadFrom getReadFrom() {
+        return readFrom;
+    }
+
+    public List<Y2lCacheProperties.Node> getNodes() {
+        return properties.getNodes();
+    }
+
+    /**
+     * 从节点的熔断器, 未开启时为 null
+     */
+    public CircuitBreaker getBreaker() {
+        return breaker;
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("enabled", isEnabled());
+        map.put("readFrom", properties.getReadFrom());
+        map.put("replicaReads", replicaReads.sum());
+        map.put("pinnedReads", pinnedReads.sum());
+        if (breaker != null) {
+            map.put("breaker", breaker.stats());
+        }
+        return map;
+    }
+
+    @Override
+    public void destroy() {
+        if (factory != null) {
+            factory.destroy();
+        }
+    }
+}
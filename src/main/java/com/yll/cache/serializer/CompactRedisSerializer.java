@@ -0,0 +1,533 @@
+package com.yll.cache.serializer;
+
+import com.alibaba.fastjson.JSON;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * @className: CompactRedisSerializer
+ * @description: //紧凑二进制序列化方式, 用注册的 class id 代替 jackson 默认类型里的完整类名
+ * 格式: [MAGIC][VERSION][值], 值以一个字节的类型标记开头; 不以 MAGIC 开头的数据交给旧的 jackson 序列化方式解析,
+ * 迁移期间新旧数据可以同时读取. 未注册的类仍按 jackson 写入, 内嵌在 JSON 标记之后.
+ * 注册类按字段名排序后依次写值, 不写字段名, 字段有增删时请换一个新的 class id.
+ * List/Set/Map 读出为 ArrayList/LinkedHashSet/LinkedHashMap: 注册类的字段按声明的类型转换(如 LinkedList、TreeMap);
+ * 其它位置(顶层、集合元素)的可实例化实现类(LinkedList、TreeMap 等)按 jackson 写入, 读出时保持原来的类型;
+ * fastjson 的 JSONObject/JSONArray 例外, 按紧凑格式写入, 读出为 LinkedHashMap/ArrayList
+ * @author: agent
+ * @date: Created in 2026/10/18 9:30
+ * @modify by: agent
+ * @version: V1.0
+ */
+public class CompactRedisSerializer implements RedisSerializer<Object> {
+
+    public static final byte MAGIC = (byte) 0xB1;
+    public static final byte VERSION = 1;
+
+    private static final byte[] EMPTY_ARRAY = new byte[0];
+
+    private static final byte NULL = 0;
+    private static final byte TRUE = 1;
+    private static final byte FALSE = 2;
+    private static final byte INT = 3;
+    private static final byte LONG = 4;
+    private static final byte DOUBLE = 5;
+    private static final byte FLOAT = 6;
+    private static final byte STRING = 7;
+    private static final byte BYTES = 8;
+    private static final byte LIST = 9;
+    private static final byte SET = 10;
+    private static final byte MAP = 11;
+    private static final byte DATE = 12;
+    private static final byte BIG_DECIMAL = 13;
+    private static final byte BIG_INTEGER = 14;
+    private static final byte OBJECT = 15;
+    private static final byte ENUM = 16;
+    private static final byte SHORT = 17;
+    private static final byte BYTE = 18;
+    private static final byte CHAR = 19;
+    private static final byte JSON = 20;
+
+    /**
+     * 实现类读出后类型不变: ArrayList/LinkedHashSet/LinkedHashMap 本身, 以及读出类型是其子类的 HashSet/HashMap;
+     * 不能在别处实例化的类(Arrays.asList、unmodifiable 包装等)也按紧凑格式写入, 读出为对应的默认实现;
+     * JSONObject/JSONArray 只是 JSON 数据的容器, 按 jackson 写入要给每一层带上类名, 也按默认实现读出
+     */
+    private static final ClassValue<Boolean> KEEPS_TYPE = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            if (type == ArrayList.class || type == LinkedHashSet.class || type == HashSet.class
+                    || type == LinkedHashMap.class || type == HashMap.class || JSON.class.isAssignableFrom(type)
+                    || !Modifier.isPublic(type.getModifiers())) {
+                return true;
+            }
+            try {
+                return !Modifier.isPublic(type.getConstructor().getModifiers());
+            } catch (NoSuchMethodException e) {
+                return true;
+            }
+        }
+    };
+
+    private final Map<Class<?>, ClassInfo> byClass = new HashMap<>();
+    private final Map<Integer, ClassInfo> byId = new HashMap<>();
+    private final RedisSerializer<Object> legacy;
+
+    /**
+     * @param classIds 注册的 class id 表, id 一经使用不能再分配给别的类
+     * @param legacy   旧的序列化方式, 用于读取旧数据和写入未注册的类
+     */
+    public CompactRedisSerializer(Map<Integer, Class<?>> classIds, RedisSerializer<Object> legacy) {
+        this.legacy = legacy;
+        for (Map.Entry<Integer, Class<?>> entry : classIds.entrySet()) {
+            ClassInfo info = new ClassInfo(entry.getKey(), entry.getValue());
+            byClass.put(info.type, info);
+            byId.put(info.id, info);
+        }
+    }
+
+    @Override
+    public byte[] serialize(Object o) throws SerializationException {
+        if (o == null) {
+            return EMPTY_ARRAY;
+        }
+        Output out = new Output(64);
+        out.write(MAGIC);
+        out.write(VERSION);
+        try {
+            writeValue(out, o);
+        } catch (IllegalAccessException e) {
+            throw new SerializationException("Could not write compact value: " + e.getMessage(), e);
+        }
+        return out.toByteArray();
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if (bytes[0] != MAGIC) {
+            // 迁移前写入的 jackson 数据
+            return legacy.deserialize(bytes);
+        }
+        if (bytes.length < 2 || bytes[1] != VERSION) {
+            throw new SerializationException("Unsupported compact version: " + (bytes.length < 2 ? "none" : bytes[1]));
+        }
+        Input in = new Input(bytes, 2);
+        try {
+            return readValue(in);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            throw new SerializationException("Could not read compact value: " + e.getMessage(), e);
+        }
+    }
+
+    private void writeValue(Output out, Object o) throws IllegalAccessException {
+        if ((o instanceof Collection || o instanceof Map) && !KEEPS_TYPE.get(o.getClass())) {
+            // 读出时不知道需要的类型, 交给 jackson 带上类名
+            writeJson(out, o);
+            return;
+        }
+        writeField(out, o);
+    }
+
+    /**
+     * 注册类的字段读出时按声明的类型转换, 集合总是按紧凑格式写入
+     */
+    private void writeField(Output out, Object o) throws IllegalAccessException {
+        if (o == null) {
+            out.write(NULL);
+        } else if (o instanceof String) {
+            out.write(STRING);
+            out.writeString((String) o);
+        } else if (o instanceof Integer) {
+            out.write(INT);
+            out.writeVarLong(zigZag((Integer) o));
+        } else if (o instanceof Long) {
+            out.write(LONG);
+            out.writeVarLong(zigZag((Long) o));
+        } else if (o instanceof Boolean) {
+            out.write((Boolean) o ? TRUE : FALSE);
+        } else if (o instanceof Double) {
+            out.write(DOUBLE);
+            out.writeLong(Double.doubleToLongBits((Double) o));
+        } else if (o instanceof Map) {
+            Map<?, ?> map = (Map<?, ?>) o;
+            out.write(MAP);
+            out.writeVarLong(map.size());
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                writeValue(out, entry.getKey());
+                writeValue(out, entry.getValue());
+            }
+        } else if (o instanceof List) {
+            writeCollection(out, LIST, (Collection<?>) o);
+        } else if (o instanceof Set) {
+            writeCollection(out, SET, (Collection<?>) o);
+        } else if (byClass.containsKey(o.getClass())) {
+            writeRegistered(out, byClass.get(o.getClass()), o);
+        } else if (o instanceof Float) {
+            out.write(FLOAT);
+            out.writeInt(Float.floatToIntBits((Float) o));
+        } else if (o instanceof Short) {
+            out.write(SHORT);
+            out.writeVarLong(zigZag((Short) o));
+        } else if (o instanceof Byte) {
+            out.write(BYTE);
+            out.write((Byte) o);
+        } else if (o instanceof Character) {
+            out.write(CHAR);
+            out.writeVarLong((Character) o);
+        } else if (o instanceof byte[]) {
+            byte[] bytes = (byte[]) o;
+            out.write(BYTES);
+            out.writeVarLong(bytes.length);
+            out.write(bytes, 0, bytes.length);
+        } else if (o instanceof Date && o.getClass() == Date.class) {
+            out.write(DATE);
+            out.writeVarLong(zigZag(((Date) o).getTime()));
+        } else if (o instanceof BigDecimal) {
+            out.write(BIG_DECIMAL);
+            out.writeString(o.toString());
+        } else if (o instanceof BigInteger) {
+            out.write(BIG_INTEGER);
+            out.writeString(o.toString());
+        } else {
+            // 未注册的类型退回 jackson, 带完整类名
+            writeJson(out, o);
+        }
+    }
+
+    private void writeJson(Output out, Object o) {
+        byte[] json = legacy.serialize(o);
+        out.write(JSON);
+        out.writeVarLong(json.length);
+        out.write(json, 0, json.length);
+    }
+
+    private void writeCollection(Output out, byte tag, Collection<?> collection) throws IllegalAccessException {
+        out.write(tag);
+        out.writeVarLong(collection.size());
+        for (Object element : collection) {
+            writeValue(out, element);
+        }
+    }
+
+    private void writeRegistered(Output out, ClassInfo info, Object o) throws IllegalAccessException {
+        if (info.enumConstants != null) {
+            out.write(ENUM);
+            out.writeVarLong(info.id);
+            out.writeVarLong(((Enum<?>) o).ordinal());
+            return;
+        }
+        out.write(OBJECT);
+        out.writeVarLong(info.id);
+        out.writeVarLong(info.fields.length);
+        for (Field field : info.fields) {
+            writeField(out, field.get(o));
+        }
+    }
+
+    private Object readValue(Input in) throws ReflectiveOperationException {
+        byte tag = in.read();
+        switch (tag) {
+            case NULL:
+                return null;
+            case TRUE:
+                return Boolean.TRUE;
+            case FALSE:
+                return Boolean.FALSE;
+            case INT:
+                return (int) unZigZag(in.readVarLong());
+            case LONG:
+                return unZigZag(in.readVarLong());
+            case DOUBLE:
+                return Double.longBitsToDouble(in.readLong());
+            case FLOAT:
+                return Float.intBitsToFloat(in.readInt());
+            case SHORT:
+                return (short) unZigZag(in.readVarLong());
+            case BYTE:
+                return in.read();
+            case CHAR:
+                return (char) in.readVarLong();
+            case STRING:
+                return in.readString();
+            case BYTES:
+                return in.readBytes((int) in.readVarLong());
+            case LIST: {
+                int size = (int) in.readVarLong();
+                List<Object> list = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    list.add(readValue(in));
+                }
+                return list;
+            }
+            case SET: {
+                int size = (int) in.readVarLong();
+                Set<Object> set = new LinkedHashSet<>(capacity(size));
+                for (int i = 0; i < size; i++) {
+                    set.add(readValue(in));
+                }
+                return set;
+            }
+            case MAP: {
+                int size = (int) in.readVarLong();
+                Map<Object, Object> map = new LinkedHashMap<>(capacity(size));
+                for (int i = 0; i < size; i++) {
+                    Object key = readValue(in);
+                    map.put(key, readValue(in));
+                }
+                return map;
+            }
+            case DATE:
+                return new Date(unZigZag(in.readVarLong()));
+            case BIG_DECIMAL:
+                return new BigDecimal(in.readString());
+            case BIG_INTEGER:
+                return new BigInteger(in.readString());
+            case ENUM:
+                return classInfo((int) in.readVarLong()).enumConstants[(int) in.readVarLong()];
+            case OBJECT:
+                return readRegistered(in, classInfo((int) in.readVarLong()));
+            case JSON:
+                return legacy.deserialize(in.readBytes((int) in.readVarLong()));
+            default:
+                throw new SerializationException("Unknown compact tag: " + tag);
+        }
+    }
+
+    private Object readRegistered(Input in, ClassInfo info) throws ReflectiveOperationException {
+        Object o = info.constructor.newInstance();
+        int count = (int) in.readVarLong();
+        for (int i = 0; i < count; i++) {
+            Object value = readValue(in);
+            if (i < info.fields.length) {
+                Field field = info.fields[i];
+                field.set(o, convert(value, field.getType()));
+            }
+        }
+        return o;
+    }
+
+    /**
+     * 读出的 ArrayList/LinkedHashSet/LinkedHashMap 不是字段声明的类型时, 转换成声明的类型:
+     * 具体类用无参构造器创建, 接口按 SortedSet/SortedMap、Queue、Set、ConcurrentMap 选默认实现
+     */
+    @SuppressWarnings("unchecked")
+    private static Object convert(Object value, Class<?> type) throws ReflectiveOperationException {
+        if (value == null || type.isPrimitive() || type.isInstance(value)) {
+            return value;
+        }
+        boolean concrete = !type.isInterface() && !Modifier.isAbstract(type.getModifiers());
+        if (value instanceof Collection && Collection.class.isAssignableFrom(type)) {
+            Collection<Object> collection;
+            if (concrete) {
+                collection = (Collection<Object>) type.getDeclaredConstructor().newInstance();
+            } else if (SortedSet.class.isAssignableFrom(type)) {
+                collection = new TreeSet<>();
+            } else if (Queue.class.isAssignableFrom(type)) {
+                collection = new LinkedList<>();
+            } else if (Set.class.isAssignableFrom(type)) {
+                collection = new LinkedHashSet<>();
+            } else {
+                collection = new ArrayList<>();
+            }
+            collection.addAll((Collection<Object>) value);
+            return collection;
+        }
+        if (value instanceof Map && Map.class.isAssignableFrom(type)) {
+            Map<Object, Object> map;
+            if (concrete) {
+                map = (Map<Object, Object>) type.getDeclaredConstructor().newInstance();
+            } else if (SortedMap.class.isAssignableFrom(type)) {
+                map = new TreeMap<>();
+            } else if (ConcurrentMap.class.isAssignableFrom(type)) {
+                map = new ConcurrentHashMap<>();
+            } else {
+                map = new LinkedHashMap<>();
+            }
+            map.putAll((Map<Object, Object>) value);
+            return map;
+        }
+        return value;
+    }
+
+    private ClassInfo classInfo(int id) {
+        ClassInfo info = byId.get(id);
+        if (info == null) {
+            throw new SerializationException("Unregistered compact class id: " + id);
+        }
+        return info;
+    }
+
+    private static int capacity(int size) {
+        return Math.max((int) (size / 0.75f) + 1, 16);
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * 注册类的反射信息, 启动时一次性解析
+     */
+    private static class ClassInfo {
+        private final int id;
+        private final Class<?> type;
+        private final Object[] enumConstants;
+        private final Constructor<?> constructor;
+        private final Field[] fields;
+
+        ClassInfo(int id, Class<?> type) {
+            this.id = id;
+            this.type = type;
+            if (type.isEnum()) {
+                this.enumConstants = type.getEnumConstants();
+                this.constructor = null;
+                this.fields = new Field[0];
+                return;
+            }
+            this.enumConstants = null;
+            try {
+                this.constructor = type.getDeclaredConstructor();
+                this.constructor.setAccessible(true);
+            } catch (NoSuchMethodException e) {
+                throw new IllegalArgumentException("Compact class " + type.getName() + " needs a no-arg constructor", e);
+            }
+            List<Field> list = new ArrayList<>();
+            for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+                for (Field field : c.getDeclaredFields()) {
+                    int modifiers = field.getModifiers();
+                    if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers) || field.isSynthetic()) {
+                        continue;
+                    }
+                    field.setAccessible(true);
+                    list.add(field);
+                }
+            }
+            list.sort(Comparator.comparing((Field f) -> f.getDeclaringClass().getName()).thenComparing(Field::getName));
+            this.fields = list.toArray(new Field[0]);
+        }
+    }
+
+    /**
+     * 可扩容的输出缓冲, 避免 ByteArrayOutputStream 的同步开销
+     */
+    private static final class Output {
+        private byte[] buf;
+        private int pos;
+
+        Output(int capacity) {
+            this.buf = new byte[capacity];
+        }
+
+        void write(byte b) {
+            ensure(1);
+            buf[pos++] = b;
+        }
+
+        void write(byte[] bytes, int off, int len) {
+            ensure(len);
+            System.arraycopy(bytes, off, buf, pos, len);
+            pos += len;
+        }
+
+        void writeVarLong(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                buf[pos++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buf[pos++] = (byte) value;
+        }
+
+        void writeInt(int value) {
+            ensure(4);
+            buf[pos++] = (byte) (value >>> 24);
+            buf[pos++] = (byte) (value >>> 16);
+            buf[pos++] = (byte) (value >>> 8);
+            buf[pos++] = (byte) value;
+        }
+
+        void writeLong(long value) {
+            writeInt((int) (value >>> 32));
+            writeInt((int) value);
+        }
+
+        void writeString(String s) {
+            byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(bytes.length);
+            write(bytes, 0, bytes.length);
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buf, pos);
+        }
+
+        private void ensure(int n) {
+            if (pos + n > buf.length) {
+                buf = Arrays.copyOf(buf, Math.max(buf.length << 1, pos + n));
+            }
+        }
+    }
+
+    private static final class Input {
+        private final byte[] buf;
+        private int pos;
+
+        Input(byte[] buf, int pos) {
+            this.buf = buf;
+            this.pos = pos;
+        }
+
+        byte read() {
+            return buf[pos++];
+        }
+
+        long readVarLong() {
+            long value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = buf[pos++];
+                value |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            return value;
+        }
+
+        int readInt() {
+            return ((buf[pos++] & 0xFF) << 24) | ((buf[pos++] & 0xFF) << 16) | ((buf[pos++] & 0xFF) << 8) | (buf[pos++] & 0xFF);
+        }
+
+        long readLong() {
+            return ((long) readInt() << 32) | (readInt() & 0xFFFFFFFFL);
+        }
+
+        String readString() {
+            int len = (int) readVarLong();
+            String s = new String(buf, pos, len, StandardCharsets.UTF_8);
+            pos += len;
+            return s;
+        }
+
+        byte[] readBytes(int len) {
+            byte[] bytes = Arrays.copyOfRange(buf, pos, pos + len);
+            pos += len;
+            return bytes;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.yll.cache.serializer;
+
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FastDecompressor;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+/**
+ * @className: CompressingRedisSerializer
+ * @description: //超过阈值的 value 用 lz4 压缩后再写入, 小 value 原样写入
+ * 压缩格式: [MARKER][CODEC][原始长度 4 字节][压缩数据], 读取时按 MARKER 自动识别, 压缩前写入的数据照常读取
+ * @author: agent
+ * @date: Created in 2026/10/18 10:20
+ * @modify by: agent
+ * @version: V1.0
+ */
+public class CompressingRedisSerializer implements RedisSerializer<Object> {
+
+    public static final byte MARKER = (byte) 0xB2;
+    public static final byte CODEC_LZ4 = 'L';
+
+    private static final int HEADER_LENGTH = 6;
+
+    private final RedisSerializer<Object> delegate;
+    private final int threshold;
+    private final CompressionStats stats;
+    private final LZ4Compressor compressor;
+    private final LZ4FastDecompressor decompressor;
+
+    /**
+     * @param delegate  实际的序列化方式
+     * @param threshold 序列化后达到多少字节才压缩
+     * @param stats     压缩统计
+     */
+    public CompressingRedisSerializer(RedisSerializer<Object> delegate, int threshold, CompressionStats stats) {
+        this.delegate = delegate;
+        this.threshold = threshold;
+        this.stats = stats;
+        LZ4Factory factory = LZ4Factory.fastestInstance();
+        this.compressor = factory.fastCompressor();
+        this.decompressor = factory.fastDecompressor();
+    }
+
+    @Override
+    public byte[] serialize(Object o) throws SerializationException {
+        byte[] bytes = delegate.serialize(o);
+        if (bytes == null || bytes.length < threshold) {
+            return bytes;
+        }
+        long start = System.nanoTime();
+        int maxLength = compressor.maxCompressedLength(bytes.length);
+        byte[] out = new byte[HEADER_LENGTH + maxLength];
+        int length = compressor.compress(bytes, 0, bytes.length, out, HEADER_LENGTH, maxLength);
+        if (HEADER_LENGTH + length >= bytes.length) {
+            // 压缩不划算的数据原样写入
+            stats.recordSkip();
+            return bytes;
+        }
+        out[0] = MARKER;
+        out[1] = CODEC_LZ4;
+        out[2] = (byte) (bytes.length >>> 24);
+        out[3] = (byte) (bytes.length >>> 16);
+        out[4] = (byte) (bytes.length >>> 8);
+        out[5] = (byte) bytes.length;
+        byte[] result = new byte[HEADER_LENGTH + length];
+        System.arraycopy(out, 0, result, 0, result.length);
+        stats.recordCompress(bytes.length, result.length, System.nanoTime() - start);
+        return result;
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (!isCompressed(bytes)) {
+            return delegate.deserialize(bytes);
+        }
+        long start = System.nanoTime();
+        int length = ((bytes[2] & 0xFF) << 24) | ((bytes[3] & 0xFF) << 16) | ((bytes[4] & 0xFF) << 8) | (bytes[5] & 0xFF);
+        byte[] restored = new byte[length];
+        try {
+            decompressor.decompress(bytes, HEADER_LENGTH, restored, 0, length);
+        } catch (RuntimeException e) {
+            throw new SerializationException("Could not decompress value: " + e.getMessage(), e);
+        }
+        stats.recordDecompress(System.nanoTime() - start);
+        return delegate.deserialize(restored);
+    }
+
+    private static boolean isCompressed(byte[] bytes) {
+        return bytes != null && bytes.length > HEADER_LENGTH && bytes[0] == MARKER && bytes[1] == CODEC_LZ4;
+    }
+}
@@ -0,0 +1,67 @@
+package com.yll.cache.serializer;
+
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @className: CompressionStats
+ * @description: //value 压缩统计: 压缩率与压缩/解压耗时
+ * @author: agent
+ * @date: Created in 2026/10/18 10:05
+ * @modify by: agent
+ * @version: V1.0
+ */
+@Component
+public class CompressionStats {
+
+    private final LongAdder compressed = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+    private final LongAdder bytesBefore = new LongAdder();
+    private final LongAdder bytesAfter = new LongAdder();
+    private final LongAdder compressNanos = new LongAdder();
+    private final LongAdder decompressed = new LongAdder();
+    private final LongAdder decompressNanos = new LongAdder();
+
+    void recordCompress(int before, int after, long nanos) {
+        compressed.increment();
+        bytesBefore.add(before);
+        bytesAfter.add(after);
+        compressNanos.add(nanos);
+    }
+
+    void recordSkip() {
+        skipped.increment();
+    }
+
+    void recordDecompress(long nanos) {
+        decompressed.increment();
+        decompressNanos.add(nanos);
+    }
+
+    /**
+     * @title: stats
+     * @description: //压缩统计信息
+     * @author: agent
+     * @date: Created in 2026/10/18 10:10
+     * @throws:
+     * @return: java.util.Map<java.lang.String,java.lang.Object>
+     */
+    public Map<String, Object> stats() {
+        long count = compressed.sum();
+        long before = bytesBefore.sum();
+        long decompressCount = decompressed.sum();
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("compressedCount", count);
+        map.put("skippedCount", skipped.sum());
+        map.put("bytesBefore", before);
+        map.put("bytesAfter", bytesAfter.sum());
+        map.put("ratio", before == 0 ? 1.0 : bytesAfter.sum() / (double) before);
+        map.put("avgCompressMicros", count == 0 ? 0 : compressNanos.sum() / (double) count / 1000);
+        map.put("decompressedCount", decompressCount);
+        map.put("avgDecompressMicros", decompressCount == 0 ? 0 : decompressNanos.sum() / (double) decompressCount / 1000);
+        return map;
+    }
+}
@@ -0,0 +1,36 @@
+package com.yll.cache.serializer;
+
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * @className: RawRedisSerializer
+ * @description: //原样透传的序列化方式, byte[] 直接写出, 其它类型按字符串写出
+ * 用于脚本参数等已经由调用方自行序列化的场景
+ * @author: agent
+ * @date: Created in 2026/10/18 9:50
+ * @modify by: agent
+ * @version: V1.0
+ */
+public class RawRedisSerializer implements RedisSerializer<Object> {
+
+    public static final RawRedisSerializer INSTANCE = new RawRedisSerializer();
+
+    @Override
+    public byte[] serialize(Object o) throws SerializationException {
+        if (o == null) {
+            return null;
+        }
+        if (o instanceof byte[]) {
+            return (byte[]) o;
+        }
+        return String.valueOf(o).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        return bytes;
+    }
+}
@@ -0,0 +1,123 @@
+package com.yll.cache.sharding;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * @className: ConsistentHash
+ * @description: //一致性哈希环, 与 twemproxy/jedis 相同的 ketama 方式: 每个节点按 "名称-序号" 取 md5,
+ * 每个摘要切成 4 个虚拟节点放到环上, key 顺时针落到第一个虚拟节点. 新增一个节点只会把约 1/(n+1) 的 key 迁到新节点,
+ * 其它 key 的位置不变. key 中带 {tag} 时只对 tag 取哈希, 保证相关的 key 落在同一个节点.
+ * 环在构建完成后只读, 读取线程安全; add/remove 需要在发布给其它线程之前完成
+ * @author: agent
+ * @date: Created in 2026/10/18 9:30
+ * @modify by: agent
+ * @version: V1.0
+ */
+public class ConsistentHash<T> {
+
+    private static final ThreadLocal<MessageDigest> MD5 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("不支持 MD5", e);
+        }
+    });
+
+    private final TreeMap<Long, T> ring = new TreeMap<>();
+    private final int virtualNodes;
+
+    /**
+     * @param virtualNodes 每个节点的虚拟节点个数, 按 4 的倍数取整, 越多分布越均匀
+     */
+    public ConsistentHash(int virtualNodes) {
+        this.virtualNodes = Math.max(4, virtualNodes);
+    }
+
+    /**
+     * @param name 节点名称, 决定节点在环上的位置, 地址变化时保持名称不变 key 就不会迁移
+     * @param node 节点
+     * @title: add
+     * @description: //加入节点
+     * @author: agent
+     * @date: Created in 2026/10/18 9:40
+     * @throws:
+     * @return: void
+     */
+    public void add(String name, T node) {
+        for (int i = 0; i < virtualNodes / 4; i++) {
+            byte[] digest = md5(name + "-" + i);
+            for (int h = 0; h < 4; h++) {
+                ring.put(hash(digest, h), node);
+            }
+        }
+    }
+
+    /**
+     * @param name 节点名称
+     * @title: remove
+     * @description: //移除节点, 原来落在该节点的 key 顺延到环上的下一个节点
+     * @author: agent
+     * @date: Created in 2026/10/18 9:45
+     * @throws:
+     * @return: void
+     */
+    public void remove(String name) {
+        for (int i = 0; i < virtualNodes / 4; i++) {
+            byte[] digest = md5(name + "-" + i);
+            for (int h = 0; h < 4; h++) {
+                ring.remove(hash(digest, h));
+            }
+        }
+    }
+
+    /**
+     * @param key 键
+     * @title: get
+     * @description: //key 所在的节点, 环为空时返回 null
+     * @author: agent
+     * @date: Created in 2026/10/18 9:50
+     * @throws:
+     * @return: T
+     */
+    public T get(String key) {
+        if (ring.isEmpty()) {
+            return null;
+        }
+        long hash = hash(md5(hashTag(key)), 0);
+        Map.Entry<Long, T> entry = ring.ceilingEntry(hash);
+        return entry == null ? ring.firstEntry().getValue() : entry.getValue();
+    }
+
+    public int size() {
+        return ring.size();
+    }
+
+    /**
+     * key 中第一个 {...} 且内容非空时只取其中的部分, 规则与 redis cluster 相同
+     */
+    static String hashTag(String key) {
+        int start = key.indexOf('{');
+        if (start < 0) {
+            return key;
+        }
+        int end = key.indexOf('}', start + 1);
+        return end > start + 1 ? key.substring(start + 1, end) : key;
+    }
+
+    private static byte[] md5(String value) {
+        MessageDigest digest = MD5.get();
+        digest.reset();
+        return digest.digest(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static long hash(byte[] digest, int index) {
+        return ((long) (digest[3 + index * 4] & 0xFF) << 24)
+                | ((long) (digest[2 + index * 4] & 0xFF) << 16)
+                | ((long) (digest[1 + index * 4] & 0xFF) << 8)
+                | (digest[index * 4] & 0xFF);
+    }
+}
@@ -0,0 +1,283 @@
+package com.yll.cache.sharding;
+
+import com.yll.cache.breaker.CircuitBreaker;
+import com.yll.cache.config.LettuceClients;
+import com.yll.cache.config.Y2lCacheProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.data.redis.RedisProperties;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisPassword;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.util.StringUtils;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * @className: ShardRouter
+ * @description: //客户端分片: y2lcache.sharding.nodes 中每个节点一个连接池和 RedisTemplate, key 按一致性哈希落到节点.
+ * 每个节点有自己的熔断器, 一个节点故障只影响落在它上面的 key. 多 key 操作按节点拆分后并行执行.
+ * 未开启时所有 key 都落到 spring.redis 配置的默认节点; 开启后默认节点仍用于 pub/sub 和租约
+ * @author: agent
+ * @date: Created in 2026/10/18 10:00
+ * @modify by: agent
+ * @version: V1.0
+ */
+@Slf4j
+public class ShardRouter implements DisposableBean {
+
+    private final RedisTemplate<String, Object> defaultTemplate;
+    private final List<Shard> shards = new ArrayList<>();
+    private final ConsistentHash<Shard> ring;
+    private final ExecutorService executor;
+
+    /**
+     * @param properties      缓存扩展配置
+     * @param redisProperties spring.redis 配置, 各节点沿用其中的超时和连接池设置
+     * @param defaultTemplate 默认节点
+     * @param templates       按连接和熔断器创建 RedisTemplate, 序列化方式和指标与默认节点相同
+     */
+    public ShardRouter(Y2lCacheProperties properties, RedisProperties redisProperties,
+                       RedisTemplate<String, Object> defaultTemplate,
+                       BiFunction<RedisConnectionFactory, CircuitBreaker, RedisTemplate<String, Object>> templates) {
+        Y2lCacheProperties.Sharding sharding = properties.getSharding();
+        this.defaultTemplate = defaultTemplate;
+        this.ring = new ConsistentHash<>(sharding.getVirtualNodes());
+        if (!sharding.isEnabled() || sharding.getNodes().isEmpty()) {
+            this.executor = null;
+            return;
+        }
+        for (Y2lCacheProperties.Node node : sharding.getNodes()) {
+            String name = StringUtils.isEmpty(node.getName()) ? node.getHost() + ":" + node.getPort() : node.getName();
+            LettuceConnectionFactory factory = connectionFactory(node, redisProperties);
+            factory.afterPropertiesSet();
+            CircuitBreaker breaker = new CircuitBreaker(properties);
+            Shard shard = new Shard(name, node.getHost() + ":" + node.getPort(), node, factory, breaker,
+                    templates.apply(factory, breaker));
+            shards.add(shard);
+            ring.add(name, shard);
+        }
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(sharding.getFanOutThreads(), sharding.getFanOutThreads(),
+                0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "y2lcache-shard-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        log.info("初始化 -> [{}] nodes -> {}", "ShardRouter", nodes());
+    }
+
+    private static LettuceConnectionFactory connectionFactory(Y2lCacheProperties.Node node, RedisProperties redisProperties) {
+        RedisStandaloneConfiguration standalone = new RedisStandaloneConfiguration(node.getHost(), node.getPort());
+        standalone.setDatabase(node.getDatabase());
+        if (!StringUtils.isEmpty(node.getPassword())) {
+            standalone.setPassword(RedisPassword.of(node.getPassword()));
+        }
+        return new LettuceConnectionFactory(standalone, LettuceClients.clientConfiguration(redisProperties, null));
+    }
+
+    public boolean isEnabled() {
+        return !shards.isEmpty();
+    }
+
+    /**
+     * @param key 键
+     * @title: template
+     * @description: //key 所在节点的 RedisTemplate
+     * @author: agent
+     * @date: Created in 2026/10/18 10:10
+     * @throws:
+     * @return: org.springframework.data.redis.core.RedisTemplate<java.lang.String,java.lang.Object>
+     */
+    public RedisTemplate<String, Object> template(String key) {
+        return shards.isEmpty() ? defaultTemplate : ring.get(key).template;
+    }
+
+    /**
+     * @param key 键
+     * @title: node
+     * @description: //key 所在节点的名称
+     * @author: agent
+     * @date: Created in 2026/10/18 10:12
+     * @throws:
+     * @return: java.lang.String
+     */
+    public String node(String key) {
+        return shards.isEmpty() ? "default" : ring.get(key).name;
+    }
+
+    /**
+     * @param key 键
+     * @title: shard
+     * @description: //key 所在的节点, 供不经过 RedisTemplate 的客户端(AsyncRedisUtils)按节点建立连接并使用该节点的熔断器;
+     * 未开启分片时返回 null, 调用方使用 spring.redis 配置的默认节点
+     * @author: agent
+     * @date: Created in 2026/10/18 10:00
+     * @throws:
+     * @return: com.yll.cache.sharding.ShardRouter.Shard
+     */
+    public Shard shard(String key) {
+        return shards.isEmpty() ? null : ring.get(key);
+    }
+
+    /**
+     * @param items 待拆分的元素
+     * @param key   取元素的 key
+     * @title: group
+     * @description: //按节点拆分, 每组内保持原来的顺序; 未开启分片时只有默认节点一组
+     * @author: agent
+     * @date: Created in 2026/10/18 10:15
+     * @throws:
+     * @return: java.util.Map<org.springframework.data.redis.core.RedisTemplate<java.lang.String,java.lang.Object>,java.util.List<T>>
+     */
+    public <T> Map<RedisTemplate<String, Object>, List<T>> group(Collection<T> items, Function<T, String> key) {
+        Map<RedisTemplate<String, Object>, List<T>> groups = new LinkedHashMap<>();
+        if (shards.isEmpty()) {
+            groups.put(defaultTemplate, new ArrayList<>(items));
+            return groups;
+        }
+        for (T item : items) {
+            groups.computeIfAbsent(ring.get(key.apply(item)).template, template -> new ArrayList<>()).add(item);
+        }
+        return groups;
+    }
+
+    /**
+     * @param groups group 拆分的结果
+     * @param task   在一个节点上执行的操作
+     * @title: parallel
+     * @description: //每个节点并行执行一次 task, 第一组在调用线程执行, 只有一组时不切换线程.
+     * 等全部节点完成后返回, 结果与 groups 顺序一致; 有节点失败时抛出第一个异常
+     * @author: agent
+     * @date: Created in 2026/10/18 10:20
+     * @throws:
+     * @return: java.util.List<R>
+     */
+    public <T, R> List<R> parallel(Map<RedisTemplate<String, Object>, List<T>> groups,
+                                   BiFunction<RedisTemplate<String, Object>, List<T>, R> task) {
+        List<R> results = new ArrayList<>(groups.size());
+        if (groups.size() <= 1) {
+            groups.forEach((template, items) -> results.add(task.apply(template, items)));
+            return results;
+        }
+        List<CompletableFuture<R>> futures = new ArrayList<>(groups.size());
+        Map.Entry<RedisTemplate<String, Object>, List<T>> first = null;
+        for (Map.Entry<RedisTemplate<String, Object>, List<T>> entry : groups.entrySet()) {
+            if (first == null) {
+                first = entry;
+                futures.add(null);
+            } else {
+                futures.add(CompletableFuture.supplyAsync(() -> task.apply(entry.getKey(), entry.getValue()), executor));
+            }
+        }
+        RuntimeException failure = null;
+        try {
+            results.add(task.apply(first.getKey(), first.getValue()));
+        } catch (RuntimeException e) {
+            failure = e;
+            results.add(null);
+        }
+        for (int i = 1; i < futures.size(); i++) {
+            try {
+                results.add(futures.get(i).join());
+            } catch (CompletionException e) {
+                if (failure == null) {
+                    failure = e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+                }
+                results.add(null);
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        return results;
+    }
+
+    /**
+     * @title: templates
+     * @description: //全部节点的 RedisTemplate, 用于需要遍历所有节点的操作(SCAN 等); 未开启分片时只有默认节点
+     * @author: agent
+     * @date: Created in 2026/10/18 9:30
+     * @throws:
+     * @return: java.util.Map<java.lang.String,org.springframework.data.redis.core.RedisTemplate<java.lang.String,java.lang.Object>>
+     */
+    public Map<String, RedisTemplate<String, Object>> templates() {
+        Map<String, RedisTemplate<String, Object>> templates = new LinkedHashMap<>();
+        if (shards.isEmpty()) {
+            templates.put("default", defaultTemplate);
+        }
+        shards.forEach(shard -> templates.put(shard.name, shard.template));
+        return templates;
+    }
+
+    public List<String> nodes() {
+        List<String> nodes = new ArrayList<>();
+        shards.forEach(shard -> nodes.add(shard.name + "@" + shard.address));
+        return nodes;
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("enabled", isEnabled());
+        map.put("virtualNodes", ring.size());
+        Map<String, Object> nodes = new LinkedHashMap<>();
+        for (Shard shard : shards) {
+            Map<String, Object> node = new LinkedHashMap<>();
+            node.put("address", shard.address);
+            node.put("breaker", shard.breaker.stats());
+            nodes.put(shard.name, node);
+        }
+        map.put("nodes", nodes);
+        return map;
+    }
+
+    @Override
+    public void destroy() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+        shards.forEach(shard -> shard.factory.destroy());
+    }
+
+    public static class Shard {
+        private final String name;
+        private final String address;
+        private final Y2lCacheProperties.Node node;
+        private final LettuceConnectionFactory factory;
+        private final CircuitBreaker breaker;
+        private final RedisTemplate<String, Object> template;
+
+        private Shard(String name, String address, Y2lCacheProperties.Node node, LettuceConnectionFactory factory,
+                      CircuitBreaker breaker, RedisTemplate<String, Object> template) {
+            this.name = name;
+            this.address = address;
+            this.node = node;
+            this.factory = factory;
+            this.breaker = breaker;
+            this.template = template;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Y2lCacheProperties.Node getNode() {
+            return node;
+        }
+
+        public CircuitBreaker getBreaker() {
+            return breaker;
+        }
+    }
+}
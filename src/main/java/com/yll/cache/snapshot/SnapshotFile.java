@@ -0,0 +1,196 @@
+package com.yll.cache.snapshot;
+
+import java.io.*;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * @className: SnapshotFile
+ * @description: //快照文件格式:
+ * 头部 [Y2LS][版本 1 字节][导出时刻 毫秒 8 字节];
+ * 每条记录 [key 长度 4 字节][key][剩余时间 毫秒 8 字节, 0 为永久][DUMP 长度 4 字节][DUMP 的值];
+ * 结尾 [-1 4 字节][记录数 8 字节], 没有结尾的文件视为不完整.
+ * DUMP 的值是 redis 的 RDB 编码, 已经很紧凑, 不再压缩, 读取时可以直接内存映射
+ * @author: agent
+ * @date: Created in 2026/10/18 9:50
+ * @modify by: agent
+ * @version: V1.0
+ */
+public final class SnapshotFile {
+
+    private static final byte[] MAGIC = {'Y', '2', 'L', 'S'};
+    private static final byte VERSION = 1;
+    private static final int END = -1;
+    /**
+     * 每次映射的最大长度, 超过 2GB 的文件分段映射
+     */
+    private static final long WINDOW = 256L * 1024 * 1024;
+
+    private SnapshotFile() {
+    }
+
+    /**
+     * 一条记录
+     */
+    public static final class Record {
+        private final byte[] key;
+        private final long ttlMillis;
+        private final byte[] value;
+
+        Record(byte[] key, long ttlMillis, byte[] value) {
+            this.key = key;
+            this.ttlMillis = ttlMillis;
+            this.value = value;
+        }
+
+        public byte[] getKey() {
+            return key;
+        }
+
+        public long getTtlMillis() {
+            return ttlMillis;
+        }
+
+        public byte[] getValue() {
+            return value;
+        }
+    }
+
+    /**
+     * 顺序写入, 先写临时文件, 完成后由调用方改名
+     */
+    public static final class Writer implements Closeable {
+        private final DataOutputStream out;
+        private long records;
+
+        public Writer(Path path, long exportedAt) throws IOException {
+            this.out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(path.toFile()), 1 << 20));
+            out.write(MAGIC);
+            out.writeByte(VERSION);
+            out.writeLong(exportedAt);
+        }
+
+        /**
+         * @return 写入的字节数
+         */
+        public int write(byte[] key, long ttlMillis, byte[] value) throws IOException {
+            out.writeInt(key.length);
+            out.write(key);
+            out.writeLong(ttlMillis);
+            out.writeInt(value.length);
+            out.write(value);
+            records++;
+            return 16 + key.length + value.length;
+        }
+
+        public void finish() throws IOException {
+            out.writeInt(END);
+            out.writeLong(records);
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+
+    /**
+     * 内存映射顺序读取
+     */
+    public static final class Reader implements Closeable {
+        private final FileChannel channel;
+        private final long size;
+        private final long exportedAt;
+        private MappedByteBuffer buffer;
+        private long base;
+        private long records;
+
+        public Reader(Path path) throws IOException {
+            this.channel = FileChannel.open(path, StandardOpenOption.READ);
+            this.size = channel.size();
+            try {
+                map(0, 0);
+                byte[] magic = new byte[MAGIC.length];
+                ensure(MAGIC.length + 9);
+                buffer.get(magic);
+                if (!Arrays.equals(magic, MAGIC) || buffer.get() != VERSION) {
+                    throw new IOException("不是快照文件或版本不支持：" + path.getFileName());
+                }
+                this.exportedAt = buffer.getLong();
+            } catch (IOException e) {
+                channel.close();
+                throw e;
+            }
+        }
+
+        public long getExportedAt() {
+            return exportedAt;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        /**
+         * @return 下一条记录, 读到结尾时返回 null
+         * @throws EOFException 文件不完整
+         */
+        public Record next() throws IOException {
+            ensure(4);
+            int keyLength = buffer.getInt();
+            if (keyLength == END) {
+                ensure(8);
+                long expected = buffer.getLong();
+                if (expected != records) {
+                    throw new IOException("快照记录数不一致：" + records + " / " + expected);
+                }
+                return null;
+            }
+            if (keyLength < 0) {
+                throw new IOException("快照文件已损坏");
+            }
+            ensure(keyLength + 12L);
+            byte[] key = new byte[keyLength];
+            buffer.get(key);
+            long ttlMillis = buffer.getLong();
+            int valueLength = buffer.getInt();
+            if (valueLength < 0) {
+                throw new IOException("快照文件已损坏");
+            }
+            ensure(valueLength);
+            byte[] value = new byte[valueLength];
+            buffer.get(value);
+            records++;
+            return new Record(key, ttlMillis, value);
+        }
+
+        /**
+         * 当前映射剩余不足 n 字节时从当前位置重新映射
+         */
+        private void ensure(long n) throws IOException {
+            if (buffer.remaining() >= n) {
+                return;
+            }
+            long position = base + buffer.position();
+            if (position + n > size) {
+                throw new EOFException("快照文件不完整");
+            }
+            map(position, n);
+        }
+
+        private void map(long position, long n) throws IOException {
+            long length = Math.min(size - position, Math.max(WINDOW, n));
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+            base = position;
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.yll.cache.snapshot;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @className: SnapshotJob
+ * @description: //一次快照导出或导入及其进度, 由执行线程更新, 查询线程读取
+ * @author: agent
+ * @date: Created in 2026/10/18 9:40
+ * @modify by: agent
+ * @version: V1.0
+ */
+public class SnapshotJob {
+
+    public enum Type {
+        EXPORT, IMPORT
+    }
+
+    public enum State {
+        QUEUED, RUNNING, DONE, FAILED
+    }
+
+    private final String id;
+    private final Type type;
+    private final String name;
+    private final String prefix;
+    private final long createdAt = System.currentTimeMillis();
+
+    private volatile State state = State.QUEUED;
+    private volatile long startedAt;
+    private volatile long finishedAt;
+    private volatile String error;
+
+    private final AtomicLong keys = new AtomicLong();
+    private final AtomicLong bytes = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+
+    public SnapshotJob(String id, Type type, String name, String prefix) {
+        this.id = id;
+        this.type = type;
+        this.name = name;
+        this.prefix = prefix;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getPrefix() {
+        return prefix;
+    }
+
+    public boolean isFinished() {
+        return state == State.DONE || state == State.FAILED;
+    }
+
+    void start() {
+        startedAt = System.currentTimeMillis();
+        state = State.RUNNING;
+    }
+
+    void batch(int keys, long bytes) {
+        this.keys.addAndGet(keys);
+        this.bytes.addAndGet(bytes);
+        batches.incrementAndGet();
+    }
+
+    /**
+     * 导出时已过期或已删除、导入时剩余时间已用完的 key
+     */
+    void skipped(int count) {
+        skipped.addAndGet(count);
+    }
+
+    void failed(int count) {
+        failed.addAndGet(count);
+    }
+
+    void finish(State state, String error) {
+        this.error = error;
+        this.finishedAt = System.currentTimeMillis();
+        this.state = state;
+    }
+
+    public Map<String, Object> progress() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("id", id);
+        map.put("type", type);
+        map.put("name", name);
+        map.put("prefix", prefix);
+        map.put("state", state);
+        map.put("keys", keys.get());
+        map.put("bytes", bytes.get());
+        map.put("skipped", skipped.get());
+        map.put("failed", failed.get());
+        map.put("batches", batches.get());
+        map.put("createdAt", createdAt);
+        map.put("startedAt", startedAt);
+        map.put("finishedAt", finishedAt);
+        long end = finishedAt > 0 ? finishedAt : System.currentTimeMillis();
+        long elapsed = startedAt > 0 ? end - startedAt : 0;
+        map.put("elapsedMillis", elapsed);
+        map.put("keysPerSecond", elapsed > 0 ? keys.get() * 1000 / elapsed : 0);
+        map.put("error", error);
+        return map;
+    }
+}
@@ -0,0 +1,379 @@
+package com.yll.cache.snapshot;
+
+import com.yll.cache.bloom.BloomFilter;
+import com.yll.cache.bucket.BucketStore;
+import com.yll.cache.config.Y2lCacheProperties;
+import com.yll.cache.local.LocalCache;
+import com.yll.cache.serializer.RawRedisSerializer;
+import com.yll.cache.sharding.ShardRouter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * @className: SnapshotService
+ * @description: //缓存快照: 导出时在每个节点上 SCAN 前缀匹配的 key, 按批用管道 DUMP + PTTL 写入本地文件;
+ * 导入时内存映射读取文件, 按节点分批, 多个线程并行用管道 RESTORE, 剩余时间扣除导出之后经过的时间, 已用完的跳过.
+ * 文件只能位于 y2lcache.snapshot.directory 下, 名称只允许字母、数字、点、下划线和横线.
+ * DUMP 的格式与 redis 版本相关, 只能导入到相同或更高版本的 redis.
+ * 分桶存储的 key 是桶里的字段, 只能随桶整体导出(空前缀或桶前缀), 不能按 key 前缀单独导出
+ * @author: agent
+ * @date: Created in 2026/10/18 10:00
+ * @modify by: agent
+ * @version: V1.0
+ */
+@Component
+@Slf4j
+public class SnapshotService {
+
+    private static final Pattern NAME = Pattern.compile("[A-Za-z0-9_\\-][A-Za-z0-9._\\-]*");
+
+    private final Y2lCacheProperties.Snapshot properties;
+    private final LinkedHashMap<String, SnapshotJob> jobs = new LinkedHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    /**
+     * 导出和导入任务依次执行
+     */
+    private ExecutorService jobExecutor;
+    /**
+     * 导入时并行 RESTORE 的线程
+     */
+    private ThreadPoolExecutor restoreExecutor;
+
+    @Autowired
+    ShardRouter shardRouter;
+    @Autowired
+    LocalCache localCache;
+    @Autowired
+    BloomFilter bloomFilter;
+    @Autowired
+    BucketStore bucketStore;
+
+    public SnapshotService(Y2lCacheProperties properties) {
+        this.properties = properties.getSnapshot();
+    }
+
+    @PostConstruct
+    public void init() {
+        jobExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "y2lcache-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        AtomicInteger threadNumber = new AtomicInteger();
+        restoreExecutor = new ThreadPoolExecutor(properties.getThreads(), properties.getThreads(),
+                0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "y2lcache-restore-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void destroy() {
+        jobExecutor.shutdownNow();
+        restoreExecutor.shutdownNow();
+    }
+
+    /**
+     * @param prefix key 前缀, 为空表示全部 key
+     * @param name   快照文件名
+     * @title: export
+     * @description: //提交导出任务, 立即返回, 进度通过 get 查询; 同名文件在导出完成后被替换
+     * @author: agent
+     * @date: Created in 2026/10/18 10:10
+     * @throws: IllegalArgumentException 文件名不合法, 或前缀与分桶存储的 key 前缀重叠
+     * @return: com.yll.cache.snapshot.SnapshotJob
+     */
+    public SnapshotJob export(String prefix, String name) {
+        Path path = resolve(name);
+        if (!StringUtils.isEmpty(prefix) && bucketStore.overlaps(pattern(prefix))) {
+            throw new IllegalArgumentException("前缀与分桶存储的 key 前缀重叠, 分桶的 key 只能用空前缀或桶前缀随桶整体导出：" + prefix);
+        }
+        SnapshotJob job = submit(SnapshotJob.Type.EXPORT, name, prefix == null ? "" : prefix);
+        jobExecutor.execute(() -> run(job, () -> export(job, path)));
+        return job;
+    }
+
+    /**
+     * @param name    快照文件名
+     * @param replace 已存在的 key 是否覆盖, 为 false 时已存在的 key 报 BUSYKEY, 所在的批记为失败(批内其它 key 已写入)
+     * @title: restore
+     * @description: //提交导入任务, 立即返回, 进度通过 get 查询
+     * @author: agent
+     * @date: Created in 2026/10/18 10:15
+     * @throws: IllegalArgumentException 文件名不合法或文件不存在
+     * @return: com.yll.cache.snapshot.SnapshotJob
+     */
+    public SnapshotJob restore(String name, boolean replace) {
+        Path path = resolve(name);
+        if (!Files.isRegularFile(path)) {
+            throw new IllegalArgumentException("快照不存在：" + name);
+        }
+        SnapshotJob job = submit(SnapshotJob.Type.IMPORT, name, null);
+        jobExecutor.execute(() -> run(job, () -> restore(job, path, replace)));
+        return job;
+    }
+
+    public SnapshotJob get(String id) {
+        synchronized (jobs) {
+            return jobs.get(id);
+        }
+    }
+
+    public List<Map<String, Object>> jobs() {
+        List<Map<String, Object>> list = new ArrayList<>();
+        synchronized (jobs) {
+            jobs.values().forEach(job -> list.add(job.progress()));
+        }
+        return list;
+    }
+
+    /**
+     * @title: files
+     * @description: //快照目录下的文件及大小
+     * @author: agent
+     * @date: Created in 2026/10/18 10:20
+     * @throws:
+     * @return: java.util.Map<java.lang.String,java.lang.Long>
+     */
+    public Map<String, Long> files() {
+        Map<String, Long> files = new TreeMap<>();
+        Path directory = directory();
+        if (!Files.isDirectory(directory)) {
+            return files;
+        }
+        try (Stream<Path> stream = Files.list(directory)) {
+            stream.filter(Files::isRegularFile).forEach(path -> files.put(path.getFileName().toString(), path.toFile().length()));
+        } catch (IOException e) {
+            log.warn("读取快照目录失败：directory -> [{}]", directory, e);
+        }
+        return files;
+    }
+
+    /**
+     * 文件名只能是快照目录下的一个文件, 不能带路径
+     */
+    private Path resolve(String name) {
+        if (StringUtils.isEmpty(name) || !NAME.matcher(name).matches()) {
+            throw new IllegalArgumentException("快照文件名只能包含字母、数字、点、下划线和横线：" + name);
+        }
+        Path directory = directory();
+        Path path = directory.resolve(name).normalize();
+        if (!directory.equals(path.getParent())) {
+            throw new IllegalArgumentException("快照文件必须位于快照目录下：" + name);
+        }
+        return path;
+    }
+
+    private Path directory() {
+        return Paths.get(properties.getDirectory()).toAbsolutePath().normalize();
+    }
+
+    private SnapshotJob submit(SnapshotJob.Type type, String name, String prefix) {
+        SnapshotJob job = new SnapshotJob(String.valueOf(sequence.incrementAndGet()), type, name, prefix);
+        synchronized (jobs) {
+            jobs.put(job.getId(), job);
+            Iterator<SnapshotJob> iterator = jobs.values().iterator();
+            while (jobs.size() > properties.getMaximumJobs() && iterator.hasNext()) {
+                if (iterator.next().isFinished()) {
+                    iterator.remove();
+                }
+            }
+        }
+        log.info("提交快照任务：id -> [{}] type -> [{}] name -> [{}]", job.getId(), type, name);
+        return job;
+    }
+
+    private void run(SnapshotJob job, Task task) {
+        job.start();
+        try {
+            task.run();
+            job.finish(SnapshotJob.State.DONE, null);
+            log.info("快照任务完成：{}", job.progress());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            job.finish(SnapshotJob.State.FAILED, "interrupted");
+        } catch (IOException | RuntimeException e) {
+            log.error("Redis occur snapshotError：name -> [{}]", job.getName(), e);
+            job.finish(SnapshotJob.State.FAILED, e.getMessage());
+        }
+    }
+
+    //===============================export=================================
+
+    private void export(SnapshotJob job, Path path) throws IOException {
+        Files.createDirectories(path.getParent());
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (SnapshotFile.Writer writer = new SnapshotFile.Writer(temp, System.currentTimeMillis())) {
+            for (RedisTemplate<String, Object> template : shardRouter.templates().values()) {
+                exportNode(job, template, writer);
+            }
+            writer.finish();
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void exportNode(SnapshotJob job, RedisTemplate<String, Object> template, SnapshotFile.Writer writer) throws IOException {
+        int batchSize = properties.getBatchSize();
+        ScanOptions options = ScanOptions.scanOptions().match(pattern(job.getPrefix())).count(batchSize).build();
+        try (Cursor<byte[]> cursor = template.executeWithStickyConnection(
+                (RedisCallback<Cursor<byte[]>>) connection -> connection.scan(options))) {
+            List<byte[]> batch = new ArrayList<>(batchSize);
+            while (cursor.hasNext()) {
+                batch.add(cursor.next());
+                if (batch.size() >= batchSize) {
+                    exportBatch(job, template, writer, batch);
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                exportBatch(job, template, writer, batch);
+            }
+        }
+    }
+
+    /**
+     * 匹配前缀的 SCAN 模式, 前缀中的通配符按字面匹配
+     */
+    private static String pattern(String prefix) {
+        return prefix.replaceAll("([*?\\[\\]\\\\])", "\\\\$1") + "*";
+    }
+
+    /**
+     * 一次往返读出一批 key 的 DUMP 和 PTTL
+     */
+    private void exportBatch(SnapshotJob job, RedisTemplate<String, Object> template, SnapshotFile.Writer writer,
+                             List<byte[]> keys) throws IOException {
+        List<Object> results = template.executePipelined((RedisCallback<Object>) connection -> {
+            for (byte[] key : keys) {
+                connection.dump(key);
+                connection.pTtl(key);
+            }
+            return null;
+        }, RawRedisSerializer.INSTANCE);
+        int written = 0;
+        long bytes = 0;
+        for (int i = 0; i < keys.size(); i++) {
+            Object value = results.get(i * 2);
+            Object ttl = results.get(i * 2 + 1);
+            long ttlMillis = ttl instanceof Number ? ((Number) ttl).longValue() : -2;
+            if (!(value instanceof byte[]) || ttlMillis == -2 || ttlMillis == 0) {
+                // SCAN 之后被删除或已过期
+                job.skipped(1);
+                continue;
+            }
+            bytes += writer.write(keys.get(i), ttlMillis < 0 ? 0 : ttlMillis, (byte[]) value);
+            written++;
+        }
+        job.batch(written, bytes);
+    }
+
+    //===============================import=================================
+
+    private void restore(SnapshotJob job, Path path, boolean replace) throws IOException, InterruptedException {
+        int batchSize = properties.getBatchSize();
+        // 在途的批数, 读文件比 RESTORE 快, 限制内存中积压的批
+        Semaphore inFlight = new Semaphore(properties.getThreads() * 2);
+        Map<RedisTemplate<String, Object>, List<SnapshotFile.Record>> batches = new HashMap<>();
+        AtomicInteger failures = new AtomicInteger();
+        try (SnapshotFile.Reader reader = new SnapshotFile.Reader(path)) {
+            long elapsed = System.currentTimeMillis() - reader.getExportedAt();
+            SnapshotFile.Record record;
+            while ((record = reader.next()) != null) {
+                long ttlMillis = record.getTtlMillis();
+                if (ttlMillis > 0) {
+                    ttlMillis -= elapsed;
+                    if (ttlMillis <= 0) {
+                        job.skipped(1);
+                        continue;
+                    }
+                }
+                SnapshotFile.Record adjusted = new SnapshotFile.Record(record.getKey(), ttlMillis, record.getValue());
+                RedisTemplate<String, Object> template = shardRouter.template(new String(record.getKey(), StandardCharsets.UTF_8));
+                List<SnapshotFile.Record> batch = batches.computeIfAbsent(template, t -> new ArrayList<>(batchSize));
+                batch.add(adjusted);
+                if (batch.size() >= batchSize) {
+                    submitBatch(job, template, batches.remove(template), replace, inFlight, failures);
+                }
+            }
+            for (Map.Entry<RedisTemplate<String, Object>, List<SnapshotFile.Record>> entry : batches.entrySet()) {
+                submitBatch(job, entry.getKey(), entry.getValue(), replace, inFlight, failures);
+            }
+        } finally {
+            // 等在途的批全部完成
+            inFlight.acquire(properties.getThreads() * 2);
+        }
+        if (failures.get() > 0) {
+            throw new IllegalStateException(failures.get() + " 批 RESTORE 失败, 见日志");
+        }
+    }
+
+    private void submitBatch(SnapshotJob job, RedisTemplate<String, Object> template, List<SnapshotFile.Record> batch,
+                             boolean replace, Semaphore inFlight, AtomicInteger failures) throws InterruptedException {
+        inFlight.acquire();
+        try {
+            restoreExecutor.execute(() -> {
+                try {
+                    restoreBatch(job, template, batch, replace);
+                } catch (RuntimeException e) {
+                    failures.incrementAndGet();
+                    job.failed(batch.size());
+                    log.error("Redis occur restoreError：key -> [{}]",
+                            new String(batch.get(0).getKey(), StandardCharsets.UTF_8), e);
+                } finally {
+                    inFlight.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.release();
+            throw e;
+        }
+    }
+
+    /**
+     * 先加入布隆过滤器, 再一次往返 RESTORE 一批 key, 之后失效本地缓存
+     */
+    private void restoreBatch(SnapshotJob job, RedisTemplate<String, Object> template, List<SnapshotFile.Record> batch,
+                              boolean replace) {
+        List<String> keys = new ArrayList<>(batch.size());
+        long bytes = 0;
+        for (SnapshotFile.Record record : batch) {
+            keys.add(new String(record.getKey(), StandardCharsets.UTF_8));
+            bytes += record.getValue().length;
+        }
+        bloomFilter.add(keys);
+        template.executePipelined((RedisCallback<Object>) connection -> {
+            for (SnapshotFile.Record record : batch) {
+                connection.restore(record.getKey(), record.getTtlMillis(), record.getValue(), replace);
+            }
+            return null;
+        }, RawRedisSerializer.INSTANCE);
+        localCache.invalidate(keys);
+        job.batch(batch.size(), bytes);
+    }
+
+    private interface Task {
+        void run() throws IOException, InterruptedException;
+    }
+}
@@ -0,0 +1,1263 @@
+package com.yll.cache.utils;
+
+import com.yll.cache.bloom.BloomFilter;
+import com.yll.cache.breaker.CircuitBreaker;
+import com.yll.cache.bucket.BucketStore;
+import com.yll.cache.config.Y2lCacheProperties;
+import com.yll.cache.counter.CounterAggregator;
+import com.yll.cache.local.LocalCache;
+import com.yll.cache.metrics.RedisMetrics;
+import com.yll.cache.replica.ReplicaRouter;
+import com.yll.cache.sharding.ShardRouter;
+import com.yll.cache.writebehind.PendingWrite;
+import com.yll.cache.writebehind.WriteBehindBuffer;
+import io.lettuce.core.KeyValue;
+import io.lettuce.core.ReadFrom;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisFuture;
+import io.lettuce.core.RedisNoScriptException;
+import io.lettuce.core.RedisURI;
+import io.lettuce.core.ScriptOutputType;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.async.RedisAsyncCommands;
+import io.lettuce.core.codec.ByteArrayCodec;
+import io.lettuce.core.masterslave.MasterSlave;
+import io.lettuce.core.masterslave.StatefulRedisMasterSlaveConnection;
+import io.lettuce.core.resource.ClientResources;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.data.redis.RedisProperties;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.lettuce.LettuceExceptionConverter;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * @className: AsyncRedisUtils
+ * @description: //RedisUtils 的非阻塞版本, 基于 lettuce 原生异步连接, 所有方法立即返回 CompletableFuture
+ * 每个节点一条多路复用的长连接, 并发发出的命令会自动 pipeline, 可以同时发起多个请求再一起等待结果.
+ * 与 RedisUtils 相同, 开启分片时命令按 key 发往所在节点并使用该节点的熔断器, 多 key 操作按节点拆分;
+ * 未分片时只读命令按 read-from 发往从节点.
+ * 延迟写的 key 与 RedisUtils 共用同一个缓冲区: set/hset/hmset/del 交给 RedisUtils 放进缓冲区, 其它写命令先写入缓冲的修改再发出,
+ * 读取先看缓冲区, 保证本实例写入后立即可读且不会被之后的批量写入覆盖.
+ * 本地聚合的计数器同样交给 RedisUtils: incr/hincr 累加到本地, set/hset/hmset/del 丢弃尚未写入的增量, expire 先写入增量,
+ * get/hget 按 read-includes-pending 加上本地增量.
+ * 分桶的 key 与 RedisUtils 一样读写桶中的字段, get/set/del/expire/getExpire/hasKey/mget 的结果两边一致.
+ * 序列化方式与 RedisTemplate 一致, 两边写入的数据可以互相读取.
+ * 回调默认在 lettuce 的 IO 线程上执行, 不要在回调里做阻塞操作
+ * @author: agent
+ * @date: Created in 2026/10/18 9:30
+ * @modify by: agent
+ * @version: V1.0
+ */
+@Component
+@Slf4j
+public class AsyncRedisUtils {
+
+    @Autowired
+    RedisTemplate redisTemplate;
+    @Autowired
+    LocalCache localCache;
+    @Autowired
+    RedisProperties redisProperties;
+    @Autowired
+    ClientResources clientResources;
+    @Autowired
+    ShardRouter shardRouter;
+    @Autowired
+    ReplicaRouter replicaRouter;
+    @Autowired
+    CircuitBreaker circuitBreaker;
+    @Autowired
+    RedisMetrics redisMetrics;
+    @Autowired
+    BloomFilter bloomFilter;
+    @Autowired
+    Y2lCacheProperties properties;
+    @Autowired
+    WriteBehindBuffer writeBehindBuffer;
+    @Autowired
+    BucketStore bucketStore;
+    @Autowired
+    CounterAggregator counterAggregator;
+    @Autowired
+    RedisUtils redisUtils;
+
+    private static final String DEFAULT = "default";
+    private static final String REPLICA = "replica";
+    private static final LettuceExceptionConverter EXCEPTION_CONVERTER = new LettuceExceptionConverter();
+
+    private RedisClient client;
+    /**
+     * 节点名 -> 连接, 未分片时只有默认节点(和读从节点)
+     */
+    private final Map<String, Node> nodes = new ConcurrentHashMap<>();
+    /**
+     * 执行可能阻塞的步骤: 等待缓冲区容量、提前写入缓冲的修改, 不占用调用线程和 lettuce 的 IO 线程
+     */
+    private ExecutorService blockingExecutor;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        blockingExecutor = Executors.newFixedThreadPool(Math.max(2, Runtime.getRuntime().availableProcessors()), runnable -> {
+            Thread thread = new Thread(runnable, "y2lcache-async-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    //=============================common============================
+
+    /**
+     * @param key  键
+     * @param time 时间(秒)
+     * @title: expire
+     * @description: //指定缓存失效时间
+     * @author: agent
+     * @date: Created in 2026/10/18 9:50
+     * @throws:
+     * @return: java.util.concurrent.CompletableFuture<java.lang.Boolean>
+     */
+    public CompletableFuture<Boolean> expire(String key, long time) {
+        if (time <= 0) {
+            return CompletableFuture.completedFuture(true);
+        }
+        if (bucketStore.accepts(key)) {
+            return bucketExpire(key, time);
+        }
+        if (counterAggregator.accepts(key)) {
+            // 只在本地累加过的计数器 redis 中还没有这个 key, 由 RedisUtils 先写入增量再设置时间
+            return blocking(() -> redisUtils.expire(key, time));
+        }
+        return afterPending(key, () -> write(key, "expire", commands -> commands.expire(rawKey(key), time)));
+    }
+
+    /**
+     * @param key 键 不能为null
+     * @title: getExpire
+     * @description: //根据key 获取过期时间
+     * @author: agent
+     * @date: Created in 2026/10/18 9:52
+     * @throws:
+     * @return: java.util.concurrent.CompletableFuture<java.lang.Long> 时间(秒)
+     */
+    public CompletableFuture<Long> getExpire(String key) {
+        if (bucketStore.accepts(key)) {
+            // 与 TTL 相同: 不存在为 -2, 永久为 -1
+            return bucketRead(key).thenApply(bytes -> {
+                if (bytes == null) {
+                    return -2L;
+                }
+                long expireAt = BucketStore.expireAt(bytes);
+                return expireAt == 0 ? -1L : Math.max(0, expireAt - System.currentTimeMillis() / 1000);
+            });
+        }
+        return read(key, "ttl", commands -> commands.ttl(rawKey(key)));
+    }
+
+    /**
+     * @param key 键
+     * @title: hasKey
+     * @description: //判断key是否存在
+     * @author: agent
+     * @date: Created in 2026/10/18 9:53
+     * @throws:
+     * @return: java.util.concurrent.CompletableFuture<java.lang.Boolean>
+     */
+    public CompletableFuture<Boolean> hasKey(String key) {
+        if (bucketStore.accepts(key)) {
+            return bucketRead(key).thenApply(Objects::nonNull);
+        }
+        PendingWrite pending = pendingWrite(key);
+        if (pending != null) {
+            // 与 RedisUtils.hasKey 相同: 缓冲的 set 和 del 决定 key 是否存在, 缓冲的 hset 只有项为空时才需要查 redis
+            if (pending.getType() == PendingWrite.Type.DELETE) {
+                return CompletableFuture.completedFuture(false);
+            }
+            if (pending.getType() == PendingWrite.Type.VALUE || !pending.getItems().isEmpty()) {
+                return CompletableFuture.completedFuture(true);
+            }
+            if (pending.isReplace()) {
+                return CompletableFuture.completedFuture(false);
+            }
+        }
+        return read(key, "exists", commands -> commands.exists(rawKey(key))).thenApply(count -> count != null && count > 0);
+    }
+
+    /**
+     * @param key 可以传一个 或 多个
+     * @title: del
+     * @description: //删除缓存, 开启 y2lcache.invalidation.unlink 时使用 UNLINK
+     * @author: agent
+     * @date: Created in 2026/10/18 9:55
+     * @throws:
+     * @return: java.util.concurrent.CompletableFuture<java.lang.Long> 删除的个数
+     */
+    public CompletableFuture<Long> del(String... key) {
+        if (key == null || key.length == 0) {
+            return CompletableFuture.completedFuture(0L);
+        }
+        List<CompletableFuture<Long>> futures = new ArrayList<>();
+        List<String> direct = new ArrayList<>(key.length);
+        List<String> delegated = new ArrayList<>();
+        Map<String, List<String>> buckets = new LinkedHashMap<>();
+        for (String k : key) {
+            if (bucketStore.accepts(k)) {
+                buckets.computeIfAbsent(bucketStore.bucket(k), bucket -> new ArrayList<>()).add(k);
+            } else {
+                (isBuffered(k) || counterAggregator.accepts(k) ? delegated : direct).add(k);
+            }
+        }
+        // 分桶的 key 是桶里的字段, 每个桶一次 HDEL
+        buckets.forEach((bucket, fields) -> futures.add(write(bucket, "hDel", commands -> commands.hdel(rawKey(bucket), rawHashKeys(fields)))));
+        if (!delegated.isEmpty()) {
+            // 删除放进缓冲区, 排在之前缓冲的写入后面; 计数器先丢弃本地尚未写入的增量
+            futures.add(blocking(() -> redisUtils.del(delegated)));
+        }
+        String[] directKeys = direct.toArray(new String[0]);
+        groupByNode(direct, false).forEach((node, positions) -> {
+            String[] keys = new String[positions.size()];
+            for (int i = 0; i < keys.length; i++) {
+                keys[i] = directKeys[positions.get(i)];
+            }
+            futures.add(properties.getInvalidation().isUnlink()
+                    ? send(node, "unlink", keys[0], commands -> commands.unlink(rawKeys(keys)))
+                    : send(node, "del", keys[0], commands -> commands.del(rawKeys(keys))));
+        });
+        CompletableFuture<Long> deleted = CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).thenApply(ignored -> {
+            long count = 0;
+            for (CompletableFuture<Long> future : futures) {
+                count += future.join();
+            }
+            return count;
+        });
+        return invalidateAfter(deleted, key);
+    }
+
+    //============================String=============================
+
+    /**
+     * @param key 键
+     * @title: get
+     * @description: //普通缓存获取
+     * @author: agent
+     * @date: Created in 2026/10/18 10:00
+     * @throws:
+     * @return: java.util.concurrent.CompletableFuture<java.lang.Object>
+     */
+    public CompletableFuture<Object> get(String key) {
+        if (key == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        if (bucketStore.accepts(key)) {
+            return readThrough(key, LocalCache.VIEW_VALUE,
+                    () -> bucketRead(key).thenApply(bytes -> bytes == null ? null : deserializeValue(BucketStore.value(bytes))));
+        }
+        PendingWrite pending = pendingWrite(key);
+        if (pending != null && pending.getType() != PendingWrite.Type.HASH) {
+            return CompletableFuture.completedFuture(pending.getValue());
+        }
+        return readThrough(key, LocalCache.VIEW_VALUE, () -> read(key, "get", commands -> commands.get(rawKey(key))).thenApply(this::deserializeValue))
+                .thenApply(value -> counterAggregator.withPending(key, null, value));
+    }
+
+    /**
+     * @param keys 键集合
+     * @title: mget
+     * @description: //批量获取
+     * @author: agent
+     * @date: Created in 2026/10/18 10:02
+     * @throws:
+     * @return: java.util.concurrent.CompletableFuture<java.util.List<java.lang.Object>> 与 keys 顺序一致
+     */
+    public CompletableFuture<List<Object>> mget(List<String> keys) {
+        if (keys == null || keys.isEmpty()) {
+            return CompletableFuture.completedFuture(new ArrayList<>());
+        }
+        // 分片时按节点拆分, 各节点的 MGET 同时发出, 结果按下标放回原来的位置
+        Object[] values = new Object[keys.size()];
+        List<String> missKeys = new ArrayList<>();
+        List<Integer> missIndexes = new ArrayList<>();
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < keys.size(); i++) {
+            int index = i;
+            if (bucketStore.accepts(keys.get(i))) {
+                // 分桶的 key 是桶里的字段, MGET 取不到
+                futures.add(get(keys.get(i)).thenAccept(value -> values[index] = value));
+                continue;
+            }
+            PendingWrite pending = pendingWrite(keys.get(i));
+            if (pending != null) {
+                // 缓冲区中的修改还没有写入 redis, 以缓冲区为准; hash 和删除与 MGET 一样为 null
+                values[i] = pending.getValue();
+            } else {
+                missKeys.add(keys.get(i));
+                missIndexes.add(i);
+            }
+        }
+        groupByNode(missKeys, true).forEach((node, positions) -> {
+            byte[][] raw = new byte[positions.size()][];
+            for (int i = 0; i < raw.length; i++) {
+                raw[i] = rawKey(missKeys.get(positions.get(i)));
+            }
+            futures.add(send(node, "mGet", missKeys.get(positions.get(0)), commands -> commands.mget(raw)).thenAccept(keyValues -> {
+                for (int i = 0; i < keyValues.size(); i++) {
+                    KeyValue<byte[], byte[]> keyValue = keyValues.get(i);
+                    values[missIndexes.get(positions.get(i))] = keyValue.hasValue() ? deserializeValue(keyValue.getValue()) : null;
+                }
+            }));
+        });
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).thenApply(ignored -> new ArrayList<>(Arrays.asList(values)));
+    }
+
+    /**
+     * @param key   键
+     * @param value 值
+     * @title: set
+     * @description: //普通缓存放入
+     * @author: agent
+     * @date: Created in 2026/10/18 10:05
+     * @throws:
+     * @return: java.util.concurrent.CompletableFuture<java.lang.Boolean>
+     */
+    public CompletableFuture<Boolean> set(String key, Object value) {
+        if (bucketStore.accepts(key)) {
+            return bucketSet(key, value, 0);
+        }
+        if (isBuffered(key) || counterAggregator.accepts(key)) {
+            // 与 RedisUtils 写入同一个缓冲区, 保证同一个 key 的写入顺序; 计数器先丢弃本地尚未写入的增量
+            return blocking(() -> redisUtils.set(key, value));
+        }
+        return invalidateAfter(add(key, "set", commands -> commands.set(rawKey(key), rawValue(value))).thenApply("OK"::equals), key);
+    }
+
+    /**
+     * @param key   键
+     * @param value 值
+     * @param time  时间(秒) time要大于0 如果time小于等于0 将设置无限期
+     * @title: set
+     * @description: //普通缓存放入并设置时间
+     * @author: agent
+     * @date: Created in 2026/10/18 10:06
+     * @throws:
+     * @return: java.util.concurrent.CompletableFuture<java.lang.Boolean>
+     */
+    public CompletableFuture<Boolean> set(String key, Object value, long time) {
+        if (time <= 0) {
+            return set(key, value);
+        }
+        if (bucketStore.accepts(key)) {
+            return bucketSet(key, value, time);
+        }
+        if (isBuffered(key) || counterAggregator.accepts(key)) {
+            return blocking(() -> redisUtils.set(key, value, time));
+        }
+        return invalidateAfter(add(key, "setEx", commands -> commands.setex(rawKey(key), time, rawValue(value))).thenApply("OK"::equals), key);
+    }
+
+    /**
+     * @param key   键
+     * @param delta 要增加几(大于0)
+     * @title: incr
+     * @description: //递增
+     * @author: agent
+     * @date: Created in 2026/10/18 10:08
+     * @throws:
+     * @return: java.util.concurrent.CompletableFuture<java.lang.Long>
+     */
+    public CompletableFuture<Long> incr(String key, long delta) {
+        if (delta < 0) {
+            throw new RuntimeException("递增因子必须大于0");
+        }
+        if (counterAggregator.accepts(key)) {
+            // 累加到本地, 新建计数器时要读一次 redis
+            return blocking(() -> redisUtils.incr(key, delta));
+        }
+        return invalidateAfter(afterPending(key, () -> add(key, "incrBy", commands -> commands.incrby(rawKey(key), delta))), key);
+    }
+
+    /**
+     * @param key   键
+     * @param delta 要减少几(小于0)
+     * @title: decr
+     * @description: //递减
+     * @author: agent
+     * @date: Created in 2026/10/18 10:09
+     * @throws:
+     * @return: java.util.concurrent.CompletableFuture<java.lang.Long>
+     */
+    public CompletableFuture<Long> decr(String key, long delta) {
+        if (delta < 0) {
+            throw new RuntimeException("递减因子必须大于0");
+        }
+        if (counterAggregator.accepts(key)) {
+            return blocking(() -> redisUtils.decr(key, delta));
+        }
+        return invalidateAfter(afterPending(key, () -> add(key, "incrBy", commands -> commands.incrby(rawKey(key), -delta))), key);
+    }
+
+    //================================Map=================================
+
+    /**
+     * @param key  键 不能为null
+     * @param item 项 不能为null
+     * @title: hget
+     * @description: //根据 key item 获取值
+     * @author: agent
+     * @date: Created in 2026/10/18 10:15
+     * @throws:
+     * @return: java.util.concurrent.CompletableFuture<java.lang.Object>
+     */
+    public CompletableFuture<Object> hget(String key, String item) {
+        PendingWrite pending = pendingWrite(key);
+        if (pending != null) {
+            if (pending.getType() != PendingWrite.Type.HASH) {
+                return CompletableFuture.completedFuture(null);
+            }
+            if (pending.getItems().containsKey(item) || pending.isReplace()) {
+                return CompletableFuture.completedFuture(pending.getItems().get(item));
+            }
+        }
+        return readThrough(key, "hget:" + item,
+                () -> read(key, "hGet", commands -> commands.hget(rawKey(key), rawHashKey(item))).thenApply(this::deserializeHashValue))
+                .thenApply(value -> counterAggregator.withPending(key, item, value));
+    }
+
+    /**
+     * @param key 键
+     * @title: hmget
+     * @description: //获取hashKey对应的所有键值
+     * @author: agent
+     * @date: Created in 2026/10/18 10:16
+     * @throws:
+     * @return: java.util.concurrent.CompletableFuture<java.util.Map<java.lang.Object,java.lang.Object>>
+     */
+    public CompletableFuture<Map<Object, Object>> hmget(String key) {
+        PendingWrite pending = pendingWrite(key);
+        if (pending == null) {
+            return hgetAll(key);
+        }
+        if (pending.getType() != PendingWrite.Type.HASH) {
+            return CompletableFuture.completedFuture(new LinkedHashMap<>());
+        }
+        if (pending.isReplace()) {
+            return CompletableFuture.completedFuture(new LinkedHashMap<>(pending.getItems()));
+        }
+        return hgetAll(key).thenApply(entries -> {
+            Map<Object, Object> map = new LinkedHashMap<>(entries);
+            map.putAll(pending.getItems());
+            return map;
+        });
+    }
+
+    private CompletableFuture<Map<Object, Object>> hgetAll(String key) {
+        return readThrough(key, LocalCache.VIEW_HASH, () -> read(key, "hGetAll", commands -> commands.hgetall(rawKey(key))).thenApply(entries -> {
+            Map<Object, Object> map = new LinkedHashMap<>();
+            for (Map.Entry<byte[], byte[]> entry : entries.entrySet()) {
+                map.put(deserializeHashKey(entry.getKey()), deserializeHashValue(entry.getValue()));
+            }
+            return map;
+        }));
+    }
+
+    /**
+     * @param key 键
+     * @param map 对应多个键值
+     * @title: hmset
+     * @description: //hash map 缓存数据
+     * @author: agent
+     * @date: Created in 2026/10/18 10:18
+     * @throws:
+     * @return: java.util.concurrent.CompletableFuture<java.lang.Boolean>
+     */
+    public CompletableFuture<Boolean> hmset(String key, Map<String, Object> map) {
+        return hmset(key, map, 0);
+    }
+
+    /**
+     * @param key  键
+     * @param map  对应多个键值
+     * @param time 时间(秒)
+     * @title: hmset
+     * @description: //HashSet 并设置时间, 写入与设置时间一次原子完成
+     * @author: agent
+     * @date: Created in 2026/10/18 10:20
+     * @throws:
+     * @return: java.util.concurrent.CompletableFuture<java.lang.Boolean>
+     */
+    public CompletableFuture<Boolean> hmset(String key, Map<String, Object> map, long time) {
+        if (isBuffered(key) || counterAggregator.accepts(key)) {
+            return blocking(() -> redisUtils.hmset(key, map, time));
+        }
+        List<byte[]> args = new ArrayList<>(map.size() * 2);
+        for (Map.Entry<String, Object> entry : map.entrySet()) {
+            args.add(rawHashKey(entry.getKey()));
+            args.add(rawHashValue(entry.getValue()));
+        }
+        return invalidateAfter(executeWithTime(RedisScripts.HMSET_EXPIRE, key, time, args).thenApply(result -> true), key);
+    }
+
+    /**
+     * @param key   键
+     * @param item  项
+     * @param value 值
+     * @title: hset
+     * @description: //向一张hash表中放入数据,如果不存在将创建
+     * @author: agent
+     * @date: Created in 2026/10/18 10:22
+     * @throws:
+     * @return: java.util.concurrent.CompletableFuture<java.lang.Boolean>
+     */
+    public CompletableFuture<Boolean> hset(String key, String item, Object value) {
+        if (isBuffered(key) || counterAggregator.accepts(key)) {
+            return blocking(() -> redisUtils.hset(key, item, value));
+        }
+        return invalidateAfter(add(key, "hSet", commands -> commands.hset(rawKey(key), rawHashKey(item), rawHashValue(value))).thenApply(result -> true), key);
+    }
+
+    /**
+     * @param key   键
+     * @param item  项
+     * @param value 值
+     * @param time  时间(秒)注意:如果已存在的hash表有时间,这里将会替换原有的时间
+     * @title: hset
+     * @description: //向一张hash表中放入数据,如果不存在将创建
+     * @author: agent
+     * @date: Created in 2026/10/18 10:23
+     * @throws:
+     * @return: java.util.concurrent.CompletableFuture<java.lang.Boolean>
+     */
+    public CompletableFuture<Boolean> hset(String key, String item, Object value, long time) {
+        if (time <= 0) {
+            return hset(key, item, value);
+        }
+        if (isBuffered(key) || counterAggregator.accepts(key)) {
+            return blocking(() -> redisUtils.hset(key, item, value, time));
+        }
+        return invalidateAfter(executeWithTime(RedisScripts.HMSET_EXPIRE, key, time,
+                Arrays.asList(rawHashKey(item), rawHashValue(value))).thenApply(result -> true), key);
+    }
+
+    /**
+     * @param key  键 不能为null
+     * @param item 项 可以使多个 不能为null
+     * @title: hdel
+     * @description: //删除hash表中的值
+     * @author: agent
+     * @date: Created in 2026/10/18 10:25
+     * @throws:
+     * @return: java.util.concurrent.CompletableFuture<java.lang.Long> 删除的个数
+     */
+    public CompletableFuture<Long> hdel(String key, Object... item) {
+        byte[][] fields = new byte[item.length][];
+        for (int i = 0; i < item.length; i++) {
+            fields[i] = rawHashKey(item[i]);
+        }
+        if (counterAggregator.accepts(key)) {
+            // 先丢弃这些项本地尚未写入的增量, 否则删除之后又被写回
+            return invalidateAfter(blocking(() -> {
+                counterAggregator.discard(key, item);
+                return null;
+            }).thenCompose(ignored -> afterPending(key, () -> write(key, "hDel", commands -> commands.hdel(rawKey(key), fields)))), key);
+        }
+        return invalidateAfter(afterPending(key, () -> write(key, "hDel", commands -> commands.hdel(rawKey(key), fields))), key);
+    }
+
+    /**
+     * @param key  键 不能为null
+     * @param item 项 不能为null
+     * @title: hHasKey
+     * @description: //判断hash表中是否有该项的值
+     * @author: agent
+     * @date: Created in 2026/10/18 10:26
+     * @throws:
+     * @return: java.util.concurrent.CompletableFuture<java.lang.Boolean>
+     */
+    public CompletableFuture<Boolean> hHasKey(String key, String item) {
+        return read(key, "hExists", commands -> commands.hexists(rawKey(key), rawHashKey(item)));
+    }
+
+    /**
+     * @param key  键
+     * @param item 项
+     * @param by   要增加几(大于0)
+     * @title: hincr
+     * @description: //hash递增 如果不存在,就会创建一个 并把新增后的值返回
+     * @author: agent
+     * @date: Created in 2026/10/18 10:27
+     * @throws:
+     * @return: java.util.concurrent.CompletableFuture<java.lang.Double>
+     */
+    public CompletableFuture<Double> hincr(String key, String item, double by) {
+        if (counterAggregator.accepts(key)) {
+            return blocking(() -> redisUtils.hincr(key, item, by));
+        }
+        return invalidateAfter(afterPending(key, () -> add(key, "hIncrBy", commands -> commands.hincrbyfloat(rawKey(key), rawHashKey(item), by))), key);
+    }
+
+    /**
+     * @param key  键
+     * @param item 项
+     * @param by   要减少记(小于0)
+     * @title: hdecr
+     * @description: //hash递减
+     * @author: agent
+     * @date: Created in 2026/10/18 10:28
+     * @throws:
+     * @return: java.util.concurrent.CompletableFuture<java.lang.Double>
+     */
+    public CompletableFuture<Double> hdecr(String key, String item, double by) {
+        return hincr(key, item, -by);
+    }
+
+    //============================set=============================
+
+    /**
+     * @param key 键
+     * @title: sGet
+     * @description: //根据key获取Set中的所有值
+     * @author: agent
+     * @date: Created in 2026/10/18 10:30
+     * @throws:
+     * @return: java.util.concurrent.CompletableFuture<java.util.Set<java.lang.Object>>
+     */
+    public CompletableFuture<Set<Object>> sGet(String key) {
+        return readThrough(key, LocalCache.VIEW_SET, () -> read(key, "sMembers", commands -> commands.smembers(rawKey(key))).thenApply(members -> {
+            Set<Object> set = new LinkedHashSet<>();
+            for (byte[] member : members) {
+                set.add(deserializeValue(member));
+            }
+            return set;
+        }));
+    }
+
+    /**
+     * @param key   键
+     * @param value 值
+     * @title: sHasKey
+     * @description: //根据value从一个set中查询,是否存在
+     * @author: agent
+     * @date: Created in 2026/10/18 10:31
+     * @throws:
+     * @return: java.util.concurrent.CompletableFuture<java.lang.Boolean>
+     */
+    public CompletableFuture<Boolean> sHasKey(String key, Object value) {
+        return read(key, "sIsMember", commands -> commands.sismember(rawKey(key), rawValue(value)));
+    }
+
+    /**
+     * @param key    键
+     * @param values 值 可以是多个
+     * @title: sSet
+     * @description: //将数据放入set缓存
+     * @author: agent
+     * @date: Created in 2026/10/18 10:32
+     * @throws:
+     * @return: java.util.concurrent.CompletableFuture<java.lang.Long> 成功个数
+     */
+    public CompletableFuture<Long> sSet(String key, Object... values) {
+        return invalidateAfter(afterPending(key, () -> add(key, "sAdd", commands -> commands.sadd(rawKey(key), rawValues(values)))), key);
+    }
+
+    /**
+     * @param key    键
+     * @param time   时间(秒)
+     * @param values 值 可以是多个
+     * @title: sSetAndTime
+     * @description: //将set数据放入缓存, 写入与设置时间一次原子完成
+     * @author: agent
+     * @date: Created in 2026/10/18 10:33
+     * @throws:
+     * @return: java.util.concurrent.CompletableFuture<java.lang.Long> 成功个数
+     */
+    public CompletableFuture<Long> sSetAndTime(String key, long time, Object... values) {
+        if (time <= 0) {
+            return sSet(key, values);
+        }
+        return invalidateAfter(afterPending(key, () -> executeWithTime(RedisScripts.SADD_EXPIRE, key, time, Arrays.asList(rawValues(values)))), key);
+    }
+
+    /**
+     * @param key 键
+     * @title: sGetSetSize
+     * @description: //获取set缓存的长度
+     * @author: agent
+     * @date: Created in 2026/10/18 10:34
+     * @throws:
+     * @return: java.util.concurrent.CompletableFuture<java.lang.Long>
+     */
+    public CompletableFuture<Long> sGetSetSize(String key) {
+        return read(key, "sCard", commands -> commands.scard(rawKey(key)));
+    }
+
+    /**
+     * @param key    键
+     * @param values 值 可以是多个
+     * @title: setRemove
+     * @description: //移除值为value的
+     * @author: agent
+     * @date: Created in 2026/10/18 10:35
+     * @throws:
+     * @return: java.util.concurrent.CompletableFuture<java.lang.Long> 移除的个数
+     */
+    public CompletableFuture<Long> setRemove(String key, Object... values) {
+        return invalidateAfter(afterPending(key, () -> write(key, "sRem", commands -> commands.srem(rawKey(key), rawValues(values)))), key);
+    }
+
+    //===============================list=================================
+
+    /**
+     * @param key   键
+     * @param start 开始
+     * @param end   结束0 到 -1代表所有值
+     * @title: lGet
+     * @description: //获取list缓存的内容
+     * @author: agent
+     * @date: Created in 2026/10/18 10:40
+     * @throws:
+     * @return: java.util.concurrent.CompletableFuture<java.util.List<java.lang.Object>>
+     */
+    public CompletableFuture<List<Object>> lGet(String key, long start, long end) {
+        return readThrough(key, "lGet:" + start + ":" + end, () -> read(key, "lRange", commands -> commands.lrange(rawKey(key), start, end)).thenApply(elements -> {
+            List<Object> list = new ArrayList<>(elements.size());
+            for (byte[] element : elements) {
+                list.add(deserializeValue(element));
+            }
+            return list;
+        }));
+    }
+
+    /**
+     * @param key 键
+     * @title: lGetListSize
+     * @description: //获取list缓存的长度
+     * @author: agent
+     * @date: Created in 2026/10/18 10:41
+     * @throws:
+     * @return: java.util.concurrent.CompletableFuture<java.lang.Long>
+     */
+    public CompletableFuture<Long> lGetListSize(String key) {
+        return read(key, "lLen", commands -> commands.llen(rawKey(key)));
+    }
+
+    /**
+     * @param key   键
+     * @param index 索引index>=0时， 0 表头，1 第二个元素，依次类推；index<0时，-1，表尾，-2倒数第二个元素，依次类推
+     * @title: lGetIndex
+     * @description: //通过索引 获取list中的值
+     * @author: agent
+     * @date: Created in 2026/10/18 10:42
+     * @throws:
+     * @return: java.util.concurrent.CompletableFuture<java.lang.Object>
+     */
+    public CompletableFuture<Object> lGetIndex(String key, long index) {
+        return read(key, "lIndex", commands -> commands.lindex(rawKey(key), index)).thenApply(this::deserializeValue);
+    }
+
+    /**
+     * @param key   键
+     * @param value 值
+     * @title: lSet
+     * @description: //将list放入缓存
+     * @author: agent
+     * @date: Created in 2026/10/18 10:43
+     * @throws:
+     * @return: java.util.concurrent.CompletableFuture<java.lang.Boolean>
+     */
+    public CompletableFuture<Boolean> lSet(String key, Object value) {
+        return lSet(key, value, 0);
+    }
+
+    /**
+     * @param key   键
+     * @param value 值
+     * @param time  时间(秒)
+     * @title: lSet
+     * @description: //将list放入缓存, 写入与设置时间一次原子完成
+     * @author: agent
+     * @date: Created in 2026/10/18 10:44
+     * @throws:
+     * @return: java.util.concurrent.CompletableFuture<java.lang.Boolean>
+     */
+    public CompletableFuture<Boolean> lSet(String key, Object value, long time) {
+        return lSet(key, Collections.singletonList(value), time);
+    }
+
+    /**
+     * @param key   键
+     * @param value 值
+     * @title: lSet
+     * @description: //将list放入缓存
+     * @author: agent
+     * @date: Created in 2026/10/18 10:45
+     * @throws:
+     * @return: java.util.concurrent.CompletableFuture<java.lang.Boolean>
+     */
+    public CompletableFuture<Boolean> lSet(String key, List<Object> value) {
+        return lSet(key, value, 0);
+    }
+
+    /**
+     * @param key   键
+     * @param value 值
+     * @param time  时间(秒)
+     * @title: lSet
+     * @description: //将list放入缓存, 写入与设置时间一次原子完成
+     * @author: agent
+     * @date: Created in 2026/10/18 10:46
+     * @throws:
+     * @return: java.util.concurrent.CompletableFuture<java.lang.Boolean>
+     */
+    public CompletableFuture<Boolean> lSet(String key, List<Object> value, long time) {
+        if (time <= 0) {
+            return invalidateAfter(afterPending(key, () -> add(key, "rPush", commands -> commands.rpush(rawKey(key), rawValues(value.toArray()))))
+                    .thenApply(size -> true), key);
+        }
+        return invalidateAfter(afterPending(key, () -> executeWithTime(RedisScripts.RPUSH_EXPIRE, key, time,
+                Arrays.asList(rawValues(value.toArray())))).thenApply(size -> true), key);
+    }
+
+    /**
+     * @param key   键
+     * @param index 索引
+     * @param value 值
+     * @title: lUpdateIndex
+     * @description: //根据索引修改list中的某条数据
+     * @author: agent
+     * @date: Created in 2026/10/18 10:47
+     * @throws:
+     * @return: java.util.concurrent.CompletableFuture<java.lang.Boolean>
+     */
+    public CompletableFuture<Boolean> lUpdateIndex(String key, long index, Object value) {
+        return invalidateAfter(afterPending(key, () -> add(key, "lSet", commands -> commands.lset(rawKey(key), index, rawValue(value))))
+                .thenApply("OK"::equals), key);
+    }
+
+    /**
+     * @param key   键
+     * @param count 移除多少个
+     * @param value 值
+     * @title: lRemove
+     * @description: //移除N个值为value
+     * @author: agent
+     * @date: Created in 2026/10/18 10:48
+     * @throws:
+     * @return: java.util.concurrent.CompletableFuture<java.lang.Long> 移除的个数
+     */
+    public CompletableFuture<Long> lRemove(String key, long count, Object value) {
+        return invalidateAfter(afterPending(key, () -> write(key, "lRem", commands -> commands.lrem(rawKey(key), count, rawValue(value)))), key);
+    }
+
+    //===============================support=================================
+
+    /**
+     * 延迟写的 key, 分桶的 key 不经过缓冲区
+     */
+    private boolean isBuffered(String key) {
+        return !bucketStore.accepts(key) && writeBehindBuffer.accepts(key);
+    }
+
+    private PendingWrite pendingWrite(String key) {
+        return isBuffered(key) ? writeBehindBuffer.get(key) : null;
+    }
+
+    /**
+     * 缓冲区中有这个 key 的修改时先写入 redis 再发出命令, 否则之后的批量写入会覆盖这次写入
+     */
+    private <T> CompletableFuture<T> afterPending(String key, Supplier<CompletableFuture<T>> command) {
+        if (pendingWrite(key) == null) {
+            return command.get();
+        }
+        return blocking(() -> {
+            writeBehindBuffer.flush(key);
+            return null;
+        }).thenCompose(ignored -> command.get());
+    }
+
+    private <T> CompletableFuture<T> blocking(Supplier<T> call) {
+        return CompletableFuture.supplyAsync(call, blockingExecutor);
+    }
+
+    /**
+     * 读出桶中的字段值(含过期时间头部), 已过期的删除后返回 null
+     */
+    private CompletableFuture<byte[]> bucketRead(String key) {
+        String bucket = bucketStore.bucket(key);
+        byte[] field = rawHashKey(key);
+        return read(bucket, "hGet", commands -> commands.hget(rawKey(bucket), field)).thenCompose(bytes -> {
+            if (bytes == null || !BucketStore.isExpired(bytes)) {
+                return CompletableFuture.completedFuture(bytes);
+            }
+            bucketStore.evicted();
+            return eval(RedisScripts.BUCKET_EVICT, bucket, field, bytes).thenApply(evicted -> null);
+        });
+    }
+
+    private CompletableFuture<Boolean> bucketSet(String key, Object value, long time) {
+        String bucket = bucketStore.bucket(key);
+        CompletableFuture<Long> written = bucketWrite(bucket, key, BucketStore.encode(rawValue(value), time), time);
+        return invalidateAfter(written.thenApply(result -> true), key);
+    }
+
+    private CompletableFuture<Long> bucketWrite(String bucket, String key, byte[] encoded, long time) {
+        return eval(RedisScripts.BUCKET_SET, bucket, rawHashKey(key), encoded, String.valueOf(time).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 字段的过期时间写在值里, 读出后带新的时间重新写入; 与并发写入之间不是原子的
+     */
+    private CompletableFuture<Boolean> bucketExpire(String key, long time) {
+        return bucketRead(key).thenCompose(bytes -> {
+            if (bytes == null) {
+                return CompletableFuture.completedFuture(true);
+            }
+            return bucketWrite(bucketStore.bucket(key), key, BucketStore.encode(BucketStore.value(bytes), time), time)
+                    .thenApply(result -> true);
+        });
+    }
+
+    /**
+     * 本地一级缓存命中时直接返回已完成的 future, 不发出任何命令
+     */
+    @SuppressWarnings("unchecked")
+    private <T> CompletableFuture<T> readThrough(String key, String view, Supplier<CompletableFuture<T>> reader) {
+        if (!localCache.accepts(key)) {
+            return reader.get();
+        }
+        Object cached = localCache.get(key, view);
+        if (cached != null) {
+            return CompletableFuture.completedFuture((T) cached);
+        }
+        long mark = localCache.mark();
+        long start = System.nanoTime();
+        return reader.get().whenComplete((value, e) -> {
+            if (e == null) {
+                localCache.put(key, view, value, mark, System.nanoTime() - start);
+            }
+        });
+    }
+
+    /**
+     * 写操作完成后失效本地缓存; 失效通知是同步 publish, 不能在 lettuce 的 IO 线程上执行, 切到公共线程池
+     */
+    private <T> CompletableFuture<T> invalidateAfter(CompletableFuture<T> future, String... keys) {
+        boolean accepted = false;
+        for (String key : keys) {
+            accepted |= localCache.accepts(key);
+        }
+        if (!accepted) {
+            return future;
+        }
+        return future.whenCompleteAsync((result, e) -> localCache.invalidate(keys), ForkJoinPool.commonPool());
+    }
+
+    /**
+     * 与 RedisUtils 共用同一份 lua 脚本, 先 EVALSHA, 服务端没有缓存时退回 EVAL
+     */
+    private CompletableFuture<Long> executeWithTime(RedisScript<Long> script, String key, long time, List<byte[]> args) {
+        byte[][] argv = new byte[args.size() + 1][];
+        argv[0] = String.valueOf(time).getBytes(StandardCharsets.UTF_8);
+        for (int i = 0; i < args.size(); i++) {
+            argv[i + 1] = args.get(i);
+        }
+        return eval(script, key, argv);
+    }
+
+    /**
+     * 只有一个 KEYS 的脚本, 按 key 路由到所在节点
+     */
+    private CompletableFuture<Long> eval(RedisScript<Long> script, String key, byte[]... argv) {
+        byte[][] keys = new byte[][]{rawKey(key)};
+        CompletableFuture<Long> evalsha = add(key, "evalSha", commands -> commands.<Long>evalsha(script.getSha1(), ScriptOutputType.INTEGER, keys, argv));
+        return evalsha.handle((result, e) -> {
+            if (e == null) {
+                return CompletableFuture.completedFuture(result);
+            }
+            Throwable cause = e instanceof CompletionException ? e.getCause() : e;
+            if (cause instanceof RedisNoScriptException) {
+                return write(key, "eval", commands -> commands.<Long>eval(script.getScriptAsString(), ScriptOutputType.INTEGER, keys, argv));
+            }
+            CompletableFuture<Long> failed = new CompletableFuture<>();
+            failed.completeExceptionally(cause);
+            return failed;
+        }).thenCompose(Function.identity());
+    }
+
+    /**
+     * 只读命令: 分片时发往 key 所在节点; 未分片且可以读从节点时发往从节点, 否则发往默认节点
+     */
+    private <T> CompletableFuture<T> read(String key, String command,
+                                          Function<RedisAsyncCommands<byte[], byte[]>, RedisFuture<T>> call) {
+        return send(readNode(key), command, key, call);
+    }
+
+    /**
+     * 写命令: 发往 key 所在的主节点, 开启 read-your-writes 时当前请求之后的读取改走主节点
+     */
+    private <T> CompletableFuture<T> write(String key, String command,
+                                           Function<RedisAsyncCommands<byte[], byte[]>, RedisFuture<T>> call) {
+        replicaRouter.onWrite();
+        return send(writeNode(key), command, key, call);
+    }
+
+    /**
+     * 会新增 key 的写命令: 先把 key 加入布隆过滤器(新增的位同步发给其它实例)再发出, 否则写入后读取会被过滤器判为不存在;
+     * 加入失败时不发出命令, 返回失败的 future
+     */
+    private <T> CompletableFuture<T> add(String key, String command,
+                                         Function<RedisAsyncCommands<byte[], byte[]>, RedisFuture<T>> call) {
+        try {
+            bloomFilter.add(key);
+        } catch (RuntimeException e) {
+            CompletableFuture<T> failed = new CompletableFuture<>();
+            failed.completeExceptionally(e);
+            return failed;
+        }
+        return write(key, command, call);
+    }
+
+    /**
+     * 经过节点的熔断器发出命令, 完成时记录耗时和结果; 熔断打开或连接失败时返回失败的 future, 不抛出异常
+     */
+    private <T> CompletableFuture<T> send(Node node, String command, String key,
+                                          Function<RedisAsyncCommands<byte[], byte[]>, RedisFuture<T>> call) {
+        String namespace = redisMetrics.isEnabled() ? redisMetrics.namespace(key) : RedisMetrics.NONE;
+        long start = System.nanoTime();
+        CompletableFuture<T> future;
+        try {
+            node.breaker.acquire();
+            future = call.apply(node.commands()).toCompletableFuture();
+        } catch (RuntimeException e) {
+            future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+        }
+        return future.whenComplete((result, e) -> {
+            long nanos = System.nanoTime() - start;
+            if (e == null) {
+                node.breaker.onSuccess(command, nanos);
+                if (redisMetrics.isEnabled()) {
+                    redisMetrics.record(command, namespace, nanos, 0, 0, hits(result));
+                }
+                return;
+            }
+            Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+            // 熔断器按 spring 的异常类型区分连接失败和命令错误, 与同步方法一致
+            DataAccessException translated = cause instanceof Exception ? EXCEPTION_CONVERTER.convert((Exception) cause) : null;
+            node.breaker.onError(command, translated == null ? cause : translated);
+            if (redisMetrics.isEnabled()) {
+                redisMetrics.record(command, namespace, nanos, 0, 0, null);
+                redisMetrics.error("y2lcache.redis.errors", command, namespace, cause);
+            }
+        });
+    }
+
+    /**
+     * MGET 返回的 KeyValue 没有值时按未命中计数
+     */
+    private static Object hits(Object result) {
+        if (!(result instanceof List)) {
+            return result;
+        }
+        List<Object> values = new ArrayList<>(((List<?>) result).size());
+        for (Object value : (List<?>) result) {
+            values.add(value instanceof KeyValue && !((KeyValue<?, ?>) value).hasValue() ? null : value);
+        }
+        return values;
+    }
+
+    private Node readNode(String key) {
+        if (shardRouter.isEnabled()) {
+            return writeNode(key);
+        }
+        // 与 RedisUtils 相同: 分片时各节点没有配置从节点
+        return replicaRouter.readTemplate() == null ? writeNode(key)
+                : nodes.computeIfAbsent(REPLICA, name -> new Node(name, replicaUris(), replicaRouter.getReadFrom(), replicaRouter.getBreaker()));
+    }
+
+    private Node writeNode(String key) {
+        ShardRouter.Shard shard = shardRouter.shard(key);
+        if (shard == null) {
+            return nodes.computeIfAbsent(DEFAULT, name -> new Node(name, Collections.singletonList(
+                    redisUri(redisProperties.getHost(), redisProperties.getPort(), redisProperties.getDatabase(), redisProperties.getPassword())),
+                    null, circuitBreaker));
+        }
+        return nodes.computeIfAbsent(shard.getName(), name -> {
+            Y2lCacheProperties.Node node = shard.getNode();
+            return new Node(name, Collections.singletonList(redisUri(node.getHost(), node.getPort(), node.getDatabase(), node.getPassword())),
+                    null, shard.getBreaker());
+        });
+    }
+
+    /**
+     * 按 key 所在节点拆分下标, 每组内保持原来的顺序
+     */
+    private Map<Node, List<Integer>> groupByNode(List<String> keys, boolean read) {
+        Map<Node, List<Integer>> groups = new LinkedHashMap<>();
+        for (int i = 0; i < keys.size(); i++) {
+            String key = keys.get(i);
+            groups.computeIfAbsent(read ? readNode(key) : writeNode(key), node -> new ArrayList<>()).add(i);
+        }
+        return groups;
+    }
+
+    /**
+     * 主节点在前, 从节点的库和密码与主节点相同
+     */
+    private List<RedisURI> replicaUris() {
+        List<RedisURI> uris = new ArrayList<>();
+        uris.add(redisUri(redisProperties.getHost(), redisProperties.getPort(), redisProperties.getDatabase(), redisProperties.getPassword()));
+        for (Y2lCacheProperties.Node node : replicaRouter.getNodes()) {
+            uris.add(redisUri(node.getHost(), node.getPort(), redisProperties.getDatabase(), redisProperties.getPassword()));
+        }
+        return uris;
+    }
+
+    private RedisURI redisUri(String host, int port, int database, String password) {
+        RedisURI.Builder builder = RedisURI.builder()
+                .withHost(host)
+                .withPort(port)
+                .withDatabase(database);
+        if (StringUtils.hasText(password)) {
+            builder.withPassword(password);
+        }
+        if (redisProperties.getTimeout() != null) {
+            builder.withTimeout(redisProperties.getTimeout());
+        }
+        return builder.build();
+    }
+
+    private synchronized RedisClient client() {
+        if (client == null) {
+            client = RedisClient.create(clientResources);
+        }
+        return client;
+    }
+
+    @PreDestroy
+    public synchronized void destroy() {
+        blockingExecutor.shutdown();
+        nodes.values().forEach(Node::close);
+        if (client != null) {
+            client.shutdown();
+        }
+    }
+
+    /**
+     * 一个节点的多路复用长连接, 第一次发命令时建立; 配置了多个地址时为主从连接, 读命令按 read-from 路由
+     */
+    private final class Node {
+        private final String name;
+        private final List<RedisURI> uris;
+        private final ReadFrom readFrom;
+        private final CircuitBreaker breaker;
+        private volatile StatefulRedisConnection<byte[], byte[]> connection;
+
+        private Node(String name, List<RedisURI> uris, ReadFrom readFrom, CircuitBreaker breaker) {
+            this.name = name;
+            this.uris = uris;
+            this.readFrom = readFrom;
+            this.breaker = breaker;
+        }
+
+        private RedisAsyncCommands<byte[], byte[]> commands() {
+            StatefulRedisConnection<byte[], byte[]> current = connection;
+            if (current == null) {
+                synchronized (this) {
+                    current = connection;
+                    if (current == null) {
+                        if (readFrom == null) {
+                            current = client().connect(ByteArrayCodec.INSTANCE, uris.get(0));
+                        } else {
+                            StatefulRedisMasterSlaveConnection<byte[], byte[]> masterSlave =
+                                    MasterSlave.connect(client(), ByteArrayCodec.INSTANCE, uris);
+                            masterSlave.setReadFrom(readFrom);
+                            current = masterSlave;
+                        }
+                        log.info("初始化 -> [{}] node -> [{}] uris -> {}", "AsyncRedisUtils", name, uris.size());
+                        connection = current;
+                    }
+                }
+            }
+            return current.async();
+        }
+
+        private synchronized void close() {
+            if (connection != null) {
+                connection.close();
+            }
+        }
+    }
+
+    private byte[] rawKey(String key) {
+        return key.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private byte[][] rawKeys(String... keys) {
+        byte[][] raw = new byte[keys.length][];
+        for (int i = 0; i < keys.length; i++) {
+            raw[i] = rawKey(keys[i]);
+        }
+        return raw;
+    }
+
+    @SuppressWarnings("unchecked")
+    private byte[] rawValue(Object value) {
+        return ((RedisSerializer<Object>) redisTemplate.getValueSerializer()).serialize(value);
+    }
+
+    private byte[][] rawValues(Object... values) {
+        byte[][] raw = new byte[values.length][];
+        for (int i = 0; i < values.length; i++) {
+            raw[i] = rawValue(values[i]);
+        }
+        return raw;
+    }
+
+    @SuppressWarnings("unchecked")
+    private byte[][] rawHashKeys(List<String> hashKeys) {
+        byte[][] raw = new byte[hashKeys.size()][];
+        for (int i = 0; i < raw.length; i++) {
+            raw[i] = rawHashKey(hashKeys.get(i));
+        }
+        return raw;
+    }
+
+    private byte[] rawHashKey(Object hashKey) {
+        return ((RedisSerializer<Object>) redisTemplate.getHashKeySerializer()).serialize(hashKey);
+    }
+
+    @SuppressWarnings("unchecked")
+    private byte[] rawHashValue(Object value) {
+        return ((RedisSerializer<Object>) redisTemplate.getHashValueSerializer()).serialize(value);
+    }
+
+    private Object deserializeValue(byte[] bytes) {
+        return bytes == null ? null : redisTemplate.getValueSerializer().deserialize(bytes);
+    }
+
+    private Object deserializeHashKey(byte[] bytes) {
+        return bytes == null ? null : redisTemplate.getHashKeySerializer().deserialize(bytes);
+    }
+
+    private Object deserializeHashValue(byte[] bytes) {
+        return bytes == null ? null : redisTemplate.getHashValueSerializer().deserialize(bytes);
+    }
+}
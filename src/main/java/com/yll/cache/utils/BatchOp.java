@@ -0,0 +1,74 @@
+package com.yll.cache.utils;
+
+import lombok.Data;
+
+/**
+ * @className: BatchOp
+ * @description: //批量操作中的单个操作, 由 {@link RedisUtils#batch(java.util.List)} 一次往返执行
+ * @author: agent
+ * @date: Created in 2026/10/18 9:40
+ * @modify by: agent
+ * @version: V1.0
+ */
+@Data
+public class BatchOp {
+
+    public enum Type {
+        /**
+         * 写入, item 为空时 set, 否则 hset
+         */
+        ADD,
+        /**
+         * 读取, item 为空时 get, 否则 hget
+         */
+        GET,
+        /**
+         * 删除, item 为空时 del, 否则 hdel
+         */
+        DELETE
+    }
+
+    private Type type;
+    private String key;
+    private String item;
+    private Object value;
+    /**
+     * 时间(秒) 仅 ADD 使用, 小于等于0 表示不设置过期时间
+     */
+    private long time;
+
+    public BatchOp() {
+    }
+
+    public BatchOp(Type type, String key, String item, Object value, long time) {
+        this.type = type;
+        this.key = key;
+        this.item = item;
+        this.value = value;
+        this.time = time;
+    }
+
+    public static BatchOp add(String key, Object value, long time) {
+        return new BatchOp(Type.ADD, key, null, value, time);
+    }
+
+    public static BatchOp hadd(String key, String item, Object value, long time) {
+        return new BatchOp(Type.ADD, key, item, value, time);
+    }
+
+    public static BatchOp get(String key) {
+        return new BatchOp(Type.GET, key, null, null, 0);
+    }
+
+    public static BatchOp hget(String key, String item) {
+        return new BatchOp(Type.GET, key, item, null, 0);
+    }
+
+    public static BatchOp delete(String key) {
+        return new BatchOp(Type.DELETE, key, null, null, 0);
+    }
+
+    public static BatchOp hdelete(String key, String item) {
+        return new BatchOp(Type.DELETE, key, item, null, 0);
+    }
+}
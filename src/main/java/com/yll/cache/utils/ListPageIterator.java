@@ -0,0 +1,61 @@
+package com.yll.cache.utils;
+
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * @className: ListPageIterator
+ * @description: //按页 LRANGE 遍历 list, 每次只取一页到内存, 单次 redis 阻塞时间与页大小成正比
+ * 遍历期间 list 被修改时可能重复或遗漏元素
+ * @author: agent
+ * @date: Created in 2026/10/18 9:40
+ * @modify by: agent
+ * @version: V1.0
+ */
+public class ListPageIterator implements Iterator<List<Object>> {
+
+    private final RedisTemplate redisTemplate;
+    private final String key;
+    private final int pageSize;
+    private long start;
+    private boolean finished;
+    private List<Object> page;
+
+    public ListPageIterator(RedisTemplate redisTemplate, String key, int pageSize) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("页大小必须大于0");
+        }
+        this.redisTemplate = redisTemplate;
+        this.key = key;
+        this.pageSize = pageSize;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean hasNext() {
+        if (page == null && !finished) {
+            List<Object> range = redisTemplate.opsForList().range(key, start, start + pageSize - 1);
+            if (range == null || range.isEmpty()) {
+                finished = true;
+            } else {
+                page = range;
+                start += range.size();
+                finished = range.size() < pageSize;
+            }
+        }
+        return page != null;
+    }
+
+    @Override
+    public List<Object> next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        List<Object> current = page;
+        page = null;
+        return current;
+    }
+}
@@ -0,0 +1,69 @@
+package com.yll.cache.utils;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.List;
+
+/**
+ * @className: RedisScripts
+ * @description: //lua 脚本, 执行时先走 EVALSHA, 服务端没有缓存时自动退回 EVAL
+ * @author: agent
+ * @date: Created in 2026/10/18 10:05
+ * @modify by: agent
+ * @version: V1.0
+ */
+public final class RedisScripts {
+
+    /**
+     * hash 写入并设置时间
+     */
+    public static final RedisScript<Long> HMSET_EXPIRE = load("scripts/hmset_expire.lua");
+    /**
+     * list 尾部写入并设置时间
+     */
+    public static final RedisScript<Long> RPUSH_EXPIRE = load("scripts/rpush_expire.lua");
+    /**
+     * set 写入并设置时间
+     */
+    public static final RedisScript<Long> SADD_EXPIRE = load("scripts/sadd_expire.lua");
+    /**
+     * 持有者释放加载租约
+     */
+    public static final RedisScript<Long> LEASE_RELEASE = load("scripts/lease_release.lua");
+    /**
+     * 按 key 的类型读取内容
+     */
+    public static final RedisScript<List> TYPED_GET = load("scripts/typed_get.lua", List.class);
+    /**
+     * 布隆过滤器置位
+     */
+    public static final RedisScript<Long> BLOOM_ADD = load("scripts/bloom_add.lua");
+    /**
+     * 布隆过滤器重建完成后替换位图
+     */
+    public static final RedisScript<Long> BLOOM_SWAP = load("scripts/bloom_swap.lua");
+    /**
+     * 写入桶中的字段并维护桶的过期时间
+     */
+    public static final RedisScript<Long> BUCKET_SET = load("scripts/bucket_set.lua");
+    /**
+     * 删除桶中已过期的字段
+     */
+    public static final RedisScript<Long> BUCKET_EVICT = load("scripts/bucket_evict.lua");
+
+    private RedisScripts() {
+    }
+
+    private static <T> RedisScript<T> load(String path, Class<T> resultType) {
+        DefaultRedisScript<T> script = new DefaultRedisScript<>();
+        script.setLocation(new ClassPathResource(path));
+        script.setResultType(resultType);
+        return script;
+    }
+
+    private static RedisScript<Long> load(String path) {
+        return load(path, Long.class);
+    }
+}
@@ -1,14 +1,48 @@
 package com.yll.cache.utils;
 
+import com.yll.cache.bloom.BloomFilter;
+import com.yll.cache.breaker.RedisCircuitOpenException;
+import com.yll.cache.bucket.BucketStore;
+import com.yll.cache.breaker.StaleStore;
+import com.yll.cache.config.Y2lCacheProperties;
+import com.yll.cache.counter.CounterAggregator;
+import com.yll.cache.hotkey.HotKeyDetector;
+import com.yll.cache.invalidation.BulkInvalidator;
+import com.yll.cache.invalidation.InvalidationJob;
+import com.yll.cache.loader.SingleFlightLoader;
+import com.yll.cache.loader.TimedValue;
+import com.yll.cache.local.LocalCache;
+import com.yll.cache.metrics.RedisMetrics;
+import com.yll.cache.replica.ReplicaRouter;
+import com.yll.cache.serializer.RawRedisSerializer;
+import com.yll.cache.sharding.ShardRouter;
+import com.yll.cache.writebehind.PendingWrite;
+import com.yll.cache.writebehind.WriteBehindBuffer;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.data.redis.connection.RedisPipelineException;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisOperations;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.stereotype.Component;
 import org.springframework.util.CollectionUtils;
+import org.springframework.util.StringUtils;
 
-import java.util.List;
-import java.util.Map;
-import java.util.Set;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.Callable;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 /**
  * @className: RedisUtils
@@ -19,10 +53,37 @@ import java.util.concurrent.TimeUnit;
  * @version: V1.0
  */
 @Component
+@Slf4j
 public class RedisUtils {
 
     @Autowired
     RedisTemplate redisTemplate;
+    @Autowired
+    LocalCache localCache;
+    @Autowired
+    SingleFlightLoader singleFlightLoader;
+    @Autowired
+    RedisMetrics redisMetrics;
+    @Autowired
+    HotKeyDetector hotKeyDetector;
+    @Autowired
+    StaleStore staleStore;
+    @Autowired
+    WriteBehindBuffer writeBehindBuffer;
+    @Autowired
+    ShardRouter shardRouter;
+    @Autowired
+    ReplicaRouter replicaRouter;
+    @Autowired
+    BulkInvalidator bulkInvalidator;
+    @Autowired
+    Y2lCacheProperties properties;
+    @Autowired
+    BloomFilter bloomFilter;
+    @Autowired
+    BucketStore bucketStore;
+    @Autowired
+    CounterAggregator counterAggregator;
 
     //=============================common============================
 
@@ -37,13 +98,19 @@ public class RedisUtils {
      * @return: boolean
      */
     public boolean expire(String key, long time) {
+        if (bucketStore.accepts(key)) {
+            return bucketExpire(key, time);
+        }
         try {
             if (time > 0) {
-                redisTemplate.expire(key, time, TimeUnit.SECONDS);
+                writeBehindBuffer.flush(key);
+                // 只在本地累加过的计数器 redis 中还没有这个 key, 先写入增量, 否则 EXPIRE 不生效
+                counterAggregator.flush(key);
+                template(key).expire(key, time, TimeUnit.SECONDS);
             }
             return true;
         } catch (Exception e) {
-            e.printStackTrace();
+            onError("expire", key, e);
             return false;
         }
     }
@@ -58,7 +125,10 @@ public class RedisUtils {
      * @return: long 时间(秒) 返回0代表为永久有效 
      */
     public long getExpire(String key) {
-        return redisTemplate.getExpire(key, TimeUnit.SECONDS);
+        if (bucketStore.accepts(key)) {
+            return bucketGetExpire(key);
+        }
+        return readTemplate(key).getExpire(key, TimeUnit.SECONDS);
     }
 
     /**
@@ -71,10 +141,33 @@ public class RedisUtils {
      * @return: boolean true 存在 false不存在
      */
     public boolean hasKey(String key) {
+        if (bucketStore.accepts(key)) {
+            try {
+                return bucketRead(key) != null;
+            } catch (Exception e) {
+                onError("hasKey", key, e);
+                return false;
+            }
+        }
+        PendingWrite pending = pendingWrite(key);
+        if (pending != null) {
+            // 缓冲的 set 和 del 写入后 key 一定存在/不存在; hset 只有缓冲的项为空且之前的 key 没有被覆盖时才需要查 redis
+            if (pending.getType() == PendingWrite.Type.DELETE) {
+                return false;
+            }
+            if (pending.getType() == PendingWrite.Type.VALUE || !pending.getItems().isEmpty()) {
+                return true;
+            }
+            if (pending.isReplace()) {
+                return false;
+            }
+        } else if (absent(key)) {
+            return false;
+        }
         try {
-            return redisTemplate.hasKey(key);
+            return readTemplate(key).hasKey(key);
         } catch (Exception e) {
-            e.printStackTrace();
+            onError("hasKey", key, e);
             return false;
         }
     }
@@ -90,13 +183,93 @@ public class RedisUtils {
      */
     public void del(String... key) {
         if (key != null && key.length > 0) {
-            if (key.length == 1) {
-                redisTemplate.delete(key[0]);
-            } else {
-                redisTemplate.delete(CollectionUtils.arrayToList(key));
+            counterAggregator.discard(Arrays.asList(key));
+            List<String> keys = bufferDeletes(Arrays.asList(key));
+            if (!keys.isEmpty()) {
+                deleteAll(keys);
             }
+            localCache.invalidate(keys);
         }
     }
+
+    /**
+     * @param key   键
+     * @param start 集合的起始位置
+     * @param end   集合的结束位置(包含), 小于 0 表示到最后; 0 到 -1 代表所有值
+     * @title: getTyped
+     * @description: //不需要事先知道类型, 一个 lua 脚本在服务端判断类型并读出内容, 只有一次往返.
+     * list/zset 的位置同 LRANGE/ZRANGE; hash/set 按遍历顺序取第 start 到 end 个, 取够即停
+     * @author: agent
+     * @date: Created in 2026/10/18 11:10
+     * @throws:
+     * @return: com.yll.cache.utils.TypedValue
+     */
+    @SuppressWarnings("unchecked")
+    public TypedValue getTyped(String key, long start, long end) {
+        if (bucketStore.accepts(key)) {
+            // 分桶的 key 只能通过 set 写入, 都是 string
+            Object value = bucketGet(key);
+            return value == null ? new TypedValue("none", 0, null) : new TypedValue("string", 1, value);
+        }
+        if (pendingWrite(key) != null) {
+            writeBehindBuffer.flush(key);
+        } else if (absent(key)) {
+            return new TypedValue("none", 0, null);
+        }
+        return readThrough(key, "typed:" + start + ":" + end, () -> typed((List<Object>) readTemplate(key).execute(
+                RedisScripts.TYPED_GET, RawRedisSerializer.INSTANCE, RawRedisSerializer.INSTANCE,
+                Collections.singletonList(key), String.valueOf(start), String.valueOf(end))));
+    }
+
+    /**
+     * 脚本返回 {类型, 总个数, 内容...}, 内容按类型用 value/hash 的序列化方式还原
+     */
+    private TypedValue typed(List<Object> raw) {
+        String type = new String((byte[]) raw.get(0), StandardCharsets.UTF_8);
+        long size = Long.parseLong(new String((byte[]) raw.get(1), StandardCharsets.UTF_8));
+        RedisSerializer valueSerializer = redisTemplate.getValueSerializer();
+        Object value;
+        switch (type) {
+            case "string":
+                value = valueSerializer.deserialize((byte[]) raw.get(2));
+                break;
+            case "list":
+                List<Object> list = new ArrayList<>(raw.size() - 2);
+                for (int i = 2; i < raw.size(); i++) {
+                    list.add(valueSerializer.deserialize((byte[]) raw.get(i)));
+                }
+                value = list;
+                break;
+            case "set":
+                Set<Object> set = new LinkedHashSet<>();
+                for (int i = 2; i < raw.size(); i++) {
+                    set.add(valueSerializer.deserialize((byte[]) raw.get(i)));
+                }
+                value = set;
+                break;
+            case "hash":
+                Map<Object, Object> hash = new LinkedHashMap<>();
+                for (int i = 2; i + 1 < raw.size(); i += 2) {
+                    hash.put(redisTemplate.getHashKeySerializer().deserialize((byte[]) raw.get(i)),
+                            redisTemplate.getHashValueSerializer().deserialize((byte[]) raw.get(i + 1)));
+                }
+                value = hash;
+                break;
+            case "zset":
+                Map<Object, Double> zset = new LinkedHashMap<>();
+                for (int i = 2; i + 1 < raw.size(); i += 2) {
+                    zset.put(valueSerializer.deserialize((byte[]) raw.get(i)),
+                            Double.valueOf(new String((byte[]) raw.get(i + 1), StandardCharsets.UTF_8)));
+                }
+                value = zset;
+                break;
+            default:
+                value = null;
+                break;
+        }
+        return new TypedValue(type, size, value);
+    }
+
     //============================String=============================
 
     /**
@@ -109,7 +282,18 @@ public class RedisUtils {
      * @return: java.lang.Object 值
      */
     public Object get(String key) {
-        return key == null ? null : redisTemplate.opsForValue().get(key);
+        if (bucketStore.accepts(key)) {
+            return bucketGet(key);
+        }
+        PendingWrite pending = pendingWrite(key);
+        if (pending != null && pending.getType() != PendingWrite.Type.HASH) {
+            return pending.getValue();
+        }
+        if (key == null || absent(key)) {
+            return null;
+        }
+        Object value = readThrough(key, LocalCache.VIEW_VALUE, () -> readTemplate(key).opsForValue().get(key));
+        return counterAggregator.withPending(key, null, value);
     }
 
     /**
@@ -123,11 +307,20 @@ public class RedisUtils {
      * @return: boolean true成功 false失败
      */
     public boolean set(String key, Object value) {
+        if (bucketStore.accepts(key)) {
+            return bucketSet(key, value, 0);
+        }
+        // set 覆盖整个值, 本地尚未写入的计数器增量不能再加到新值上
+        counterAggregator.discard(key);
+        if (bufferWrite(key, PendingWrite.value(value, 0))) {
+            return true;
+        }
         try {
-            redisTemplate.opsForValue().set(key, value);
+            template(key).opsForValue().set(key, value);
+            localCache.invalidate(key);
             return true;
         } catch (Exception e) {
-            e.printStackTrace();
+            onError("set", key, e);
             return false;
         }
     }
@@ -144,15 +337,24 @@ public class RedisUtils {
      * @return: boolean true成功 false 失败
      */
     public boolean set(String key, Object value, long time) {
+        if (bucketStore.accepts(key)) {
+            return bucketSet(key, value, time);
+        }
+        // set 覆盖整个值, 本地尚未写入的计数器增量不能再加到新值上
+        counterAggregator.discard(key);
+        if (bufferWrite(key, PendingWrite.value(value, time))) {
+            return true;
+        }
         try {
             if (time > 0) {
-                redisTemplate.opsForValue().set(key, value, time, TimeUnit.SECONDS);
+                template(key).opsForValue().set(key, value, time, TimeUnit.SECONDS);
+                localCache.invalidate(key);
             } else {
                 set(key, value);
             }
             return true;
         } catch (Exception e) {
-            e.printStackTrace();
+            onError("set", key, e);
             return false;
         }
     }
@@ -171,7 +373,13 @@ public class RedisUtils {
         if (delta < 0) {
             throw new RuntimeException("递增因子必须大于0");
         }
-        return redisTemplate.opsForValue().increment(key, delta);
+        if (counterAggregator.accepts(key)) {
+            bloomFilter.add(key);
+            return counterAggregator.incr(key, delta);
+        }
+        long value = template(key).opsForValue().increment(key, delta);
+        localCache.invalidate(key);
+        return value;
     }
 
     /**
@@ -188,7 +396,13 @@ public class RedisUtils {
         if (delta < 0) {
             throw new RuntimeException("递减因子必须大于0");
         }
-        return redisTemplate.opsForValue().increment(key, -delta);
+        if (counterAggregator.accepts(key)) {
+            bloomFilter.add(key);
+            return counterAggregator.incr(key, -delta);
+        }
+        long value = template(key).opsForValue().increment(key, -delta);
+        localCache.invalidate(key);
+        return value;
     }
 
     //================================Map=================================
@@ -204,7 +418,19 @@ public class RedisUtils {
      * @return: java.lang.Object
      */
     public Object hget(String key, String item) {
-        return redisTemplate.opsForHash().get(key, item);
+        PendingWrite pending = pendingWrite(key);
+        if (pending != null) {
+            if (pending.getType() != PendingWrite.Type.HASH) {
+                return null;
+            }
+            if (pending.getItems().containsKey(item) || pending.isReplace()) {
+                return pending.getItems().get(item);
+            }
+        } else if (absent(key)) {
+            return null;
+        }
+        Object value = readThrough(key, "hget:" + item, () -> readTemplate(key).opsForHash().get(key, item));
+        return counterAggregator.withPending(key, item, value);
     }
 
     /**
@@ -217,7 +443,22 @@ public class RedisUtils {
      * @return: java.util.Map 对应的多个键值
      */
     public Map<Object, Object> hmget(String key) {
-        return redisTemplate.opsForHash().entries(key);
+        PendingWrite pending = pendingWrite(key);
+        if (pending == null) {
+            if (absent(key)) {
+                return new HashMap<>();
+            }
+            return readThrough(key, LocalCache.VIEW_HASH, () -> readTemplate(key).opsForHash().entries(key));
+        }
+        if (pending.getType() != PendingWrite.Type.HASH) {
+            return new HashMap<>();
+        }
+        Map<Object, Object> entries = new HashMap<>();
+        if (!pending.isReplace()) {
+            entries.putAll(readThrough(key, LocalCache.VIEW_HASH, () -> readTemplate(key).opsForHash().entries(key)));
+        }
+        entries.putAll(pending.getItems());
+        return entries;
     }
 
     /**
@@ -231,11 +472,19 @@ public class RedisUtils {
      * @return: boolean true 成功 false 失败
      */
     public boolean hmset(String key, Map<String, Object> map) {
+        if (!map.isEmpty()) {
+            // 项被覆盖, 丢弃这些项本地尚未写入的增量; 不传项会丢弃整个 key
+            counterAggregator.discard(key, map.keySet().toArray());
+        }
+        if (bufferWrite(key, PendingWrite.hash(map, 0))) {
+            return true;
+        }
         try {
-            redisTemplate.opsForHash().putAll(key, map);
+            template(key).opsForHash().putAll(key, map);
+            localCache.invalidate(key);
             return true;
         } catch (Exception e) {
-            e.printStackTrace();
+            onError("hmset", key, e);
             return false;
         }
     }
@@ -252,14 +501,28 @@ public class RedisUtils {
      * @return: boolean true成功 false失败
      */
     public boolean hmset(String key, Map<String, Object> map, long time) {
+        if (!map.isEmpty()) {
+            // 项被覆盖, 丢弃这些项本地尚未写入的增量; 不传项会丢弃整个 key
+            counterAggregator.discard(key, map.keySet().toArray());
+        }
+        if (bufferWrite(key, PendingWrite.hash(map, time))) {
+            return true;
+        }
         try {
-            redisTemplate.opsForHash().putAll(key, map);
             if (time > 0) {
-                expire(key, time);
+                List<byte[]> args = new ArrayList<>(map.size() * 2);
+                for (Map.Entry<String, Object> entry : map.entrySet()) {
+                    args.add(rawHashKey(entry.getKey()));
+                    args.add(rawHashValue(entry.getValue()));
+                }
+                executeWithTime(RedisScripts.HMSET_EXPIRE, key, time, args);
+            } else {
+                template(key).opsForHash().putAll(key, map);
             }
+            localCache.invalidate(key);
             return true;
         } catch (Exception e) {
-            e.printStackTrace();
+            onError("hmset", key, e);
             return false;
         }
     }
@@ -276,11 +539,16 @@ public class RedisUtils {
      * @return: boolean true 成功 false失败
      */
     public boolean hset(String key, String item, Object value) {
+        counterAggregator.discard(key, item);
+        if (bufferWrite(key, PendingWrite.hash(Collections.singletonMap(item, value), 0))) {
+            return true;
+        }
         try {
-            redisTemplate.opsForHash().put(key, item, value);
+            template(key).opsForHash().put(key, item, value);
+            localCache.invalidate(key);
             return true;
         } catch (Exception e) {
-            e.printStackTrace();
+            onError("hset", key, e);
             return false;
         }
     }
@@ -298,14 +566,20 @@ public class RedisUtils {
      * @return: boolean true 成功 false失败
      */
     public boolean hset(String key, String item, Object value, long time) {
+        counterAggregator.discard(key, item);
+        if (bufferWrite(key, PendingWrite.hash(Collections.singletonMap(item, value), time))) {
+            return true;
+        }
         try {
-            redisTemplate.opsForHash().put(key, item, value);
             if (time > 0) {
-                expire(key, time);
+                executeWithTime(RedisScripts.HMSET_EXPIRE, key, time, Arrays.asList(rawHashKey(item), rawHashValue(value)));
+            } else {
+                template(key).opsForHash().put(key, item, value);
             }
+            localCache.invalidate(key);
             return true;
         } catch (Exception e) {
-            e.printStackTrace();
+            onError("hset", key, e);
             return false;
         }
     }
@@ -321,7 +595,10 @@ public class RedisUtils {
      * @return: void
      */
     public void hdel(String key, Object... item) {
-        redisTemplate.opsForHash().delete(key, item);
+        writeBehindBuffer.flush(key);
+        counterAggregator.discard(key, item);
+        template(key).opsForHash().delete(key, item);
+        localCache.invalidate(key);
     }
 
     /**
@@ -335,7 +612,7 @@ public class RedisUtils {
      * @return: boolean true 存在 false不存在
      */
     public boolean hHasKey(String key, String item) {
-        return redisTemplate.opsForHash().hasKey(key, item);
+        return readTemplate(key).opsForHash().hasKey(key, item);
     }
 
     /**
@@ -350,7 +627,13 @@ public class RedisUtils {
      * @return: double
      */
     public double hincr(String key, String item, double by) {
-        return redisTemplate.opsForHash().increment(key, item, by);
+        if (counterAggregator.accepts(key)) {
+            bloomFilter.add(key);
+            return counterAggregator.hincr(key, item, by);
+        }
+        double value = template(key).opsForHash().increment(key, item, by);
+        localCache.invalidate(key);
+        return value;
     }
 
     /**
@@ -365,7 +648,13 @@ public class RedisUtils {
      * @return: double
      */
     public double hdecr(String key, String item, double by) {
-        return redisTemplate.opsForHash().increment(key, item, -by);
+        if (counterAggregator.accepts(key)) {
+            bloomFilter.add(key);
+            return counterAggregator.hincr(key, item, -by);
+        }
+        double value = template(key).opsForHash().increment(key, item, -by);
+        localCache.invalidate(key);
+        return value;
     }
 
     //============================set=============================
@@ -381,9 +670,9 @@ public class RedisUtils {
      */
     public Set<Object> sGet(String key) {
         try {
-            return redisTemplate.opsForSet().members(key);
+            return readThrough(key, LocalCache.VIEW_SET, () -> readTemplate(key).opsForSet().members(key));
         } catch (Exception e) {
-            e.printStackTrace();
+            onError("sGet", key, e);
             return null;
         }
     }
@@ -400,9 +689,9 @@ public class RedisUtils {
      */
     public boolean sHasKey(String key, Object value) {
         try {
-            return redisTemplate.opsForSet().isMember(key, value);
+            return readTemplate(key).opsForSet().isMember(key, value);
         } catch (Exception e) {
-            e.printStackTrace();
+            onError("sHasKey", key, e);
             return false;
         }
     }
@@ -419,9 +708,11 @@ public class RedisUtils {
      */
     public long sSet(String key, Object... values) {
         try {
-            return redisTemplate.opsForSet().add(key, values);
+            long count = template(key).opsForSet().add(key, values);
+            localCache.invalidate(key);
+            return count;
         } catch (Exception e) {
-            e.printStackTrace();
+            onError("sSet", key, e);
             return 0;
         }
     }
@@ -439,13 +730,20 @@ public class RedisUtils {
      */
     public long sSetAndTime(String key, long time, Object... values) {
         try {
-            Long count = redisTemplate.opsForSet().add(key, values);
+            Long count;
             if (time > 0) {
-                expire(key, time);
+                List<byte[]> args = new ArrayList<>(values.length);
+                for (Object value : values) {
+                    args.add(rawValue(value));
+                }
+                count = executeWithTime(RedisScripts.SADD_EXPIRE, key, time, args);
+            } else {
+                count = template(key).opsForSet().add(key, values);
             }
+            localCache.invalidate(key);
             return count;
         } catch (Exception e) {
-            e.printStackTrace();
+            onError("sSetAndTime", key, e);
             return 0;
         }
     }
@@ -461,9 +759,9 @@ public class RedisUtils {
      */
     public long sGetSetSize(String key) {
         try {
-            return redisTemplate.opsForSet().size(key);
+            return readTemplate(key).opsForSet().size(key);
         } catch (Exception e) {
-            e.printStackTrace();
+            onError("sGetSetSize", key, e);
             return 0;
         }
     }
@@ -480,10 +778,11 @@ public class RedisUtils {
      */
     public long setRemove(String key, Object... values) {
         try {
-            Long count = redisTemplate.opsForSet().remove(key, values);
+            Long count = template(key).opsForSet().remove(key, values);
+            localCache.invalidate(key);
             return count;
         } catch (Exception e) {
-            e.printStackTrace();
+            onError("setRemove", key, e);
             return 0;
         }
     }
@@ -503,9 +802,9 @@ public class RedisUtils {
      */
     public List<Object> lGet(String key, long start, long end) {
         try {
-            return redisTemplate.opsForList().range(key, start, end);
+            return readThrough(key, "lGet:" + start + ":" + end, () -> readTemplate(key).opsForList().range(key, start, end));
         } catch (Exception e) {
-            e.printStackTrace();
+            onError("lGet", key, e);
             return null;
         }
     }
@@ -521,9 +820,9 @@ public class RedisUtils {
      */
     public long lGetListSize(String key) {
         try {
-            return redisTemplate.opsForList().size(key);
+            return readTemplate(key).opsForList().size(key);
         } catch (Exception e) {
-            e.printStackTrace();
+            onError("lGetListSize", key, e);
             return 0;
         }
     }
@@ -540,9 +839,9 @@ public class RedisUtils {
      */
     public Object lGetIndex(String key, long index) {
         try {
-            return redisTemplate.opsForList().index(key, index);
+            return readTemplate(key).opsForList().index(key, index);
         } catch (Exception e) {
-            e.printStackTrace();
+            onError("lGetIndex", key, e);
             return null;
         }
     }
@@ -559,10 +858,11 @@ public class RedisUtils {
      */
     public boolean lSet(String key, Object value) {
         try {
-            redisTemplate.opsForList().rightPush(key, value);
+            template(key).opsForList().rightPush(key, value);
+            localCache.invalidate(key);
             return true;
         } catch (Exception e) {
-            e.printStackTrace();
+            onError("lSet", key, e);
             return false;
         }
     }
@@ -580,13 +880,15 @@ public class RedisUtils {
      */
     public boolean lSet(String key, Object value, long time) {
         try {
-            redisTemplate.opsForList().rightPush(key, value);
             if (time > 0) {
-                expire(key, time);
+                executeWithTime(RedisScripts.RPUSH_EXPIRE, key, time, Collections.singletonList(rawValue(value)));
+            } else {
+                template(key).opsForList().rightPush(key, value);
             }
+            localCache.invalidate(key);
             return true;
         } catch (Exception e) {
-            e.printStackTrace();
+            onError("lSet", key, e);
             return false;
         }
     }
@@ -603,10 +905,11 @@ public class RedisUtils {
      */
     public boolean lSet(String key, List<Object> value) {
         try {
-            redisTemplate.opsForList().rightPushAll(key, value);
+            template(key).opsForList().rightPushAll(key, value);
+            localCache.invalidate(key);
             return true;
         } catch (Exception e) {
-            e.printStackTrace();
+            onError("lSet", key, e);
             return false;
         }
     }
@@ -624,13 +927,19 @@ public class RedisUtils {
      */
     public boolean lSet(String key, List<Object> value, long time) {
         try {
-            redisTemplate.opsForList().rightPushAll(key, value);
             if (time > 0) {
-                expire(key, time);
+                List<byte[]> args = new ArrayList<>(value.size());
+                for (Object o : value) {
+                    args.add(rawValue(o));
+                }
+                executeWithTime(RedisScripts.RPUSH_EXPIRE, key, time, args);
+            } else {
+                template(key).opsForList().rightPushAll(key, value);
             }
+            localCache.invalidate(key);
             return true;
         } catch (Exception e) {
-            e.printStackTrace();
+            onError("lSet", key, e);
             return false;
         }
     }
@@ -648,10 +957,11 @@ public class RedisUtils {
      */
     public boolean lUpdateIndex(String key, long index, Object value) {
         try {
-            redisTemplate.opsForList().set(key, index, value);
+            template(key).opsForList().set(key, index, value);
+            localCache.invalidate(key);
             return true;
         } catch (Exception e) {
-            e.printStackTrace();
+            onError("lUpdateIndex", key, e);
             return false;
         }
     }
@@ -669,12 +979,932 @@ public class RedisUtils {
      */
     public long lRemove(String key, long count, Object value) {
         try {
-            Long remove = redisTemplate.opsForList().remove(key, count, value);
+            Long remove = template(key).opsForList().remove(key, count, value);
+            localCache.invalidate(key);
             return remove;
         } catch (Exception e) {
-            e.printStackTrace();
+            onError("lRemove", key, e);
+            return 0;
+        }
+    }
+
+    //===============================raw=================================
+
+    /**
+     * @param key   键
+     * @param value 原样保存的字节, 不经过 value 序列化和压缩
+     * @param time  时间(秒) 小于等于0 表示不设置过期时间
+     * @title: setRaw
+     * @description: //原样写入字节, 只能用 getRaw 读取; 不经过延迟写缓冲区, 写入前先把该 key 已缓冲的修改写完
+     * @author: agent
+     * @date: Created in 2026/10/18 9:30
+     * @throws:
+     * @return: boolean true成功 false失败
+     */
+    public boolean setRaw(String key, byte[] value, long time) {
+        try {
+            writeBehindBuffer.flush(key);
+            byte[] rawKey = rawKey(key);
+            template(key).execute((RedisCallback<Object>) connection -> {
+                if (time > 0) {
+                    connection.setEx(rawKey, time, value);
+                } else {
+                    connection.set(rawKey, value);
+                }
+                return null;
+            });
+            localCache.invalidate(key);
+            return true;
+        } catch (Exception e) {
+            onError("setRaw", key, e);
+            return false;
+        }
+    }
+
+    /**
+     * @param key   键
+     * @param item  项
+     * @param value 原样保存的字节
+     * @param time  时间(秒) 小于等于0 表示不设置过期时间, 注意:如果已存在的hash表有时间,这里将会替换原有的时间
+     * @title: hsetRaw
+     * @description: //原样写入 hash 的一项, 只能用 hgetRaw 读取
+     * @author: agent
+     * @date: Created in 2026/10/18 9:35
+     * @throws:
+     * @return: boolean true成功 false失败
+     */
+    public boolean hsetRaw(String key, String item, byte[] value, long time) {
+        try {
+            writeBehindBuffer.flush(key);
+            if (time > 0) {
+                executeWithTime(RedisScripts.HMSET_EXPIRE, key, time, Arrays.asList(rawHashKey(item), value));
+            } else {
+                byte[] rawKey = rawKey(key);
+                byte[] rawItem = rawHashKey(item);
+                template(key).execute((RedisCallback<Boolean>) connection -> connection.hSet(rawKey, rawItem, value));
+            }
+            localCache.invalidate(key);
+            return true;
+        } catch (Exception e) {
+            onError("hsetRaw", key, e);
+            return false;
+        }
+    }
+
+    /**
+     * @param key 键
+     * @title: getRaw
+     * @description: //原样读出 setRaw 写入的字节, 不反序列化
+     * @author: agent
+     * @date: Created in 2026/10/18 9:40
+     * @throws:
+     * @return: byte[] 不存在时为 null
+     */
+    public byte[] getRaw(String key) {
+        if (pendingWrite(key) != null) {
+            writeBehindBuffer.flush(key);
+        } else if (absent(key)) {
+            return null;
+        }
+        byte[] rawKey = rawKey(key);
+        return readThrough(key, LocalCache.VIEW_RAW,
+                () -> (byte[]) readTemplate(key).execute((RedisCallback<byte[]>) connection -> connection.get(rawKey)));
+    }
+
+    /**
+     * @param key  键
+     * @param item 项
+     * @title: hgetRaw
+     * @description: //原样读出 hsetRaw 写入的字节, 不反序列化
+     * @author: agent
+     * @date: Created in 2026/10/18 9:45
+     * @throws:
+     * @return: byte[] 不存在时为 null
+     */
+    public byte[] hgetRaw(String key, String item) {
+        if (pendingWrite(key) != null) {
+            writeBehindBuffer.flush(key);
+        } else if (absent(key)) {
+            return null;
+        }
+        byte[] rawKey = rawKey(key);
+        byte[] rawItem = rawHashKey(item);
+        return readThrough(key, LocalCache.VIEW_RAW + ":" + item,
+                () -> (byte[]) readTemplate(key).execute((RedisCallback<byte[]>) connection -> connection.hGet(rawKey, rawItem)));
+    }
+
+    //===============================load=================================
+
+    /**
+     * @param key    键
+     * @param loader 缓存不存在时的加载方法, 返回 null 时不写缓存
+     * @param time   时间(秒) time要大于0 如果time小于等于0 将设置无限期
+     * @title: getOrLoad
+     * @description: //读取缓存, 不存在时加载并放入; 同一个 key 同时只有一个线程加载, 其余线程直接拿加载结果;
+     * 开启提前刷新且 time 大于0 时, 值和剩余时间一次往返读出(不经过本地一级缓存), 临近过期时在后台重新加载
+     * @author: agent
+     * @date: Created in 2026/10/18 10:30
+     * @throws: com.yll.cache.loader.CacheLoadException 加载方法抛出异常
+     * @return: T
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T getOrLoad(String key, Callable<T> loader, long time) {
+        // 分桶的 key 没有独立的过期时间可读, 不提前刷新
+        if (time > 0 && singleFlightLoader.isRefreshAhead() && !bucketStore.accepts(key)) {
+            return (T) singleFlightLoader.loadAhead("get:" + key,
+                    () -> timed(key, operations -> operations.opsForValue().get(key)), loader, value -> set(key, value, time));
+        }
+        return (T) singleFlightLoader.load("get:" + key, () -> get(key), loader, value -> set(key, value, time));
+    }
+
+    /**
+     * @param key    键
+     * @param item   项
+     * @param loader 缓存不存在时的加载方法, 返回 null 时不写缓存
+     * @param time   时间(秒)注意:如果已存在的hash表有时间,这里将会替换原有的时间
+     * @title: hGetOrLoad
+     * @description: //读取hash表中的项, 不存在时加载并放入; 同一个 key/item 同时只有一个线程加载
+     * @author: agent
+     * @date: Created in 2026/10/18 10:35
+     * @throws: com.yll.cache.loader.CacheLoadException 加载方法抛出异常
+     * @return: T
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T hGetOrLoad(String key, String item, Callable<T> loader, long time) {
+        if (time > 0 && singleFlightLoader.isRefreshAhead()) {
+            return (T) singleFlightLoader.loadAhead("hget:" + key + ":" + item,
+                    () -> timed(key, operations -> operations.opsForHash().get(key, item)), loader,
+                    value -> hset(key, item, value, time));
+        }
+        return (T) singleFlightLoader.load("hget:" + key + ":" + item, () -> hget(key, item), loader,
+                value -> hset(key, item, value, time));
+    }
+
+    /**
+     * 读取命令和 PTTL 放在同一个管道里, 一次往返拿到值和剩余过期时间
+     */
+    private TimedValue timed(String key, Consumer<RedisOperations<String, Object>> read) {
+        // 剩余过期时间决定是否提前刷新, 读主节点, 不受从节点复制延迟影响
+        List<Object> results = shardRouter.template(key).executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                RedisOperations<String, Object> redisOperations = (RedisOperations<String, Object>) operations;
+                read.accept(redisOperations);
+                redisOperations.getExpire(key, TimeUnit.MILLISECONDS);
+                return null;
+            }
+        });
+        Object ttl = results.get(1);
+        return new TimedValue(results.get(0), ttl instanceof Long ? (Long) ttl : -2L);
+    }
+
+    //===============================scan=================================
+
+    /**
+     * @param key   键
+     * @param count 每次 HSCAN 建议返回的个数
+     * @title: hScan
+     * @description: //以 HSCAN 游标遍历 hash, 不会一次把整个 hash 读入内存, 用完必须 close
+     * @author: agent
+     * @date: Created in 2026/10/18 10:00
+     * @throws:
+     * @return: org.springframework.data.redis.core.Cursor<java.util.Map.Entry<java.lang.Object,java.lang.Object>>
+     */
+    public Cursor<Map.Entry<Object, Object>> hScan(String key, long count) {
+        return readTemplate(key).opsForHash().scan(key, ScanOptions.scanOptions().count(count).build());
+    }
+
+    /**
+     * @param key   键
+     * @param count 每次 SSCAN 建议返回的个数
+     * @title: sScan
+     * @description: //以 SSCAN 游标遍历 set, 不会一次把整个 set 读入内存, 用完必须 close
+     * @author: agent
+     * @date: Created in 2026/10/18 10:05
+     * @throws:
+     * @return: org.springframework.data.redis.core.Cursor<java.lang.Object>
+     */
+    public Cursor<Object> sScan(String key, long count) {
+        return readTemplate(key).opsForSet().scan(key, ScanOptions.scanOptions().count(count).build());
+    }
+
+    /**
+     * @param key      键
+     * @param pageSize 每页个数
+     * @title: lPages
+     * @description: //按页 LRANGE 遍历 list, 每次只取一页
+     * @author: agent
+     * @date: Created in 2026/10/18 10:08
+     * @throws:
+     * @return: java.util.Iterator<java.util.List<java.lang.Object>>
+     */
+    public Iterator<List<Object>> lPages(String key, int pageSize) {
+        return new ListPageIterator(readTemplate(key), key, pageSize);
+    }
+
+    //===============================batch=================================
+
+    /**
+     * @param keys 键集合
+     * @title: mget
+     * @description: //批量获取, 本地缓存未命中的 key 一次 MGET 往返取回
+     * @author: agent
+     * @date: Created in 2026/10/18 10:02
+     * @throws:
+     * @return: java.util.List<java.lang.Object> 与 keys 顺序一致, 不存在的为 null
+     */
+    public List<Object> mget(List<String> keys) {
+        List<Object> values = new ArrayList<>();
+        if (CollectionUtils.isEmpty(keys)) {
+            return values;
+        }
+        List<String> missKeys = new ArrayList<>();
+        List<Integer> missIndexes = new ArrayList<>();
+        for (int i = 0; i < keys.size(); i++) {
+            String key = keys.get(i);
+            hotKeyDetector.record(key);
+            if (bucketStore.accepts(key)) {
+                // 分桶的 key 是桶里的字段, MGET 取不到
+                values.add(bucketGet(key));
+                continue;
+            }
+            PendingWrite pending = pendingWrite(key);
+            if (pending != null) {
+                // 缓冲区中的修改还没有写入 redis, 以缓冲区为准; hash 和删除与 MGET 一样为 null
+                values.add(pending.getValue());
+                continue;
+            }
+            Object cached = localCache.accepts(key) ? localCache.get(key, LocalCache.VIEW_VALUE) : null;
+            values.add(cached);
+            if (cached == null && !absent(key)) {
+                missKeys.add(key);
+                missIndexes.add(i);
+            }
+        }
+        if (missKeys.isEmpty()) {
+            return values;
+        }
+        long mark = localCache.mark();
+        long start = System.nanoTime();
+        // 分片时每个节点一次 MGET, 并行执行
+        Object[] loaded = new Object[missKeys.size()];
+        shardRouter.parallel(groupPositions(missKeys, Function.identity()), (template, positions) -> {
+            List<String> shardKeys = new ArrayList<>(positions.size());
+            positions.forEach(position -> shardKeys.add(missKeys.get(position)));
+            List<Object> shardValues = replicaOr(template).opsForValue().multiGet(shardKeys);
+            for (int i = 0; shardValues != null && i < positions.size(); i++) {
+                loaded[positions.get(i)] = shardValues.get(i);
+            }
+            return null;
+        });
+        long nanos = (System.nanoTime() - start) / missKeys.size();
+        for (int i = 0; i < missKeys.size(); i++) {
+            String key = missKeys.get(i);
+            Object value = loaded[i];
+            values.set(missIndexes.get(i), value);
+            if (localCache.accepts(key)) {
+                localCache.put(key, LocalCache.VIEW_VALUE, value, mark, nanos);
+            }
+        }
+        return values;
+    }
+
+    /**
+     * @param map 对应多个键值
+     * @title: mset
+     * @description: //批量放入, 一次 MSET 往返
+     * @author: agent
+     * @date: Created in 2026/10/18 10:10
+     * @throws:
+     * @return: boolean true成功 false失败
+     */
+    public boolean mset(Map<String, Object> map) {
+        try {
+            counterAggregator.discard(map.keySet());
+            replicaRouter.onWrite();
+            bloomFilter.add(map.keySet());
+            // 分片时每个节点一次 MSET, 各节点之间不保证原子
+            shardRouter.parallel(shardRouter.group(map.keySet(), Function.identity()), (template, keys) -> {
+                Map<String, Object> shardMap = new LinkedHashMap<>();
+                keys.forEach(key -> shardMap.put(key, map.get(key)));
+                template.opsForValue().multiSet(shardMap);
+                return null;
+            });
+            localCache.invalidate(map.keySet());
+            return true;
+        } catch (Exception e) {
+            onError("mset", map.keySet(), e);
+            return false;
+        }
+    }
+
+    /**
+     * @param map  对应多个键值
+     * @param time 时间(秒) time要大于0 如果time小于等于0 将设置无限期
+     * @title: mset
+     * @description: //批量放入并设置相同的时间, pipeline 一次往返
+     * @author: agent
+     * @date: Created in 2026/10/18 10:12
+     * @throws:
+     * @return: boolean true成功 false失败
+     */
+    public boolean mset(Map<String, Object> map, long time) {
+        if (time <= 0) {
+            return mset(map);
+        }
+        List<BatchOp> ops = new ArrayList<>(map.size());
+        for (Map.Entry<String, Object> entry : map.entrySet()) {
+            ops.add(BatchOp.add(entry.getKey(), entry.getValue(), time));
+        }
+        return !batch(ops).contains(Boolean.FALSE);
+    }
+
+    /**
+     * @param map   对应多个键值
+     * @param times 每个键的时间(秒) 没有的或小于等于0 的将设置无限期
+     * @title: mset
+     * @description: //批量放入并分别设置时间, pipeline 一次往返
+     * @author: agent
+     * @date: Created in 2026/10/18 10:15
+     * @throws:
+     * @return: boolean true成功 false失败
+     */
+    public boolean mset(Map<String, Object> map, Map<String, Long> times) {
+        List<BatchOp> ops = new ArrayList<>(map.size());
+        for (Map.Entry<String, Object> entry : map.entrySet()) {
+            Long time = times == null ? null : times.get(entry.getKey());
+            ops.add(BatchOp.add(entry.getKey(), entry.getValue(), time == null ? 0 : time));
+        }
+        return !batch(ops).contains(Boolean.FALSE);
+    }
+
+    /**
+     * @param key   键
+     * @param items 项集合
+     * @title: hmultiGet
+     * @description: //获取hash表中多个项的值, 一次 HMGET 往返
+     * @author: agent
+     * @date: Created in 2026/10/18 10:18
+     * @throws:
+     * @return: java.util.List<java.lang.Object> 与 items 顺序一致, 不存在的为 null
+     */
+    public List<Object> hmultiGet(String key, List<String> items) {
+        if (CollectionUtils.isEmpty(items)) {
+            return new ArrayList<>();
+        }
+        return readTemplate(key).opsForHash().multiGet(key, items);
+    }
+
+    /**
+     * @param keys 键集合
+     * @title: del
+     * @description: //批量删除缓存, 一次 UNLINK 往返
+     * @author: agent
+     * @date: Created in 2026/10/18 10:20
+     * @throws:
+     * @return: long 删除的个数, 延迟写的 key 按已删除计
+     */
+    public long del(Collection<String> keys) {
+        if (CollectionUtils.isEmpty(keys)) {
             return 0;
         }
+        counterAggregator.discard(keys);
+        List<String> unbuffered = bufferDeletes(keys);
+        if (unbuffered.isEmpty()) {
+            return keys.size();
+        }
+        long count = deleteAll(unbuffered);
+        localCache.invalidate(unbuffered);
+        return count + keys.size() - unbuffered.size();
+    }
+
+    /**
+     * @param pattern SCAN MATCH 模式, 如 user:123:*
+     * @title: delByPattern
+     * @description: //按模式批量删除, 在后台分批 SCAN + UNLINK 并限速, 立即返回任务, 进度见 {@link BulkInvalidator#get(String)}
+     * @author: agent
+     * @date: Created in 2026/10/18 10:40
+     * @throws: IllegalArgumentException 模式为空或为 *
+     * @return: com.yll.cache.invalidation.InvalidationJob
+     */
+    public InvalidationJob delByPattern(String pattern) {
+        return bulkInvalidator.submit(pattern);
+    }
+
+    /**
+     * 分片时每个节点一次 UNLINK(或 DEL), 并行执行, 返回删除的总个数
+     */
+    private long deleteAll(List<String> keys) {
+        replicaRouter.onWrite();
+        long total = 0;
+        if (bucketStore.isEnabled()) {
+            List<String> bucketKeys = new ArrayList<>();
+            List<String> plainKeys = new ArrayList<>();
+            keys.forEach(key -> (bucketStore.accepts(key) ? bucketKeys : plainKeys).add(key));
+            if (!bucketKeys.isEmpty()) {
+                total += bucketDel(bucketKeys);
+                if (plainKeys.isEmpty()) {
+                    return total;
+                }
+                keys = plainKeys;
+            }
+        }
+        boolean unlink = properties.getInvalidation().isUnlink();
+        List<Long> counts = shardRouter.parallel(shardRouter.group(keys, Function.identity()),
+                (template, shardKeys) -> unlink ? template.unlink(shardKeys) : template.delete(shardKeys));
+        for (Long count : counts) {
+            total += count == null ? 0 : count;
+        }
+        return total;
+    }
+
+    /**
+     * @param ops 操作列表, 可以混合 ADD/GET/DELETE
+     * @title: batch
+     * @description: //通过 pipeline 一次往返执行多个操作
+     * @author: agent
+     * @date: Created in 2026/10/18 10:25
+     * @throws:
+     * @return: java.util.List<java.lang.Object> 与 ops 顺序一致: ADD 为 Boolean, GET 为值, DELETE 为删除个数
+     */
+    public List<Object> batch(List<BatchOp> ops) {
+        if (CollectionUtils.isEmpty(ops)) {
+            return new ArrayList<>();
+        }
+        replicaRouter.onWrite();
+        for (BatchOp op : ops) {
+            if (op.getType() == BatchOp.Type.ADD) {
+                bloomFilter.add(op.getKey());
+                if (StringUtils.isEmpty(op.getItem())) {
+                    counterAggregator.discard(op.getKey());
+                } else {
+                    counterAggregator.discard(op.getKey(), op.getItem());
+                }
+            }
+        }
+        Object[] results = new Object[ops.size()];
+        // 分桶的 key 是桶里的字段, 不能进管道按普通 key 读写, 逐个读写所在的桶
+        List<Integer> indexes = new ArrayList<>(ops.size());
+        List<BatchOp> pipelined = new ArrayList<>(ops.size());
+        for (int i = 0; i < ops.size(); i++) {
+            BatchOp op = ops.get(i);
+            if (bucketStore.accepts(op.getKey()) && StringUtils.isEmpty(op.getItem())) {
+                results[i] = bucketBatch(op);
+            } else if (writeBehindBuffer.accepts(op.getKey()) && buffered(op)) {
+                results[i] = bufferedBatch(op);
+            } else {
+                indexes.add(i);
+                pipelined.add(op);
+            }
+        }
+        if (pipelined.isEmpty()) {
+            return new ArrayList<>(Arrays.asList(results));
+        }
+        // 分片时每个节点一个管道, 并行执行
+        shardRouter.parallel(groupPositions(pipelined, BatchOp::getKey), (template, positions) -> {
+            List<BatchOp> shardOps = new ArrayList<>(positions.size());
+            positions.forEach(position -> shardOps.add(pipelined.get(position)));
+            List<Object> shardResults = batch(template, shardOps);
+            for (int i = 0; i < positions.size(); i++) {
+                results[indexes.get(positions.get(i))] = shardResults.get(i);
+            }
+            return null;
+        });
+        return new ArrayList<>(Arrays.asList(results));
+    }
+
+    /**
+     * 延迟写的 key 的写入和删除要进缓冲区, 否则直接写入的值会被之后写入的旧修改覆盖; 有未写入的修改时读取以缓冲区为准.
+     * hdel 与 hdel 方法相同, 先写入缓冲的修改再进管道
+     */
+    private boolean buffered(BatchOp op) {
+        switch (op.getType()) {
+            case GET:
+                return pendingWrite(op.getKey()) != null;
+            case DELETE:
+                if (!StringUtils.isEmpty(op.getItem())) {
+                    writeBehindBuffer.flush(op.getKey());
+                    return false;
+                }
+                return true;
+            default:
+                return true;
+        }
+    }
+
+    /**
+     * 延迟写的 key 的单个批量操作, 按对应的单个方法执行
+     */
+    private Object bufferedBatch(BatchOp op) {
+        String key = op.getKey();
+        String item = op.getItem();
+        boolean hash = !StringUtils.isEmpty(item);
+        switch (op.getType()) {
+            case ADD:
+                return hash ? hset(key, item, op.getValue(), op.getTime()) : set(key, op.getValue(), op.getTime());
+            case GET:
+                return hash ? hget(key, item) : get(key);
+            default:
+                return del(Collections.singletonList(key));
+        }
+    }
+
+    /**
+     * 分桶的 key 的单个批量操作, 结果与管道中的相同: ADD 为 Boolean, GET 为值(失败为 null), DELETE 为删除个数(失败为 0)
+     */
+    private Object bucketBatch(BatchOp op) {
+        String key = op.getKey();
+        switch (op.getType()) {
+            case ADD:
+                return bucketSet(key, op.getValue(), op.getTime());
+            case GET:
+                try {
+                    return bucketGet(key);
+                } catch (Exception e) {
+                    onError("batch", key, e);
+                    return null;
+                }
+            default:
+                try {
+                    long count = bucketDel(Collections.singletonList(key));
+                    localCache.invalidate(key);
+                    return count;
+                } catch (Exception e) {
+                    onError("batch", key, e);
+                    return 0L;
+                }
+        }
+    }
+
+    private List<Object> batch(RedisTemplate<String, Object> template, List<BatchOp> ops) {
+        List<Object> results = new ArrayList<>();
+        List<Object> raw;
+        try {
+            raw = template.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                    RedisOperations<String, Object> redisOperations = (RedisOperations<String, Object>) operations;
+                    for (BatchOp op : ops) {
+                        pipeline(redisOperations, op);
+                    }
+                    return null;
+                }
+            });
+        } catch (RedisPipelineException e) {
+            // 部分命令失败时其余结果照常返回, 失败位置是异常对象
+            raw = new ArrayList<>();
+            for (Object result : e.getPipelineResult()) {
+                raw.add(result instanceof byte[] ? template.getValueSerializer().deserialize((byte[]) result) : result);
+            }
+        }
+        Set<String> written = new HashSet<>();
+        int index = 0;
+        for (BatchOp op : ops) {
+            Object result = raw.get(index++);
+            boolean failed = result instanceof Exception;
+            switch (op.getType()) {
+                case ADD:
+                    if (!StringUtils.isEmpty(op.getItem()) && op.getTime() > 0) {
+                        // hset 之后的 expire 结果
+                        failed = failed || raw.get(index++) instanceof Exception;
+                    }
+                    result = !failed;
+                    written.add(op.getKey());
+                    break;
+                case DELETE:
+                    result = failed ? 0L : result;
+                    written.add(op.getKey());
+                    break;
+                default:
+                    result = failed ? null : result;
+                    break;
+            }
+            results.add(result);
+        }
+        localCache.invalidate(written);
+        return results;
+    }
+
+    private void pipeline(RedisOperations<String, Object> operations, BatchOp op) {
+        String key = op.getKey();
+        String item = op.getItem();
+        boolean hash = !StringUtils.isEmpty(item);
+        switch (op.getType()) {
+            case ADD:
+                if (hash) {
+                    operations.opsForHash().put(key, item, op.getValue());
+                    if (op.getTime() > 0) {
+                        operations.expire(key, op.getTime(), TimeUnit.SECONDS);
+                    }
+                } else if (op.getTime() > 0) {
+                    operations.opsForValue().set(key, op.getValue(), op.getTime(), TimeUnit.SECONDS);
+                } else {
+                    operations.opsForValue().set(key, op.getValue());
+                }
+                break;
+            case GET:
+                if (hash) {
+                    operations.opsForHash().get(key, item);
+                } else {
+                    operations.opsForValue().get(key);
+                }
+                break;
+            case DELETE:
+                if (hash) {
+                    operations.opsForHash().delete(key, item);
+                } else if (properties.getInvalidation().isUnlink()) {
+                    operations.unlink(key);
+                } else {
+                    operations.delete(key);
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("不支持的批量操作类型：" + op.getType());
+        }
+    }
+
+    //===============================script=================================
+
+    /**
+     * @param script 写入并设置时间的脚本
+     * @param key    键
+     * @param time   时间(秒)
+     * @param args   已序列化的脚本参数
+     * @title: executeWithTime
+     * @description: //写入与设置时间在服务端一次原子完成, 只有一次往返
+     * @author: agent
+     * @date: Created in 2026/10/18 10:20
+     * @throws:
+     * @return: java.lang.Long 脚本返回值
+     */
+    private Long executeWithTime(RedisScript<Long> script, String key, long time, List<byte[]> args) {
+        Object[] argv = new Object[args.size() + 1];
+        argv[0] = String.valueOf(time);
+        for (int i = 0; i < args.size(); i++) {
+            argv[i + 1] = args.get(i);
+        }
+        return (Long) template(key).execute(script, RawRedisSerializer.INSTANCE, RawRedisSerializer.INSTANCE,
+                Collections.singletonList(key), argv);
+    }
+
+    /**
+     * 写入使用的 RedisTemplate(主节点), 同时记录当前请求已经写入过, 并在写入之前把 key 加入布隆过滤器
+     */
+    private RedisTemplate template(String key) {
+        replicaRouter.onWrite();
+        bloomFilter.add(key);
+        return shardRouter.template(key);
+    }
+
+    /**
+     * 布隆过滤器判断 key 一定不存在, 调用方按不存在返回, 不访问 redis
+     */
+    private boolean absent(String key) {
+        // 分桶的 key 不是独立的 redis key, 重建时 SCAN 不到, 不使用布隆过滤器
+        return !bucketStore.accepts(key) && !bloomFilter.mightContain(key);
+    }
+
+    /**
+     * 只读方法使用的 RedisTemplate, 开启读从节点时按 read-from 发往从节点
+     */
+    private RedisTemplate readTemplate(String key) {
+        return replicaOr(shardRouter.template(key));
+    }
+
+    /**
+     * 可以读从节点时返回从节点, 否则返回 master; 分片时各节点没有配置从节点, 读取走分片节点
+     */
+    private RedisTemplate<String, Object> replicaOr(RedisTemplate<String, Object> master) {
+        if (shardRouter.isEnabled()) {
+            return master;
+        }
+        RedisTemplate<String, Object> replica = replicaRouter.readTemplate();
+        return replica == null ? master : replica;
+    }
+
+    /**
+     * 按节点拆分 items 的下标, 多 key 操作拆分后再按下标放回原来的位置
+     */
+    private <T> Map<RedisTemplate<String, Object>, List<Integer>> groupPositions(List<T> items, Function<T, String> key) {
+        List<Integer> positions = new ArrayList<>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            positions.add(i);
+        }
+        return shardRouter.group(positions, position -> key.apply(items.get(position)));
+    }
+
+    private byte[] rawKey(String key) {
+        return redisTemplate.getKeySerializer().serialize(key);
+    }
+
+    private byte[] rawValue(Object value) {
+        return redisTemplate.getValueSerializer().serialize(value);
+    }
+
+    private byte[] rawHashKey(Object hashKey) {
+        return redisTemplate.getHashKeySerializer().serialize(hashKey);
+    }
+
+    private byte[] rawHashValue(Object value) {
+        return redisTemplate.getHashValueSerializer().serialize(value);
+    }
+
+    //===============================bucket=================================
+
+    private Object bucketGet(String key) {
+        return readThrough(key, LocalCache.VIEW_VALUE, () -> {
+            byte[] bytes = bucketRead(key);
+            return bytes == null ? null : redisTemplate.getValueSerializer().deserialize(BucketStore.value(bytes));
+        });
+    }
+
+    /**
+     * 读出桶中的字段值(含过期时间头部), 已过期的删除后返回 null
+     */
+    private byte[] bucketRead(String key) {
+        String bucket = bucketStore.bucket(key);
+        byte[] rawBucket = rawKey(bucket);
+        byte[] field = rawHashKey(key);
+        byte[] bytes = (byte[]) readTemplate(bucket).execute((RedisCallback<byte[]>) connection -> connection.hGet(rawBucket, field));
+        if (bytes != null && BucketStore.isExpired(bytes)) {
+            RedisTemplate master = shardRouter.template(bucket);
+            master.execute(RedisScripts.BUCKET_EVICT, RawRedisSerializer.INSTANCE,
+                    RawRedisSerializer.INSTANCE, Collections.singletonList(bucket), key, bytes);
+            bucketStore.evicted();
+            return null;
+        }
+        return bytes;
+    }
+
+    private boolean bucketSet(String key, Object value, long time) {
+        try {
+            String bucket = bucketStore.bucket(key);
+            template(bucket).execute(RedisScripts.BUCKET_SET, RawRedisSerializer.INSTANCE, RawRedisSerializer.INSTANCE,
+                    Collections.singletonList(bucket), key, BucketStore.encode(rawValue(value), time), String.valueOf(time));
+            localCache.invalidate(key);
+            return true;
+        } catch (Exception e) {
+            onError("bucketSet", key, e);
+            return false;
+        }
+    }
+
+    /**
+     * 按桶分组, 每个桶一次 HDEL
+     */
+    private long bucketDel(List<String> keys) {
+        Map<String, List<String>> buckets = new LinkedHashMap<>();
+        keys.forEach(key -> buckets.computeIfAbsent(bucketStore.bucket(key), bucket -> new ArrayList<>()).add(key));
+        long total = 0;
+        for (Map.Entry<String, List<String>> entry : buckets.entrySet()) {
+            Long count = template(entry.getKey()).opsForHash().delete(entry.getKey(), entry.getValue().toArray());
+            total += count == null ? 0 : count;
+        }
+        return total;
+    }
+
+    /**
+     * 字段的过期时间写在值里, 读出后带新的时间重新写入; 与并发写入之间不是原子的
+     */
+    private boolean bucketExpire(String key, long time) {
+        try {
+            if (time > 0) {
+                byte[] bytes = bucketRead(key);
+                if (bytes != null) {
+                    String bucket = bucketStore.bucket(key);
+                    template(bucket).execute(RedisScripts.BUCKET_SET, RawRedisSerializer.INSTANCE, RawRedisSerializer.INSTANCE,
+                            Collections.singletonList(bucket), key, BucketStore.encode(BucketStore.value(bytes), time),
+                            String.valueOf(time));
+                }
+            }
+            return true;
+        } catch (Exception e) {
+            onError("expire", key, e);
+            return false;
+        }
+    }
+
+    /**
+     * 与 TTL 相同: 不存在为 -2, 永久为 -1
+     */
+    private long bucketGetExpire(String key) {
+        byte[] bytes = bucketRead(key);
+        if (bytes == null) {
+            return -2;
+        }
+        long expireAt = BucketStore.expireAt(bytes);
+        return expireAt == 0 ? -1 : Math.max(0, expireAt - System.currentTimeMillis() / 1000);
+    }
+
+    //===============================write-behind=================================
+
+    /**
+     * 延迟写的 key 放进缓冲区, 返回 false 时调用方照常写 redis
+     */
+    private boolean bufferWrite(String key, PendingWrite write) {
+        if (bucketStore.accepts(key) || !writeBehindBuffer.accepts(key)) {
+            return false;
+        }
+        if (write.getType() != PendingWrite.Type.DELETE) {
+            // 放进缓冲区即视为写入成功, 之前先通知其它实例
+            bloomFilter.add(key);
+        }
+        if (!writeBehindBuffer.offer(key, write)) {
+            return false;
+        }
+        localCache.invalidate(key);
+        return true;
+    }
+
+    /**
+     * 延迟写的 key 的删除放进缓冲区, 保证与之前缓冲的写入顺序一致, 返回需要直接删除的 key
+     */
+    private List<String> bufferDeletes(Collection<String> keys) {
+        List<String> unbuffered = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            if (!bufferWrite(key, PendingWrite.delete())) {
+                unbuffered.add(key);
+            }
+        }
+        return unbuffered;
+    }
+
+    private PendingWrite pendingWrite(String key) {
+        return !bucketStore.accepts(key) && writeBehindBuffer.accepts(key) ? writeBehindBuffer.get(key) : null;
+    }
+
+    //===============================error=================================
+
+    /**
+     * @param operation 方法名
+     * @param key       键
+     * @param e         异常
+     * @title: onError
+     * @description: //redis 操作异常时记录日志和异常计数, 调用方照常返回失败值
+     * @author: agent
+     * @date: Created in 2026/10/18 11:20
+     * @throws:
+     * @return: void
+     */
+    private void onError(String operation, Object key, Exception e) {
+        if (!(e instanceof RedisCircuitOpenException)) {
+            // 熔断打开期间的失败只计数, 状态变化由 CircuitBreaker 打印
+            log.error("Redis occur {}Error：key -> [{}]", operation, key, e);
+        }
+        redisMetrics.error("y2lcache.utils.errors", operation,
+                key instanceof String ? redisMetrics.namespace((String) key) : RedisMetrics.OTHER, e);
+    }
+
+    //===============================local=================================
+
+    /**
+     * @param key    键
+     * @param view   本地缓存视图
+     * @param reader 实际读取 redis 的操作
+     * @title: readThrough
+     * @description: //读操作先计入热点统计, 再查本地一级缓存, 未命中再读 redis 并回填; redis 不可用时按配置返回旧值
+     * @author: agent
+     * @date: Created in 2026/10/18 11:20
+     * @throws:
+     * @return: T
+     */
+    @SuppressWarnings("unchecked")
+    private <T> T readThrough(String key, String view, Supplier<T> reader) {
+        hotKeyDetector.record(key);
+        boolean local = localCache.accepts(key);
+        if (local) {
+            Object cached = localCache.get(key, view);
+            if (cached != null) {
+                return (T) cached;
+            }
+        }
+        long mark = localCache.mark();
+        long start = System.nanoTime();
+        T value;
+        try {
+            value = reader.get();
+        } catch (DataAccessResourceFailureException | TransientDataAccessException e) {
+            return stale(key, view, e);
+        }
+        staleStore.put(key, view, value);
+        if (local) {
+            localCache.put(key, view, value, mark, System.nanoTime() - start);
+        }
+        return value;
+    }
+
+    /**
+     * redis 不可用(熔断打开、超时、连接失败)时返回最后一次读到的值, 没有开启或没有旧值时照常抛出
+     */
+    @SuppressWarnings("unchecked")
+    private <T> T stale(String key, String view, DataAccessException e) {
+        Object stale = staleStore.isEnabled() ? staleStore.get(key, view) : null;
+        if (stale == null) {
+            throw e;
+        }
+        return (T) stale;
     }
 
 }
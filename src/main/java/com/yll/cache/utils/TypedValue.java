@@ -0,0 +1,37 @@
+package com.yll.cache.utils;
+
+import lombok.Data;
+
+/**
+ * @className: TypedValue
+ * @description: //{@link RedisUtils#getTyped(String, long, long)} 的结果, 一次往返得到 key 的类型和内容
+ * @author: agent
+ * @date: Created in 2026/10/18 11:00
+ * @modify by: agent
+ * @version: V1.0
+ */
+@Data
+public class TypedValue {
+
+    /**
+     * redis 类型: string/hash/list/set/zset, 不存在时为 none
+     */
+    private String type;
+    /**
+     * 元素总个数, string 为 1, 不存在时为 0
+     */
+    private long size;
+    /**
+     * 内容: string 为值, hash 为 Map, list 为 List, set 为 Set, zset 为 member 到 score 的有序 Map, 不存在时为 null
+     */
+    private Object value;
+
+    public TypedValue() {
+    }
+
+    public TypedValue(String type, long size, Object value) {
+        this.type = type;
+        this.size = size;
+        this.value = value;
+    }
+}
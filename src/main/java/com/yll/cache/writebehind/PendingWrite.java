@@ -0,0 +1,94 @@
+package com.yll.cache.writebehind;
+
+import lombok.Getter;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * @className: PendingWrite
+ * @description: //一个 key 上尚未写入 redis 的修改, 同一个 key 的多次修改合并为一个; 创建后不再修改, 合并时生成新对象
+ * @author: agent
+ * @date: Created in 2026/10/18 9:30
+ * @modify by: agent
+ * @version: V1.0
+ */
+@Getter
+public class PendingWrite {
+
+    public enum Type {
+        /**
+         * set 整个值
+         */
+        VALUE,
+        /**
+         * hset/hmset 若干项, replace 为 true 时先删除 key
+         */
+        HASH,
+        /**
+         * 删除 key
+         */
+        DELETE
+    }
+
+    private final Type type;
+    private final Object value;
+    private final Map<String, Object> items;
+    private final boolean replace;
+    /**
+     * 时间(秒) 小于等于0: VALUE 表示永久有效, HASH 表示不修改过期时间
+     */
+    private final long time;
+    /**
+     * 写入失败后重试的次数
+     */
+    private final int attempts;
+
+    private PendingWrite(Type type, Object value, Map<String, Object> items, boolean replace, long time, int attempts) {
+        this.type = type;
+        this.value = value;
+        this.items = items;
+        this.replace = replace;
+        this.time = time;
+        this.attempts = attempts;
+    }
+
+    public static PendingWrite value(Object value, long time) {
+        return new PendingWrite(Type.VALUE, value, null, false, time, 0);
+    }
+
+    public static PendingWrite hash(Map<String, Object> items, long time) {
+        return new PendingWrite(Type.HASH, null, Collections.unmodifiableMap(new HashMap<>(items)), false, time, 0);
+    }
+
+    public static PendingWrite delete() {
+        return new PendingWrite(Type.DELETE, null, null, false, 0, 0);
+    }
+
+    /**
+     * @param newer 之后的修改
+     * @title: then
+     * @description: //合并两次修改, 结果与先后执行两次相同: set 和 del 覆盖之前的一切; hash 项合并, 之前是 set 或 del 时先删除 key
+     * @author: agent
+     * @date: Created in 2026/10/18 9:40
+     * @throws:
+     * @return: com.yll.cache.writebehind.PendingWrite
+     */
+    public PendingWrite then(PendingWrite newer) {
+        if (newer.type != Type.HASH) {
+            return newer;
+        }
+        if (type != Type.HASH) {
+            return new PendingWrite(Type.HASH, null, newer.items, true, newer.time, attempts);
+        }
+        Map<String, Object> merged = new HashMap<>(items);
+        merged.putAll(newer.items);
+        return new PendingWrite(Type.HASH, null, Collections.unmodifiableMap(merged), replace,
+                newer.time > 0 ? newer.time : time, attempts);
+    }
+
+    public PendingWrite retry() {
+        return new PendingWrite(type, value, items, replace, time, attempts + 1);
+    }
+}
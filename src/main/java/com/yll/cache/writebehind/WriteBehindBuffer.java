@@ -0,0 +1,434 @@
+package com.yll.cache.writebehind;
+
+import com.yll.cache.config.Y2lCacheProperties;
+import com.yll.cache.local.LocalCache;
+import com.yll.cache.sharding.ShardRouter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * @className: WriteBehindBuffer
+ * @description: //延迟写: 配置前缀下 key 的 set/hset/hmset/del 先放进缓冲区, 同一个 key 的多次修改合并, 按 flush-interval
+ * 或缓冲 key 数达到 max-batch 时用管道批量写入 redis. 缓冲区满时写入方最多等待 offer-timeout, 仍然满则直接写 redis;
+ * 正在写入的 key 不受容量限制, 总是放进缓冲区排在正在写入的修改之后, 避免直接写入的新值被正在写入的旧值覆盖.
+ * 读取先查缓冲区, 本实例写入后立即可读; 其它实例最多 flush-interval 后可见. 关闭时写完全部缓冲.
+ * 注意: 延迟写的 key 只应通过 set/hset/hmset/del/hdel/expire 修改, 其它修改命令不经过缓冲区, 顺序无法保证
+ * @author: agent
+ * @date: Created in 2026/10/18 10:00
+ * @modify by: agent
+ * @version: V1.0
+ */
+@Component
+@Slf4j
+public class WriteBehindBuffer {
+
+    private final Y2lCacheProperties.WriteBehind properties;
+    private final boolean unlink;
+
+    /**
+     * 等待写入的修改
+     */
+    private final ConcurrentHashMap<String, PendingWrite> pending = new ConcurrentHashMap<>();
+    /**
+     * 已取出正在写入的修改, 写完之前读取仍然以它为准
+     */
+    private final ConcurrentHashMap<String, PendingWrite> flushing = new ConcurrentHashMap<>();
+    /**
+     * pending 中的 key 数, 在 pending 的同一个 key 的原子操作内增减, 容量检查和放入一次完成
+     */
+    private final AtomicInteger size = new AtomicInteger();
+
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final ReentrantLock capacityLock = new ReentrantLock();
+    private final Condition notFull = capacityLock.newCondition();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+
+    private final LongAdder buffered = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder flushedKeys = new LongAdder();
+    private final LongAdder flushes = new LongAdder();
+    private final LongAdder overflowed = new LongAdder();
+    private final LongAdder retried = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    private ScheduledExecutorService scheduler;
+
+    @Autowired
+    ShardRouter shardRouter;
+    @Autowired
+    LocalCache localCache;
+
+    public WriteBehindBuffer(Y2lCacheProperties properties) {
+        this.properties = properties.getWriteBehind();
+        this.unlink = properties.getInvalidation().isUnlink();
+    }
+
+    @PostConstruct
+    public void init() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "y2lcache-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = properties.getFlushInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(this::flushQuietly, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (scheduler == null) {
+            return;
+        }
+        scheduler.shutdown();
+        flushQuietly();
+        if (!pending.isEmpty()) {
+            log.error("Redis write-behind 关闭时仍有 {} 个 key 未写入", pending.size());
+        }
+    }
+
+    /**
+     * @param key 键
+     * @title: accepts
+     * @description: //key 是否走延迟写
+     * @author: agent
+     * @date: Created in 2026/10/18 10:10
+     * @throws:
+     * @return: boolean
+     */
+    public boolean accepts(String key) {
+        if (!properties.isEnabled() || key == null) {
+            return false;
+        }
+        List<String> prefixes = properties.getKeyPrefixes();
+        if (prefixes == null || prefixes.isEmpty()) {
+            return true;
+        }
+        for (String prefix : prefixes) {
+            if (key.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param key   键
+     * @param write 修改
+     * @title: offer
+     * @description: //放入缓冲区并与同一个 key 上未写入的修改合并; 缓冲区满且等待超时返回 false, 调用方应直接写 redis
+     * @author: agent
+     * @date: Created in 2026/10/18 10:15
+     * @throws:
+     * @return: boolean
+     */
+    public boolean offer(String key, PendingWrite write) {
+        long deadline = 0;
+        while (!tryOffer(key, write)) {
+            if (deadline == 0) {
+                deadline = System.nanoTime() + properties.getOfferTimeout().toNanos();
+            }
+            if (!awaitCapacity(deadline)) {
+                overflowed.increment();
+                return false;
+            }
+        }
+        buffered.increment();
+        if (size.get() >= properties.getMaxBatch()) {
+            requestFlush();
+        }
+        return true;
+    }
+
+    /**
+     * 在 key 的原子操作内合并或占用容量: 已在缓冲区中的合并; 正在写入的不占容量直接放入; 其它的占到容量才放入
+     */
+    private boolean tryOffer(String key, PendingWrite write) {
+        boolean[] accepted = new boolean[1];
+        pending.compute(key, (k, older) -> {
+            if (older != null) {
+                coalesced.increment();
+                accepted[0] = true;
+                return older.then(write);
+            }
+            if (flushing.containsKey(k)) {
+                size.incrementAndGet();
+                accepted[0] = true;
+                return write;
+            }
+            if (size.incrementAndGet() > properties.getCapacity()) {
+                size.decrementAndGet();
+                return null;
+            }
+            accepted[0] = true;
+            return write;
+        });
+        return accepted[0];
+    }
+
+    /**
+     * 从 pending 取出放进 flushing, 在 key 的原子操作内完成, 并发的 offer 总能在其中一个里看到这个 key
+     */
+    private PendingWrite take(String key) {
+        PendingWrite[] taken = new PendingWrite[1];
+        pending.computeIfPresent(key, (k, write) -> {
+            flushing.put(k, write);
+            size.decrementAndGet();
+            taken[0] = write;
+            return null;
+        });
+        return taken[0];
+    }
+
+    /**
+     * @param key 键
+     * @title: get
+     * @description: //key 上尚未写入 redis 的修改, 没有返回 null
+     * @author: agent
+     * @date: Created in 2026/10/18 10:20
+     * @throws:
+     * @return: com.yll.cache.writebehind.PendingWrite
+     */
+    public PendingWrite get(String key) {
+        if (pending.isEmpty() && flushing.isEmpty()) {
+            return null;
+        }
+        PendingWrite write = pending.get(key);
+        return write != null ? write : flushing.get(key);
+    }
+
+    /**
+     * @param key 键
+     * @title: flush
+     * @description: //立即写入 key 上未写入的修改, 用于不经过缓冲区的修改命令之前, 保证先后顺序
+     * @author: agent
+     * @date: Created in 2026/10/18 10:25
+     * @throws:
+     * @return: void
+     */
+    public void flush(String key) {
+        if (get(key) == null) {
+            return;
+        }
+        flushLock.lock();
+        try {
+            PendingWrite write = take(key);
+            if (write != null) {
+                write(Collections.singletonMap(key, write));
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * @title: flush
+     * @description: //写入全部缓冲, 每批最多 max-batch 个 key, 一批一次管道往返
+     * @author: agent
+     * @date: Created in 2026/10/18 10:30
+     * @throws:
+     * @return: void
+     */
+    public void flush() {
+        flushLock.lock();
+        try {
+            int rounds = 0;
+            // 失败重新放回的修改留到下一次, 避免 redis 不可用时在这里空转
+            int limit = pending.size() / properties.getMaxBatch() + 1;
+            while (!pending.isEmpty() && rounds++ < limit) {
+                Map<String, PendingWrite> batch = new LinkedHashMap<>();
+                for (String key : pending.keySet()) {
+                    PendingWrite write = take(key);
+                    if (write != null) {
+                        batch.put(key, write);
+                    }
+                    if (batch.size() >= properties.getMaxBatch()) {
+                        break;
+                    }
+                }
+                write(batch);
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.error("Redis occur writeBehindFlushError：", e);
+        }
+    }
+
+    private void requestFlush() {
+        if (scheduler != null && flushRequested.compareAndSet(false, true)) {
+            scheduler.execute(() -> {
+                flushRequested.set(false);
+                flushQuietly();
+            });
+        }
+    }
+
+    /**
+     * 等到有空余容量或超过 deadline, 之后由 tryOffer 重新占用, 被其它线程抢先时再等
+     */
+    private boolean awaitCapacity(long deadline) {
+        requestFlush();
+        capacityLock.lock();
+        try {
+            while (size.get() >= properties.getCapacity()) {
+                long nanos = deadline - System.nanoTime();
+                if (nanos <= 0) {
+                    return false;
+                }
+                notFull.awaitNanos(nanos);
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            capacityLock.unlock();
+        }
+    }
+
+    private void write(Map<String, PendingWrite> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        // 分片时每个节点一个管道, 一个节点失败只重试落在它上面的 key
+        shardRouter.parallel(shardRouter.group(batch.keySet(), Function.identity()), (template, keys) -> {
+            Map<String, PendingWrite> shardBatch = new LinkedHashMap<>();
+            keys.forEach(key -> shardBatch.put(key, batch.get(key)));
+            write(template, shardBatch);
+            return null;
+        });
+    }
+
+    private void write(RedisTemplate<String, Object> template, Map<String, PendingWrite> batch) {
+        try {
+            template.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                    RedisOperations<String, Object> redisOperations = (RedisOperations<String, Object>) operations;
+                    batch.forEach((key, write) -> pipeline(redisOperations, key, write));
+                    return null;
+                }
+            });
+            flushes.increment();
+            flushedKeys.add(batch.size());
+        } catch (RuntimeException e) {
+            // 每个修改都是幂等的, 整批放回重试
+            log.error("Redis occur writeBehindError：keys -> [{}]", batch.size(), e);
+            batch.forEach(this::requeue);
+        } finally {
+            batch.forEach(flushing::remove);
+            // 其它实例可能在写入前读到旧值放进了本地缓存
+            localCache.invalidate(batch.keySet());
+            signalNotFull();
+        }
+    }
+
+    private void pipeline(RedisOperations<String, Object> operations, String key, PendingWrite write) {
+        switch (write.getType()) {
+            case VALUE:
+                if (write.getTime() > 0) {
+                    operations.opsForValue().set(key, write.getValue(), write.getTime(), TimeUnit.SECONDS);
+                } else {
+                    operations.opsForValue().set(key, write.getValue());
+                }
+                break;
+            case HASH:
+                if (write.isReplace()) {
+                    operations.delete(key);
+                }
+                operations.opsForHash().putAll(key, write.getItems());
+                if (write.getTime() > 0) {
+                    operations.expire(key, write.getTime(), TimeUnit.SECONDS);
+                }
+                break;
+            default:
+                if (unlink) {
+                    operations.unlink(key);
+                } else {
+                    operations.delete(key);
+                }
+                break;
+        }
+    }
+
+    private void requeue(String key, PendingWrite write) {
+        if (write.getAttempts() >= properties.getMaxAttempts()) {
+            dropped.increment();
+            log.error("Redis write-behind 放弃写入：key -> [{}]", key);
+            return;
+        }
+        retried.increment();
+        // 重试的修改不受容量限制
+        pending.compute(key, (k, newer) -> {
+            if (newer == null) {
+                size.incrementAndGet();
+                return write.retry();
+            }
+            return write.retry().then(newer);
+        });
+    }
+
+    private void signalNotFull() {
+        capacityLock.lock();
+        try {
+            notFull.signalAll();
+        } finally {
+            capacityLock.unlock();
+        }
+    }
+
+    /**
+     * @title: stats
+     * @description: //延迟写统计
+     * @author: agent
+     * @date: Created in 2026/10/18 10:50
+     * @throws:
+     * @return: java.util.Map<java.lang.String,java.lang.Object>
+     */
+    public Map<String, Object> stats() {
+        long writes = buffered.sum();
+        long keys = flushedKeys.sum();
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("enabled", properties.isEnabled());
+        map.put("pending", pending.size());
+        map.put("buffered", writes);
+        map.put("coalesced", coalesced.sum());
+        map.put("flushes", flushes.sum());
+        map.put("flushedKeys", keys);
+        // 每次写入 redis 平均合并了多少次调用
+        map.put("coalesceRatio", keys == 0 ? 0 : writes / (double) keys);
+        map.put("overflowed", overflowed.sum());
+        map.put("retried", retried.sum());
+        map.put("dropped", dropped.sum());
+        return map;
+    }
+}
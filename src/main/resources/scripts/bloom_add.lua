@@ -0,0 +1,12 @@
+-- 向布隆过滤器位图置位, 只写入已存在的位图: 正式位图只由重建创建, 重建中的位图存在时同时写入
+-- KEYS[1] 正式位图; KEYS[2] 重建中的位图; ARGV 位置
+local count = 0
+for k = 1, 2 do
+    if redis.call('EXISTS', KEYS[k]) == 1 then
+        for i = 1, #ARGV do
+            redis.call('SETBIT', KEYS[k], ARGV[i], 1)
+        end
+        count = count + 1
+    end
+end
+return count
@@ -0,0 +1,12 @@
+-- 重建完成: 扫描结果并上重建期间写入的位, 替换正式位图
+-- KEYS[1] 正式位图; KEYS[2] 重建中的位图; KEYS[3] 扫描结果
+if redis.call('EXISTS', KEYS[3]) == 0 then
+    return 0
+end
+if redis.call('EXISTS', KEYS[2]) == 1 then
+    redis.call('BITOP', 'OR', KEYS[3], KEYS[3], KEYS[2])
+    redis.call('DEL', KEYS[2])
+end
+redis.call('PERSIST', KEYS[3])
+redis.call('RENAME', KEYS[3], KEYS[1])
+return 1
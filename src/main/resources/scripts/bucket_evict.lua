@@ -0,0 +1,6 @@
+-- 删除桶中已过期的字段, 值已被改写时不删除
+-- KEYS[1] 桶; ARGV[1] 字段; ARGV[2] 读到的过期值
+if redis.call('HGET', KEYS[1], ARGV[1]) == ARGV[2] then
+    return redis.call('HDEL', KEYS[1], ARGV[1])
+end
+return 0
@@ -0,0 +1,15 @@
+-- 向桶写入一个字段并维护桶的过期时间, 一次往返且原子执行
+-- 字段自己的过期时间编码在值里; 桶的过期时间取所有字段中最晚的, 有永久字段时桶不过期
+-- KEYS[1] 桶; ARGV[1] 字段; ARGV[2] 值; ARGV[3] 时间(秒), 小于等于0 表示永久
+local existed = redis.call('EXISTS', KEYS[1])
+redis.call('HSET', KEYS[1], ARGV[1], ARGV[2])
+local ttl = tonumber(ARGV[3])
+if ttl > 0 then
+    local current = redis.call('TTL', KEYS[1])
+    if existed == 0 or (current > 0 and current < ttl) then
+        redis.call('EXPIRE', KEYS[1], ttl)
+    end
+else
+    redis.call('PERSIST', KEYS[1])
+end
+return 1
@@ -0,0 +1,10 @@
+-- 写入 hash 并设置过期时间, 一次往返且原子执行
+-- KEYS[1] 键; ARGV[1] 时间(秒); ARGV[2..] 依次为 item, value
+local step = 1000
+for i = 2, #ARGV, step do
+    redis.call('HMSET', KEYS[1], unpack(ARGV, i, math.min(i + step - 1, #ARGV)))
+end
+if tonumber(ARGV[1]) > 0 then
+    redis.call('EXPIRE', KEYS[1], ARGV[1])
+end
+return 1
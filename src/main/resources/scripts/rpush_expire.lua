@@ -0,0 +1,11 @@
+-- 向 list 尾部写入并设置过期时间, 一次往返且原子执行
+-- KEYS[1] 键; ARGV[1] 时间(秒); ARGV[2..] 值
+local step = 1000
+local size = 0
+for i = 2, #ARGV, step do
+    size = redis.call('RPUSH', KEYS[1], unpack(ARGV, i, math.min(i + step - 1, #ARGV)))
+end
+if tonumber(ARGV[1]) > 0 then
+    redis.call('EXPIRE', KEYS[1], ARGV[1])
+end
+return size
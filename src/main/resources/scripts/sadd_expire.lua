@@ -0,0 +1,11 @@
+-- 向 set 写入并设置过期时间, 一次往返且原子执行
+-- KEYS[1] 键; ARGV[1] 时间(秒); ARGV[2..] 值
+local step = 1000
+local count = 0
+for i = 2, #ARGV, step do
+    count = count + redis.call('SADD', KEYS[1], unpack(ARGV, i, math.min(i + step - 1, #ARGV)))
+end
+if tonumber(ARGV[1]) > 0 then
+    redis.call('EXPIRE', KEYS[1], ARGV[1])
+end
+return count
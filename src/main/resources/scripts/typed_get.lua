@@ -0,0 +1,63 @@
+-- 按 key 的类型读取内容, 一次往返
+-- KEYS[1] 键; ARGV[1] 起始位置; ARGV[2] 结束位置(包含), 小于 0 表示到最后
+-- 返回 {类型, 元素总个数, 内容...}: string 为值; list/set 为元素; hash 为 item, value 交替; zset 为 member, score 交替
+-- 不存在时类型为 none. list/zset 的位置与 LRANGE/ZRANGE 相同, 支持负数;
+-- hash/set 没有下标, 按 HSCAN/SSCAN 的遍历顺序取第 start 到 end 个, 取够即停, 负数的 start 按 0 处理
+local key = KEYS[1]
+local start = tonumber(ARGV[1])
+local stop = tonumber(ARGV[2])
+local kind = redis.call('TYPE', key)['ok']
+local result = {kind}
+
+local function append(values)
+    for i = 1, #values do
+        result[#result + 1] = values[i]
+    end
+end
+
+local function scan(command, width)
+    local first = math.max(start, 0)
+    local cursor = '0'
+    local index = 0
+    repeat
+        local page = redis.call(command, key, cursor, 'COUNT', 100)
+        cursor = page[1]
+        local values = page[2]
+        for i = 1, #values, width do
+            if index >= first and (stop < 0 or index <= stop) then
+                for j = 0, width - 1 do
+                    result[#result + 1] = values[i + j]
+                end
+            end
+            index = index + 1
+        end
+    until cursor == '0' or (stop >= 0 and index > stop)
+end
+
+if kind == 'string' then
+    result[2] = '1'
+    result[3] = redis.call('GET', key)
+elseif kind == 'list' then
+    result[2] = tostring(redis.call('LLEN', key))
+    append(redis.call('LRANGE', key, start, stop))
+elseif kind == 'zset' then
+    result[2] = tostring(redis.call('ZCARD', key))
+    append(redis.call('ZRANGE', key, start, stop, 'WITHSCORES'))
+elseif kind == 'hash' then
+    result[2] = tostring(redis.call('HLEN', key))
+    if start <= 0 and stop < 0 then
+        append(redis.call('HGETALL', key))
+    else
+        scan('HSCAN', 2)
+    end
+elseif kind == 'set' then
+    result[2] = tostring(redis.call('SCARD', key))
+    if start <= 0 and stop < 0 then
+        append(redis.call('SMEMBERS', key))
+    else
+        scan('SSCAN', 1)
+    end
+else
+    result[2] = '0'
+end
+return result
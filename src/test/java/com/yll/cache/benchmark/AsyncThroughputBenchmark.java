@@ -0,0 +1,81 @@
+package com.yll.cache.benchmark;
+
+import com.yll.cache.utils.AsyncRedisUtils;
+import com.yll.cache.utils.RedisUtils;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @className: AsyncThroughputBenchmark
+ * @description: //并发压力下阻塞与异步的吞吐对比, 每次操作读取 fanOut 个 key:
+ * 阻塞方式依次读取, 异步方式同时发出后一起等待. 需要本地 6379 端口的 redis 或 -Dbenchmark.redis-server, 见 BenchmarkRedis
+ * @author: agent
+ * @date: Created in 2026/10/18 14:00
+ * @modify by: agent
+ * @version: V1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(16)
+@Fork(1)
+public class AsyncThroughputBenchmark {
+
+    @Param({"1", "20"})
+    public int fanOut;
+
+    private ConfigurableApplicationContext context;
+    private RedisUtils redisUtils;
+    private AsyncRedisUtils asyncRedisUtils;
+    private String[] keys;
+
+    @Setup
+    public void setup() {
+        context = BenchmarkRedis.start();
+        redisUtils = context.getBean(RedisUtils.class);
+        asyncRedisUtils = context.getBean(AsyncRedisUtils.class);
+        keys = new String[fanOut];
+        for (int i = 0; i < fanOut; i++) {
+            keys[i] = "bench:async:" + i;
+            redisUtils.set(keys[i], "value" + i);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        redisUtils.del(keys);
+        context.close();
+    }
+
+    @Benchmark
+    public void blocking(Blackhole blackhole) {
+        for (String key : keys) {
+            blackhole.consume(redisUtils.get(key));
+        }
+    }
+
+    @Benchmark
+    public void async(Blackhole blackhole) {
+        CompletableFuture<?>[] futures = new CompletableFuture[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            futures[i] = asyncRedisUtils.get(keys[i]);
+        }
+        CompletableFuture.allOf(futures).join();
+        for (CompletableFuture<?> future : futures) {
+            blackhole.consume(future.join());
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(AsyncThroughputBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,168 @@
+package com.yll.cache.benchmark;
+
+import com.yll.cache.Y2lcacheApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.event.ContextClosedEvent;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @className: BenchmarkRedis
+ * @description: //基准测试用的 redis 和 spring 上下文
+ * 默认连接 application.yml 中配置的 redis; 指定 -Dbenchmark.redis-server=redis-server 可执行文件路径时,
+ * 在随机端口启动一个不落盘的 redis-server, 上下文关闭时一起停掉, 保证每次测试从干净的实例开始;
+ * 再指定 -Dbenchmark.shards=n 时另外启动 n 个 redis-server 作为 y2lcache.sharding 的分片节点,
+ * 指定 -Dbenchmark.replicas=n 时另外启动 n 个 redis-server 作为默认节点的从节点并开启 y2lcache.replica
+ * @author: agent
+ * @date: Created in 2026/10/18 9:30
+ * @modify by: agent
+ * @version: V1.0
+ */
+public final class BenchmarkRedis {
+
+    private static final String SERVER_PROPERTY = "benchmark.redis-server";
+    private static final String SHARDS_PROPERTY = "benchmark.shards";
+    private static final String REPLICAS_PROPERTY = "benchmark.replicas";
+
+    private BenchmarkRedis() {
+    }
+
+    /**
+     * @param args 额外的 spring 启动参数, 如 --y2lcache.serializer.type=compact
+     * @title: start
+     * @description: //启动不带 web 的 spring 上下文, 按需先启动 redis-server
+     * @author: agent
+     * @date: Created in 2026/10/18 9:40
+     * @throws:
+     * @return: org.springframework.context.ConfigurableApplicationContext
+     */
+    public static ConfigurableApplicationContext start(String... args) {
+        return start(Integer.getInteger(SHARDS_PROPERTY, 0), Integer.getInteger(REPLICAS_PROPERTY, 0), args);
+    }
+
+    /**
+     * @param shards 分片节点个数, 大于 0 时需要 -Dbenchmark.redis-server
+     * @param args   额外的 spring 启动参数
+     * @title: start
+     * @description: //启动不带 web 的 spring 上下文, 并启动默认节点和 shards 个分片节点
+     * @author: agent
+     * @date: Created in 2026/10/18 11:00
+     * @throws:
+     * @return: org.springframework.context.ConfigurableApplicationContext
+     */
+    public static ConfigurableApplicationContext start(int shards, String... args) {
+        return start(shards, 0, args);
+    }
+
+    /**
+     * @param replicas 默认节点的从节点个数, 大于 0 时需要 -Dbenchmark.redis-server
+     * @param args     额外的 spring 启动参数, 如 --y2lcache.replica.read-from=nearest
+     * @title: startWithReplicas
+     * @description: //启动不带 web 的 spring 上下文, 并启动默认节点和 replicas 个从节点
+     * @author: agent
+     * @date: Created in 2026/10/18 11:10
+     * @throws:
+     * @return: org.springframework.context.ConfigurableApplicationContext
+     */
+    public static ConfigurableApplicationContext startWithReplicas(int replicas, String... args) {
+        return start(0, replicas, args);
+    }
+
+    private static ConfigurableApplicationContext start(int shards, int replicas, String... args) {
+        String server = System.getProperty(SERVER_PROPERTY);
+        if (server == null || server.isEmpty()) {
+            if (shards > 0 || replicas > 0) {
+                throw new IllegalStateException("分片和从节点测试需要指定 -D" + SERVER_PROPERTY);
+            }
+            return new SpringApplicationBuilder(Y2lcacheApplication.class).web(WebApplicationType.NONE).run(args);
+        }
+        List<Process> processes = new ArrayList<>();
+        List<String> all = new ArrayList<>(Arrays.asList(args));
+        ConfigurableApplicationContext context;
+        try {
+            int port = freePort();
+            processes.add(launch(server, port));
+            all.add("--spring.redis.host=127.0.0.1");
+            all.add("--spring.redis.port=" + port);
+            if (shards > 0) {
+                all.add("--y2lcache.sharding.enabled=true");
+                for (int i = 0; i < shards; i++) {
+                    int shardPort = freePort();
+                    processes.add(launch(server, shardPort));
+                    all.add("--y2lcache.sharding.nodes[" + i + "].name=shard-" + i);
+                    all.add("--y2lcache.sharding.nodes[" + i + "].host=127.0.0.1");
+                    all.add("--y2lcache.sharding.nodes[" + i + "].port=" + shardPort);
+                }
+            }
+            if (replicas > 0) {
+                all.add("--y2lcache.replica.enabled=true");
+                for (int i = 0; i < replicas; i++) {
+                    int replicaPort = freePort();
+                    processes.add(launch(server, replicaPort, "--slaveof", "127.0.0.1", String.valueOf(port)));
+                    all.add("--y2lcache.replica.nodes[" + i + "].host=127.0.0.1");
+                    all.add("--y2lcache.replica.nodes[" + i + "].port=" + replicaPort);
+                }
+            }
+            context = new SpringApplicationBuilder(Y2lcacheApplication.class).web(WebApplicationType.NONE)
+                    .run(all.toArray(new String[0]));
+        } catch (RuntimeException e) {
+            processes.forEach(Process::destroyForcibly);
+            throw e;
+        }
+        context.addApplicationListener(event -> {
+            if (event instanceof ContextClosedEvent) {
+                processes.forEach(Process::destroy);
+            }
+        });
+        return context;
+    }
+
+    private static Process launch(String server, int port, String... extra) {
+        try {
+            List<String> command = new ArrayList<>(Arrays.asList(server, "--port", String.valueOf(port), "--bind", "127.0.0.1",
+                    "--save", "", "--appendonly", "no"));
+            command.addAll(Arrays.asList(extra));
+            Process process = new ProcessBuilder(command)
+                    .redirectErrorStream(true)
+                    .redirectOutput(new File(System.getProperty("java.io.tmpdir"), "benchmark-redis-" + port + ".log"))
+                    .start();
+            long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+            while (System.currentTimeMillis() < deadline) {
+                try (Socket socket = new Socket()) {
+                    socket.connect(new InetSocketAddress("127.0.0.1", port), 200);
+                    return process;
+                } catch (IOException e) {
+                    if (!process.isAlive()) {
+                        throw new IllegalStateException("redis-server 启动失败, 退出码 " + process.exitValue());
+                    }
+                    Thread.sleep(50);
+                }
+            }
+            process.destroyForcibly();
+            throw new IllegalStateException("redis-server 启动超时：port -> [" + port + "]");
+        } catch (IOException e) {
+            throw new IllegalStateException("redis-server 启动失败：" + server, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("redis-server 启动被中断", e);
+        }
+    }
+
+    private static int freePort() {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        } catch (IOException e) {
+            throw new IllegalStateException("没有可用端口", e);
+        }
+    }
+}
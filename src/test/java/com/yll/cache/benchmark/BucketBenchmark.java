@@ -0,0 +1,71 @@
+package com.yll.cache.benchmark;
+
+import com.yll.cache.bucket.BucketStore;
+import com.yll.cache.utils.RedisUtils;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @className: BucketBenchmark
+ * @description: //独立 key 与分桶存储的读写耗时; bucket=true 时启动后先打印一次内存报告(每个 key 的内存前后对比).
+ * 需要 -Dbenchmark.redis-server, 见 BenchmarkRedis
+ * @author: agent
+ * @date: Created in 2026/10/18 11:20
+ * @modify by: agent
+ * @version: V1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BucketBenchmark {
+
+    private static final int KEYS = 10000;
+
+    @Param({"false", "true"})
+    public boolean bucket;
+
+    private ConfigurableApplicationContext context;
+    private RedisUtils redisUtils;
+
+    @Setup
+    public void setup() {
+        context = BenchmarkRedis.start("--y2lcache.bucket.enabled=" + bucket,
+                "--y2lcache.bucket.key-prefixes=bench:tiny:", "--y2lcache.bucket.buckets=128");
+        redisUtils = context.getBean(RedisUtils.class);
+        for (int i = 0; i < KEYS; i++) {
+            redisUtils.set("bench:tiny:" + i, (long) i, 3600);
+        }
+        if (bucket) {
+            System.out.println(context.getBean(BucketStore.class).report(100000, 1L, 100, 3600));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Object get() {
+        return redisUtils.get("bench:tiny:" + ThreadLocalRandom.current().nextInt(KEYS));
+    }
+
+    @Benchmark
+    public boolean set() {
+        int i = ThreadLocalRandom.current().nextInt(KEYS);
+        return redisUtils.set("bench:tiny:" + i, (long) i, 3600);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(BucketBenchmark.class.getSimpleName()).build()).run();
+    }
+}
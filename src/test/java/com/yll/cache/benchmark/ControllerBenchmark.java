@@ -0,0 +1,104 @@
+package com.yll.cache.benchmark;
+
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.JSONObject;
+import com.yll.cache.controller.TestController;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.http.ResponseEntity;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @className: ControllerBenchmark
+ * @description: ///cache/add 的处理路径: 请求体由 fastjson 解析成 JSONObject, 再由 redis value 序列化器写成字节.
+ * parse/serialize 不访问 redis, 单独给出转换本身的开销; setCache/getCache 为包含 redis 往返的完整路径,
+ * setCacheRaw/getCacheRaw 为原样模式的完整路径, 加 -prof gc 对比每次请求的分配量
+ * 需要本地 6379 端口的 redis 或 -Dbenchmark.redis-server, 见 BenchmarkRedis
+ * @author: agent
+ * @date: Created in 2026/10/18 10:40
+ * @modify by: agent
+ * @version: V1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ControllerBenchmark {
+
+    @Param({"string", "user", "map", "list"})
+    public String payload;
+
+    private ConfigurableApplicationContext context;
+    private TestController controller;
+    private RedisSerializer<Object> serializer;
+    private String body;
+    private JSONObject parsed;
+    private byte[] rawBody;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setup() {
+        context = BenchmarkRedis.start();
+        controller = context.getBean(TestController.class);
+        serializer = (RedisSerializer<Object>) context.getBean("redisTemplate", RedisTemplate.class).getValueSerializer();
+        JSONObject request = new JSONObject();
+        request.put("key", "bench:controller");
+        request.put("value", SerializerBenchmark.payload(payload));
+        request.put("time", 300);
+        body = request.toJSONString();
+        parsed = JSON.parseObject(body);
+        rawBody = JSON.toJSONBytes(parsed.get("value"));
+        controller.setCache(parsed);
+        controller.setCacheRaw("bench:controller:raw", null, 300L, rawBody);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.getBean("redisTemplate", RedisTemplate.class).delete(Arrays.asList("bench:controller", "bench:controller:raw"));
+        context.close();
+    }
+
+    @Benchmark
+    public JSONObject parse() {
+        return JSON.parseObject(body);
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        return serializer.serialize(parsed.get("value"));
+    }
+
+    @Benchmark
+    public boolean setCache() {
+        return controller.setCache(JSON.parseObject(body));
+    }
+
+    @Benchmark
+    public String getCache() {
+        // 不传类型, 服务端按实际类型读取
+        return controller.getCache("bench:controller", null, null, 0, -1);
+    }
+
+    @Benchmark
+    public boolean setCacheRaw() {
+        return controller.setCacheRaw("bench:controller:raw", null, 300L, rawBody);
+    }
+
+    @Benchmark
+    public ResponseEntity<byte[]> getCacheRaw() {
+        return controller.getCacheRaw("bench:controller:raw", null);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ControllerBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,64 @@
+package com.yll.cache.benchmark;
+
+import com.yll.cache.utils.RedisUtils;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @className: CounterBenchmark
+ * @description: //多线程对几百个计数器 incr/hincr 的吞吐: aggregate=false 每次一个往返, true 为本地聚合后定时写入.
+ * 需要 -Dbenchmark.redis-server, 见 BenchmarkRedis
+ * @author: agent
+ * @date: Created in 2026/10/18 11:00
+ * @modify by: agent
+ * @version: V1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(16)
+@Fork(1)
+public class CounterBenchmark {
+
+    private static final int COUNTERS = 300;
+
+    @Param({"false", "true"})
+    public boolean aggregate;
+
+    private ConfigurableApplicationContext context;
+    private RedisUtils redisUtils;
+
+    @Setup
+    public void setup() {
+        context = BenchmarkRedis.start("--y2lcache.counter.enabled=" + aggregate,
+                "--y2lcache.counter.key-prefixes=bench:counter:", "--y2lcache.counter.flush-interval=100ms");
+        redisUtils = context.getBean(RedisUtils.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public long incr() {
+        return redisUtils.incr("bench:counter:" + ThreadLocalRandom.current().nextInt(COUNTERS), 1);
+    }
+
+    @Benchmark
+    public double hincr() {
+        return redisUtils.hincr("bench:counter:hash", "item" + ThreadLocalRandom.current().nextInt(COUNTERS), 1);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(CounterBenchmark.class.getSimpleName()).build()).run();
+    }
+}
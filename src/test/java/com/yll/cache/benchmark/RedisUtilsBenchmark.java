@@ -0,0 +1,124 @@
+package com.yll.cache.benchmark;
+
+import com.yll.cache.utils.RedisUtils;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @className: RedisUtilsBenchmark
+ * @description: //RedisUtils 主要读写操作的基线, small 为单个短字符串, large 为约 64KB 的 map/list
+ * 需要本地 6379 端口的 redis 或 -Dbenchmark.redis-server, 见 BenchmarkRedis
+ * @author: agent
+ * @date: Created in 2026/10/18 10:10
+ * @modify by: agent
+ * @version: V1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RedisUtilsBenchmark {
+
+    private static final long TIME = 300;
+
+    @Param({"small", "large"})
+    public String payload;
+
+    @Param({"jackson", "compact"})
+    public String serializer;
+
+    private ConfigurableApplicationContext context;
+    private RedisUtils redisUtils;
+    private Object value;
+    private Map<String, Object> map;
+    private List<Object> list;
+    private Object[] members;
+
+    @Setup
+    public void setup() {
+        context = BenchmarkRedis.start("--y2lcache.serializer.type=" + serializer);
+        redisUtils = context.getBean(RedisUtils.class);
+        int count = "small".equals(payload) ? 1 : 1024;
+        // 每个元素约 64 字节
+        char[] chars = new char[48];
+        Arrays.fill(chars, 'v');
+        String filler = new String(chars);
+        map = new HashMap<>();
+        list = new ArrayList<>();
+        members = new Object[count];
+        for (int i = 0; i < count; i++) {
+            map.put("item" + i, filler + i);
+            list.add(filler + i);
+            members[i] = filler + i;
+        }
+        value = "small".equals(payload) ? "demo1value" : map;
+        redisUtils.set("bench:get", value);
+        redisUtils.hmset("bench:hmget", map);
+        redisUtils.hset("bench:hget", "item", value);
+    }
+
+    @Setup(Level.Iteration)
+    public void clean() {
+        // list 和 set 每次写入都会变长, 每轮重新开始
+        redisUtils.del("bench:lset", "bench:sset");
+    }
+
+    @TearDown
+    public void tearDown() {
+        redisUtils.del("bench:get", "bench:set", "bench:hset", "bench:hget", "bench:hmget", "bench:hmset",
+                "bench:lset", "bench:sset");
+        context.close();
+    }
+
+    @Benchmark
+    public Object get() {
+        return redisUtils.get("bench:get");
+    }
+
+    @Benchmark
+    public boolean set() {
+        return redisUtils.set("bench:set", value, TIME);
+    }
+
+    @Benchmark
+    public boolean hset() {
+        return redisUtils.hset("bench:hset", "item", value, TIME);
+    }
+
+    @Benchmark
+    public Object hget() {
+        return redisUtils.hget("bench:hget", "item");
+    }
+
+    @Benchmark
+    public boolean hmset() {
+        return redisUtils.hmset("bench:hmset", map, TIME);
+    }
+
+    @Benchmark
+    public Map<Object, Object> hmget() {
+        return redisUtils.hmget("bench:hmget");
+    }
+
+    @Benchmark
+    public boolean lSet() {
+        return redisUtils.lSet("bench:lset", list, TIME);
+    }
+
+    @Benchmark
+    public long sSet() {
+        return redisUtils.sSetAndTime("bench:sset", TIME, members);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(RedisUtilsBenchmark.class.getSimpleName()).build()).run();
+    }
+}
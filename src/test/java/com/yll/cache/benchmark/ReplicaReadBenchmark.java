@@ -0,0 +1,67 @@
+package com.yll.cache.benchmark;
+
+import com.yll.cache.utils.RedisUtils;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @className: ReplicaReadBenchmark
+ * @description: //不同 read-from 策略下的读取耗时, 主节点加一个从节点.
+ * 需要 -Dbenchmark.redis-server, 每组参数各自启动主从两个 redis-server, 见 BenchmarkRedis
+ * @author: agent
+ * @date: Created in 2026/10/18 11:20
+ * @modify by: agent
+ * @version: V1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReplicaReadBenchmark {
+
+    private static final String KEY = "bench:replica";
+
+    @Param({"master", "replica-preferred", "nearest"})
+    public String readFrom;
+
+    private ConfigurableApplicationContext context;
+    private RedisUtils redisUtils;
+
+    @Setup
+    public void setup() throws InterruptedException {
+        context = BenchmarkRedis.startWithReplicas(1, "--y2lcache.replica.read-from=" + readFrom);
+        redisUtils = context.getBean(RedisUtils.class);
+        redisUtils.set(KEY, "value");
+        // 等从节点完成同步
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+        while (redisUtils.get(KEY) == null && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Object get() {
+        return redisUtils.get(KEY);
+    }
+
+    @Benchmark
+    public boolean hasKey() {
+        return redisUtils.hasKey(KEY);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ReplicaReadBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,113 @@
+package com.yll.cache.benchmark;
+
+import com.yll.cache.config.RedisConfiguration;
+import com.yll.cache.config.Y2lCacheProperties;
+import com.yll.cache.serializer.CompressionStats;
+import lombok.Data;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @className: SerializerBenchmark
+ * @description: //value 序列化方式对比, ns/op 由 jmh 给出, bytes/op 在 main 中先打印
+ * 不需要 redis
+ * @author: agent
+ * @date: Created in 2026/10/18 11:10
+ * @modify by: agent
+ * @version: V1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializerBenchmark {
+
+    @Param({"jackson", "compact"})
+    public String type;
+
+    @Param({"string", "user", "map", "list"})
+    public String payload;
+
+    private RedisSerializer<Object> serializer;
+    private Object value;
+    private byte[] bytes;
+
+    @Setup
+    public void setup() throws ClassNotFoundException {
+        serializer = serializer(type);
+        value = payload(payload);
+        bytes = serializer.serialize(value);
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        return serializer.serialize(value);
+    }
+
+    @Benchmark
+    public Object deserialize() {
+        return serializer.deserialize(bytes);
+    }
+
+    static RedisSerializer<Object> serializer(String type) throws ClassNotFoundException {
+        Y2lCacheProperties properties = new Y2lCacheProperties();
+        properties.getSerializer().setType(type);
+        properties.getSerializer().getClassIds().put(1, User.class.getName());
+        return new RedisConfiguration().redisValueSerializer(properties, new CompressionStats());
+    }
+
+    static Object payload(String payload) {
+        switch (payload) {
+            case "string":
+                return "demo1value";
+            case "user":
+                return user(1);
+            case "map": {
+                Map<String, Object> map = new HashMap<>();
+                for (int i = 0; i < 50; i++) {
+                    map.put("key" + i, i % 2 == 0 ? "value" + i : user(i));
+                }
+                return map;
+            }
+            default: {
+                List<Object> list = new ArrayList<>();
+                for (int i = 0; i < 100; i++) {
+                    list.add(user(i));
+                }
+                return list;
+            }
+        }
+    }
+
+    private static User user(int id) {
+        User user = new User();
+        user.setId(id);
+        user.setName("张三" + id);
+        user.setAge(24);
+        return user;
+    }
+
+    @Data
+    public static class User {
+        private Integer id;
+        private String name;
+        private Integer age;
+    }
+
+    public static void main(String[] args) throws RunnerException, ClassNotFoundException {
+        for (String payload : new String[]{"string", "user", "map", "list"}) {
+            int jackson = serializer("jackson").serialize(payload(payload)).length;
+            int compact = serializer("compact").serialize(payload(payload)).length;
+            System.out.printf("%-8s bytes/op  jackson=%-6d compact=%-6d (%.0f%%)%n", payload, jackson, compact, compact * 100.0 / jackson);
+        }
+        new Runner(new OptionsBuilder().include(SerializerBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,76 @@
+package com.yll.cache.benchmark;
+
+import com.yll.cache.utils.RedisUtils;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @className: ShardingBenchmark
+ * @description: //客户端分片下多 key 操作的耗时: shards=0 为单节点, 其它为按节点拆分后并行执行.
+ * 需要 -Dbenchmark.redis-server, 每组参数各自启动 1 + shards 个 redis-server, 见 BenchmarkRedis
+ * @author: agent
+ * @date: Created in 2026/10/18 11:10
+ * @modify by: agent
+ * @version: V1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ShardingBenchmark {
+
+    @Param({"0", "3"})
+    public int shards;
+
+    @Param({"10", "100"})
+    public int size;
+
+    private ConfigurableApplicationContext context;
+    private RedisUtils redisUtils;
+    private Map<String, Object> map;
+    private List<String> keys;
+
+    @Setup
+    public void setup() {
+        context = BenchmarkRedis.start(shards);
+        redisUtils = context.getBean(RedisUtils.class);
+        map = new LinkedHashMap<>();
+        for (int i = 0; i < size; i++) {
+            map.put("bench:shard:" + i, "value" + i);
+        }
+        keys = new ArrayList<>(map.keySet());
+        redisUtils.mset(map);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Object> mget() {
+        return redisUtils.mget(keys);
+    }
+
+    @Benchmark
+    public boolean mset() {
+        return redisUtils.mset(map);
+    }
+
+    @Benchmark
+    public boolean msetWithTime() {
+        return redisUtils.mset(map, 60);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ShardingBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,116 @@
+package com.yll.cache.benchmark;
+
+import com.yll.cache.utils.RedisUtils;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @className: WriteWithTimeBenchmark
+ * @description: //带时间写入的对比: 原来的写入 + expire 两次往返, 与现在的 lua 脚本一次往返
+ * 需要本地 6379 端口的 redis 或 -Dbenchmark.redis-server, 见 BenchmarkRedis
+ * @author: agent
+ * @date: Created in 2026/10/18 11:00
+ * @modify by: agent
+ * @version: V1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WriteWithTimeBenchmark {
+
+    private static final long TIME = 60;
+
+    @Param({"1", "100"})
+    public int size;
+
+    private ConfigurableApplicationContext context;
+    private RedisUtils redisUtils;
+    private RedisTemplate<String, Object> redisTemplate;
+    private Map<String, Object> map;
+    private Object[] members;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setup() {
+        context = BenchmarkRedis.start();
+        redisUtils = context.getBean(RedisUtils.class);
+        redisTemplate = context.getBean("redisTemplate", RedisTemplate.class);
+        map = new HashMap<>();
+        members = new Object[size];
+        for (int i = 0; i < size; i++) {
+            map.put("item" + i, "value" + i);
+            members[i] = "member" + i;
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void clean() {
+        // list 每次写入都会变长, 每轮重新开始
+        redisTemplate.delete(Arrays.asList("bench:lset:old", "bench:lset:new"));
+    }
+
+    @TearDown
+    public void tearDown() {
+        redisTemplate.delete(Arrays.asList("bench:hmset:old", "bench:hmset:new", "bench:hset:old", "bench:hset:new",
+                "bench:sset:old", "bench:sset:new", "bench:lset:old", "bench:lset:new"));
+        context.close();
+    }
+
+    @Benchmark
+    public Boolean hmsetThenExpire() {
+        redisTemplate.opsForHash().putAll("bench:hmset:old", map);
+        return redisTemplate.expire("bench:hmset:old", TIME, TimeUnit.SECONDS);
+    }
+
+    @Benchmark
+    public boolean hmsetScript() {
+        return redisUtils.hmset("bench:hmset:new", map, TIME);
+    }
+
+    @Benchmark
+    public Boolean hsetThenExpire() {
+        redisTemplate.opsForHash().put("bench:hset:old", "item", "value");
+        return redisTemplate.expire("bench:hset:old", TIME, TimeUnit.SECONDS);
+    }
+
+    @Benchmark
+    public boolean hsetScript() {
+        return redisUtils.hset("bench:hset:new", "item", "value", TIME);
+    }
+
+    @Benchmark
+    public Boolean sSetThenExpire() {
+        redisTemplate.opsForSet().add("bench:sset:old", members);
+        return redisTemplate.expire("bench:sset:old", TIME, TimeUnit.SECONDS);
+    }
+
+    @Benchmark
+    public long sSetScript() {
+        return redisUtils.sSetAndTime("bench:sset:new", TIME, members);
+    }
+
+    @Benchmark
+    public Boolean lSetThenExpire() {
+        redisTemplate.opsForList().rightPush("bench:lset:old", "value");
+        return redisTemplate.expire("bench:lset:old", TIME, TimeUnit.SECONDS);
+    }
+
+    @Benchmark
+    public boolean lSetScript() {
+        return redisUtils.lSet("bench:lset:new", "value", TIME);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(WriteWithTimeBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,88 @@
+package com.yll.cache.bloom;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * @className: BloomBitsTest
+ * @description: //位的排列与 redis SETBIT 相同: offset 0 是第一个字节的最高位
+ * @author: agent
+ * @date: Created in 2026/10/18 16:00
+ * @modify by: agent
+ * @version: V1.0
+ */
+public class BloomBitsTest {
+
+    @Test
+    public void bitOrderMatchesSetbit() {
+        BloomBits bits = new BloomBits(100, 1);
+        // SETBIT key 0 1 / SETBIT key 9 1 / SETBIT key 63 1 / SETBIT key 64 1 / SETBIT key 99 1
+        bits.set(new long[]{0, 9, 63, 64, 99});
+        byte[] expected = new byte[13];
+        expected[0] = (byte) 0x80;
+        expected[1] = 0x40;
+        expected[7] = 0x01;
+        expected[8] = (byte) 0x80;
+        expected[12] = 0x10;
+        assertArrayEquals(expected, bits.toBytes());
+    }
+
+    @Test
+    public void fromBytesReadsRedisBitmap() {
+        // GET 得到的位图, 第 3 个字节 0x01 即 offset 23
+        byte[] redis = {(byte) 0x80, 0, 0x01};
+        BloomBits bits = BloomBits.fromBytes(128, 1, redis);
+        assertTrue(bits.contains(new long[]{0}));
+        assertTrue(bits.contains(new long[]{23}));
+        assertFalse(bits.contains(new long[]{1}));
+        assertFalse(bits.contains(new long[]{22}));
+        // 长度不足的部分按 0 处理
+        assertFalse(bits.contains(new long[]{127}));
+        assertEquals(2 / 128.0, bits.fillRatio(), 0);
+    }
+
+    @Test
+    public void bytesRoundTrip() {
+        BloomBits bits = new BloomBits(1000, 5);
+        for (int i = 0; i < 50; i++) {
+            bits.set(bits.positions("key:" + i));
+        }
+        byte[] bytes = bits.toBytes();
+        assertEquals(125, bytes.length);
+        BloomBits restored = BloomBits.fromBytes(1000, 5, bytes);
+        assertArrayEquals(bytes, restored.toBytes());
+        for (int i = 0; i < 50; i++) {
+            assertTrue(restored.contains(restored.positions("key:" + i)));
+        }
+    }
+
+    @Test
+    public void positionsAreStableAndInRange() {
+        long[] positions = BloomBits.positions(1 << 20, 7, "user:42");
+        assertEquals(7, positions.length);
+        assertArrayEquals(positions, BloomBits.positions(1 << 20, 7, "user:42".getBytes(java.nio.charset.StandardCharsets.UTF_8)));
+        for (long position : positions) {
+            assertTrue(position >= 0 && position < 1 << 20);
+        }
+        assertFalse(Arrays.equals(positions, BloomBits.positions(1 << 20, 7, "user:43")));
+    }
+
+    @Test
+    public void falsePositiveRateIsBounded() {
+        // 每个 key 10 位、7 个位置, 理论误判率约 0.8%
+        BloomBits bits = new BloomBits(100000, 7);
+        for (int i = 0; i < 10000; i++) {
+            bits.set(bits.positions("in:" + i));
+        }
+        int falsePositives = 0;
+        for (int i = 0; i < 10000; i++) {
+            if (bits.contains(bits.positions("out:" + i))) {
+                falsePositives++;
+            }
+        }
+        assertTrue("false positives " + falsePositives, falsePositives < 200);
+    }
+}
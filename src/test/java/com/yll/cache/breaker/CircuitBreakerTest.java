@@ -0,0 +1,149 @@
+package com.yll.cache.breaker;
+
+import com.yll.cache.config.Y2lCacheProperties;
+import org.junit.Test;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * @className: CircuitBreakerTest
+ * @description: //熔断器的状态变化: 失败率达到阈值打开, open-duration 后半开, 半开时只放行 half-open-calls 个调用,
+ * 超过耗时预算的成功调用按失败计
+ * @author: agent
+ * @date: Created in 2026/10/18 17:40
+ * @modify by: agent
+ * @version: V1.0
+ */
+public class CircuitBreakerTest {
+
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(5);
+
+    private static CircuitBreaker breaker(Duration openDuration) {
+        Y2lCacheProperties properties = new Y2lCacheProperties();
+        Y2lCacheProperties.Breaker breaker = properties.getBreaker();
+        breaker.setEnabled(true);
+        breaker.setMinimumCalls(4);
+        breaker.setFailureRateThreshold(0.5);
+        breaker.setOpenDuration(openDuration);
+        breaker.setHalfOpenCalls(2);
+        breaker.setDefaultBudget(Duration.ofMillis(1));
+        breaker.getBudgets().put("keys", Duration.ofSeconds(1));
+        return new CircuitBreaker(properties);
+    }
+
+    private static void open(CircuitBreaker breaker) {
+        for (int i = 0; i < 4; i++) {
+            breaker.onError("get", new QueryTimeoutException("timeout"));
+        }
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    private static void assertRejected(CircuitBreaker breaker) {
+        try {
+            breaker.acquire();
+            fail("熔断打开时应拒绝调用");
+        } catch (RedisCircuitOpenException expected) {
+            // 预期
+        }
+    }
+
+    @Test
+    public void opensWhenFailureRateReachesThreshold() {
+        CircuitBreaker breaker = breaker(Duration.ofMinutes(1));
+        breaker.onSuccess("get", 0);
+        breaker.onSuccess("get", 0);
+        breaker.onError("get", new QueryTimeoutException("timeout"));
+        // 调用次数不足 minimum-calls, 不计算失败率
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        breaker.acquire();
+        breaker.onError("get", new QueryTimeoutException("timeout"));
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertRejected(breaker);
+        assertEquals(1L, breaker.stats().get("rejected"));
+        assertEquals(1L, breaker.stats().get("opened"));
+    }
+
+    @Test
+    public void commandErrorsDoNotCount() {
+        CircuitBreaker breaker = breaker(Duration.ofMinutes(1));
+        for (int i = 0; i < 10; i++) {
+            breaker.onError("get", new InvalidDataAccessApiUsageException("WRONGTYPE"));
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertEquals(0L, breaker.stats().get("failedCalls"));
+    }
+
+    @Test
+    public void halfOpensAfterOpenDuration() throws InterruptedException {
+        CircuitBreaker breaker = breaker(Duration.ofMillis(50));
+        open(breaker);
+        assertRejected(breaker);
+        Thread.sleep(80);
+        breaker.acquire();
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+    }
+
+    @Test
+    public void halfOpenPermitsAreLimited() throws InterruptedException {
+        CircuitBreaker breaker = breaker(Duration.ofMillis(50));
+        open(breaker);
+        Thread.sleep(80);
+        breaker.acquire();
+        breaker.acquire();
+        // half-open-calls 个试探名额已用完
+        assertRejected(breaker);
+        breaker.onSuccess("get", 0);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        breaker.onSuccess("get", 0);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        breaker.acquire();
+    }
+
+    @Test
+    public void halfOpenFailureReopens() throws InterruptedException {
+        CircuitBreaker breaker = breaker(Duration.ofMillis(50));
+        open(breaker);
+        Thread.sleep(80);
+        breaker.acquire();
+        breaker.onError("get", new QueryTimeoutException("timeout"));
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertRejected(breaker);
+        assertEquals(2L, breaker.stats().get("opened"));
+    }
+
+    @Test
+    public void slowCallsCountAsFailures() {
+        CircuitBreaker breaker = breaker(Duration.ofMinutes(1));
+        for (int i = 0; i < 4; i++) {
+            breaker.onSuccess("get", SLOW);
+        }
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertEquals(4L, breaker.stats().get("slowCalls"));
+    }
+
+    @Test
+    public void perCommandBudgetOverridesDefault() {
+        CircuitBreaker breaker = breaker(Duration.ofMinutes(1));
+        for (int i = 0; i < 4; i++) {
+            breaker.onSuccess("keys", SLOW);
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertEquals(0L, breaker.stats().get("slowCalls"));
+    }
+
+    @Test
+    public void disabledBreakerNeverRejects() {
+        Y2lCacheProperties properties = new Y2lCacheProperties();
+        CircuitBreaker breaker = new CircuitBreaker(properties);
+        for (int i = 0; i < 100; i++) {
+            breaker.onError("get", new QueryTimeoutException("timeout"));
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        breaker.acquire();
+    }
+}
@@ -0,0 +1,56 @@
+package com.yll.cache.bucket;
+
+import com.yll.cache.config.Y2lCacheProperties;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * @className: BucketStoreTest
+ * @description: //批量失效和快照导出按 overlaps 判断模式是否会匹配到分桶存储的 key
+ * @author: agent
+ * @date: Created in 2026/10/18 17:30
+ * @modify by: agent
+ * @version: V1.0
+ */
+public class BucketStoreTest {
+
+    private static BucketStore store(boolean enabled) {
+        Y2lCacheProperties properties = new Y2lCacheProperties();
+        properties.getBucket().setEnabled(enabled);
+        properties.getBucket().setKeyPrefixes(Arrays.asList("user:", "sku:"));
+        return new BucketStore(properties);
+    }
+
+    @Test
+    public void patternsReachingBucketedKeysOverlap() {
+        BucketStore store = store(true);
+        assertTrue(store.overlaps("user:*"));
+        assertTrue(store.overlaps("user:1:*"));
+        assertTrue(store.overlaps("us*"));
+        assertTrue(store.overlaps("*"));
+        assertTrue(store.overlaps("sku:[0-9]*"));
+        assertTrue(store.overlaps("user:42"));
+    }
+
+    @Test
+    public void otherPatternsDoNotOverlap() {
+        BucketStore store = store(true);
+        assertFalse(store.overlaps("order:*"));
+        assertFalse(store.overlaps("users*"));
+        assertFalse(store.overlaps("us"));
+        // 转义的通配符按字面比较
+        assertFalse(store.overlaps("\\*user:*"));
+        assertFalse(store(false).overlaps("user:*"));
+    }
+
+    @Test
+    public void bucketsListsEveryBucket() {
+        BucketStore store = store(true);
+        assertEquals(16384, store.buckets().size());
+        assertEquals("bucket:0", store.buckets().get(0));
+        assertTrue(store.buckets().contains(store.bucket("user:42")));
+    }
+}
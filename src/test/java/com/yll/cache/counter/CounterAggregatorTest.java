@@ -0,0 +1,266 @@
+package com.yll.cache.counter;
+
+import com.yll.cache.config.Y2lCacheProperties;
+import com.yll.cache.local.LocalCache;
+import com.yll.cache.sharding.ShardRouter;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * @className: CounterAggregatorTest
+ * @description: //本地聚合的增量: 写入期间的并发累加留到下次写入, 移出本地后的迟到累加仍然写入, discard 等正在进行的写入完成.
+ * ShardRouter 和 RedisTemplate 为 mock, 管道写入累加到内存中的 map, 不需要 redis
+ * @author: agent
+ * @date: Created in 2026/10/18 18:20
+ * @modify by: agent
+ * @version: V1.0
+ */
+public class CounterAggregatorTest {
+
+    private Y2lCacheProperties properties;
+    private RedisTemplate<String, Object> template;
+    private RedisConnection connection;
+    /**
+     * 管道写入后 redis 中的值, hash 项为 key/item
+     */
+    private final Map<String, Number> redis = new ConcurrentHashMap<>();
+    private final List<Object[]> commands = new ArrayList<>();
+    private final AtomicInteger pipelines = new AtomicInteger();
+    /**
+     * 每次管道写入时调用, 可以阻塞
+     */
+    private volatile Runnable onPipeline = () -> {
+    };
+    private ExecutorService executor;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        properties = new Y2lCacheProperties();
+        properties.getCounter().setEnabled(true);
+        properties.getCounter().setKeyPrefixes(Collections.singletonList("c:"));
+        template = mock(RedisTemplate.class);
+        connection = mock(RedisConnection.class);
+        when(connection.incrBy(any(byte[].class), anyLong())).thenAnswer(invocation -> {
+            commands.add(new Object[]{string(invocation.getArgument(0)), invocation.getArgument(1)});
+            return null;
+        });
+        when(connection.hIncrBy(any(byte[].class), any(byte[].class), anyDouble())).thenAnswer(invocation -> {
+            commands.add(new Object[]{string(invocation.getArgument(0)) + "/" + string(invocation.getArgument(1)),
+                    invocation.getArgument(2)});
+            return null;
+        });
+        when(template.executePipelined(any(RedisCallback.class))).thenAnswer(invocation -> {
+            pipelines.incrementAndGet();
+            commands.clear();
+            ((RedisCallback<Object>) invocation.getArgument(0)).doInRedis(connection);
+            onPipeline.run();
+            List<Object> results = new ArrayList<>();
+            for (Object[] command : commands) {
+                results.add(command[1] instanceof Long
+                        ? redis.merge((String) command[0], (Long) command[1], (a, b) -> a.longValue() + b.longValue())
+                        : redis.merge((String) command[0], (Double) command[1], (a, b) -> a.doubleValue() + b.doubleValue()));
+            }
+            return results;
+        });
+        executor = Executors.newCachedThreadPool();
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    private static String string(byte[] bytes) {
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @SuppressWarnings("unchecked")
+    private CounterAggregator aggregator() {
+        CounterAggregator aggregator = new CounterAggregator(properties);
+        aggregator.localCache = mock(LocalCache.class);
+        aggregator.shardRouter = mock(ShardRouter.class);
+        when(aggregator.shardRouter.template(anyString())).thenReturn(template);
+        when(aggregator.shardRouter.group(any(), any())).thenAnswer(invocation -> {
+            Map<RedisTemplate<String, Object>, List<Object>> groups = new LinkedHashMap<>();
+            groups.put(template, new ArrayList<>((Collection<Object>) invocation.getArgument(0)));
+            return groups;
+        });
+        when(aggregator.shardRouter.parallel(any(), any())).thenAnswer(invocation -> {
+            Map<RedisTemplate<String, Object>, List<Object>> groups = invocation.getArgument(0);
+            BiFunction<RedisTemplate<String, Object>, List<Object>, Object> task = invocation.getArgument(1);
+            List<Object> results = new ArrayList<>();
+            groups.forEach((t, items) -> results.add(task.apply(t, items)));
+            return results;
+        });
+        return aggregator;
+    }
+
+    /**
+     * 在后台线程 flush, 管道写入(已取快照)阻塞到 release 完成
+     */
+    private Future<?> blockedFlush(CounterAggregator aggregator, CountDownLatch release) throws InterruptedException {
+        CountDownLatch entered = new CountDownLatch(1);
+        onPipeline = () -> {
+            entered.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        Future<?> future = executor.submit((Runnable) aggregator::flush);
+        assertTrue(entered.await(5, TimeUnit.SECONDS));
+        return future;
+    }
+
+    @Test
+    public void incrementsDuringFlushAreWrittenNextTime() throws Exception {
+        CounterAggregator aggregator = aggregator();
+        assertEquals(10, aggregator.incr("c:1", 10));
+        aggregator.hincr("c:h", "a", 1.5);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<?> flush = blockedFlush(aggregator, release);
+        // 快照之后的累加
+        aggregator.incr("c:1", 5);
+        aggregator.hincr("c:h", "a", 2);
+        release.countDown();
+        flush.get(5, TimeUnit.SECONDS);
+        onPipeline = () -> {
+        };
+        assertEquals(10L, redis.get("c:1"));
+        assertEquals(1.5, redis.get("c:h/a").doubleValue(), 0);
+        // 读取时加上尚未写入的增量
+        assertEquals(15L, aggregator.withPending("c:1", null, 10L));
+        assertEquals(3.5, (double) aggregator.withPending("c:h", "a", 1.5), 0);
+        aggregator.flush();
+        assertEquals(15L, redis.get("c:1"));
+        assertEquals(3.5, redis.get("c:h/a").doubleValue(), 0);
+        assertEquals(10L, aggregator.withPending("c:1", null, 10L));
+        // 写入返回的值作为下次 incr 的基数
+        assertEquals(16, aggregator.incr("c:1", 1));
+    }
+
+    @Test
+    public void concurrentIncrementsAreNotLost() throws Exception {
+        CounterAggregator aggregator = aggregator();
+        int threads = 4;
+        int increments = 5000;
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            executor.execute(() -> {
+                for (int i = 0; i < increments; i++) {
+                    aggregator.incr("c:" + (i % 3), 1);
+                }
+                done.countDown();
+            });
+        }
+        while (!done.await(1, TimeUnit.MILLISECONDS)) {
+            aggregator.flush();
+        }
+        aggregator.flush();
+        long total = 0;
+        for (Number value : redis.values()) {
+            total += value.longValue();
+        }
+        assertEquals((long) threads * increments, total);
+    }
+
+    @Test
+    public void retiredCounterStillFlushesLateIncrement() throws Exception {
+        CounterAggregator aggregator = aggregator();
+        // 第一次 incr 读当前值作为基数, 在这里阻塞: 调用方已拿到计数器, 还没有累加
+        CountDownLatch seeding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicBoolean first = new AtomicBoolean(true);
+        when(template.execute(any(RedisCallback.class))).thenAnswer(invocation -> {
+            if (first.compareAndSet(true, false)) {
+                seeding.countDown();
+                release.await();
+            }
+            return null;
+        });
+        Future<Long> late = executor.submit(() -> aggregator.incr("c:late", 7));
+        assertTrue(seeding.await(5, TimeUnit.SECONDS));
+        // 连续没有增量, 移出本地
+        for (int i = 0; i < 10; i++) {
+            aggregator.flush();
+        }
+        assertEquals(0, aggregator.stats().get("counters"));
+        release.countDown();
+        assertEquals(7L, (long) late.get(5, TimeUnit.SECONDS));
+        // 移出后再观察一轮, 迟到的累加仍然写入
+        aggregator.flush();
+        assertEquals(7L, redis.get("c:late"));
+        assertEquals(1, pipelines.get());
+    }
+
+    @Test
+    public void discardWaitsForRunningFlush() throws Exception {
+        CounterAggregator aggregator = aggregator();
+        aggregator.incr("c:1", 10);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<?> flush = blockedFlush(aggregator, release);
+        aggregator.incr("c:1", 5);
+        Future<?> discard = executor.submit(() -> aggregator.discard("c:1"));
+        Thread.sleep(100);
+        // 正在写入时不能丢弃, 否则之后的删除可能排在这次写入前面
+        assertFalse(discard.isDone());
+        release.countDown();
+        flush.get(5, TimeUnit.SECONDS);
+        discard.get(5, TimeUnit.SECONDS);
+        onPipeline = () -> {
+        };
+        aggregator.flush();
+        assertEquals(10L, redis.get("c:1"));
+        assertEquals(1, pipelines.get());
+        assertEquals(1L, aggregator.stats().get("discarded"));
+    }
+
+    @Test
+    public void discardItemsKeepsOtherItems() {
+        CounterAggregator aggregator = aggregator();
+        aggregator.hincr("c:h", "a", 1);
+        aggregator.hincr("c:h", "b", 2);
+        aggregator.discard("c:h", "a");
+        aggregator.flush();
+        assertNull(redis.get("c:h/a"));
+        assertEquals(2.0, redis.get("c:h/b").doubleValue(), 0);
+    }
+
+    @Test
+    public void flushKeyWritesOnlyThatKey() {
+        CounterAggregator aggregator = aggregator();
+        aggregator.incr("c:1", 1);
+        aggregator.hincr("c:1", "a", 1);
+        aggregator.incr("c:2", 2);
+        aggregator.flush("c:1");
+        assertEquals(1L, redis.get("c:1"));
+        assertEquals(1.0, redis.get("c:1/a").doubleValue(), 0);
+        assertNull(redis.get("c:2"));
+    }
+
+    @Test
+    public void pendingIsIgnoredWhenReadIncludesPendingIsOff() {
+        properties.getCounter().setReadIncludesPending(false);
+        CounterAggregator aggregator = aggregator();
+        aggregator.incr("c:1", 5);
+        assertEquals(100L, aggregator.withPending("c:1", null, 100L));
+    }
+}
@@ -0,0 +1,76 @@
+package com.yll.cache.hotkey;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * @className: CountMinSketchTest
+ * @description: //count-min 的估计值不小于真实次数, 衰减后减半
+ * @author: agent
+ * @date: Created in 2026/10/18 15:40
+ * @modify by: agent
+ * @version: V1.0
+ */
+public class CountMinSketchTest {
+
+    @Test
+    public void estimateIsNeverBelowTheTrueCount() {
+        CountMinSketch sketch = new CountMinSketch(4, 64);
+        long[] counts = new long[1000];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = i % 7 + 1;
+            sketch.add("key:" + i, counts[i]);
+        }
+        for (int i = 0; i < counts.length; i++) {
+            assertTrue(sketch.add("key:" + i, 0) >= counts[i]);
+        }
+    }
+
+    @Test
+    public void hotKeyStandsOutFromColdKeys() {
+        CountMinSketch sketch = new CountMinSketch(4, 1024);
+        for (int i = 0; i < 500; i++) {
+            sketch.add("cold:" + i, 1);
+        }
+        for (int i = 0; i < 1000; i++) {
+            sketch.add("hot", 1);
+        }
+        long hot = sketch.add("hot", 0);
+        assertTrue(hot >= 1000 && hot < 1100);
+        assertTrue(sketch.add("cold:1", 0) < 100);
+    }
+
+    @Test
+    public void addReturnsTheUpdatedEstimate() {
+        CountMinSketch sketch = new CountMinSketch(3, 16);
+        assertEquals(1, sketch.add("a", 1));
+        assertEquals(6, sketch.add("a", 5));
+    }
+
+    @Test
+    public void decayHalvesTheCounts() {
+        CountMinSketch sketch = new CountMinSketch(4, 256);
+        sketch.add("a", 100);
+        sketch.add("b", 1);
+        sketch.decay();
+        assertEquals(50, sketch.add("a", 0));
+        assertEquals(0, sketch.add("b", 0));
+    }
+
+    @Test
+    public void sharedColumnsOnlyOverestimate() {
+        // 2 列时大多数 key 共用计数, 估计值偏大但不会偏小
+        CountMinSketch sketch = new CountMinSketch(1, 2);
+        for (int i = 0; i < 10; i++) {
+            sketch.add("key:" + i, 1);
+        }
+        long total = 0;
+        for (int i = 0; i < 10; i++) {
+            long estimate = sketch.add("key:" + i, 0);
+            assertTrue(estimate >= 1);
+            total += estimate;
+        }
+        assertTrue(total > 10);
+    }
+}
@@ -0,0 +1,127 @@
+package com.yll.cache.loader;
+
+import com.yll.cache.config.Y2lCacheProperties;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+/**
+ * @className: SingleFlightLoaderTest
+ * @description: //进程内合并加载: 同一个 key 并发未命中只加载一次, 加载失败时所有等待者收到同一个 CacheLoadException
+ * @author: agent
+ * @date: Created in 2026/10/18 18:40
+ * @modify by: agent
+ * @version: V1.0
+ */
+public class SingleFlightLoaderTest {
+
+    private static final int THREADS = 8;
+
+    private SingleFlightLoader loader;
+    private ExecutorService executor;
+    private final AtomicReference<Object> cache = new AtomicReference<>();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Before
+    public void setUp() {
+        loader = new SingleFlightLoader();
+        loader.properties = new Y2lCacheProperties();
+        loader.init();
+        executor = Executors.newFixedThreadPool(THREADS);
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+        loader.destroy();
+    }
+
+    /**
+     * 等其它线程都在等待这次加载之后再返回, 保证它们确实被合并
+     */
+    private void awaitWaiters() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while ((long) loader.stats().get("coalesced") < THREADS - 1 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+    }
+
+    private List<Future<Object>> loadConcurrently(Callable<?> load) {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Object>> futures = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                return loader.load("user:1", cache::get, load, cache::set);
+            }));
+        }
+        start.countDown();
+        return futures;
+    }
+
+    @Test
+    public void concurrentMissesLoadOnce() throws Exception {
+        List<Future<Object>> futures = loadConcurrently(() -> {
+            loads.incrementAndGet();
+            awaitWaiters();
+            return "loaded";
+        });
+        for (Future<Object> future : futures) {
+            assertEquals("loaded", future.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, loads.get());
+        assertEquals("loaded", cache.get());
+        assertEquals(1L, loader.stats().get("loads"));
+        assertEquals(0, loader.stats().get("inFlight"));
+    }
+
+    @Test
+    public void loaderFailureReachesEveryWaiter() throws Exception {
+        List<Future<Object>> futures = loadConcurrently(() -> {
+            loads.incrementAndGet();
+            awaitWaiters();
+            throw new IOException("db down");
+        });
+        Throwable first = null;
+        for (Future<Object> future : futures) {
+            try {
+                future.get(5, TimeUnit.SECONDS);
+                fail("加载失败时应抛出异常");
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof CacheLoadException);
+                assertTrue(e.getCause().getCause() instanceof IOException);
+                if (first == null) {
+                    first = e.getCause();
+                }
+                assertSame(first, e.getCause());
+            }
+        }
+        assertEquals(1, loads.get());
+        assertNull(cache.get());
+        assertEquals(0, loader.stats().get("inFlight"));
+        // 失败不留下记录, 下次调用重新加载
+        assertEquals("retry", loader.load("user:1", cache::get, () -> "retry", cache::set));
+        assertEquals("retry", cache.get());
+    }
+
+    @Test
+    public void valueWrittenBeforeWinningIsNotReloaded() {
+        AtomicInteger reads = new AtomicInteger();
+        // 第一次读未命中, 抢到加载之前另一次加载刚好写入
+        Object value = loader.load("user:2", () -> reads.incrementAndGet() == 1 ? null : "written", () -> {
+            loads.incrementAndGet();
+            return "loaded";
+        }, cache::set);
+        assertEquals("written", value);
+        assertEquals(0, loads.get());
+    }
+}
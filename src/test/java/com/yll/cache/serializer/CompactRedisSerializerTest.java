@@ -0,0 +1,196 @@
+package com.yll.cache.serializer;
+
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.JSONArray;
+import com.alibaba.fastjson.JSONObject;
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Test;
+import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+/**
+ * @className: CompactRedisSerializerTest
+ * @description: //紧凑格式的往返读写: 注册类字段按声明的集合类型读出, 顶层集合保持原来的类型, 未注册的类和旧数据走 jackson
+ * @author: agent
+ * @date: Created in 2026/10/18 15:00
+ * @modify by: agent
+ * @version: V1.0
+ */
+public class CompactRedisSerializerTest {
+
+    private final Jackson2JsonRedisSerializer<Object> legacy = legacy();
+    private final CompactRedisSerializer serializer = new CompactRedisSerializer(classIds(), legacy);
+
+    @Test
+    public void scalarsRoundTrip() {
+        assertNull(serializer.deserialize(serializer.serialize(null)));
+        for (Object value : Arrays.asList(true, 7, -7L, 1.5d, 2.5f, (short) 3, (byte) 4, 'c', "中文",
+                new BigDecimal("12.340"), new Date(1234567890L), Color.GREEN)) {
+            assertEquals(value, roundTrip(value));
+        }
+        assertArrayEquals(new byte[]{1, 2, 3}, (byte[]) roundTrip(new byte[]{1, 2, 3}));
+    }
+
+    @Test
+    public void defaultCollectionsRoundTrip() {
+        List<Object> list = new ArrayList<>(Arrays.asList("a", 1, null));
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("list", list);
+        map.put("set", new LinkedHashSet<>(Arrays.asList("x", "y")));
+        Object read = roundTrip(map);
+        assertEquals(LinkedHashMap.class, read.getClass());
+        assertEquals(map, read);
+        assertEquals(ArrayList.class, ((Map<?, ?>) read).get("list").getClass());
+    }
+
+    @Test
+    public void fieldsAreReadAsDeclaredType() {
+        Holder holder = new Holder();
+        holder.linkedList = new LinkedList<>(Arrays.asList("b", "a"));
+        holder.treeMap = new TreeMap<>(Collections.singletonMap("k", 1));
+        holder.hashSet = new HashSet<>(Arrays.asList("a", "b"));
+        holder.sortedSet = new TreeSet<>(Arrays.asList("b", "a"));
+        holder.deque = new ArrayDeque<>(Arrays.asList(1, 2));
+        holder.list = Arrays.asList("x", "y");
+        holder.map = Collections.singletonMap("k", "v");
+        holder.color = Color.RED;
+
+        Holder read = (Holder) roundTrip(holder);
+        assertEquals(LinkedList.class, read.linkedList.getClass());
+        assertEquals(holder.linkedList, read.linkedList);
+        assertEquals(TreeMap.class, read.treeMap.getClass());
+        assertEquals(holder.treeMap, read.treeMap);
+        assertTrue(read.hashSet instanceof HashSet);
+        assertEquals(holder.hashSet, read.hashSet);
+        assertEquals(TreeSet.class, read.sortedSet.getClass());
+        assertEquals(holder.sortedSet, read.sortedSet);
+        assertEquals(Arrays.asList(1, 2), new ArrayList<>(read.deque));
+        assertEquals(holder.list, read.list);
+        assertEquals(holder.map, read.map);
+        assertEquals(Color.RED, read.color);
+    }
+
+    @Test
+    public void topLevelCollectionsKeepTheirType() {
+        LinkedList<String> linkedList = new LinkedList<>(Arrays.asList("b", "a"));
+        Object read = roundTrip(linkedList);
+        assertEquals(LinkedList.class, read.getClass());
+        assertEquals(linkedList, read);
+
+        TreeMap<String, String> treeMap = new TreeMap<>();
+        treeMap.put("b", "2");
+        treeMap.put("a", "1");
+        read = roundTrip(treeMap);
+        assertEquals(TreeMap.class, read.getClass());
+        assertEquals(treeMap, read);
+
+        TreeSet<String> treeSet = new TreeSet<>(Arrays.asList("b", "a"));
+        read = roundTrip(Collections.singletonList(treeSet));
+        assertEquals(TreeSet.class, ((List<?>) read).get(0).getClass());
+        assertEquals(treeSet, ((List<?>) read).get(0));
+    }
+
+    @Test
+    public void fastjsonContainersAreWrittenCompact() {
+        JSONObject json = JSON.parseObject("{\"id\":1,\"user\":{\"name\":\"n\",\"tags\":[\"a\",{\"k\":\"v\"}]},\"price\":1.5}");
+        byte[] bytes = serializer.serialize(json);
+        // 不经过 jackson, 不带类名
+        assertFalse(new String(bytes, StandardCharsets.ISO_8859_1).contains("com.alibaba"));
+        Object read = serializer.deserialize(bytes);
+        assertEquals(LinkedHashMap.class, read.getClass());
+        assertEquals(json, read);
+        Map<?, ?> user = (Map<?, ?>) ((Map<?, ?>) read).get("user");
+        assertEquals(LinkedHashMap.class, user.getClass());
+        List<?> tags = (List<?>) user.get("tags");
+        assertEquals(ArrayList.class, tags.getClass());
+        assertEquals(LinkedHashMap.class, tags.get(1).getClass());
+
+        JSONArray array = JSON.parseArray("[1,{\"k\":[true]}]");
+        read = roundTrip(array);
+        assertEquals(ArrayList.class, read.getClass());
+        assertEquals(array, read);
+    }
+
+    @Test
+    public void unregisteredClassUsesJackson() {
+        Unregistered value = new Unregistered();
+        value.name = "n";
+        value.tags = new ArrayList<>(Collections.singletonList("t"));
+        Unregistered read = (Unregistered) roundTrip(value);
+        assertEquals("n", read.name);
+        assertEquals(value.tags, read.tags);
+    }
+
+    @Test
+    public void legacyJacksonBytesAreStillReadable() {
+        Unregistered value = new Unregistered();
+        value.name = "old";
+        value.tags = new ArrayList<>(Arrays.asList("a", "b"));
+        byte[] old = legacy.serialize(value);
+        assertNotEquals(CompactRedisSerializer.MAGIC, old[0]);
+        Unregistered read = (Unregistered) serializer.deserialize(old);
+        assertEquals("old", read.name);
+        assertEquals(value.tags, read.tags);
+
+        TreeMap<String, String> map = new TreeMap<>(Collections.singletonMap("k", "v"));
+        assertEquals(map, serializer.deserialize(legacy.serialize(map)));
+        assertEquals("plain", serializer.deserialize(legacy.serialize("plain")));
+    }
+
+    @Test
+    public void compactIsSmallerThanJackson() {
+        Holder holder = new Holder();
+        holder.linkedList = new LinkedList<>(Arrays.asList("a", "b", "c"));
+        assertTrue(serializer.serialize(holder).length < legacy.serialize(holder).length);
+    }
+
+    private Object roundTrip(Object value) {
+        return serializer.deserialize(serializer.serialize(value));
+    }
+
+    private static Map<Integer, Class<?>> classIds() {
+        Map<Integer, Class<?>> classIds = new LinkedHashMap<>();
+        classIds.put(1, Holder.class);
+        classIds.put(2, Color.class);
+        return classIds;
+    }
+
+    /**
+     * 与 RedisConfiguration 中的 jackson 序列化方式相同
+     */
+    private static Jackson2JsonRedisSerializer<Object> legacy() {
+        Jackson2JsonRedisSerializer<Object> serializer = new Jackson2JsonRedisSerializer<>(Object.class);
+        ObjectMapper om = new ObjectMapper();
+        om.setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.ANY);
+        om.enableDefaultTyping(ObjectMapper.DefaultTyping.NON_FINAL);
+        serializer.setObjectMapper(om);
+        return serializer;
+    }
+
+    enum Color {
+        RED, GREEN
+    }
+
+    static class Holder {
+        private LinkedList<String> linkedList;
+        private TreeMap<String, Integer> treeMap;
+        private HashSet<String> hashSet;
+        private SortedSet<String> sortedSet;
+        private Deque<Integer> deque;
+        private List<String> list;
+        private Map<String, String> map;
+        private Color color;
+    }
+
+    static class Unregistered {
+        private String name;
+        private List<String> tags;
+    }
+}
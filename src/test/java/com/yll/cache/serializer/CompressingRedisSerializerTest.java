@@ -0,0 +1,110 @@
+package com.yll.cache.serializer;
+
+import org.junit.Test;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * @className: CompressingRedisSerializerTest
+ * @description: //达到阈值才压缩, 按 MARKER 识别压缩数据, 未压缩和压缩前写入的数据原样交给实际的序列化方式
+ * @author: agent
+ * @date: Created in 2026/10/18 15:30
+ * @modify by: agent
+ * @version: V1.0
+ */
+public class CompressingRedisSerializerTest {
+
+    private static final int THRESHOLD = 256;
+
+    private final CompressionStats stats = new CompressionStats();
+    private final CompressingRedisSerializer serializer = new CompressingRedisSerializer(new Utf8Serializer(), THRESHOLD, stats);
+
+    @Test
+    public void smallValueIsWrittenAsIs() {
+        String value = repeat("a", THRESHOLD - 1);
+        byte[] bytes = serializer.serialize(value);
+        assertArrayEquals(value.getBytes(StandardCharsets.UTF_8), bytes);
+        assertEquals(value, serializer.deserialize(bytes));
+        assertEquals(0L, stats.stats().get("compressedCount"));
+    }
+
+    @Test
+    public void valueAtThresholdIsCompressed() {
+        String value = repeat("abcd", THRESHOLD / 4);
+        byte[] bytes = serializer.serialize(value);
+        assertEquals(CompressingRedisSerializer.MARKER, bytes[0]);
+        assertEquals(CompressingRedisSerializer.CODEC_LZ4, bytes[1]);
+        assertTrue(bytes.length < THRESHOLD);
+        assertEquals(value, serializer.deserialize(bytes));
+        assertEquals(1L, stats.stats().get("compressedCount"));
+        assertEquals(1L, stats.stats().get("decompressedCount"));
+    }
+
+    @Test
+    public void incompressibleValueIsWrittenAsIs() {
+        byte[] random = new byte[THRESHOLD * 4];
+        new Random(1).nextBytes(random);
+        // 避免随机数据碰巧以 MARKER 开头
+        random[0] = 'x';
+        String value = new String(random, StandardCharsets.ISO_8859_1);
+        Utf8Serializer latin = new Utf8Serializer(StandardCharsets.ISO_8859_1);
+        CompressingRedisSerializer compressing = new CompressingRedisSerializer(latin, THRESHOLD, stats);
+        byte[] bytes = compressing.serialize(value);
+        assertArrayEquals(random, bytes);
+        assertEquals(value, compressing.deserialize(bytes));
+        assertEquals(1L, stats.stats().get("skippedCount"));
+    }
+
+    @Test
+    public void uncompressedDataIsPassedThrough() {
+        String old = repeat("old", THRESHOLD);
+        assertEquals(old, serializer.deserialize(old.getBytes(StandardCharsets.UTF_8)));
+        assertNull(serializer.deserialize(null));
+        assertNull(serializer.serialize(null));
+        assertEquals(0L, stats.stats().get("decompressedCount"));
+    }
+
+    @Test
+    public void markerWithoutPayloadIsNotTreatedAsCompressed() {
+        byte[] header = {CompressingRedisSerializer.MARKER, CompressingRedisSerializer.CODEC_LZ4, 0, 0, 0, 1};
+        assertEquals(new String(header, StandardCharsets.UTF_8), serializer.deserialize(header));
+        byte[] otherCodec = Arrays.copyOf(serializer.serialize(repeat("abcd", THRESHOLD)), 10);
+        otherCodec[1] = 'Z';
+        assertEquals(new String(otherCodec, StandardCharsets.UTF_8), serializer.deserialize(otherCodec));
+    }
+
+    private static String repeat(String s, int times) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < times; i++) {
+            builder.append(s);
+        }
+        return builder.toString();
+    }
+
+    private static class Utf8Serializer implements RedisSerializer<Object> {
+        private final java.nio.charset.Charset charset;
+
+        Utf8Serializer() {
+            this(StandardCharsets.UTF_8);
+        }
+
+        Utf8Serializer(java.nio.charset.Charset charset) {
+            this.charset = charset;
+        }
+
+        @Override
+        public byte[] serialize(Object o) {
+            return o == null ? null : ((String) o).getBytes(charset);
+        }
+
+        @Override
+        public Object deserialize(byte[] bytes) {
+            return bytes == null ? null : new String(bytes, charset);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.yll.cache.sharding;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * @className: ConsistentHashTest
+ * @description: //加节点只迁移约 1/(n+1) 的 key 且只迁到新节点, 带 {tag} 的 key 落在同一个节点
+ * @author: agent
+ * @date: Created in 2026/10/18 15:50
+ * @modify by: agent
+ * @version: V1.0
+ */
+public class ConsistentHashTest {
+
+    private static final int KEYS = 20000;
+
+    @Test
+    public void addingNodeMovesOnlyItsShare() {
+        ConsistentHash<String> ring = ring(160, "s1", "s2", "s3");
+        Map<String, String> before = assign(ring);
+        ring.add("s4", "s4");
+        int moved = 0;
+        for (Map.Entry<String, String> entry : before.entrySet()) {
+            String node = ring.get(entry.getKey());
+            if (!node.equals(entry.getValue())) {
+                assertEquals("s4", node);
+                moved++;
+            }
+        }
+        double share = moved / (double) KEYS;
+        assertTrue("moved share " + share, share > 0.15 && share < 0.35);
+    }
+
+    @Test
+    public void removingNodeRestoresPreviousPlacement() {
+        ConsistentHash<String> ring = ring(160, "s1", "s2", "s3");
+        Map<String, String> before = assign(ring);
+        ring.add("s4", "s4");
+        ring.remove("s4");
+        assertEquals(before, assign(ring));
+    }
+
+    @Test
+    public void keysAreSpreadOverAllNodes() {
+        ConsistentHash<String> ring = ring(160, "s1", "s2", "s3");
+        Map<String, Integer> counts = new HashMap<>();
+        assign(ring).values().forEach(node -> counts.merge(node, 1, Integer::sum));
+        assertEquals(3, counts.size());
+        for (int count : counts.values()) {
+            assertTrue("count " + count, count > KEYS / 3 * 0.7 && count < KEYS / 3 * 1.3);
+        }
+    }
+
+    @Test
+    public void placementDependsOnNameOnly() {
+        ConsistentHash<String> a = ring(160, "s1", "s2");
+        ConsistentHash<String> b = new ConsistentHash<>(160);
+        b.add("s2", "s2");
+        b.add("s1", "s1");
+        assertEquals(assign(a), assign(b));
+        assertEquals(320, a.size());
+    }
+
+    @Test
+    public void hashTagKeepsRelatedKeysTogether() {
+        assertEquals("user:1", ConsistentHash.hashTag("{user:1}:profile"));
+        assertEquals("1", ConsistentHash.hashTag("user:{1}:orders"));
+        assertEquals("a{}b", ConsistentHash.hashTag("a{}b"));
+        assertEquals("a{b", ConsistentHash.hashTag("a{b"));
+        assertEquals("b", ConsistentHash.hashTag("a{b}{c}"));
+
+        ConsistentHash<String> ring = ring(160, "s1", "s2", "s3", "s4");
+        for (int i = 0; i < 100; i++) {
+            String node = ring.get("{user:" + i + "}:profile");
+            assertEquals(node, ring.get("{user:" + i + "}:orders"));
+            assertEquals(node, ring.get("user:" + i));
+        }
+    }
+
+    @Test
+    public void emptyRingReturnsNull() {
+        assertNull(new ConsistentHash<String>(160).get("key"));
+    }
+
+    private static ConsistentHash<String> ring(int virtualNodes, String... names) {
+        ConsistentHash<String> ring = new ConsistentHash<>(virtualNodes);
+        for (String name : names) {
+            ring.add(name, name);
+        }
+        return ring;
+    }
+
+    private static Map<String, String> assign(ConsistentHash<String> ring) {
+        Map<String, String> map = new HashMap<>();
+        for (int i = 0; i < KEYS; i++) {
+            String key = "key:" + i;
+            map.put(key, ring.get(key));
+        }
+        return map;
+    }
+}
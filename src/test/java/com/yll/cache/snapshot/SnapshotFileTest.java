@@ -0,0 +1,159 @@
+package com.yll.cache.snapshot;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * @className: SnapshotFileTest
+ * @description: //快照文件的读写, 截断或损坏的文件要报错而不是读出错误的数据
+ * @author: agent
+ * @date: Created in 2026/10/18 16:10
+ * @modify by: agent
+ * @version: V1.0
+ */
+public class SnapshotFileTest {
+
+    private static final int HEADER = 13;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void recordsRoundTrip() throws IOException {
+        Path path = write(3);
+        try (SnapshotFile.Reader reader = new SnapshotFile.Reader(path)) {
+            assertEquals(1234L, reader.getExportedAt());
+            assertEquals(Files.size(path), reader.getSize());
+            for (int i = 0; i < 3; i++) {
+                SnapshotFile.Record record = reader.next();
+                assertArrayEquals(bytes("key:" + i), record.getKey());
+                assertEquals(i * 1000L, record.getTtlMillis());
+                assertArrayEquals(bytes("value:" + i), record.getValue());
+            }
+            assertNull(reader.next());
+        }
+    }
+
+    @Test
+    public void emptySnapshotHasOnlyTrailer() throws IOException {
+        try (SnapshotFile.Reader reader = new SnapshotFile.Reader(write(0))) {
+            assertNull(reader.next());
+        }
+    }
+
+    @Test(expected = EOFException.class)
+    public void missingTrailerIsIncomplete() throws IOException {
+        Path path = write(2);
+        truncate(path, Files.size(path) - 12);
+        readAll(path);
+    }
+
+    @Test(expected = EOFException.class)
+    public void truncatedRecordIsIncomplete() throws IOException {
+        Path path = write(2);
+        // 截在第二条记录的 value 中间
+        truncate(path, Files.size(path) - 12 - 3);
+        readAll(path);
+    }
+
+    @Test(expected = EOFException.class)
+    public void truncatedHeaderIsIncomplete() throws IOException {
+        Path path = write(1);
+        truncate(path, HEADER - 1);
+        new SnapshotFile.Reader(path).close();
+    }
+
+    @Test
+    public void wrongMagicIsRejected() throws IOException {
+        Path path = write(1);
+        byte[] bytes = Files.readAllBytes(path);
+        bytes[0] = 'X';
+        Files.write(path, bytes);
+        try {
+            new SnapshotFile.Reader(path).close();
+            fail();
+        } catch (IOException e) {
+            assertTrue(e.getMessage().contains("不是快照文件"));
+        }
+    }
+
+    @Test
+    public void negativeLengthIsCorrupt() throws IOException {
+        Path path = write(1);
+        byte[] bytes = Files.readAllBytes(path);
+        // 第一条记录的 key 长度改为 -2
+        bytes[HEADER] = (byte) 0xFF;
+        bytes[HEADER + 1] = (byte) 0xFF;
+        bytes[HEADER + 2] = (byte) 0xFF;
+        bytes[HEADER + 3] = (byte) 0xFE;
+        Files.write(path, bytes);
+        try {
+            readAll(path);
+            fail();
+        } catch (EOFException e) {
+            fail("should be reported as corrupt");
+        } catch (IOException e) {
+            assertTrue(e.getMessage().contains("已损坏"));
+        }
+    }
+
+    @Test
+    public void recordCountMismatchIsRejected() throws IOException {
+        Path path = write(2);
+        byte[] bytes = Files.readAllBytes(path);
+        bytes[bytes.length - 1] = 3;
+        Files.write(path, bytes);
+        try {
+            readAll(path);
+            fail();
+        } catch (IOException e) {
+            assertTrue(e.getMessage().contains("记录数不一致"));
+        }
+    }
+
+    @Test(expected = EOFException.class)
+    public void oversizedLengthIsIncomplete() throws IOException {
+        Path path = write(1);
+        byte[] bytes = Files.readAllBytes(path);
+        bytes[HEADER] = 0x10;
+        Files.write(path, bytes);
+        readAll(path);
+    }
+
+    private Path write(int records) throws IOException {
+        Path path = folder.newFile().toPath();
+        try (SnapshotFile.Writer writer = new SnapshotFile.Writer(path, 1234L)) {
+            for (int i = 0; i < records; i++) {
+                writer.write(bytes("key:" + i), i * 1000L, bytes("value:" + i));
+            }
+            writer.finish();
+        }
+        return path;
+    }
+
+    private static void readAll(Path path) throws IOException {
+        try (SnapshotFile.Reader reader = new SnapshotFile.Reader(path)) {
+            while (reader.next() != null) {
+                // 读到结尾
+            }
+        }
+    }
+
+    private static void truncate(Path path, long length) throws IOException {
+        Files.write(path, Arrays.copyOf(Files.readAllBytes(path), (int) length));
+    }
+
+    private static byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,77 @@
+package com.yll.cache.utils;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * @className: AsyncRedisUtilsBucketTest
+ * @description: //分桶的 key 用 RedisUtils 写入后 AsyncRedisUtils 可以读到, 反之亦然, 两边都不会创建独立的 redis key.
+ * 与 Y2lcacheApplicationTests 一样需要 application.yml 中的 redis
+ * @author: agent
+ * @date: Created in 2026/10/18 17:00
+ * @modify by: agent
+ * @version: V1.0
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = {"y2lcache.bucket.enabled=true", "y2lcache.bucket.key-prefixes=asyncbucket:"})
+public class AsyncRedisUtilsBucketTest {
+
+    private static final String KEY = "asyncbucket:1";
+    private static final String OTHER = "asyncbucket:2";
+
+    @Autowired
+    RedisUtils redisUtils;
+    @Autowired
+    AsyncRedisUtils asyncRedisUtils;
+    @Autowired
+    RedisTemplate<String, Object> redisTemplate;
+
+    @After
+    public void cleanUp() {
+        redisUtils.del(KEY, OTHER);
+    }
+
+    @Test
+    public void syncWriteIsReadByAsync() {
+        assertTrue(redisUtils.set(KEY, "sync", 60));
+        assertEquals("sync", asyncRedisUtils.get(KEY).join());
+        assertTrue(asyncRedisUtils.hasKey(KEY).join());
+        long ttl = asyncRedisUtils.getExpire(KEY).join();
+        assertTrue(ttl > 0 && ttl <= 60);
+        assertFalse(redisTemplate.hasKey(KEY));
+    }
+
+    @Test
+    public void asyncWriteIsReadBySync() {
+        assertTrue(asyncRedisUtils.set(KEY, "async").join());
+        assertEquals("async", redisUtils.get(KEY));
+        assertEquals(-1, redisUtils.getExpire(KEY));
+        assertTrue(asyncRedisUtils.expire(KEY, 60).join());
+        assertTrue(redisUtils.getExpire(KEY) > 0);
+        assertFalse(redisTemplate.hasKey(KEY));
+    }
+
+    @Test
+    public void asyncDeleteRemovesSyncWrite() {
+        redisUtils.set(KEY, "a");
+        redisUtils.set(OTHER, "b");
+        assertEquals(2L, (long) asyncRedisUtils.del(KEY, OTHER).join());
+        assertNull(redisUtils.get(KEY));
+        assertFalse(redisUtils.hasKey(OTHER));
+    }
+
+    @Test
+    public void asyncMgetReadsBucketFields() {
+        redisUtils.set(KEY, "a");
+        assertEquals(Arrays.asList("a", null), asyncRedisUtils.mget(Arrays.asList(KEY, OTHER)).join());
+    }
+}
@@ -0,0 +1,85 @@
+package com.yll.cache.utils;
+
+import com.yll.cache.bloom.BloomFilter;
+import com.yll.cache.breaker.RedisCircuitOpenException;
+import com.yll.cache.breaker.StaleStore;
+import com.yll.cache.bucket.BucketStore;
+import com.yll.cache.config.Y2lCacheProperties;
+import com.yll.cache.counter.CounterAggregator;
+import com.yll.cache.hotkey.HotKeyDetector;
+import com.yll.cache.local.LocalCache;
+import com.yll.cache.replica.ReplicaRouter;
+import com.yll.cache.sharding.ShardRouter;
+import com.yll.cache.writebehind.WriteBehindBuffer;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+/**
+ * @className: RedisUtilsStaleTest
+ * @description: //熔断打开时 get 返回最后一次从 redis 读到的值, 没有旧值时照常抛出
+ * @author: agent
+ * @date: Created in 2026/10/18 17:50
+ * @modify by: agent
+ * @version: V1.0
+ */
+public class RedisUtilsStaleTest {
+
+    private RedisUtils redisUtils;
+    private ValueOperations<String, Object> valueOperations;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        Y2lCacheProperties properties = new Y2lCacheProperties();
+        properties.getBreaker().getStale().setEnabled(true);
+        RedisTemplate<String, Object> template = mock(RedisTemplate.class);
+        valueOperations = mock(ValueOperations.class);
+        when(template.opsForValue()).thenReturn(valueOperations);
+
+        redisUtils = new RedisUtils();
+        redisUtils.properties = properties;
+        redisUtils.staleStore = new StaleStore(properties);
+        redisUtils.shardRouter = mock(ShardRouter.class);
+        when(redisUtils.shardRouter.template(anyString())).thenReturn(template);
+        redisUtils.replicaRouter = mock(ReplicaRouter.class);
+        redisUtils.localCache = mock(LocalCache.class);
+        redisUtils.hotKeyDetector = mock(HotKeyDetector.class);
+        redisUtils.bucketStore = mock(BucketStore.class);
+        redisUtils.writeBehindBuffer = mock(WriteBehindBuffer.class);
+        redisUtils.bloomFilter = mock(BloomFilter.class);
+        when(redisUtils.bloomFilter.mightContain(anyString())).thenReturn(true);
+        redisUtils.counterAggregator = mock(CounterAggregator.class);
+        when(redisUtils.counterAggregator.withPending(anyString(), isNull(), any())).thenAnswer(invocation -> invocation.getArgument(2));
+    }
+
+    @Test
+    public void servesLastValueWhileCircuitIsOpen() {
+        when(valueOperations.get("user:1")).thenReturn("v1").thenThrow(new RedisCircuitOpenException());
+        assertEquals("v1", redisUtils.get("user:1"));
+        assertEquals("v1", redisUtils.get("user:1"));
+        assertEquals(1L, redisUtils.staleStore.stats().get("served"));
+    }
+
+    @Test(expected = RedisCircuitOpenException.class)
+    public void throwsWithoutStaleValue() {
+        when(valueOperations.get("user:2")).thenThrow(new RedisCircuitOpenException());
+        redisUtils.get("user:2");
+    }
+
+    @Test(expected = RedisCircuitOpenException.class)
+    public void disabledStoreDoesNotServe() {
+        Y2lCacheProperties properties = new Y2lCacheProperties();
+        redisUtils.staleStore = new StaleStore(properties);
+        when(valueOperations.get("user:3")).thenReturn("v3").thenThrow(new RedisCircuitOpenException());
+        assertEquals("v3", redisUtils.get("user:3"));
+        redisUtils.get("user:3");
+    }
+}
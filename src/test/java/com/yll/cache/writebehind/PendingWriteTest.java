@@ -0,0 +1,92 @@
+package com.yll.cache.writebehind;
+
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * @className: PendingWriteTest
+ * @description: //PendingWrite.then 的合并结果应与先后执行两次修改相同
+ * @author: agent
+ * @date: Created in 2026/10/18 14:00
+ * @modify by: agent
+ * @version: V1.0
+ */
+public class PendingWriteTest {
+
+    @Test
+    public void valueReplacesEverythingBefore() {
+        PendingWrite newer = PendingWrite.value("b", 10);
+        assertSame(newer, PendingWrite.value("a", 0).then(newer));
+        assertSame(newer, PendingWrite.hash(items("f", 1), 0).then(newer));
+        assertSame(newer, PendingWrite.delete().then(newer));
+    }
+
+    @Test
+    public void deleteReplacesEverythingBefore() {
+        PendingWrite delete = PendingWrite.delete();
+        assertSame(delete, PendingWrite.value("a", 0).then(delete));
+        assertSame(delete, PendingWrite.hash(items("f", 1), 5).then(delete));
+    }
+
+    @Test
+    public void hashItemsAreMergedWithNewerWinning() {
+        PendingWrite merged = PendingWrite.hash(items("f1", 1, "f2", 2), 0).then(PendingWrite.hash(items("f2", 3, "f3", 4), 0));
+        assertEquals(PendingWrite.Type.HASH, merged.getType());
+        assertEquals(items("f1", 1, "f2", 3, "f3", 4), merged.getItems());
+        assertFalse(merged.isReplace());
+    }
+
+    @Test
+    public void hashKeepsEarlierTimeWhenNewerHasNone() {
+        PendingWrite first = PendingWrite.hash(items("f1", 1), 30);
+        assertEquals(30, first.then(PendingWrite.hash(items("f2", 2), 0)).getTime());
+        assertEquals(60, first.then(PendingWrite.hash(items("f2", 2), 60)).getTime());
+    }
+
+    @Test
+    public void hashAfterValueOrDeleteReplacesTheKey() {
+        PendingWrite afterValue = PendingWrite.value("a", 0).then(PendingWrite.hash(items("f", 1), 20));
+        assertEquals(PendingWrite.Type.HASH, afterValue.getType());
+        assertTrue(afterValue.isReplace());
+        assertEquals(items("f", 1), afterValue.getItems());
+        assertEquals(20, afterValue.getTime());
+
+        PendingWrite afterDelete = PendingWrite.delete().then(PendingWrite.hash(items("f", 1), 0));
+        assertTrue(afterDelete.isReplace());
+        assertEquals(items("f", 1), afterDelete.getItems());
+    }
+
+    @Test
+    public void replaceIsKeptWhenMoreItemsFollow() {
+        PendingWrite merged = PendingWrite.delete()
+                .then(PendingWrite.hash(items("f1", 1), 0))
+                .then(PendingWrite.hash(items("f2", 2), 0));
+        assertTrue(merged.isReplace());
+        assertEquals(items("f1", 1, "f2", 2), merged.getItems());
+    }
+
+    @Test
+    public void mergeKeepsAttemptsOfTheEarlierWrite() {
+        PendingWrite retried = PendingWrite.hash(items("f1", 1), 0).retry().retry();
+        assertEquals(2, retried.then(PendingWrite.hash(items("f2", 2), 0)).getAttempts());
+        assertEquals(0, retried.then(PendingWrite.value("a", 0)).getAttempts());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void mergedItemsAreImmutable() {
+        PendingWrite.hash(items("f1", 1), 0).then(PendingWrite.hash(items("f2", 2), 0)).getItems().put("f3", 3);
+    }
+
+    private static Map<String, Object> items(Object... pairs) {
+        Map<String, Object> map = new HashMap<>();
+        for (int i = 0; i < pairs.length; i += 2) {
+            map.put((String) pairs[i], pairs[i + 1]);
+        }
+        return Collections.unmodifiableMap(map);
+    }
+}
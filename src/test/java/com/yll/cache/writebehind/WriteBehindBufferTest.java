@@ -0,0 +1,199 @@
+package com.yll.cache.writebehind;
+
+import com.yll.cache.config.Y2lCacheProperties;
+import com.yll.cache.local.LocalCache;
+import com.yll.cache.sharding.ShardRouter;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * @className: WriteBehindBufferTest
+ * @description: //缓冲区的容量、正在写入的 key、失败重试和丢弃. ShardRouter 和 RedisTemplate 为 mock,
+ * 管道写入由测试控制阻塞或失败, 不需要 redis
+ * @author: agent
+ * @date: Created in 2026/10/18 18:00
+ * @modify by: agent
+ * @version: V1.0
+ */
+public class WriteBehindBufferTest {
+
+    private Y2lCacheProperties properties;
+    private RedisTemplate<String, Object> template;
+    private ExecutorService flusher;
+    /**
+     * 每次管道写入时调用, 可以阻塞或抛出异常
+     */
+    private volatile Runnable onPipeline = () -> {
+    };
+    private final AtomicInteger pipelines = new AtomicInteger();
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        properties = new Y2lCacheProperties();
+        properties.getWriteBehind().setEnabled(true);
+        properties.getWriteBehind().setCapacity(2);
+        properties.getWriteBehind().setOfferTimeout(Duration.ofMillis(50));
+        properties.getWriteBehind().setMaxAttempts(2);
+        template = mock(RedisTemplate.class);
+        when(template.executePipelined(any(SessionCallback.class))).thenAnswer(invocation -> {
+            pipelines.incrementAndGet();
+            onPipeline.run();
+            return Collections.emptyList();
+        });
+        flusher = Executors.newSingleThreadExecutor();
+    }
+
+    @After
+    public void tearDown() {
+        flusher.shutdownNow();
+    }
+
+    @SuppressWarnings("unchecked")
+    private WriteBehindBuffer buffer() {
+        WriteBehindBuffer buffer = new WriteBehindBuffer(properties);
+        buffer.localCache = mock(LocalCache.class);
+        buffer.shardRouter = mock(ShardRouter.class);
+        when(buffer.shardRouter.group(any(), any())).thenAnswer(invocation -> {
+            Map<RedisTemplate<String, Object>, List<Object>> groups = new LinkedHashMap<>();
+            groups.put(template, new ArrayList<>((Collection<Object>) invocation.getArgument(0)));
+            return groups;
+        });
+        when(buffer.shardRouter.parallel(any(), any())).thenAnswer(invocation -> {
+            Map<RedisTemplate<String, Object>, List<Object>> groups = invocation.getArgument(0);
+            BiFunction<RedisTemplate<String, Object>, List<Object>, Object> task = invocation.getArgument(1);
+            List<Object> results = new ArrayList<>();
+            groups.forEach((t, keys) -> results.add(task.apply(t, keys)));
+            return results;
+        });
+        return buffer;
+    }
+
+    /**
+     * 在后台线程 flush, 管道写入阻塞到 release 完成
+     */
+    private Future<?> blockedFlush(WriteBehindBuffer buffer, CountDownLatch release, RuntimeException failure)
+            throws InterruptedException {
+        CountDownLatch entered = new CountDownLatch(1);
+        onPipeline = () -> {
+            entered.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        };
+        Future<?> future = flusher.submit((Runnable) buffer::flush);
+        assertTrue(entered.await(5, TimeUnit.SECONDS));
+        return future;
+    }
+
+    private static Map<String, Object> items(String item, Object value) {
+        return Collections.singletonMap(item, value);
+    }
+
+    @Test
+    public void offerTimesOutWhenFull() {
+        WriteBehindBuffer buffer = buffer();
+        assertTrue(buffer.offer("a", PendingWrite.value(1, 0)));
+        assertTrue(buffer.offer("b", PendingWrite.value(2, 0)));
+        // 已在缓冲区中的 key 合并, 不占容量
+        assertTrue(buffer.offer("a", PendingWrite.value(3, 0)));
+        long start = System.nanoTime();
+        assertFalse(buffer.offer("c", PendingWrite.value(4, 0)));
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(40));
+        assertNull(buffer.get("c"));
+        assertEquals(1L, buffer.stats().get("overflowed"));
+        assertEquals(1L, buffer.stats().get("coalesced"));
+    }
+
+    @Test
+    public void inFlightKeyIsBufferedBehindFlushingWrite() throws Exception {
+        WriteBehindBuffer buffer = buffer();
+        buffer.offer("a", PendingWrite.value(1, 0));
+        CountDownLatch release = new CountDownLatch(1);
+        Future<?> flush = blockedFlush(buffer, release, null);
+        // 正在写入时读取仍以它为准
+        assertEquals(1, buffer.get("a").getValue());
+        assertTrue(buffer.offer("b", PendingWrite.value(2, 0)));
+        assertTrue(buffer.offer("c", PendingWrite.value(3, 0)));
+        // 缓冲区已满, 但正在写入的 key 不受容量限制, 排在正在写入的修改之后
+        assertTrue(buffer.offer("a", PendingWrite.value(4, 0)));
+        assertEquals(4, buffer.get("a").getValue());
+        assertFalse(buffer.offer("d", PendingWrite.value(5, 0)));
+        release.countDown();
+        flush.get(5, TimeUnit.SECONDS);
+        assertEquals(4, buffer.get("a").getValue());
+        assertEquals(3, buffer.stats().get("pending"));
+    }
+
+    @Test
+    public void failedWriteIsRequeuedAheadOfNewerWrites() throws Exception {
+        WriteBehindBuffer buffer = buffer();
+        buffer.offer("h", PendingWrite.hash(items("x", 1), 0));
+        buffer.offer("v", PendingWrite.value("old", 0));
+        CountDownLatch release = new CountDownLatch(1);
+        Future<?> flush = blockedFlush(buffer, release, new QueryTimeoutException("timeout"));
+        buffer.offer("h", PendingWrite.hash(items("y", 2), 0));
+        buffer.offer("v", PendingWrite.value("new", 0));
+        release.countDown();
+        flush.get(5, TimeUnit.SECONDS);
+        // 失败的修改放在较新的修改之前: hash 项合并, set 以新值为准
+        Map<String, Object> expected = new HashMap<>();
+        expected.put("x", 1);
+        expected.put("y", 2);
+        assertEquals(expected, buffer.get("h").getItems());
+        assertEquals("new", buffer.get("v").getValue());
+        // 合并后的 hash 沿用重试次数, 新的 set 重新计数
+        assertEquals(1, buffer.get("h").getAttempts());
+        assertEquals(0, buffer.get("v").getAttempts());
+        assertEquals(2L, buffer.stats().get("retried"));
+    }
+
+    @Test
+    public void dropsAfterMaxAttempts() {
+        WriteBehindBuffer buffer = buffer();
+        onPipeline = () -> {
+            throw new QueryTimeoutException("timeout");
+        };
+        buffer.offer("a", PendingWrite.value(1, 0));
+        for (int i = 0; i < 5 && buffer.get("a") != null; i++) {
+            buffer.flush();
+        }
+        assertNull(buffer.get("a"));
+        // 第一次写入加上 max-attempts 次重试
+        assertEquals(3, pipelines.get());
+        assertEquals(2L, buffer.stats().get("retried"));
+        assertEquals(1L, buffer.stats().get("dropped"));
+        assertEquals(0, buffer.stats().get("pending"));
+    }
+
+    @Test
+    public void flushKeyWritesOnlyThatKey() {
+        WriteBehindBuffer buffer = buffer();
+        buffer.offer("a", PendingWrite.value(1, 0));
+        buffer.offer("b", PendingWrite.value(2, 0));
+        buffer.flush("a");
+        assertNull(buffer.get("a"));
+        assertEquals(2, buffer.get("b").getValue());
+        assertEquals(1, pipelines.get());
+    }
+}